@@ -0,0 +1,227 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.temporalNetwork.ArrayTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.AttributesTimeline;
+import org.graphstream.graph.temporalNetwork.InvalidTimeWindowException;
+import org.graphstream.graph.temporalNetwork.TemporalTimeline;
+import org.graphstream.graph.temporalNetwork.TimeWindow;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+/**
+ *
+ */
+public class TestArrayTemporalTimeline {
+    @Test
+    public void testExistsAt() {
+        ArrayTemporalTimeline<Boolean> ttl = new ArrayTemporalTimeline<>();
+
+        ttl.insertTimeWindow(20, 30, true);
+        ttl.insertTimeWindow(0, 10, true);
+
+        Assert.assertEquals(2, ttl.size());
+        Assert.assertTrue(ttl.existsAt(0));
+        Assert.assertTrue(ttl.existsAt(5));
+        Assert.assertFalse(ttl.existsAt(10));
+        Assert.assertFalse(ttl.existsAt(15));
+        Assert.assertTrue(ttl.existsAt(20));
+        Assert.assertTrue(ttl.existsAt(25));
+        Assert.assertFalse(ttl.existsAt(30));
+        Assert.assertFalse(ttl.existsAt(35));
+        Assert.assertFalse(ttl.existsAt(-5));
+    }
+
+    @Test
+    public void testInsert() {
+        ArrayTemporalTimeline<Double> ttl = new ArrayTemporalTimeline<>();
+        double[][] dates = {{0, 10, 123.45}, {20, 30, 678.90}, {40, 50, 13.37}};
+
+        for (int i = dates.length - 1; i >= 0; i--) {
+            ttl.insertTimeWindow(dates[i][0], dates[i][1], dates[i][2]);
+        }
+
+        int k = 0;
+
+        for (TimeWindow tw : ttl) {
+            Assert.assertTrue(tw.getStartDate() == dates[k][0]);
+            Assert.assertTrue(tw.getEndDate() == dates[k][1]);
+            Assert.assertTrue(ttl.getValueAt(tw) == dates[k][2]);
+            Assert.assertTrue(ttl.getValueAt(dates[k][0] + 5) == dates[k][2]);
+
+            k++;
+        }
+
+        Assert.assertEquals(dates.length, k);
+    }
+
+    @Test
+    public void testBeginEnd() {
+        ArrayTemporalTimeline<Double> ttl = new ArrayTemporalTimeline<>();
+
+        try {
+            ttl.endTimeWindow(1);
+            Assert.fail();
+        } catch (InvalidTimeWindowException e) {
+            Assert.assertNotNull(e);
+        }
+
+        ttl.startTimeWindow(1.0, 13.37);
+
+        for (TimeWindow timeWindow : ttl) {
+            Assert.assertTrue(timeWindow.getStartDate() == 1.0);
+            Assert.assertFalse(timeWindow.isEnded());
+            Assert.assertTrue(ttl.getValueAt(timeWindow) == 13.37);
+        }
+
+        ttl.endTimeWindow(5.0);
+
+        for (TimeWindow timeWindow : ttl) {
+            Assert.assertTrue(timeWindow.getStartDate() == 1.0);
+            Assert.assertTrue(timeWindow.isEnded());
+            Assert.assertTrue(timeWindow.getEndDate() == 5.0);
+            Assert.assertTrue(ttl.getValueAt(timeWindow) == 13.37);
+        }
+
+        try {
+            ttl.endTimeWindow(6.0);
+            Assert.fail();
+        } catch (InvalidTimeWindowException e) {
+            Assert.assertNotNull(e);
+        }
+
+        try {
+            ttl.startTimeWindow(4.0, 73.31);
+            Assert.fail();
+        } catch (InvalidTimeWindowException e) {
+            Assert.assertNotNull(e);
+        }
+
+        ttl.startTimeWindow(10.0, 73.31);
+        ttl.startTimeWindow(20.0, 42.0);
+
+        Assert.assertEquals(3, ttl.size());
+        Assert.assertTrue(ttl.getValueAt(15.0) == 73.31);
+        Assert.assertTrue(ttl.getValueAt(100.0) == 42.0);
+        Assert.assertNull(ttl.getValueAt(7.0));
+    }
+
+    @Test
+    public void testFloorCeiling() {
+        ArrayTemporalTimeline<Double> ttl = new ArrayTemporalTimeline<>();
+
+        ttl.insertTimeWindow(10, 20, 1.0);
+        ttl.insertTimeWindow(30, 40, 2.0);
+
+        Assert.assertNull(ttl.getFloorTimeWindow(5));
+        Assert.assertEquals(10, ttl.getCeilingTimeWindow(5).getStartDate(), 0);
+        Assert.assertEquals(10, ttl.getFloorTimeWindow(15).getStartDate(), 0);
+        Assert.assertEquals(10, ttl.getCeilingTimeWindow(15).getStartDate(), 0);
+        Assert.assertEquals(10, ttl.getFloorTimeWindow(25).getStartDate(), 0);
+        Assert.assertEquals(30, ttl.getCeilingTimeWindow(25).getStartDate(), 0);
+        Assert.assertEquals(30, ttl.getFloorTimeWindow(45).getStartDate(), 0);
+        Assert.assertNull(ttl.getCeilingTimeWindow(45));
+    }
+
+    @Test
+    public void testWindowView() {
+        ArrayTemporalTimeline<Double> ttl = new ArrayTemporalTimeline<>();
+
+        ttl.insertTimeWindow(10, 20, 13.37);
+        ttl.insertTimeWindow(20, 30, 73.31);
+
+        ttl.getFloorTimeWindow(12).setStartDate(15);
+        ttl.getFloorTimeWindow(25).setEndDate(35);
+
+        Iterator<TimeWindow> it = ttl.iterator();
+        TimeWindow tw = it.next();
+
+        Assert.assertTrue(tw.getStartDate() == 15.0);
+        Assert.assertTrue(tw.getEndDate() == 20.0);
+        Assert.assertFalse(ttl.existsAt(12));
+        Assert.assertTrue(ttl.getValueAt(32) == 73.31);
+
+        it.remove();
+
+        Assert.assertEquals(1, ttl.size());
+        Assert.assertFalse(ttl.existsAt(17));
+    }
+
+    @Test
+    public void testSameBehaviourAsTreeTimeline() {
+        TemporalTimeline<Integer> tree = new TemporalTimeline<>();
+        ArrayTemporalTimeline<Integer> array = new ArrayTemporalTimeline<>();
+
+        for (int i = 0; i < 100; i++) {
+            tree.startTimeWindow(i * 10, i);
+            array.startTimeWindow(i * 10, i);
+
+            if (i % 3 == 0) {
+                tree.endTimeWindow(i * 10 + 5);
+                array.endTimeWindow(i * 10 + 5);
+            }
+        }
+
+        for (double date = -10; date < 1100; date += 0.5) {
+            Assert.assertEquals(tree.existsAt(date), array.existsAt(date));
+            Assert.assertEquals(tree.getValueAt(date), array.getValueAt(date));
+        }
+    }
+
+    @Test
+    public void testAttributesOverArrayTimeline() {
+        AttributesTimeline atl = new AttributesTimeline() {
+            @Override
+            public void setAttributeAt(String key, double date, Object... values) {
+                if (getAttributeTimeline(key) == null) {
+                    putTimeline(dictionary.intern(key), new ArrayTemporalTimeline<>());
+                }
+
+                super.setAttributeAt(key, date, values);
+            }
+        };
+
+        atl.setAttributeAt("test", 1.0, 13.37);
+        atl.setAttributeAt("test", 20.0, 4.2);
+        atl.setAttributeAt("test", 10.0, 12.34);
+        atl.removeAttributeAt("test", 15.0);
+
+        Assert.assertNull(atl.getAttributeAt("test", 0.0));
+        Assert.assertEquals(13.37, atl.<Double>getAttributeAt("test", 5.0), 0);
+        Assert.assertEquals(12.34, atl.<Double>getAttributeAt("test", 12.0), 0);
+        Assert.assertNull(atl.getAttributeAt("test", 17.0));
+        Assert.assertEquals(4.2, atl.<Double>getAttributeAt("test", 25.0), 0);
+    }
+}
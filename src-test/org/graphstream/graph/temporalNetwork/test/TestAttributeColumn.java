@@ -0,0 +1,138 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.temporalNetwork.AttributeColumn;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *
+ */
+public class TestAttributeColumn {
+    @Test
+    public void testSameValuesAsAttributes() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(97531);
+        network.getTemporalNode("n0").setAttributeAt("x", 50.5, "not a number");
+
+        double[] out = new double[network.getTotalNodeCount()];
+
+        for (double date = -2; date < 102; date += 0.25) {
+            network.readNodeColumnAt("x", date, out);
+
+            for (int i = 0; i < out.length; i++) {
+                Assert.assertEquals(network.getTemporalNode(i).getAttributesTimeline().getNumberAt("x", date),
+                        out[i], 0);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidation() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 0);
+        network.addEdgeAt("AB", "A", "B", false, 0).setAttributeAt("weight", 0, 1.0);
+
+        AttributeColumn column = network.getEdgeColumn("weight");
+        Assert.assertSame(column, network.getEdgeColumn("weight"));
+
+        network.getTemporalNode("A").setAttributeAt("weight", 1, 3.0);
+        Assert.assertSame(column, network.getEdgeColumn("weight"));
+
+        network.getTemporalEdge("AB").setAttributeAt("weight", 10, 2.0);
+        Assert.assertNotSame(column, network.getEdgeColumn("weight"));
+
+        network.addEdgeAt("BA", "B", "A", false, 5);
+        Assert.assertEquals(2, network.getEdgeColumn("weight").size());
+
+        double[] out = new double[2];
+        network.readEdgeColumnAt("weight", 12, out);
+        Assert.assertArrayEquals(new double[]{2.0, Double.NaN}, out, 0);
+
+        network.getTemporalEdge("AB").removeAttributeAt("weight", 11);
+        network.readEdgeColumnAt("weight", 12, out);
+        Assert.assertArrayEquals(new double[]{Double.NaN, Double.NaN}, out, 0);
+    }
+
+    @Test
+    public void testParallelRead() {
+        Random random = new Random(8642);
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        int edges = 2000;
+
+        network.setArrayTimelines(true);
+
+        for (int i = 0; i < 1000; i++) {
+            network.addNodeAt("n" + i, 0);
+        }
+
+        for (int i = 0; i < edges; i++) {
+            network.addEdgeAt("e" + i, "n" + random.nextInt(1000), "n" + random.nextInt(1000), false, 0);
+        }
+
+        // attributes are set in date order, as a network is usually loaded
+        for (int step = 0; step < 100; step++) {
+            for (int i = random.nextInt(10); i < edges; i += 1 + random.nextInt(10)) {
+                network.getTemporalEdge(i).setAttributeAt("weight", step, random.nextDouble());
+            }
+        }
+
+        AttributeColumn column = network.getEdgeColumn("weight");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        double[] sequential = new double[edges], parallel = new double[edges];
+
+        try {
+            for (double date = 0; date < 100; date += 7.5) {
+                column.readAt(date, sequential);
+                column.readAt(date, parallel, pool);
+
+                Assert.assertArrayEquals(sequential, parallel, 0);
+                Assert.assertEquals(network.getTemporalEdge(123).getAttributesTimeline().getNumberAt("weight", date),
+                        parallel[123], 0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutputTooSmall() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(1);
+        network.readNodeColumnAt("x", 0, new double[1]);
+    }
+}
@@ -31,10 +31,19 @@
  */
 package org.graphstream.graph.temporalNetwork.test;
 
+import org.graphstream.graph.TemporalNode;
 import org.graphstream.graph.temporalNetwork.AttributesTimeline;
+import org.graphstream.graph.temporalNetwork.ConcurrentAttributesTimeline;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.KeyDictionary;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+
 /**
  * @author Guilhelm Savin
  * @since 20/01/16.
@@ -66,6 +75,28 @@ public class TestAttributesTimeline {
         Assert.assertEquals(atl.getAttributeAt("test", 4.0), 4.2);
     }
 
+    @Test
+    public void testSetAttributeAtInThePast() {
+        AttributesTimeline atl = new AttributesTimeline();
+        atl.setAttributeAt("test", 1.0, 13.37);
+        atl.setAttributeAt("test", 20.0, 4.2);
+        atl.removeAttributeAt("test", 30.0);
+        atl.setAttributeAt("test", 10.0, 12.34);
+        atl.setAttributeAt("test", 25.0, 73.31);
+        atl.setAttributeAt("test", 40.0, 1.0);
+        atl.setAttributeAt("test", 35.0, 2.0);
+        atl.setAttributeAt("test", 1.0, 3.0);
+
+        Assert.assertNull(atl.getAttributeAt("test", 0.0));
+        Assert.assertEquals(atl.getAttributeAt("test", 5.0), 3.0);
+        Assert.assertEquals(atl.getAttributeAt("test", 15.0), 12.34);
+        Assert.assertEquals(atl.getAttributeAt("test", 22.0), 4.2);
+        Assert.assertEquals(atl.getAttributeAt("test", 27.0), 73.31);
+        Assert.assertNull(atl.getAttributeAt("test", 32.0));
+        Assert.assertEquals(atl.getAttributeAt("test", 37.0), 2.0);
+        Assert.assertEquals(atl.getAttributeAt("test", 50.0), 1.0);
+    }
+
     @Test
     public void testRemoveAttributeAt() {
         AttributesTimeline atl = new AttributesTimeline();
@@ -124,4 +155,126 @@ public class TestAttributesTimeline {
         Assert.assertEquals(atl.getAttributesCountAt(10.0), 0);
         Assert.assertEquals(atl.getAttributesCountAt(20.0), 1);
     }
+
+    @Test
+    public void testKeyDictionary() {
+        KeyDictionary dictionary = new KeyDictionary();
+        AttributesTimeline a = new AttributesTimeline(dictionary, true);
+        AttributesTimeline b = new AttributesTimeline(dictionary, false);
+
+        for (int i = 20; i > 0; i--) {
+            a.setAttributeAt("k" + i, i, i);
+        }
+
+        b.setAttributeAt("k3", 0, "three");
+        b.setAttributeAt("other", 0, 1.5);
+
+        Assert.assertEquals(21, dictionary.size());
+        Assert.assertEquals(-1, dictionary.getIndex("missing"));
+
+        int k3 = dictionary.getIndex("k3");
+        Assert.assertEquals("k3", dictionary.getKey(k3));
+        Assert.assertEquals(3, a.getAttributeAt(k3, 3));
+        Assert.assertEquals("three", b.getAttributeAt(k3, 3));
+        Assert.assertEquals(3, a.getNumberAt(k3, 10), 0);
+        Assert.assertTrue(a.hasAttributeAt(k3, 3));
+        Assert.assertFalse(a.hasAttributeAt(k3, 2));
+        Assert.assertFalse(a.hasAttributeAt(dictionary.getIndex("other"), 10));
+        Assert.assertFalse(a.hasAttributeAt(-1, 10));
+
+        Assert.assertEquals(20, a.getKeys().size());
+        Assert.assertTrue(a.getKeys().contains("k20"));
+        Assert.assertFalse(a.getKeys().contains("other"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("k3", "other")), new HashSet<>(b.getKeys()));
+
+        HashSet<String> keys = new HashSet<>();
+        Iterator<String> it = a.getKeyIteratorAt(5);
+
+        while (it.hasNext()) {
+            keys.add(it.next());
+        }
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("k1", "k2", "k3", "k4", "k5")), keys);
+        Assert.assertEquals(5, a.getAttributesCountAt(5));
+    }
+
+    @Test
+    public void testNetworkKeyDictionary() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        TemporalNode a = network.addNodeAt("A", 0);
+        TemporalNode b = network.addNodeAt("B", 0);
+
+        a.setAttributeAt("weight", 1, 1.0);
+        b.setAttributeAt("weight", 1, 2.0);
+        network.addEdgeAt("AB", "A", "B", false, 2).setAttributeAt("label", 2, "ab");
+
+        Assert.assertSame(network.getKeyDictionary(), a.getAttributesTimeline().getKeyDictionary());
+        Assert.assertSame(network.getKeyDictionary(), b.getAttributesTimeline().getKeyDictionary());
+        Assert.assertEquals(2, network.getKeyDictionary().size());
+        Assert.assertEquals(2.0, network.getGraphAt(3).getNode("B").getNumber("weight"), 0);
+        Assert.assertEquals("ab", network.getGraphAt(3).getEdge("AB").getAttribute("label"));
+    }
+
+    @Test
+    public void testKeysAt() {
+        assertKeysAt(new AttributesTimeline(true));
+        assertKeysAt(new AttributesTimeline(false));
+        assertKeysAt(new ConcurrentAttributesTimeline());
+    }
+
+    /**
+     * Change attributes at random dates, checking the keys at each date from time to time, so that the keys are
+     * counted both from steps built at once and from steps updated by the changes.
+     */
+    protected void assertKeysAt(AttributesTimeline atl) {
+        Random random = new Random(3579);
+
+        for (int i = 0; i < 2000; i++) {
+            String key = "k" + random.nextInt(8);
+            double date = random.nextInt(500) / 2.0;
+            int change = random.nextInt(30);
+
+            if (change == 0) {
+                atl.clearAttributesAt(date);
+            } else if (change < 10) {
+                atl.removeAttributeAt(key, date);
+            } else {
+                atl.setAttributeAt(key, date, i);
+            }
+
+            if (i % 100 != 0) {
+                continue;
+            }
+
+            for (double d = -1; d < 252; d += 0.5) {
+                HashSet<String> expected = new HashSet<>(), actual = new HashSet<>();
+
+                for (String k : atl.getKeys()) {
+                    if (atl.hasAttributeAt(k, d)) {
+                        expected.add(k);
+                    }
+                }
+
+                Iterator<String> it = atl.getKeyIteratorAt(d);
+
+                while (it.hasNext()) {
+                    Assert.assertTrue(actual.add(it.next()));
+                }
+
+                Assert.assertEquals(expected, actual);
+                Assert.assertEquals(expected.size(), atl.getAttributesCountAt(d));
+
+                for (int k = 0; k < expected.size(); k++) {
+                    Assert.assertTrue(expected.contains(atl.getKeyAt(d, k)));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testKeyAtOutOfRange() {
+        AttributesTimeline atl = new AttributesTimeline();
+        atl.setAttributeAt("a", 1, 1);
+        atl.getKeyAt(1, 1);
+    }
 }
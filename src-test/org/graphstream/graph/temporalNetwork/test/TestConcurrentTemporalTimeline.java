@@ -0,0 +1,403 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.temporalNetwork.ArrayTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.AttributesTimeline;
+import org.graphstream.graph.temporalNetwork.ConcurrentAttributesTimeline;
+import org.graphstream.graph.temporalNetwork.ConcurrentTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.NeighbourTimeline;
+import org.graphstream.graph.temporalNetwork.TimeWindow;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stress the concurrent timelines with plain threads : writers publish how far they went, and readers check
+ * that every lookup below this point sees the completed changes.
+ */
+public class TestConcurrentTemporalTimeline {
+    static final int THREADS = 4;
+    static final int STEPS = 2000;
+
+    @Test
+    public void testSameBehaviourAsArrayTimeline() {
+        Random random = new Random(2468);
+        ArrayTemporalTimeline<Integer> array = new ArrayTemporalTimeline<>();
+        ConcurrentTemporalTimeline<Integer> concurrent = new ConcurrentTemporalTimeline<>();
+
+        for (int i = 0; i < 500; i++) {
+            double start = random.nextInt(10000);
+
+            if (array.existsAt(start) || array.existsAt(start + 5)) {
+                continue;
+            }
+
+            array.insertTimeWindow(start, start + 5, i);
+            concurrent.insertTimeWindow(start, start + 5, i);
+        }
+
+        Iterator<TimeWindow> a = array.iterator(), b = concurrent.iterator();
+
+        while (a.hasNext()) {
+            TimeWindow tw = a.next(), tx = b.next();
+
+            if (random.nextInt(5) == 0) {
+                a.remove();
+                b.remove();
+            } else if (random.nextInt(5) == 0) {
+                tw.setEndDate(tw.getEndDate() - 1);
+                tx.setEndDate(tx.getEndDate() - 1);
+            }
+        }
+
+        Assert.assertFalse(b.hasNext());
+        Assert.assertEquals(array.size(), concurrent.size());
+
+        array.startTimeWindow(20000, -1);
+        concurrent.startTimeWindow(20000, -1);
+        Assert.assertTrue(concurrent.hasOpenTimeWindow());
+        array.endTimeWindow(20010);
+        concurrent.endTimeWindow(20010);
+
+        for (double date = -10; date < 20020; date += 0.5) {
+            Assert.assertEquals(array.existsAt(date), concurrent.existsAt(date));
+            Assert.assertEquals(array.getValueAt(date), concurrent.getValueAt(date));
+
+            TimeWindow floor = array.getFloorTimeWindow(date), ceiling = array.getCeilingTimeWindow(date);
+
+            Assert.assertEquals(floor == null ? null : floor.getStartDate(),
+                    concurrent.getFloorTimeWindow(date) == null ? null : concurrent.getFloorTimeWindow(date).getStartDate());
+            Assert.assertEquals(ceiling == null ? null : ceiling.getStartDate(),
+                    concurrent.getCeilingTimeWindow(date) == null ? null : concurrent.getCeilingTimeWindow(date).getStartDate());
+        }
+    }
+
+    @Test
+    public void testSameAttributesAsSequential() {
+        Random random = new Random(1357);
+        AttributesTimeline sequential = new AttributesTimeline(true);
+        ConcurrentAttributesTimeline concurrent = new ConcurrentAttributesTimeline();
+
+        for (int i = 0; i < 3000; i++) {
+            String key = "k" + random.nextInt(6);
+            double date = random.nextInt(400) / 4.0;
+
+            if (random.nextInt(4) == 0) {
+                sequential.removeAttributeAt(key, date);
+                concurrent.removeAttributeAt(key, date);
+            } else {
+                sequential.setAttributeAt(key, date, i);
+                concurrent.setAttributeAt(key, date, i);
+            }
+        }
+
+        sequential.clearAttributesAt(90);
+        concurrent.clearAttributesAt(90);
+
+        Assert.assertEquals(sequential.getKeys(), concurrent.getKeys());
+
+        for (double date = -1; date < 101; date += 0.125) {
+            Assert.assertEquals(sequential.getAttributesCountAt(date), concurrent.getAttributesCountAt(date));
+
+            for (String key : sequential.getKeys()) {
+                Assert.assertEquals(sequential.getAttributeAt(key, date), concurrent.getAttributeAt(key, date));
+            }
+        }
+    }
+
+    /**
+     * One writer per timeline sets a value at each integer date and ends it half-way, readers check all the
+     * dates which have been published.
+     */
+    @Test
+    public void testLinearizablePointLookups() throws Throwable {
+        final List<ConcurrentTemporalTimeline<Integer>> timelines = new ArrayList<>();
+        final List<AtomicInteger> published = new ArrayList<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            timelines.add(new ConcurrentTemporalTimeline<Integer>());
+            published.add(new AtomicInteger());
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            final ConcurrentTemporalTimeline<Integer> ttl = timelines.get(t);
+            final AtomicInteger done = published.get(t);
+
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+
+                    for (int k = 0; k < STEPS; k++) {
+                        ttl.setValueFrom(k, k);
+                        ttl.endValueAt(k + 0.5);
+                        done.set(k + 1);
+                    }
+                }
+            }));
+
+            final long seed = t;
+
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    await(start);
+
+                    try {
+                        while (published.get((int) seed).get() < STEPS) {
+                            int i = random.nextInt(THREADS);
+                            int c = published.get(i).get();
+
+                            if (c == 0) {
+                                continue;
+                            }
+
+                            double date = random.nextInt(2 * c) / 2.0;
+                            Integer value = timelines.get(i).getValueAt(date);
+
+                            if (date % 1 == 0) {
+                                Assert.assertEquals(Integer.valueOf((int) date), value);
+                            } else {
+                                Assert.assertNull(value);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+
+        run(threads, start, failure);
+
+        for (ConcurrentTemporalTimeline<Integer> ttl : timelines) {
+            Assert.assertEquals(STEPS, ttl.size());
+        }
+    }
+
+    /**
+     * Threads set attributes of their own nodes, with keys shared by all the threads, and the result is
+     * compared with the same changes done by a single thread.
+     */
+    @Test
+    public void testParallelWritersOnNetwork() throws Throwable {
+        final DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        DefaultTemporalNetwork sequential = new DefaultTemporalNetwork();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        network.setConcurrentTimelines(true);
+
+        for (int i = 0; i < THREADS * 10; i++) {
+            network.addNodeAt("n" + i, 0);
+            sequential.addNodeAt("n" + i, 0);
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+
+                    try {
+                        change(network, thread);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+
+        run(threads, start, failure);
+
+        for (int t = 0; t < THREADS; t++) {
+            change(sequential, t);
+        }
+
+        Assert.assertEquals(sequential.getEventLog().size(), network.getEventLog().size());
+
+        for (double date = -1; date < 101; date += 0.5) {
+            TestSnapshotCursor.assertSameGraph(sequential.getGraphAt(date), network.getGraphAt(date));
+        }
+    }
+
+    /**
+     * Threads add and remove their own edges, which all share the same hub and have their other endpoint shared
+     * with the edges of the next thread, and the incidence of the nodes is compared with the same changes done
+     * by a single thread.
+     */
+    @Test
+    public void testParallelEdgeWritersWithCommonEndpoints() throws Throwable {
+        final DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        DefaultTemporalNetwork sequential = new DefaultTemporalNetwork();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        network.setConcurrentTimelines(true);
+
+        for (DefaultTemporalNetwork n : new DefaultTemporalNetwork[]{network, sequential}) {
+            n.addNodeAt("hub", 0);
+
+            for (int t = 0; t < THREADS; t++) {
+                n.addNodeAt("n" + t, 0);
+            }
+
+            for (int t = 0; t < THREADS; t++) {
+                for (int i = 0; i < 10; i++) {
+                    String other = "n" + (i % 2 == 0 ? t : (t + 1) % THREADS);
+                    n.addEdgeAt(t + "_" + i, i % 3 == 0 ? "hub" : other, i % 3 == 0 ? other : "hub", i % 4 == 0, 0);
+                }
+            }
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+
+                    try {
+                        toggleEdges(network, thread);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+
+        run(threads, start, failure);
+
+        for (int t = 0; t < THREADS; t++) {
+            toggleEdges(sequential, t);
+        }
+
+        for (double date = -1; date < STEPS + 1; date += 7.5) {
+            for (int i = 0; i < network.getTotalNodeCount(); i++) {
+                NeighbourTimeline expected = sequential.getTemporalNode(i).getNeighbourTimeline();
+                NeighbourTimeline actual = network.getTemporalNode(i).getNeighbourTimeline();
+
+                Assert.assertEquals(expected.getDegreeAt(date), actual.getDegreeAt(date));
+                Assert.assertEquals(expected.getInDegreeAt(date), actual.getInDegreeAt(date));
+                Assert.assertEquals(expected.getOutDegreeAt(date), actual.getOutDegreeAt(date));
+
+                int[] e = expected.getEdgeIndicesAt(date), a = actual.getEdgeIndicesAt(date);
+                Arrays.sort(e);
+                Arrays.sort(a);
+                Assert.assertArrayEquals(e, a);
+            }
+        }
+    }
+
+    static void toggleEdges(DefaultTemporalNetwork network, int thread) {
+        Random random = new Random(thread);
+
+        for (int k = 1; k < STEPS; k++) {
+            TemporalEdge edge = network.getTemporalEdge(thread + "_" + random.nextInt(10));
+
+            if (edge.getElementTimeline().hasOpenTimeWindow()) {
+                edge.removeAt(k);
+            } else {
+                edge.addAt(k);
+            }
+        }
+    }
+
+    static void change(DefaultTemporalNetwork network, int thread) {
+        Random random = new Random(thread);
+
+        for (int k = 0; k < 500; k++) {
+            TemporalNode node = network.getTemporalNode(thread * 10 + random.nextInt(10));
+            double date = random.nextInt(200) / 2.0;
+
+            switch (random.nextInt(4)) {
+                case 0:
+                    node.removeAttributeAt("k" + random.nextInt(4), date);
+                    break;
+                case 1:
+                    if (node.getElementTimeline().hasOpenTimeWindow() && date > 0) {
+                        node.removeAt(date);
+                    }
+
+                    break;
+                default:
+                    node.setAttributeAt("k" + random.nextInt(4), date, thread * 1000 + k);
+            }
+        }
+    }
+
+    static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static void run(List<Thread> threads, CountDownLatch start, AtomicReference<Throwable> failure)
+            throws Throwable {
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        start.countDown();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+}
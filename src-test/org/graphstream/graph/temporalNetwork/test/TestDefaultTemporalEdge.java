@@ -0,0 +1,228 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.NeighbourTimeline;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ *
+ */
+public class TestDefaultTemporalEdge {
+    static DefaultTemporalNetwork createNetwork() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 0);
+        network.addNodeAt("C", 0);
+
+        network.addEdgeAt("AB", "A", "B", true, 0);
+        network.addEdgeAt("CA", "C", "A", true, 5);
+        network.addEdgeAt("AC", "A", "C", false, 10);
+        network.addEdgeAt("AA", "A", "A", true, 0);
+
+        network.removeEdgeAt("AB", 20);
+        network.removeEdgeAt("CA", 15);
+
+        return network;
+    }
+
+    @Test
+    public void testRegistration() {
+        DefaultTemporalNetwork network = createNetwork();
+        TemporalEdge edge = network.getTemporalEdge("AB");
+
+        Assert.assertEquals(4, network.getTotalEdgeCount());
+        Assert.assertEquals(0, edge.getIndex());
+        Assert.assertSame(network.getTemporalNode("A"), edge.getSourceNode());
+        Assert.assertSame(network.getTemporalNode("B"), edge.getTargetNode());
+
+        NeighbourTimeline a = network.getTemporalNode("A").getNeighbourTimeline();
+        NeighbourTimeline b = network.getTemporalNode("B").getNeighbourTimeline();
+
+        Assert.assertEquals(3, a.getOutEdgeCount());
+        Assert.assertEquals(2, a.getInEdgeCount());
+        Assert.assertEquals(0, b.getOutEdgeCount());
+        Assert.assertEquals(1, b.getInEdgeCount());
+        Assert.assertEquals(0, b.getInEdgeIndex(0));
+
+        try {
+            network.addEdgeAt("AD", "A", "D", false, 0);
+            Assert.fail();
+        } catch (ElementNotFoundException e) {
+            Assert.assertNotNull(e);
+        }
+    }
+
+    @Test
+    public void testDegrees() {
+        DefaultTemporalNetwork network = createNetwork();
+        Node a = network.getTemporalNode("A").getNodeAt(12);
+
+        Assert.assertEquals(4, a.getDegree());
+        Assert.assertEquals(3, a.getOutDegree());
+        Assert.assertEquals(3, a.getInDegree());
+
+        a = network.getTemporalNode("A").getNodeAt(17);
+
+        Assert.assertEquals(3, a.getDegree());
+        Assert.assertEquals(3, a.getOutDegree());
+        Assert.assertEquals(2, a.getInDegree());
+
+        a = network.getTemporalNode("A").getNodeAt(25);
+
+        Assert.assertEquals(2, a.getDegree());
+        Assert.assertEquals(2, a.getOutDegree());
+        Assert.assertEquals(2, a.getInDegree());
+
+        Node b = network.getTemporalNode("B").getNodeAt(12);
+
+        Assert.assertEquals(1, b.getDegree());
+        Assert.assertEquals(0, b.getOutDegree());
+        Assert.assertEquals(1, b.getInDegree());
+    }
+
+    @Test
+    public void testNeighbourhood() {
+        DefaultTemporalNetwork network = createNetwork();
+        Node a = network.getTemporalNode("A").getNodeAt(12);
+        Set<String> ids = new HashSet<>();
+
+        for (Edge e : a.getEachEdge()) {
+            ids.add(e.getId());
+        }
+
+        Assert.assertEquals(4, ids.size());
+        Assert.assertTrue(ids.contains("AB") && ids.contains("CA") && ids.contains("AC") && ids.contains("AA"));
+
+        ids.clear();
+
+        for (Edge e : a.getEachEnteringEdge()) {
+            ids.add(e.getId());
+        }
+
+        Assert.assertEquals(3, ids.size());
+        Assert.assertTrue(ids.contains("CA") && ids.contains("AC") && ids.contains("AA"));
+
+        Assert.assertTrue(a.hasEdgeToward("B"));
+        Assert.assertFalse(a.hasEdgeFrom("B"));
+        Assert.assertTrue(a.hasEdgeFrom("C"));
+        Assert.assertTrue(a.hasEdgeToward("C"));
+        Assert.assertEquals("AB", a.getEdgeBetween("B").getId());
+
+        Node b = network.getTemporalNode("B").getNodeAt(12);
+
+        Assert.assertTrue(b.hasEdgeBetween("A"));
+        Assert.assertFalse(b.hasEdgeToward("A"));
+        Assert.assertEquals("A", b.getEdgeFrom("A").getOpposite(b).getId());
+
+        b = network.getTemporalNode("B").getNodeAt(22);
+
+        Assert.assertFalse(b.hasEdgeBetween("A"));
+        Assert.assertFalse(b.getEdgeIterator().hasNext());
+    }
+
+    @Test
+    public void testDegreeTimeline() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        Random random = new Random(1337);
+
+        network.addNodeAt("hub", 0);
+
+        for (int i = 0; i < 50; i++) {
+            network.addNodeAt("n" + i, 0);
+
+            boolean out = random.nextBoolean();
+            double date = random.nextInt(100);
+            TemporalEdge e = network.addEdgeAt("e" + i, out ? "hub" : "n" + i, out ? "n" + i : "hub",
+                    random.nextBoolean(), date);
+
+            for (int k = 0; k < 5; k++) {
+                if (random.nextBoolean()) {
+                    date += 1 + random.nextInt(10);
+                    e.removeAt(date);
+                }
+
+                date += 1 + random.nextInt(10);
+                e.addAt(date);
+            }
+        }
+
+        Node hub;
+        NeighbourTimeline neighbours = network.getTemporalNode("hub").getNeighbourTimeline();
+
+        for (double date = -1; date < 200; date += 0.5) {
+            int degree = 0, in = 0, out = 0;
+
+            for (int i = 0; i < network.getTotalEdgeCount(); i++) {
+                TemporalEdge e = network.getTemporalEdge(i);
+
+                if (e.existsAt(date)) {
+                    degree++;
+
+                    if (!e.isDirected() || e.getTargetNode().getId().equals("hub"))
+                        in++;
+
+                    if (!e.isDirected() || e.getSourceNode().getId().equals("hub"))
+                        out++;
+                }
+            }
+
+            Assert.assertEquals(degree, neighbours.getDegreeAt(date));
+            Assert.assertEquals(in, neighbours.getInDegreeAt(date));
+            Assert.assertEquals(out, neighbours.getOutDegreeAt(date));
+
+            hub = network.getTemporalNode("hub").getNodeAt(date);
+
+            if (hub != null) {
+                Assert.assertEquals(degree, hub.getDegree());
+                Assert.assertEquals(degree, hub.getEdgeSet().size());
+                Assert.assertEquals(in, hub.getEnteringEdgeSet().size());
+                Assert.assertEquals(out, hub.getLeavingEdgeSet().size());
+            }
+        }
+
+        for (int i = 1; i < neighbours.getDegreeChangeCount(); i++) {
+            Assert.assertTrue(neighbours.getDegreeChangeDate(i - 1) < neighbours.getDegreeChangeDate(i));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.IdIndexMap;
+import org.graphstream.graph.temporalNetwork.NeighbourTimeline;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ *
+ */
+public class TestDefaultTemporalNetwork {
+    @Test
+    public void testAddNode() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork(1, 1);
+
+        for (int i = 0; i < 1000; i++) {
+            TemporalNode node = network.addNodeAt("node#" + i, i);
+
+            Assert.assertEquals(i, node.getIndex());
+            Assert.assertEquals(i + 1, network.getTotalNodeCount());
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            TemporalNode node = network.getTemporalNode("node#" + i);
+
+            Assert.assertNotNull(node);
+            Assert.assertSame(node, network.getTemporalNode(i));
+            Assert.assertEquals("node#" + i, node.getId());
+            Assert.assertFalse(node.existsAt(i - 0.5));
+            Assert.assertTrue(node.existsAt(i));
+        }
+
+        Assert.assertNull(network.getTemporalNode("unknown"));
+        Assert.assertEquals(0, network.getTotalEdgeCount());
+    }
+
+    @Test
+    public void testRemoveNode() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0);
+        network.removeNodeAt("A", 10);
+        TemporalNode node = network.addNodeAt("A", 20);
+
+        Assert.assertEquals(1, network.getTotalNodeCount());
+        Assert.assertEquals(0, node.getIndex());
+        Assert.assertTrue(node.existsAt(5));
+        Assert.assertFalse(node.existsAt(15));
+        Assert.assertTrue(node.existsAt(25));
+
+        try {
+            network.removeNodeAt("B", 10);
+            Assert.fail();
+        } catch (ElementNotFoundException e) {
+            Assert.assertNotNull(e);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfBounds() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0);
+        network.getTemporalNode(1);
+    }
+
+    @Test
+    public void testIdIndexMap() {
+        IdIndexMap map = new IdIndexMap(4);
+
+        for (int i = 0; i < 100000; i++) {
+            Assert.assertEquals(-1, map.put(Integer.toString(i), i));
+        }
+
+        Assert.assertEquals(100000, map.size());
+
+        for (int i = 0; i < 100000; i++) {
+            Assert.assertEquals(i, map.get(Integer.toString(i)));
+        }
+
+        Assert.assertEquals(42, map.put("42", 24));
+        Assert.assertEquals(24, map.get("42"));
+        Assert.assertEquals(-1, map.get("-1"));
+        Assert.assertFalse(map.contains("100000"));
+    }
+
+    /**
+     * Build the same network with and without batches, the time-windows of the edges being given in order for
+     * each edge but not for each node, and check that the nodes have the same incidence.
+     */
+    @Test
+    public void testBatchIncidence() {
+        Random random = new Random(7);
+        DefaultTemporalNetwork plain = new DefaultTemporalNetwork();
+        DefaultTemporalNetwork batched = new DefaultTemporalNetwork();
+
+        for (int i = 0; i < 20; i++) {
+            plain.addNodeAt("n" + i, 0);
+            batched.addNodeAt("n" + i, 0);
+        }
+
+        int edges = 60;
+        double[] lastEnds = new double[edges];
+        int operations = 0;
+
+        batched.beginBatch();
+
+        for (int step = 0; step < 600; step++) {
+            int e = random.nextInt(edges);
+            double start = lastEnds[e] + random.nextInt(5);
+            double end = start + 1 + random.nextInt(5);
+
+            lastEnds[e] = end;
+
+            for (DefaultTemporalNetwork network : new DefaultTemporalNetwork[]{plain, batched}) {
+                network.addEdgeAt("e" + e, "n" + (e % 20), "n" + (e * 7 % 20), e % 3 == 0, start);
+                network.removeEdgeAt("e" + e, end);
+            }
+
+            if (++operations == 1 + random.nextInt(200)) {
+                batched.endBatch();
+                batched.beginBatch();
+                operations = 0;
+            }
+        }
+
+        //
+        // Leave some time-windows open.
+        //
+        for (int e = 0; e < edges; e += 4) {
+            plain.addEdgeAt("e" + e, "n" + (e % 20), "n" + (e * 7 % 20), e % 3 == 0, lastEnds[e] + 1);
+            batched.addEdgeAt("e" + e, "n" + (e % 20), "n" + (e * 7 % 20), e % 3 == 0, lastEnds[e] + 1);
+        }
+
+        batched.endBatch();
+
+        for (int i = 0; i < 20; i++) {
+            NeighbourTimeline expected = plain.getTemporalNode(i).getNeighbourTimeline();
+            NeighbourTimeline actual = batched.getTemporalNode(i).getNeighbourTimeline();
+
+            Assert.assertEquals(expected.getWindowCount(), actual.getWindowCount());
+
+            for (double date = -1; date < 2000; date += 0.5) {
+                Assert.assertEquals(expected.getDegreeAt(date), actual.getDegreeAt(date));
+                Assert.assertEquals(expected.getInDegreeAt(date), actual.getInDegreeAt(date));
+                Assert.assertEquals(expected.getOutDegreeAt(date), actual.getOutDegreeAt(date));
+
+                int[] expectedEdges = expected.getEdgeIndicesAt(date);
+                int[] actualEdges = actual.getEdgeIndicesAt(date);
+
+                Arrays.sort(expectedEdges);
+                Arrays.sort(actualEdges);
+
+                Assert.assertArrayEquals(expectedEdges, actualEdges);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.Node;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.EventLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ *
+ */
+public class TestEventLog {
+    @Test
+    public void testOrder() {
+        EventLog log = new EventLog(1);
+
+        log.append(0, EventLog.NODE_ADDED, 0, null, null);
+        log.append(10, EventLog.NODE_ADDED, 1, null, null);
+        log.append(5, EventLog.NODE_ATTRIBUTE_SET, 0, "x", 1);
+        log.append(10, EventLog.NODE_REMOVED, 0, null, null);
+        log.append(5, EventLog.NODE_ATTRIBUTE_SET, 1, "y", 2);
+        log.append(-1, EventLog.NODE_ADDED, 2, null, null);
+
+        Assert.assertEquals(6, log.size());
+
+        double[] dates = {-1, 0, 5, 5, 10, 10};
+
+        for (int i = 0; i < dates.length; i++) {
+            Assert.assertEquals(dates[i], log.getDate(i), 0);
+        }
+
+        Assert.assertEquals("x", log.getKey(2));
+        Assert.assertEquals(1, log.getValue(2));
+        Assert.assertEquals("y", log.getKey(3));
+        Assert.assertEquals(1, log.getElement(4));
+        Assert.assertEquals(EventLog.NODE_REMOVED, log.getType(5));
+        Assert.assertNull(log.getKey(5));
+        Assert.assertEquals(2, log.getKeyCount());
+        Assert.assertEquals(-1, log.getKeyId("z"));
+    }
+
+    @Test
+    public void testQueries() {
+        EventLog log = new EventLog();
+
+        for (int i = 0; i < 100; i++) {
+            log.append(i / 2, EventLog.EDGE_ADDED, i, null, null);
+        }
+
+        log.append(7.5, EventLog.EDGE_ATTRIBUTE_SET, 0, "weight", 1.0);
+
+        Assert.assertEquals(1, log.nextChangeAfter(0), 0);
+        Assert.assertEquals(7.5, log.nextChangeAfter(7), 0);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, log.nextChangeAfter(49), 0);
+        Assert.assertEquals(7.5, log.lastChangeAt(7.9), 0);
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, log.lastChangeAt(-1), 0);
+
+        Assert.assertEquals(8, log.nextStructureChangeAfter(7), 0);
+        Assert.assertEquals(7, log.lastStructureChangeAt(7.9), 0);
+
+        Assert.assertArrayEquals(new double[]{7, 7.5, 8}, log.changesBetween(7, 9), 0);
+        Assert.assertEquals(0, log.changesBetween(60, 70).length);
+        Assert.assertEquals(5, log.countBetween(7, 9));
+        Assert.assertEquals(0, log.countBetween(9, 7));
+
+        int[] buckets = log.countPerBucket(0, 10, 6);
+
+        Assert.assertArrayEquals(new int[]{21, 20, 20, 20, 20, 0}, buckets);
+    }
+
+    @Test
+    public void testOutOfOrder() {
+        EventLog log = new EventLog();
+        Random random = new Random(3);
+        int count = 20000;
+
+        for (int i = 0; i < count; i++) {
+            log.append(random.nextInt(500), EventLog.NODE_ADDED, i, null, null);
+
+            if (i % 5000 == 0) {
+                Assert.assertEquals(i + 1, log.countBetween(0, 500));
+            }
+        }
+
+        Assert.assertEquals(count, log.size());
+
+        for (int i = 1; i < count; i++) {
+            Assert.assertTrue(log.getDate(i - 1) <= log.getDate(i));
+
+            if (log.getDate(i - 1) == log.getDate(i)) {
+                Assert.assertTrue(log.getElement(i - 1) < log.getElement(i));
+            }
+        }
+
+        Assert.assertEquals(1, log.nextStructureChangeAfter(0), 0);
+        Assert.assertEquals(499, log.lastStructureChangeAt(1000), 0);
+    }
+
+    @Test
+    public void testNetworkEvents() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 1);
+        network.addEdgeAt("AB", "A", "B", true, 2);
+
+        Node a = network.getTemporalNode("A").getNodeAt(3);
+        a.setAttribute("x", 1);
+        a.removeAttribute("x");
+        a.removeAttribute("y");
+
+        network.getTemporalEdge("AB").getEdgeAt(4).setAttribute("w", 2.0);
+        network.removeNodeAt("B", 6);
+
+        EventLog log = network.getEventLog();
+        byte[] types = {EventLog.NODE_ADDED, EventLog.NODE_ADDED, EventLog.EDGE_ADDED, EventLog.NODE_ATTRIBUTE_SET,
+                EventLog.NODE_ATTRIBUTE_REMOVED, EventLog.EDGE_ATTRIBUTE_SET, EventLog.NODE_REMOVED};
+
+        Assert.assertEquals(types.length, log.size());
+
+        for (int i = 0; i < types.length; i++) {
+            Assert.assertEquals(types[i], log.getType(i));
+        }
+
+        Assert.assertEquals(1, log.getElement(6));
+        Assert.assertEquals(2.0, log.getValue(5));
+        Assert.assertEquals(6, log.nextStructureChangeAfter(2), 0);
+    }
+}
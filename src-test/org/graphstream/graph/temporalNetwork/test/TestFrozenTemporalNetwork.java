@@ -0,0 +1,189 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.FrozenTemporalNetwork;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *
+ */
+public class TestFrozenTemporalNetwork {
+    @Test
+    public void testSameAsSnapshots() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(8080);
+        network.getTemporalEdge(0).setAttributeAt("label", 10, "zero");
+
+        FrozenTemporalNetwork frozen = network.freeze();
+
+        Assert.assertEquals(network.getTotalNodeCount(), frozen.getNodeCount());
+        Assert.assertEquals(network.getTotalEdgeCount(), frozen.getEdgeCount());
+        Assert.assertEquals(-1, frozen.getNodeIndex("missing"));
+        Assert.assertNull(frozen.getEdgeColumn("x"));
+
+        for (double date = -2; date < 102; date += 0.25) {
+            assertSame(network.getGraphAt(date), frozen, date);
+        }
+
+        Assert.assertEquals("zero", frozen.getEdgeAttributeAt(0, "label", 11));
+        Assert.assertNull(frozen.getEdgeAttributeAt(0, "label", 9));
+        Assert.assertTrue(Double.isNaN(frozen.getEdgeNumberAt(0, "label", 11)));
+
+        // changes done after the freeze are not seen
+        network.getTemporalNode(0).setAttributeAt("x", 200, 42);
+        Assert.assertNotEquals(42, frozen.getNodeAttributeAt(0, "x", 201));
+    }
+
+    @Test
+    public void testEdgeWindowsClippedByEndpoints() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        TemporalNode a = network.addNodeAt("A", 0), b = network.addNodeAt("B", 5);
+
+        network.addEdgeAt("AB", "A", "B", false, 0);
+        network.addEdgeAt("AA", "A", "A", false, 0);
+
+        a.removeAt(10);
+        a.addAt(20);
+        b.removeAt(25);
+        a.removeAt(30);
+        b.addAt(35);
+        a.addAt(40);
+        network.getTemporalEdge("AB").removeAt(50);
+        network.getTemporalEdge("AB").addAt(55);
+
+        FrozenTemporalNetwork frozen = network.freeze();
+
+        assertWindows(frozen, 0, 5, 10, 20, 25, 40, 50, 55, Double.POSITIVE_INFINITY);
+        assertWindows(frozen, 1, 0, 10, 20, 30, 40, Double.POSITIVE_INFINITY);
+    }
+
+    static void assertWindows(FrozenTemporalNetwork frozen, int edge, double... bounds) {
+        Assert.assertEquals(bounds.length / 2, frozen.getEdgeWindowCount(edge));
+
+        for (int i = 0; i < bounds.length / 2; i++) {
+            Assert.assertEquals(bounds[2 * i], frozen.getEdgeWindowStart(edge, i), 0);
+            Assert.assertEquals(bounds[2 * i + 1], frozen.getEdgeWindowEnd(edge, i), 0);
+        }
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Throwable {
+        final DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(4321);
+        final FrozenTemporalNetwork frozen = network.freeze();
+        final List<Graph> graphs = new ArrayList<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int date = 0; date < 100; date++) {
+            graphs.add(network.getGraphAt(date));
+        }
+
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int k = 0; k < 400; k++) {
+                            int date = (k * 7 + offset * 13) % 100;
+                            assertSame(graphs.get(date), frozen, date);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    static void assertSame(Graph graph, FrozenTemporalNetwork frozen, double date) {
+        int[] degrees = new int[frozen.getNodeCount()];
+
+        Assert.assertEquals(graph.getNodeCount(), frozen.getNodeCountAt(date));
+        Assert.assertEquals(graph.getEdgeCount(), frozen.getEdgeCountAt(date));
+
+        for (int i = 0; i < frozen.getNodeCount(); i++) {
+            Node node = graph.getNode(frozen.getNodeId(i));
+
+            Assert.assertEquals(node != null, frozen.nodeExistsAt(i, date));
+
+            if (node != null) {
+                Assert.assertEquals(node.getAttribute("x"), frozen.getNodeAttributeAt(i, "x", date));
+            }
+        }
+
+        for (int i = 0; i < frozen.getEdgeCount(); i++) {
+            Edge edge = graph.getEdge(frozen.getEdgeId(i));
+
+            Assert.assertEquals(edge != null, frozen.edgeExistsAt(i, date));
+
+            if (edge != null) {
+                Assert.assertEquals(edge.getSourceNode().getId(), frozen.getNodeId(frozen.getSource(i)));
+                Assert.assertEquals(edge.getTargetNode().getId(), frozen.getNodeId(frozen.getTarget(i)));
+                Assert.assertEquals(edge.isDirected(), frozen.isDirected(i));
+
+                degrees[frozen.getSource(i)]++;
+
+                if (frozen.getTarget(i) != frozen.getSource(i)) {
+                    degrees[frozen.getTarget(i)]++;
+                }
+            }
+        }
+
+        for (int i = 0; i < frozen.getNodeCount(); i++) {
+            Assert.assertEquals(degrees[i], frozen.getDegreeAt(i, date));
+        }
+    }
+}
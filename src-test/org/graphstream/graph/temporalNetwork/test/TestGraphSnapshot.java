@@ -0,0 +1,197 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.BreadthFirstIterator;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.GraphSnapshot;
+import org.graphstream.stream.thread.ThreadProxyPipe;
+import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ *
+ */
+public class TestGraphSnapshot {
+    static DefaultTemporalNetwork createNetwork() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 0);
+        network.addNodeAt("C", 5);
+        network.addNodeAt("D", 0);
+
+        network.addEdgeAt("AB", "A", "B", false, 0);
+        network.addEdgeAt("BC", "B", "C", true, 5);
+        network.addEdgeAt("CD", "C", "D", false, 5);
+        network.addEdgeAt("AD", "A", "D", true, 2);
+
+        network.removeNodeAt("D", 10);
+        network.removeEdgeAt("AB", 20);
+
+        return network;
+    }
+
+    @Test
+    public void testStructure() {
+        DefaultTemporalNetwork network = createNetwork();
+        Graph g = network.getGraphAt(7);
+
+        Assert.assertEquals(4, g.getNodeCount());
+        Assert.assertEquals(4, g.getEdgeCount());
+
+        g = network.getGraphAt(12);
+
+        Assert.assertEquals(3, g.getNodeCount());
+        Assert.assertNull(g.getNode("D"));
+
+        //
+        // Edges "CD" and "AD" still exist but D does not.
+        //
+        Assert.assertEquals(2, g.getEdgeCount());
+        Assert.assertNull(g.getEdge("AD"));
+        Assert.assertNotNull(g.getEdge("AB"));
+
+        Node a = g.getNode("A");
+
+        Assert.assertEquals(1, a.getDegree());
+        Assert.assertEquals(1, a.getOutDegree());
+        Assert.assertFalse(a.hasEdgeToward("D"));
+        Assert.assertEquals(1, a.getEdgeSet().size());
+
+        g = network.getGraphAt(-1);
+
+        Assert.assertEquals(0, g.getNodeCount());
+        Assert.assertEquals(0, g.getEdgeCount());
+    }
+
+    @Test
+    public void testIndices() {
+        DefaultTemporalNetwork network = createNetwork();
+        Graph g = network.getGraphAt(7);
+
+        for (int i = 0; i < g.getNodeCount(); i++) {
+            Node n = g.getNode(i);
+
+            Assert.assertEquals(i, n.getIndex());
+            Assert.assertSame(n, g.getNode(n.getId()));
+            Assert.assertSame(g, n.getGraph());
+
+            for (Edge e : n.getEachEdge()) {
+                Assert.assertSame(e, g.getEdge(e.getIndex()));
+                Assert.assertSame(n, e.getOpposite(e.getOpposite(n)));
+            }
+        }
+
+        for (Edge e : g.getEachEdge()) {
+            Assert.assertSame(g.getNode(e.getSourceNode().getIndex()), e.getSourceNode());
+        }
+
+        Set<String> visited = new HashSet<>();
+        BreadthFirstIterator<Node> it = new BreadthFirstIterator<>(g.getNode("A"));
+
+        while (it.hasNext()) {
+            visited.add(it.next().getId());
+        }
+
+        Assert.assertEquals(4, visited.size());
+        Assert.assertEquals(2, it.getDepthMax());
+    }
+
+    @Test
+    public void testCache() {
+        DefaultTemporalNetwork network = createNetwork();
+        GraphSnapshot g = network.getGraphAt(6);
+
+        Assert.assertEquals(5, g.getStartDate(), 0);
+        Assert.assertEquals(10, g.getEndDate(), 0);
+        Assert.assertSame(g, network.getGraphAt(6));
+
+        GraphSnapshot h = network.getGraphAt(8);
+
+        Assert.assertNotSame(g, h);
+        Assert.assertEquals(8, h.getSnapshotDate(), 0);
+        Assert.assertEquals(5, h.getStartDate(), 0);
+        Assert.assertEquals(g.getNodeCount(), h.getNodeCount());
+
+        //
+        // A change before the interval invalidates the snapshot, a change after does not.
+        //
+        network.addNodeAt("E", 30);
+        Assert.assertSame(h, network.getGraphAt(8));
+
+        network.addEdgeAt("AC", "A", "C", false, 7);
+        h = network.getGraphAt(8);
+
+        Assert.assertEquals(7, h.getStartDate(), 0);
+        Assert.assertEquals(5, h.getEdgeCount());
+        Assert.assertEquals(4, network.getGraphAt(6).getEdgeCount());
+
+        network.getTemporalEdge("AC").removeAt(8);
+        Assert.assertEquals(4, network.getGraphAt(8).getEdgeCount());
+    }
+
+    @Test
+    public void testViewerReplay() {
+        DefaultTemporalNetwork network = createNetwork();
+        network.getTemporalNode("A").setAttributeAt("ui.label", 0, "a");
+
+        //
+        // Feed a graphic graph as the viewer does, through a proxy pipe replaying the snapshot.
+        //
+        GraphSnapshot g = network.getGraphAt(12);
+        GraphicGraph gg = new GraphicGraph("viewer");
+        ThreadProxyPipe pipe = new ThreadProxyPipe();
+
+        pipe.addSink(gg);
+        pipe.init(g);
+        pipe.pump();
+
+        Assert.assertEquals(g.getNodeCount(), gg.getNodeCount());
+        Assert.assertEquals(g.getEdgeCount(), gg.getEdgeCount());
+        Assert.assertEquals("a", gg.getNode("A").getAttribute("ui.label"));
+
+        pipe.unregisterFromSource();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        createNetwork().getGraphAt(0).addNode("E");
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.temporalNetwork.IntervalIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ *
+ */
+public class TestIntervalIndex {
+    @Test
+    public void testGetIdsAt() {
+        IntervalIndex index = new IntervalIndex();
+
+        index.add(0, 10, 0);
+        index.add(5, 15, 1);
+        index.add(20, Double.POSITIVE_INFINITY, 2);
+        index.add(2, 3, 3);
+
+        Assert.assertArrayEquals(new int[]{0}, index.getIdsAt(0));
+        Assert.assertArrayEquals(new int[]{0, 3}, index.getIdsAt(2));
+        Assert.assertArrayEquals(new int[]{0, 1}, index.getIdsAt(7));
+        Assert.assertArrayEquals(new int[]{1}, index.getIdsAt(10));
+        Assert.assertArrayEquals(new int[0], index.getIdsAt(17));
+        Assert.assertArrayEquals(new int[]{2}, index.getIdsAt(1000));
+        Assert.assertEquals(0, index.countAt(-1));
+
+        Assert.assertTrue(index.end(20, 2, 30));
+        Assert.assertFalse(index.end(20, 2, 40));
+        Assert.assertArrayEquals(new int[0], index.getIdsAt(1000));
+        Assert.assertArrayEquals(new int[]{2}, index.getIdsAt(25));
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(4242);
+        IntervalIndex index = new IntervalIndex(1);
+        int n = 2000;
+        double[] starts = new double[n];
+        double[] ends = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            boolean append = random.nextInt(10) > 0;
+
+            starts[i] = append ? i : random.nextInt(n);
+            ends[i] = Double.POSITIVE_INFINITY;
+            index.add(starts[i], ends[i], i);
+
+            if (i > 0 && random.nextBoolean()) {
+                int k = random.nextInt(i);
+
+                if (Double.isInfinite(ends[k])) {
+                    ends[k] = starts[k] + 1 + random.nextInt(50);
+                    Assert.assertTrue(index.end(starts[k], k, ends[k]));
+                }
+            }
+        }
+
+        Assert.assertEquals(n, index.size());
+
+        for (double date = -1; date < n + 60; date += 0.5) {
+            int[] expected = new int[n];
+            int count = 0;
+
+            for (int i = 0; i < n; i++) {
+                if (starts[i] <= date && date < ends[i])
+                    expected[count++] = i;
+            }
+
+            int[] ids = index.getIdsAt(date);
+            Arrays.sort(ids);
+
+            Assert.assertArrayEquals(Arrays.copyOf(expected, count), ids);
+            Assert.assertEquals(count, index.countAt(date));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.temporalNetwork.ArrayTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.AttributesTimeline;
+import org.graphstream.graph.temporalNetwork.TemporalTimeline;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Check that steady-state date lookups do not allocate on the heap.
+ */
+public class TestLookupAllocations {
+    static final int ITERATIONS = 100000;
+
+    /**
+     * Below the size of a single TimeWindow per thousand lookups, so any per-lookup allocation is caught.
+     */
+    static final long TOLERANCE = 1024;
+
+    static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled());
+
+        return sunBean;
+    }
+
+    static long lookups(TemporalTimeline<Double> ttl) {
+        long found = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            double date = i % 1000;
+
+            if (ttl.existsAt(date))
+                found++;
+
+            if (ttl.getValueAt(date) != null)
+                found++;
+
+            if (ttl.getFloorTimeWindow(date) != null)
+                found++;
+        }
+
+        return found;
+    }
+
+    static long lookups(AttributesTimeline atl) {
+        long found = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            double date = i % 1000;
+
+            if (atl.hasAttributeAt("weight", date))
+                found++;
+
+            if (atl.getAttributeAt("missing", date) == null)
+                found++;
+
+            // doubles are stored unboxed, reading them as objects would box them
+            found += Double.isNaN(atl.getNumberAt("weight", date)) ? 0 : 1;
+
+            for (int k = 0, n = atl.getAttributesCountAt(date); k < n; k++) {
+                found += atl.getKeyAt(date, k).length();
+            }
+        }
+
+        return found;
+    }
+
+    static TemporalTimeline<Double> fill(TemporalTimeline<Double> ttl) {
+        for (int i = 0; i < 100; i++) {
+            ttl.insertTimeWindow(i * 10, i * 10 + 5, (double) i);
+        }
+
+        return ttl;
+    }
+
+    @Test
+    public void testTreeTimeline() {
+        com.sun.management.ThreadMXBean bean = threadBean();
+        long tid = Thread.currentThread().getId();
+        TemporalTimeline<Double> ttl = fill(new TemporalTimeline<Double>());
+
+        lookups(ttl);
+
+        long before = bean.getThreadAllocatedBytes(tid);
+        long found = lookups(ttl);
+        long allocated = bean.getThreadAllocatedBytes(tid) - before;
+
+        Assert.assertTrue(found > 0);
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < TOLERANCE);
+    }
+
+    @Test
+    public void testArrayTimeline() {
+        com.sun.management.ThreadMXBean bean = threadBean();
+        long tid = Thread.currentThread().getId();
+        TemporalTimeline<Double> ttl = fill(new ArrayTemporalTimeline<Double>());
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            ttl.existsAt(i % 1000);
+        }
+
+        long before = bean.getThreadAllocatedBytes(tid);
+        long found = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (ttl.existsAt(i % 1000))
+                found++;
+
+            if (ttl.getValueAt(i % 1000) != null)
+                found++;
+        }
+
+        long allocated = bean.getThreadAllocatedBytes(tid) - before;
+
+        Assert.assertTrue(found > 0);
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < TOLERANCE);
+    }
+
+    @Test
+    public void testAttributesTimeline() {
+        com.sun.management.ThreadMXBean bean = threadBean();
+        long tid = Thread.currentThread().getId();
+        AttributesTimeline atl = new AttributesTimeline();
+
+        for (int i = 0; i < 100; i++) {
+            atl.setAttributeAt("weight", i * 10, (double) i);
+        }
+
+        lookups(atl);
+
+        long before = bean.getThreadAllocatedBytes(tid);
+        long found = lookups(atl);
+        long allocated = bean.getThreadAllocatedBytes(tid) - before;
+
+        Assert.assertTrue(found > 0);
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < TOLERANCE);
+    }
+}
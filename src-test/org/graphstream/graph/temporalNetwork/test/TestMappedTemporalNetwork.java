@@ -0,0 +1,293 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.temporalNetwork.ArrayTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.AttributesTimeline;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.EventLog;
+import org.graphstream.graph.temporalNetwork.MappedFile;
+import org.graphstream.graph.temporalNetwork.MappedTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.MappedTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.NeighbourTimeline;
+import org.graphstream.graph.temporalNetwork.TemporalNetworkWriter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ *
+ */
+public class TestMappedTemporalNetwork {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    protected MappedTemporalNetwork writeAndOpen(DefaultTemporalNetwork network, int segmentBits) throws IOException {
+        File file = folder.newFile();
+
+        new TemporalNetworkWriter(network).write(file);
+        return MappedTemporalNetwork.open(new MappedFile(file, segmentBits));
+    }
+
+    protected static void assertSameEvents(EventLog expected, EventLog actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.getDate(i), actual.getDate(i), 0);
+            Assert.assertEquals(expected.getType(i), actual.getType(i));
+            Assert.assertEquals(expected.getElement(i), actual.getElement(i));
+            Assert.assertEquals(expected.getKey(i), actual.getKey(i));
+            Assert.assertEquals(expected.getValue(i), actual.getValue(i));
+        }
+
+        for (double date = -1; date < 301; date += 0.5) {
+            Assert.assertEquals(expected.indexFrom(date), actual.indexFrom(date));
+            Assert.assertEquals(expected.nextStructureChangeAfter(date), actual.nextStructureChangeAfter(date), 0);
+            Assert.assertEquals(expected.lastStructureChangeAt(date), actual.lastStructureChangeAt(date), 0);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(4321);
+
+        // small segments, so that many values overlap two segments
+        try (MappedTemporalNetwork loaded = writeAndOpen(network, 6)) {
+            Assert.assertEquals(network.getTotalNodeCount(), loaded.getTotalNodeCount());
+            Assert.assertEquals(network.getTotalEdgeCount(), loaded.getTotalEdgeCount());
+
+            MappedTemporalTimeline<?> timeline = (MappedTemporalTimeline<?>) loaded.getTemporalNode(0)
+                    .getElementTimeline();
+            Assert.assertFalse(timeline.isLoaded());
+
+            assertSameEvents(network.getEventLog(), loaded.getEventLog());
+
+            for (double date = -1; date < 101; date += 0.5) {
+                for (int i = 0; i < network.getTotalNodeCount(); i++) {
+                    TemporalNode n = network.getTemporalNode(i), m = loaded.getTemporalNode(i);
+
+                    Assert.assertEquals(n.getId(), m.getId());
+                    Assert.assertEquals(n.existsAt(date), m.existsAt(date));
+                    Assert.assertEquals(n.getNeighbourTimeline().getDegreeAt(date),
+                            m.getNeighbourTimeline().getDegreeAt(date));
+                    Assert.assertEquals(n.getAttributesTimeline().getAttributeAt("x", date),
+                            m.getAttributesTimeline().getAttributeAt("x", date));
+                }
+
+                for (int i = 0; i < network.getTotalEdgeCount(); i++) {
+                    TemporalEdge e = network.getTemporalEdge(i), f = loaded.getTemporalEdge(i);
+
+                    Assert.assertEquals(e.getId(), f.getId());
+                    Assert.assertEquals(e.isDirected(), f.isDirected());
+                    Assert.assertEquals(e.getSourceNode().getIndex(), f.getSourceNode().getIndex());
+                    Assert.assertEquals(e.existsAt(date), f.existsAt(date));
+                }
+
+                TestSnapshotCursor.assertSameGraph(network.getGraphAt(date), loaded.getGraphAt(date));
+            }
+
+            Assert.assertTrue(timeline.isLoaded());
+        }
+    }
+
+    @Test
+    public void testValues() throws IOException {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 0);
+        network.addEdgeAt("AB", "A", "B", true, 1);
+
+        TemporalNode a = network.getTemporalNode("A");
+        a.setAttributeAt("boolean", 1, true);
+        a.setAttributeAt("int", 1, 12);
+        a.setAttributeAt("long", 1, 1L << 40);
+        a.setAttributeAt("float", 1, 1.5f);
+        a.setAttributeAt("double", 1, Math.PI);
+        a.setAttributeAt("string", 1, "été");
+        a.setAttributeAt("array", 1, new int[]{1, 2, 3});
+        a.setAttributeAt("values", 1, "x", 2);
+        a.setAttributeAt("int", 5, 13);
+        a.removeAttributeAt("string", 3);
+        network.getTemporalEdge("AB").setAttributeAt("weight", 2, 0.5);
+
+        try (MappedTemporalNetwork loaded = writeAndOpen(network, MappedFile.DEFAULT_SEGMENT_BITS)) {
+            TemporalNode b = loaded.getTemporalNode("A");
+
+            Assert.assertEquals(true, b.getAttributesTimeline().getAttributeAt("boolean", 2));
+            Assert.assertEquals(12, b.getAttributesTimeline().getAttributeAt("int", 2));
+            Assert.assertEquals(13, b.getAttributesTimeline().getAttributeAt("int", 5));
+            Assert.assertEquals(1L << 40, b.getAttributesTimeline().getAttributeAt("long", 2));
+            Assert.assertEquals(1.5f, b.getAttributesTimeline().getAttributeAt("float", 2));
+            Assert.assertEquals(Math.PI, b.getAttributesTimeline().getAttributeAt("double", 2));
+            Assert.assertEquals("été", b.getAttributesTimeline().getAttributeAt("string", 2));
+            Assert.assertNull(b.getAttributesTimeline().getAttributeAt("string", 3));
+            Assert.assertArrayEquals(new int[]{1, 2, 3}, (int[]) b.getAttributesTimeline().getAttributeAt("array", 2));
+            Assert.assertArrayEquals(new Object[]{"x", 2},
+                    (Object[]) b.getAttributesTimeline().getAttributeAt("values", 2));
+            Assert.assertNull(b.getAttributesTimeline().getAttributeAt("int", 0));
+            Assert.assertEquals(8, b.getAttributesTimeline().getAttributesCountAt(2));
+            Assert.assertEquals(0.5, loaded.getTemporalEdge("AB").getAttributesTimeline().getAttributeAt("weight", 2));
+            Assert.assertEquals(0, loaded.getTemporalNode("B").getAttributesTimeline().getKeys().size());
+        }
+    }
+
+    @Test
+    public void testReadByKeyIndex() throws IOException {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0).setAttributeAt("w", 1, 3.0);
+        network.addNodeAt("B", 0).setAttributeAt("w", 1, 7.0);
+
+        try (MappedTemporalNetwork loaded = writeAndOpen(network, MappedFile.DEFAULT_SEGMENT_BITS)) {
+            // keys are known before any attribute is loaded
+            int w = loaded.getKeyDictionary().getIndex("w");
+            Assert.assertTrue(w >= 0);
+
+            Assert.assertEquals(3.0, loaded.getTemporalNode("A").getAttributesTimeline().getNumberAt("w", 2), 0);
+
+            AttributesTimeline b = loaded.getTemporalNode("B").getAttributesTimeline();
+            Assert.assertTrue(b.hasAttributeAt(w, 2));
+            Assert.assertEquals(7.0, b.getNumberAt(w, 2), 0);
+            Assert.assertEquals(7.0, b.<Double>getAttributeAt(w, 2), 0);
+            Assert.assertFalse(b.hasAttributeAt(w, 0));
+        }
+    }
+
+    @Test
+    public void testChangesAfterLoading() throws IOException {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(8765);
+
+        try (MappedTemporalNetwork loaded = writeAndOpen(network, MappedFile.DEFAULT_SEGMENT_BITS)) {
+            for (DefaultTemporalNetwork n : new DefaultTemporalNetwork[]{network, loaded}) {
+                n.addNodeAt("new", 150);
+                n.addEdgeAt("new", "new", "n0", false, 150);
+
+                for (int i = 0; i < 10; i++) {
+                    TemporalEdge edge = n.getTemporalEdge(i);
+
+                    if (edge.existsAt(200)) {
+                        edge.removeAt(200);
+                    } else {
+                        edge.addAt(200);
+                    }
+
+                    edge.setAttributeAt("y", 200, i);
+                }
+            }
+
+            Assert.assertTrue(loaded.getTemporalNode("new").getElementTimeline() instanceof ArrayTemporalTimeline);
+
+            for (double date = 0; date < 300; date += 10) {
+                TestSnapshotCursor.assertSameGraph(network.getGraphAt(date), loaded.getGraphAt(date));
+
+                for (int i = 0; i < network.getTotalNodeCount(); i++) {
+                    Assert.assertEquals(network.getTemporalNode(i).getNeighbourTimeline().getDegreeAt(date),
+                            loaded.getTemporalNode(i).getNeighbourTimeline().getDegreeAt(date));
+                }
+            }
+
+            assertSameEvents(network.getEventLog(), loaded.getEventLog());
+            Assert.assertEquals(3, loaded.getTemporalEdge(3).getAttributesTimeline().getAttributeAt("y", 250));
+
+            // events older than the ones of the file
+            for (DefaultTemporalNetwork n : new DefaultTemporalNetwork[]{network, loaded}) {
+                n.addNodeAt("old", 50.25);
+                n.getTemporalNode(0).setAttributeAt("z", 20.25, "z");
+            }
+
+            assertSameEvents(network.getEventLog(), loaded.getEventLog());
+            TestSnapshotCursor.assertSameGraph(network.getGraphAt(60), loaded.getGraphAt(60));
+        }
+    }
+
+    @Test
+    public void testHub() throws IOException {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        Random random = new Random(17);
+
+        network.addNodeAt("hub", 0);
+
+        for (int i = 0; i < 2000; i++) {
+            network.addNodeAt("n" + i, 0);
+
+            String id = "e" + i;
+            TemporalEdge edge = random.nextInt(100) == 0 ? network.addEdgeAt(id, "hub", "hub", true, 0)
+                    : network.addEdgeAt(id, random.nextBoolean() ? "hub" : "n" + i,
+                    random.nextBoolean() ? "hub" : "n" + i, random.nextBoolean(), random.nextInt(50));
+            double date = 50;
+
+            for (int w = 0; w < 4; w++) {
+                edge.removeAt(date += 1 + random.nextInt(50));
+                edge.addAt(date += 1 + random.nextInt(50));
+            }
+        }
+
+        try (MappedTemporalNetwork loaded = writeAndOpen(network, MappedFile.DEFAULT_SEGMENT_BITS)) {
+            NeighbourTimeline expected = network.getTemporalNode("hub").getNeighbourTimeline();
+            NeighbourTimeline actual = loaded.getTemporalNode("hub").getNeighbourTimeline();
+
+            Assert.assertEquals(expected.getDegreeChangeCount(), actual.getDegreeChangeCount());
+
+            for (double date = -1; date < 500; date += 1.5) {
+                Assert.assertEquals(expected.getDegreeAt(date), actual.getDegreeAt(date));
+                Assert.assertEquals(expected.getInDegreeAt(date), actual.getInDegreeAt(date));
+                Assert.assertEquals(expected.getOutDegreeAt(date), actual.getOutDegreeAt(date));
+
+                int[] e = expected.getEdgeIndicesAt(date), f = actual.getEdgeIndicesAt(date);
+                Arrays.sort(e);
+                Arrays.sort(f);
+                Assert.assertArrayEquals(e, f);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotANetworkFile() throws IOException {
+        File file = folder.newFile();
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[100]);
+        }
+
+        MappedTemporalNetwork.open(file);
+    }
+}
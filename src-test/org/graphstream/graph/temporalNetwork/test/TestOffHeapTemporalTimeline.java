@@ -0,0 +1,153 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.temporalNetwork.ArrayTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.OffHeapTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.TimeWindow;
+import org.graphstream.graph.temporalNetwork.WindowSlab;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ *
+ */
+public class TestOffHeapTemporalTimeline {
+    @Test
+    public void testSameBehaviourAsArrayTimeline() {
+        Random random = new Random(42);
+        Object[] values = {1, 2L, 3.5, 4.5f, true, "five", new int[]{6}, null};
+        WindowSlab slab = new WindowSlab(256);
+        ArrayTemporalTimeline<Object> array = new ArrayTemporalTimeline<>();
+        OffHeapTemporalTimeline<Object> offHeap = new OffHeapTemporalTimeline<>(slab);
+
+        for (int i = 0; i < 500; i++) {
+            double start = random.nextInt(10000);
+
+            if (array.existsAt(start) || array.existsAt(start + 5)) {
+                continue;
+            }
+
+            Object value = values[random.nextInt(values.length)];
+
+            array.insertTimeWindow(start, start + 5, value);
+            offHeap.insertTimeWindow(start, start + 5, value);
+        }
+
+        Iterator<TimeWindow> a = array.iterator(), b = offHeap.iterator();
+
+        while (a.hasNext()) {
+            TimeWindow tw = a.next(), tx = b.next();
+
+            if (random.nextInt(5) == 0) {
+                a.remove();
+                b.remove();
+            } else if (random.nextInt(5) == 0) {
+                tw.setEndDate(tw.getEndDate() - 1);
+                tx.setEndDate(tx.getEndDate() - 1);
+            }
+        }
+
+        Assert.assertFalse(b.hasNext());
+        Assert.assertEquals(array.size(), offHeap.size());
+
+        for (double date = -10; date < 10010; date += 0.5) {
+            Object expected = array.getValueAt(date), actual = offHeap.getValueAt(date);
+
+            Assert.assertEquals(array.existsAt(date), offHeap.existsAt(date));
+
+            if (expected instanceof int[]) {
+                Assert.assertSame(expected, actual);
+            } else {
+                Assert.assertEquals(expected, actual);
+            }
+        }
+
+        offHeap.trimToSize();
+        Assert.assertEquals(array.size(), offHeap.size());
+        Assert.assertEquals(array.getFloorTimeWindow(5000).getStartDate(),
+                offHeap.getFloorTimeWindow(5000).getStartDate(), 0);
+
+        offHeap.release();
+        Assert.assertEquals(0, offHeap.size());
+        Assert.assertEquals(0, slab.getUsedBytes());
+    }
+
+    @Test
+    public void testSlab() {
+        WindowSlab slab = new WindowSlab(1024);
+
+        Assert.assertEquals(0, WindowSlab.sizeClass(1));
+        Assert.assertEquals(1, WindowSlab.sizeClass(2));
+        Assert.assertEquals(2, WindowSlab.sizeClass(3));
+        Assert.assertEquals(10, WindowSlab.sizeClass(1024));
+
+        long a = slab.allocate(2), b = slab.allocate(2);
+
+        Assert.assertNotEquals(a, b);
+        Assert.assertEquals(1024, slab.getAllocatedBytes());
+        Assert.assertEquals(2 * 4 * WindowSlab.RECORD_SIZE, slab.getUsedBytes());
+
+        slab.free(a, 2);
+        Assert.assertEquals(a, slab.allocate(2));
+
+        long large = slab.allocate(6);
+        Assert.assertEquals(0, WindowSlab.offset(large));
+        Assert.assertEquals(1024 + 64 * WindowSlab.RECORD_SIZE, slab.getAllocatedBytes());
+
+        // blocks are still carved in the first chunk
+        long c = slab.allocate(3);
+        Assert.assertEquals(WindowSlab.offset(b) + 4 * WindowSlab.RECORD_SIZE, WindowSlab.offset(c));
+        Assert.assertSame(slab.chunk(a), slab.chunk(c));
+    }
+
+    @Test
+    public void testNetwork() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(2468);
+        DefaultTemporalNetwork offHeap = new DefaultTemporalNetwork();
+        WindowSlab slab = new WindowSlab();
+
+        offHeap.setWindowSlab(slab);
+        TestSnapshotCursor.createRandomNetwork(offHeap, 2468);
+
+        Assert.assertTrue(offHeap.getTemporalNode(0).getElementTimeline() instanceof OffHeapTemporalTimeline);
+        Assert.assertTrue(slab.getUsedBytes() > 0);
+
+        for (double date = -1; date < 101; date += 0.25) {
+            TestSnapshotCursor.assertSameGraph(network.getGraphAt(date), offHeap.getGraphAt(date));
+        }
+    }
+}
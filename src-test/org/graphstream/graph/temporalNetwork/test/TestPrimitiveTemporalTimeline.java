@@ -0,0 +1,176 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.temporalNetwork.ArrayTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.AttributesTimeline;
+import org.graphstream.graph.temporalNetwork.BooleanTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.DoubleTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.IntTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.LongTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.PrimitiveTemporalTimeline;
+import org.graphstream.graph.temporalNetwork.TimeWindow;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ *
+ */
+public class TestPrimitiveTemporalTimeline {
+    @Test
+    public void testTypeChosenOnFirstWrite() {
+        AttributesTimeline atl = new AttributesTimeline();
+
+        atl.setAttributeAt("d", 0, 1.5);
+        atl.setAttributeAt("i", 0, 2);
+        atl.setAttributeAt("l", 0, 3L);
+        atl.setAttributeAt("b", 0, true);
+        atl.setAttributeAt("s", 0, "four");
+
+        Assert.assertTrue(atl.getAttributeTimeline("d") instanceof DoubleTemporalTimeline);
+        Assert.assertTrue(atl.getAttributeTimeline("i") instanceof IntTemporalTimeline);
+        Assert.assertTrue(atl.getAttributeTimeline("l") instanceof LongTemporalTimeline);
+        Assert.assertTrue(atl.getAttributeTimeline("b") instanceof BooleanTemporalTimeline);
+        Assert.assertFalse(atl.getAttributeTimeline("s") instanceof PrimitiveTemporalTimeline);
+
+        Assert.assertEquals(1.5, atl.getAttributeAt("d", 1));
+        Assert.assertEquals(2, atl.getAttributeAt("i", 1));
+        Assert.assertEquals(3L, atl.getAttributeAt("l", 1));
+        Assert.assertEquals(Boolean.TRUE, atl.getAttributeAt("b", 1));
+        Assert.assertEquals("four", atl.getAttributeAt("s", 1));
+
+        Assert.assertEquals(1.5, atl.getNumberAt("d", 1), 0);
+        Assert.assertEquals(2, atl.getNumberAt("i", 1), 0);
+        Assert.assertEquals(3, atl.getNumberAt("l", 1), 0);
+        Assert.assertTrue(Double.isNaN(atl.getNumberAt("b", 1)));
+        Assert.assertTrue(Double.isNaN(atl.getNumberAt("s", 1)));
+        Assert.assertTrue(Double.isNaN(atl.getNumberAt("d", -1)));
+        Assert.assertTrue(Double.isNaN(atl.getNumberAt("missing", 1)));
+
+        atl.removeAttributeAt("d", 5);
+        Assert.assertTrue(atl.hasAttributeAt("d", 4));
+        Assert.assertFalse(atl.hasAttributeAt("d", 5));
+        Assert.assertTrue(Double.isNaN(atl.getNumberAt("d", 5)));
+    }
+
+    @Test
+    public void testWidening() {
+        AttributesTimeline atl = new AttributesTimeline(true);
+
+        atl.setAttributeAt("weight", 0, 1.0);
+        atl.setAttributeAt("weight", 10, 2.0);
+        atl.setAttributeAt("weight", 20, 3);
+
+        Assert.assertFalse(atl.getAttributeTimeline("weight") instanceof PrimitiveTemporalTimeline);
+        Assert.assertTrue(atl.getAttributeTimeline("weight") instanceof ArrayTemporalTimeline);
+
+        Assert.assertEquals(1.0, atl.getAttributeAt("weight", 5));
+        Assert.assertEquals(2.0, atl.getAttributeAt("weight", 15));
+        Assert.assertEquals(3, atl.getAttributeAt("weight", 25));
+        Assert.assertEquals(3, atl.getNumberAt("weight", 25), 0);
+
+        atl.setAttributeAt("weight", 5, "five");
+        Assert.assertEquals("five", atl.getAttributeAt("weight", 7));
+        Assert.assertTrue(Double.isNaN(atl.getNumberAt("weight", 7)));
+        Assert.assertEquals(1.0, atl.getAttributeAt("weight", 2));
+    }
+
+    @Test
+    public void testSameBehaviourAsArrayTimeline() {
+        Random random = new Random(1234);
+        PrimitiveTemporalTimeline[] primitives = {new DoubleTemporalTimeline(), new IntTemporalTimeline(),
+                new LongTemporalTimeline(), new BooleanTemporalTimeline()};
+
+        for (PrimitiveTemporalTimeline primitive : primitives) {
+            ArrayTemporalTimeline<Object> array = new ArrayTemporalTimeline<>();
+
+            for (int i = 0; i < 500; i++) {
+                double start = random.nextInt(10000);
+
+                if (array.existsAt(start) || array.existsAt(start + 5)) {
+                    continue;
+                }
+
+                Object value = valueFor(primitive, random.nextInt(100));
+
+                array.insertTimeWindow(start, start + 5, value);
+                primitive.insertTimeWindow(start, start + 5, value);
+            }
+
+            Iterator<TimeWindow> a = array.iterator(), b = primitive.iterator();
+
+            while (a.hasNext()) {
+                TimeWindow tw = a.next(), tx = b.next();
+
+                if (random.nextInt(5) == 0) {
+                    a.remove();
+                    b.remove();
+                } else if (random.nextInt(5) == 0) {
+                    tw.setEndDate(tw.getEndDate() - 1);
+                    tx.setEndDate(tx.getEndDate() - 1);
+                }
+            }
+
+            Assert.assertFalse(b.hasNext());
+            primitive.trimToSize();
+            Assert.assertEquals(array.size(), primitive.size());
+
+            for (double date = -10; date < 10010; date += 0.5) {
+                Object expected = array.getValueAt(date);
+
+                Assert.assertEquals(array.existsAt(date), primitive.existsAt(date));
+                Assert.assertEquals(expected, primitive.getValueAt(date));
+
+                if (expected instanceof Number) {
+                    Assert.assertEquals(((Number) expected).doubleValue(), primitive.getNumberAt(date), 0);
+                } else {
+                    Assert.assertTrue(Double.isNaN(primitive.getNumberAt(date)));
+                }
+            }
+        }
+    }
+
+    protected static Object valueFor(PrimitiveTemporalTimeline timeline, int i) {
+        if (timeline instanceof DoubleTemporalTimeline) {
+            return i / 4.0;
+        } else if (timeline instanceof IntTemporalTimeline) {
+            return i;
+        } else if (timeline instanceof LongTemporalTimeline) {
+            return (long) i << 40;
+        } else {
+            return i % 2 == 0;
+        }
+    }
+}
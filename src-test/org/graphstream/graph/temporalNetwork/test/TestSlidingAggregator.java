@@ -0,0 +1,203 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.TemporalNetwork;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.FrozenTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.SlidingAggregator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestSlidingAggregator {
+    @Test
+    public void testWeights() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 0);
+        network.addNodeAt("C", 5);
+        network.addEdgeAt("AB", "A", "B", false, 2);
+        network.addEdgeAt("BC", "B", "C", true, 0);
+        network.getTemporalEdge("AB").removeAt(4);
+        network.getTemporalEdge("AB").addAt(6);
+        network.getTemporalNode("B").removeAt(9);
+
+        SlidingAggregator aggregator = new SlidingAggregator(network, 4, 3);
+        Graph graph = aggregator.getGraph();
+
+        Assert.assertEquals(2, graph.getNodeCount());
+        Assert.assertEquals(3, (Double) graph.getNode("A").getAttribute("weight"), 1e-9);
+        Assert.assertEquals(1, (Double) graph.getEdge("AB").getAttribute("weight"), 1e-9);
+        Assert.assertNull(graph.getEdge("BC"));
+
+        aggregator.moveTo(8);
+
+        Assert.assertEquals(3, graph.getNodeCount());
+        Assert.assertEquals(3, (Double) graph.getNode("C").getAttribute("weight"), 1e-9);
+        Assert.assertEquals(2, (Double) graph.getEdge("AB").getAttribute("weight"), 1e-9);
+        Assert.assertEquals(3, (Double) graph.getEdge("BC").getAttribute("weight"), 1e-9);
+
+        aggregator.moveTo(13);
+
+        Assert.assertNull(graph.getNode("B"));
+        Assert.assertEquals(0, graph.getEdgeCount());
+        Assert.assertEquals(4, (Double) graph.getNode("A").getAttribute("weight"), 1e-9);
+
+        aggregator.moveTo(14);
+
+        Assert.assertEquals(2, graph.getNodeCount());
+    }
+
+    @Test
+    public void testMatchesTimelines() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(41);
+        FrozenTemporalNetwork frozen = new FrozenTemporalNetwork(network);
+        Random random = new Random(5);
+
+        SlidingAggregator aggregator = new SlidingAggregator(network, 12, -3);
+        assertAggregate(frozen, aggregator);
+
+        for (int i = 0; i < 80; i++) {
+            double date = aggregator.getDate() + (random.nextInt(8) == 0 ? -20 : random.nextInt(30) / 10.0);
+
+            aggregator.moveTo(date);
+            assertAggregate(frozen, aggregator);
+        }
+    }
+
+    @Test
+    public void testHubWithLongHistory() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("H", 0);
+
+        for (int i = 0; i < 1000; i++) {
+            network.addNodeAt("L" + i, 0);
+            network.addEdgeAt("E" + i, "H", "L" + i, false, i).removeAt(i + 0.5);
+        }
+
+        network.addEdgeAt("live", "H", "L0", false, 1990);
+        network.getTemporalNode("H").removeAt(2000);
+        network.getTemporalNode("H").addAt(2001);
+
+        CountingAggregator aggregator = new CountingAggregator(network, 10, 1994);
+        aggregator.crossed = 0;
+        aggregator.moveTo(2005);
+
+        // the ended edges of the hub are not crossed when the hub is removed and added again
+        Assert.assertTrue(aggregator.crossed < 10);
+        Assert.assertEquals(9, (Double) aggregator.getGraph().getEdge("live").getAttribute("weight"), 1e-9);
+        assertAggregate(new FrozenTemporalNetwork(network), aggregator);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWidth() {
+        new SlidingAggregator(new DefaultTemporalNetwork(), 0, 10);
+    }
+
+    /**
+     * Compare the graph of an aggregator with the overlaps of the time-windows of a frozen network, whose
+     * edge windows are already clipped to the ones of their endpoints.
+     */
+    static void assertAggregate(FrozenTemporalNetwork frozen, SlidingAggregator aggregator) {
+        Graph graph = aggregator.getGraph();
+        double end = aggregator.getDate(), start = end - aggregator.getWidth();
+        int nodes = 0, edges = 0;
+
+        for (int i = 0; i < frozen.getNodeCount(); i++) {
+            double weight = 0;
+
+            for (int w = 0; w < frozen.getNodeWindowCount(i); w++) {
+                weight += overlap(frozen.getNodeWindowStart(i, w), frozen.getNodeWindowEnd(i, w), start, end);
+            }
+
+            Node node = graph.getNode(frozen.getNodeId(i));
+
+            if (weight > 0) {
+                Assert.assertNotNull(node);
+                Assert.assertEquals(weight, (Double) node.getAttribute("weight"), 1e-9);
+                nodes++;
+            } else {
+                Assert.assertNull(node);
+            }
+        }
+
+        for (int i = 0; i < frozen.getEdgeCount(); i++) {
+            double weight = 0;
+
+            for (int w = 0; w < frozen.getEdgeWindowCount(i); w++) {
+                weight += overlap(frozen.getEdgeWindowStart(i, w), frozen.getEdgeWindowEnd(i, w), start, end);
+            }
+
+            Edge edge = graph.getEdge(frozen.getEdgeId(i));
+
+            if (weight > 0) {
+                Assert.assertNotNull(edge);
+                Assert.assertEquals(weight, (Double) edge.getAttribute("weight"), 1e-9);
+                Assert.assertEquals(frozen.getNodeId(frozen.getSource(i)), edge.getSourceNode().getId());
+                edges++;
+            } else {
+                Assert.assertNull(edge);
+            }
+        }
+
+        Assert.assertEquals(nodes, graph.getNodeCount());
+        Assert.assertEquals(edges, graph.getEdgeCount());
+    }
+
+    /**
+     * Aggregator counting the edges crossed by its cursors.
+     */
+    static class CountingAggregator extends SlidingAggregator {
+        int crossed;
+
+        CountingAggregator(TemporalNetwork network, double width, double date) {
+            super(network, width, date);
+        }
+
+        @Override
+        protected void crossEdge(int edge, double eventDate, double date, boolean lead) {
+            crossed++;
+            super.crossEdge(edge, eventDate, date, lead);
+        }
+    }
+
+    static double overlap(double start, double end, double from, double to) {
+        return Math.max(0, Math.min(end, to) - Math.max(start, from));
+    }
+}
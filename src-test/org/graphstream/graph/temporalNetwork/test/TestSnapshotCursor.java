@@ -0,0 +1,187 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.SnapshotCursor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ *
+ */
+public class TestSnapshotCursor {
+    /**
+     * Build a network with random changes of nodes, edges and attributes over [0;100[.
+     */
+    static DefaultTemporalNetwork createRandomNetwork(long seed) {
+        return createRandomNetwork(new DefaultTemporalNetwork(), seed);
+    }
+
+    static DefaultTemporalNetwork createRandomNetwork(DefaultTemporalNetwork network, long seed) {
+        Random random = new Random(seed);
+        int nodes = 20, edges = 60;
+
+        for (int i = 0; i < nodes; i++) {
+            network.addNodeAt("n" + i, -1);
+        }
+
+        for (int step = 0; step < 100; step++) {
+            for (int k = 0; k < 5; k++) {
+                double date = step + k / 5.0;
+                int op = random.nextInt(3);
+
+                if (op == 0) {
+                    TemporalNode node = network.getTemporalNode("n" + random.nextInt(nodes));
+
+                    if (node.existsAt(date)) {
+                        node.removeAt(date);
+                    } else {
+                        node.addAt(date);
+                    }
+                } else if (op == 1) {
+                    String id = "e" + random.nextInt(edges);
+                    TemporalEdge edge = network.getTemporalEdge(id);
+
+                    if (edge == null) {
+                        network.addEdgeAt(id, "n" + random.nextInt(nodes), "n" + random.nextInt(nodes),
+                                random.nextBoolean(), date);
+                    } else if (edge.existsAt(date)) {
+                        edge.removeAt(date);
+                    } else {
+                        edge.addAt(date);
+                    }
+                } else {
+                    TemporalNode node = network.getTemporalNode("n" + random.nextInt(nodes));
+
+                    if (random.nextInt(4) == 0) {
+                        node.removeAttributeAt("x", date);
+                    } else {
+                        node.setAttributeAt("x", date, random.nextInt(10));
+                    }
+                }
+            }
+        }
+
+        return network;
+    }
+
+    static void assertSameGraph(Graph expected, Graph actual) {
+        Assert.assertEquals(expected.getNodeCount(), actual.getNodeCount());
+        Assert.assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+
+        for (Node n : expected.getEachNode()) {
+            Node m = actual.getNode(n.getId());
+
+            Assert.assertNotNull(m);
+            Assert.assertEquals(n.getAttribute("x"), m.getAttribute("x"));
+        }
+
+        for (Edge e : expected.getEachEdge()) {
+            Edge f = actual.getEdge(e.getId());
+
+            Assert.assertNotNull(f);
+            Assert.assertEquals(e.getSourceNode().getId(), f.getSourceNode().getId());
+            Assert.assertEquals(e.isDirected(), f.isDirected());
+        }
+    }
+
+    @Test
+    public void testSweep() {
+        DefaultTemporalNetwork network = createRandomNetwork(12);
+        SnapshotCursor cursor = new SnapshotCursor(network, -2);
+
+        Assert.assertEquals(0, cursor.getGraph().getNodeCount());
+
+        while (cursor.next()) {
+            assertSameGraph(network.getGraphAt(cursor.getDate()), cursor.getGraph());
+        }
+
+        Assert.assertEquals(network.getEventLog().lastChangeAt(Double.POSITIVE_INFINITY), cursor.getDate(), 0);
+
+        while (cursor.previous()) {
+            assertSameGraph(network.getGraphAt(cursor.getDate()), cursor.getGraph());
+        }
+
+        Assert.assertEquals(-1, cursor.getDate(), 0);
+    }
+
+    @Test
+    public void testMultiValuedAttributes() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        network.addNodeAt("A", 0);
+        network.getTemporalNode("A").setAttributeAt("xy", 0, 1, 2);
+        network.getTemporalNode("A").setAttributeAt("xy", 5, 3, 4);
+        network.getTemporalNode("A").setAttributeAt("z", 0, (Object) new Object[]{5});
+        network.getTemporalNode("A").removeAt(2);
+        network.getTemporalNode("A").addAt(3);
+
+        SnapshotCursor cursor = new SnapshotCursor(network, 1);
+
+        Assert.assertArrayEquals(new Object[]{1, 2}, (Object[]) cursor.getGraph().getNode("A").getAttribute("xy"));
+        Assert.assertArrayEquals(new Object[]{5}, (Object[]) cursor.getGraph().getNode("A").getAttribute("z"));
+
+        cursor.moveTo(4);
+
+        Assert.assertArrayEquals(new Object[]{5}, (Object[]) cursor.getGraph().getNode("A").getAttribute("z"));
+
+        cursor.moveTo(6);
+
+        Assert.assertArrayEquals(new Object[]{3, 4}, (Object[]) cursor.getGraph().getNode("A").getAttribute("xy"));
+    }
+
+    @Test
+    public void testJumps() {
+        DefaultTemporalNetwork network = createRandomNetwork(34);
+        Random random = new Random(56);
+        SnapshotCursor cursor = new SnapshotCursor(network, 50.5);
+
+        assertSameGraph(network.getGraphAt(50.5), cursor.getGraph());
+
+        for (int i = 0; i < 200; i++) {
+            double date = random.nextDouble() * 110 - 5;
+
+            cursor.moveTo(date);
+            assertSameGraph(network.getGraphAt(date), cursor.getGraph());
+        }
+
+        Assert.assertEquals(0, cursor.moveTo(cursor.getDate()));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.GraphSnapshot;
+import org.graphstream.graph.temporalNetwork.SnapshotSweep;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestSnapshotSweep {
+    @Test
+    public void testDates() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        Assert.assertEquals(10, new SnapshotSweep(network, 0, 1, 0.1).getDateCount());
+        Assert.assertEquals(4, new SnapshotSweep(network, 0, 10, 3).getDateCount());
+        Assert.assertEquals(0, new SnapshotSweep(network, 5, 5, 1).getDateCount());
+        Assert.assertTrue(network.snapshotsBetween(5, 5, 1).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStep() {
+        new SnapshotSweep(new DefaultTemporalNetwork(), 0, 10, 0);
+    }
+
+    @Test
+    public void testSnapshotsMatchGraphAt() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(31);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            SnapshotSweep sweep = new SnapshotSweep(network, -2, 102, 0.3);
+            List<GraphSnapshot> snapshots = sweep.snapshots(pool);
+
+            Assert.assertEquals(sweep.getDateCount(), snapshots.size());
+
+            for (int i = 0; i < snapshots.size(); i++) {
+                Assert.assertEquals(sweep.getDate(i), snapshots.get(i).getSnapshotDate(), 0);
+                TestSnapshotCursor.assertSameGraph(network.getGraphAt(sweep.getDate(i)), snapshots.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testVisitMatchesGraphAt() {
+        final DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(47);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            SnapshotSweep sweep = new SnapshotSweep(network, -2, 102, 0.1);
+            List<String> results = sweep.visit(new SnapshotSweep.Visitor<String>() {
+                @Override
+                public String visit(double date, Graph graph) {
+                    return describe(graph);
+                }
+            }, pool);
+
+            Assert.assertEquals(sweep.getDateCount(), results.size());
+
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals(describe(network.getGraphAt(sweep.getDate(i))), results.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Summarize a graph : its counts of elements and the sum of the attribute of its nodes.
+     */
+    static String describe(Graph graph) {
+        int sum = 0;
+
+        for (int i = 0; i < graph.getNodeCount(); i++) {
+            Object x = graph.getNode(i).getAttribute("x");
+            sum += x == null ? 0 : ((Number) x).intValue();
+        }
+
+        return graph.getNodeCount() + "/" + graph.getEdgeCount() + "/" + sum;
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.FrozenTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.TemporalCentrality;
+import org.graphstream.graph.temporalNetwork.TemporalPaths;
+import org.graphstream.graph.temporalNetwork.TemporalReachability;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestTemporalCentrality {
+    @Test
+    public void testBetweenness() {
+        DefaultTemporalNetwork line = new DefaultTemporalNetwork();
+
+        for (String id : new String[]{"A", "B", "C"}) {
+            line.addNodeAt(id, 0);
+        }
+
+        line.addEdgeAt("AB", "A", "B", false, 0).removeAt(10);
+        line.addEdgeAt("BC", "B", "C", false, 5).removeAt(6);
+
+        FrozenTemporalNetwork network = line.freeze();
+        TemporalCentrality.Centralities centralities = new TemporalCentrality(
+                new TemporalPaths(network, null), 0, 10).compute();
+
+        Assert.assertEquals(1, centralities.getBetweenness(network.getNodeIndex("B")), 1e-12);
+        Assert.assertEquals(0, centralities.getBetweenness(network.getNodeIndex("A")), 1e-12);
+        Assert.assertEquals(1, centralities.getReachability(network.getNodeIndex("A")), 1e-12);
+        Assert.assertEquals((1 + 0.5) / 2, centralities.getCloseness(network.getNodeIndex("A")), 1e-12);
+        Assert.assertEquals(0, centralities.getBetweennessError(), 0);
+
+        // A square : journeys between opposite corners are split between the two other corners.
+        DefaultTemporalNetwork square = new DefaultTemporalNetwork();
+
+        for (String id : new String[]{"A", "B", "C", "D"}) {
+            square.addNodeAt(id, 0);
+        }
+
+        for (String id : new String[]{"AB", "AC", "BD", "CD"}) {
+            square.addEdgeAt(id, id.substring(0, 1), id.substring(1), false, 0).removeAt(10);
+        }
+
+        centralities = new TemporalCentrality(new TemporalPaths(square), 0, 10).compute();
+
+        for (int v = 0; v < 4; v++) {
+            Assert.assertEquals(1 / 6.0, centralities.getBetweenness(v), 1e-12);
+            Assert.assertEquals(1, centralities.getCloseness(v), 1e-12);
+        }
+    }
+
+    @Test
+    public void testBetweennessOfLaterArrivals() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        for (String id : new String[]{"S", "A", "V", "T"}) {
+            network.addNodeAt(id, 0);
+        }
+
+        network.addEdgeAt("SA", "S", "A", false, 0).removeAt(1);
+        network.addEdgeAt("AV", "A", "V", false, 1).removeAt(2);
+        network.addEdgeAt("SV", "S", "V", false, 5).removeAt(20);
+        network.addEdgeAt("VT", "V", "T", false, 6).removeAt(20);
+
+        // S reaches V the earliest through A, but T through the later arrival at V by SV : A only counts for V.
+        FrozenTemporalNetwork frozen = network.freeze();
+        TemporalCentrality centrality = new TemporalCentrality(new TemporalPaths(frozen, null), 0, 10);
+        TemporalCentrality.Centralities centralities = centrality.compute();
+
+        Assert.assertEquals(1 / 6.0, centralities.getBetweenness(frozen.getNodeIndex("A")), 1e-12);
+        assertBetweenness(enumerateBetweenness(frozen, 0, 10), centralities);
+
+        // the sampled sources are searched the same way
+        Assert.assertEquals(centralities.getBetweenness(frozen.getNodeIndex("A")),
+                centrality.estimate(4000, 0.01, 7).getBetweenness(frozen.getNodeIndex("A")), 0.05);
+    }
+
+    @Test
+    public void testExactMatchesJourneys() {
+        FrozenTemporalNetwork network = TestTemporalReachability.createLargeNetwork(3).freeze();
+        TemporalPaths paths = new TemporalPaths(network, null);
+        double from = 5, to = 45;
+        int n = network.getNodeCount();
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            TemporalCentrality.Centralities centralities = new TemporalCentrality(paths, from, to).compute(pool);
+            int[] counts = new TemporalReachability(network, from, to).countReachable(pool);
+
+            for (int s = 0; s < n; s += 7) {
+                TemporalPaths.Journeys journeys = paths.earliestArrival(s, from);
+                double closeness = 0;
+
+                for (int v = 0; v < n; v++) {
+                    if (v != s && journeys.getTime(v) < to) {
+                        closeness += (to - journeys.getTime(v)) / (to - from);
+                    }
+                }
+
+                Assert.assertEquals(closeness / (n - 1), centralities.getCloseness(s), 1e-9);
+                Assert.assertEquals(counts[s] / (double) (n - 1), centralities.getReachability(s), 1e-12);
+            }
+
+            for (long seed = 0; seed < 20; seed++) {
+                FrozenTemporalNetwork small = createSmallNetwork(seed).freeze();
+
+                assertBetweenness(enumerateBetweenness(small, from, to),
+                        new TemporalCentrality(new TemporalPaths(small, null), from, to).compute(pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEstimatesWithinBounds() {
+        FrozenTemporalNetwork network = TestTemporalReachability.createLargeNetwork(5).freeze();
+        TemporalCentrality centrality = new TemporalCentrality(new TemporalPaths(network, null), 0, 40);
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            TemporalCentrality.Centralities exact = centrality.compute(pool);
+            TemporalCentrality.Centralities estimated = centrality.estimate(1500, 0.01, 42, pool);
+
+            Assert.assertTrue(estimated.getClosenessError() > 0 && estimated.getClosenessError() < 0.1);
+
+            for (int v = 0; v < network.getNodeCount(); v++) {
+                Assert.assertEquals(exact.getCloseness(v), estimated.getCloseness(v), estimated.getClosenessError());
+                Assert.assertEquals(exact.getReachability(v), estimated.getReachability(v),
+                        estimated.getReachabilityError());
+                Assert.assertEquals(exact.getBetweenness(v), estimated.getBetweenness(v),
+                        estimated.getBetweennessError());
+            }
+
+            TemporalCentrality.Centralities again = centrality.estimate(1500, 0.01, 42, pool);
+            Assert.assertEquals(estimated.getBetweenness(0), again.getBetweenness(0), 1e-12);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static void assertBetweenness(double[] expected, TemporalCentrality.Centralities centralities) {
+        for (int v = 0; v < expected.length; v++) {
+            Assert.assertEquals(expected[v], centralities.getBetweenness(v), 1e-12);
+        }
+    }
+
+    /**
+     * Betweenness counted on all the journeys which do not go twice through a node, each edge being taken as
+     * soon as possible. Shortest-foremost journeys are among them.
+     */
+    static double[] enumerateBetweenness(FrozenTemporalNetwork network, double from, double to) {
+        int n = network.getNodeCount();
+        double[] betweenness = new double[n];
+
+        for (int s = 0; s < n; s++) {
+            double[] times = new double[n];
+            int[] hops = new int[n];
+            double[] counts = new double[n];
+            double[][] through = new double[n][n];
+
+            Arrays.fill(times, Double.POSITIVE_INFINITY);
+            enumerate(network, s, from, to, new int[]{s}, new boolean[n], times, hops, counts, through);
+
+            for (int t = 0; t < n; t++) {
+                for (int v = 0; v < n; v++) {
+                    if (counts[t] > 0) {
+                        betweenness[v] += through[t][v] / counts[t];
+                    }
+                }
+            }
+        }
+
+        for (int v = 0; v < n && n > 2; v++) {
+            betweenness[v] /= (double) (n - 1) * (n - 2);
+        }
+
+        return betweenness;
+    }
+
+    static void enumerate(FrozenTemporalNetwork network, int u, double time, double to, int[] path,
+                          boolean[] visited, double[] times, int[] hops, double[] counts, double[][] through) {
+        int length = path.length - 1;
+
+        if (length > 0) {
+            if (time < times[u] || (time == times[u] && length < hops[u])) {
+                times[u] = time;
+                hops[u] = length;
+                counts[u] = 0;
+                Arrays.fill(through[u], 0);
+            }
+
+            if (time == times[u] && length == hops[u]) {
+                counts[u]++;
+
+                for (int i = 1; i < length; i++) {
+                    through[u][path[i]]++;
+                }
+            }
+        }
+
+        visited[u] = true;
+
+        for (int i = 0; i < network.getIncidentEdgeCount(u); i++) {
+            int edge = network.getIncidentEdge(u, i);
+            int v = network.getOpposite(edge, u);
+            int window = network.getEdgeWindowFrom(edge, time);
+
+            if (visited[v] || (network.isDirected(edge) && network.getSource(edge) != u)
+                    || window == network.getEdgeWindowCount(edge)) {
+                continue;
+            }
+
+            double arrival = Math.max(time, network.getEdgeWindowStart(edge, window));
+
+            if (arrival < to) {
+                int[] next = Arrays.copyOf(path, path.length + 1);
+                next[path.length] = v;
+                enumerate(network, v, arrival, to, next, visited, times, hops, counts, through);
+            }
+        }
+
+        visited[u] = false;
+    }
+
+    /**
+     * A small random network whose edges exist in several windows, so that journeys can be enumerated.
+     */
+    static DefaultTemporalNetwork createSmallNetwork(long seed) {
+        Random random = new Random(seed);
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        int nodes = 9;
+
+        for (int i = 0; i < nodes; i++) {
+            network.addNodeAt("n" + i, 0);
+        }
+
+        for (int i = 0; i < 18; i++) {
+            double start = 5 + random.nextInt(40);
+            TemporalEdge edge = network.addEdgeAt("e" + i, "n" + random.nextInt(nodes), "n" + random.nextInt(nodes),
+                    random.nextInt(4) == 0, start);
+
+            edge.removeAt(start + 1 + random.nextInt(4));
+
+            if (random.nextBoolean()) {
+                edge.addAt(start + 10 + random.nextInt(10));
+            }
+        }
+
+        return network;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.Node;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.NeighbourTimeline;
+import org.graphstream.graph.temporalNetwork.TemporalNetworkSink;
+import org.graphstream.graph.temporalNetwork.TemporalNetworkSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TestTemporalNetworkSink {
+    @Test
+    public void testRoundTrip() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(1234);
+        DefaultTemporalNetwork copy = new DefaultTemporalNetwork();
+        TemporalNetworkSource source = new TemporalNetworkSource(network);
+        TemporalNetworkSink sink = new TemporalNetworkSink(copy);
+
+        copy.setArrayTimelines(true);
+        source.addSink(sink);
+        source.replay(-2, 200);
+        sink.flush();
+
+        for (double date = -1; date < 101; date += 0.1) {
+            TestSnapshotCursor.assertSameGraph(network.getGraphAt(date), copy.getGraphAt(date));
+        }
+    }
+
+    /**
+     * Record the same stream with a batch of the network for each step, and with one batch for the whole
+     * stream.
+     */
+    @Test
+    public void testBatchSize() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(4321);
+        DefaultTemporalNetwork stepped = new DefaultTemporalNetwork();
+        DefaultTemporalNetwork bulk = new DefaultTemporalNetwork();
+        TemporalNetworkSource source = new TemporalNetworkSource(network);
+        TemporalNetworkSink steppedSink = new TemporalNetworkSink(stepped);
+        TemporalNetworkSink bulkSink = new TemporalNetworkSink(bulk);
+
+        Assert.assertTrue(stepped.isArrayTimelines());
+        Assert.assertEquals(0, bulkSink.getBatchSize());
+
+        bulkSink.setBatchSize(Integer.MAX_VALUE);
+        source.addSink(steppedSink);
+        source.addSink(bulkSink);
+        source.replay(-2, 200);
+        steppedSink.flush();
+        bulkSink.flush();
+
+        for (double date = -1; date < 101; date += 0.1) {
+            TestSnapshotCursor.assertSameGraph(stepped.getGraphAt(date), bulk.getGraphAt(date));
+        }
+
+        for (int i = 0; i < stepped.getTotalNodeCount(); i++) {
+            NeighbourTimeline expected = stepped.getTemporalNode(i).getNeighbourTimeline();
+            NeighbourTimeline actual = bulk.getTemporalNode(i).getNeighbourTimeline();
+
+            for (double date = -1; date < 101; date += 0.5) {
+                Assert.assertEquals(expected.getDegreeAt(date), actual.getDegreeAt(date));
+                Assert.assertEquals(expected.getEdgeIndicesAt(date).length, actual.getEdgeIndicesAt(date).length);
+            }
+        }
+    }
+
+    @Test
+    public void testNetChanges() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        TemporalNetworkSink sink = new TemporalNetworkSink(network);
+
+        sink.stepBegins("test", 0, 1);
+        sink.nodeAdded("test", 1, "A");
+        sink.nodeAdded("test", 2, "B");
+        sink.nodeAdded("test", 3, "C");
+        sink.nodeRemoved("test", 4, "C");
+        sink.edgeAdded("test", 5, "AB", "A", "B", false);
+        sink.nodeAttributeAdded("test", 6, "A", "x", 1);
+
+        sink.stepBegins("test", 7, 2);
+        sink.nodeAttributeChanged("test", 8, "A", "x", 1, 2);
+        sink.edgeRemoved("test", 9, "AB");
+        sink.edgeAdded("test", 10, "AB", "A", "B", false);
+
+        sink.stepBegins("test", 11, 3);
+        sink.graphCleared("test", 12);
+        sink.nodeAdded("test", 13, "B");
+        sink.flush();
+
+        Assert.assertEquals(2, network.getTotalNodeCount());
+        Assert.assertNull(network.getTemporalNode("C"));
+
+        Assert.assertEquals(1, network.getTemporalNode("A").getNodeAt(1.5).getAttribute("x"));
+        Assert.assertEquals(2, network.getTemporalNode("A").getNodeAt(2.5).getAttribute("x"));
+
+        Assert.assertEquals(2, network.getGraphAt(2.5).getNodeCount());
+        Assert.assertEquals(1, network.getGraphAt(2.5).getEdgeCount());
+        Assert.assertEquals(1, network.getEventLog().countBetween(2, 3));
+
+        Assert.assertEquals(1, network.getGraphAt(3).getNodeCount());
+        Assert.assertNotNull(network.getGraphAt(3).getNode("B"));
+        Assert.assertEquals(0, network.getGraphAt(3).getEdgeCount());
+    }
+
+    @Test
+    public void testRemovedAndAddedAgain() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        TemporalNetworkSink sink = new TemporalNetworkSink(network);
+
+        sink.stepBegins("test", 0, 1);
+        sink.nodeAdded("test", 1, "A");
+        sink.nodeAdded("test", 2, "B");
+        sink.edgeAdded("test", 3, "AB", "A", "B", false);
+        sink.nodeAttributeAdded("test", 4, "A", "x", 1);
+        sink.edgeAttributeAdded("test", 5, "AB", "w", 1);
+
+        sink.stepBegins("test", 6, 2);
+        sink.nodeAttributeChanged("test", 7, "A", "x", 1, 3);
+        sink.edgeRemoved("test", 8, "AB");
+        sink.nodeRemoved("test", 9, "A");
+        sink.nodeAdded("test", 10, "A");
+        sink.nodeAttributeAdded("test", 11, "A", "y", 2);
+        sink.edgeAdded("test", 12, "AB", "A", "B", false);
+
+        sink.stepBegins("test", 13, 3);
+        sink.nodeAttributeAdded("test", 14, "B", "z", 1);
+        sink.graphCleared("test", 15);
+        sink.nodeAdded("test", 16, "B");
+        sink.flush();
+
+        Node a = network.getGraphAt(2.5).getNode("A");
+
+        Assert.assertNull(a.getAttribute("x"));
+        Assert.assertEquals(2, a.getAttribute("y"));
+        Assert.assertNull(network.getGraphAt(2.5).getEdge("AB").getAttribute("w"));
+        Assert.assertEquals(1, network.getGraphAt(1.5).getNode("A").getAttribute("x"));
+        Assert.assertEquals(0, network.getGraphAt(3).getNode("B").getAttributeCount());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.TemporalNetworkSource;
+import org.graphstream.stream.SinkAdapter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TestTemporalNetworkSource {
+    @Test
+    public void testReplay() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(78);
+        TemporalNetworkSource source = new TemporalNetworkSource(network);
+        Graph g = new MultiGraph("replay");
+
+        source.addSink(g);
+        source.begin(10);
+
+        TestSnapshotCursor.assertSameGraph(network.getGraphAt(10), g);
+
+        while (source.nextStep(60)) {
+            TestSnapshotCursor.assertSameGraph(network.getGraphAt(source.getDate()), g);
+        }
+
+        Assert.assertEquals(network.getEventLog().lastChangeAt(60), source.getDate(), 0);
+
+        source.replay(0, 50);
+        TestSnapshotCursor.assertSameGraph(network.getGraphAt(50), g);
+    }
+
+    @Test
+    public void testSteps() {
+        DefaultTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(90);
+        TemporalNetworkSource source = new TemporalNetworkSource(network);
+        Graph g = new MultiGraph("replay");
+        final int[] steps = {0};
+
+        source.addSink(g);
+        source.addSink(new SinkAdapter() {
+            @Override
+            public void stepBegins(String sourceId, long timeId, double step) {
+                steps[0]++;
+            }
+        });
+
+        source.setStepWidth(10);
+        source.replay(-0.5, 99.5);
+
+        Assert.assertEquals(11, steps[0]);
+        Assert.assertEquals(89.5, g.getStep(), 0);
+        TestSnapshotCursor.assertSameGraph(network.getGraphAt(99.5), g);
+    }
+
+    @Test
+    public void testEqualValuesNotSent() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        TemporalNetworkSource source = new TemporalNetworkSource(network);
+        final int[] changes = {0};
+
+        network.addNodeAt("A", 0);
+        network.getTemporalNode("A").setAttributeAt("x", 0, 1);
+        network.getTemporalNode("A").setAttributeAt("x", 5, 1);
+        network.getTemporalNode("A").setAttributeAt("y", 5, 1, 2);
+        network.getTemporalNode("A").setAttributeAt("y", 6, 1, 2);
+        network.getTemporalNode("A").setAttributeAt("x", 7, 2);
+
+        source.addSink(new SinkAdapter() {
+            @Override
+            public void nodeAttributeChanged(String sourceId, long timeId, String nodeId, String attribute,
+                                             Object oldValue, Object newValue) {
+                changes[0]++;
+            }
+        });
+
+        source.replay(0, 10);
+
+        Assert.assertEquals(1, changes[0]);
+    }
+
+    @Test
+    public void testEdgeAddedWhenNodeRemoved() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        TemporalNetworkSource source = new TemporalNetworkSource(network);
+        Graph g = new MultiGraph("replay");
+
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 0);
+        network.addEdgeAt("AB", "A", "B", false, 1);
+        network.addEdgeAt("BA", "B", "A", true, 5);
+        network.removeNodeAt("A", 5);
+
+        source.addSink(g);
+        source.replay(0, 10);
+
+        TestSnapshotCursor.assertSameGraph(network.getGraphAt(10), g);
+        Assert.assertEquals(0, g.getEdgeCount());
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.FrozenTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.TemporalPaths;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+public class TestTemporalPaths {
+    /**
+     * A - B during [0;10[, B - C during [5;6[, C -> D during [20;30[, E -> A during [0;30[, F - G during [9;10[
+     * and B - F during [0;10[.
+     */
+    static DefaultTemporalNetwork createChain() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        for (String id : new String[]{"A", "B", "C", "D", "E", "F", "G"}) {
+            network.addNodeAt(id, 0);
+        }
+
+        network.addEdgeAt("AB", "A", "B", false, 0).removeAt(10);
+        network.addEdgeAt("BC", "B", "C", false, 5).removeAt(6);
+        network.addEdgeAt("CD", "C", "D", true, 20).removeAt(30);
+        network.addEdgeAt("EA", "E", "A", true, 0).removeAt(30);
+        network.addEdgeAt("FG", "F", "G", false, 9).removeAt(10);
+        network.addEdgeAt("BF", "B", "F", false, 0).removeAt(10);
+
+        return network;
+    }
+
+    @Test
+    public void testEarliestArrival() {
+        FrozenTemporalNetwork network = createChain().freeze();
+        TemporalPaths paths = new TemporalPaths(network, null);
+        TemporalPaths.Journeys journeys = paths.earliestArrival(network.getNodeIndex("A"), 0);
+
+        Assert.assertEquals(0, journeys.getTime(network.getNodeIndex("B")), 0);
+        Assert.assertEquals(5, journeys.getTime(network.getNodeIndex("C")), 0);
+        Assert.assertEquals(20, journeys.getTime(network.getNodeIndex("D")), 0);
+        Assert.assertFalse(journeys.isReached(network.getNodeIndex("E")));
+
+        int[] path = journeys.getPath(network.getNodeIndex("D"), network);
+        Assert.assertArrayEquals(new int[]{network.getEdgeIndex("AB"), network.getEdgeIndex("BC"),
+                network.getEdgeIndex("CD")}, path);
+        Assert.assertEquals(0, journeys.getOriginDate(network.getNodeIndex("D")), 0);
+
+        journeys = paths.earliestArrival(network.getNodeIndex("A"), 7);
+        Assert.assertEquals(7, journeys.getTime(network.getNodeIndex("B")), 0);
+        Assert.assertFalse(journeys.isReached(network.getNodeIndex("C")));
+        Assert.assertEquals(0, journeys.getPath(network.getNodeIndex("A"), network).length);
+        Assert.assertNull(journeys.getPath(network.getNodeIndex("C"), network));
+    }
+
+    @Test
+    public void testDurations() {
+        DefaultTemporalNetwork chain = createChain();
+        chain.getTemporalEdge("AB").setAttributeAt("time", 0, 2);
+        chain.getTemporalEdge("BC").setAttributeAt("time", 5, 0.5);
+
+        FrozenTemporalNetwork network = chain.freeze();
+        TemporalPaths paths = new TemporalPaths(network, "time");
+        TemporalPaths.Journeys journeys = paths.earliestArrival(network.getNodeIndex("A"), 0);
+
+        Assert.assertEquals(2, journeys.getTime(network.getNodeIndex("B")), 0);
+        Assert.assertEquals(5.5, journeys.getTime(network.getNodeIndex("C")), 0);
+
+        journeys = paths.latestDeparture(network.getNodeIndex("C"), 5.7);
+        Assert.assertEquals(5.2, journeys.getTime(network.getNodeIndex("B")), 1e-9);
+        Assert.assertEquals(3.2, journeys.getTime(network.getNodeIndex("A")), 1e-9);
+        Assert.assertEquals(2.5, journeys.getDuration(network.getNodeIndex("A")), 1e-9);
+    }
+
+    @Test
+    public void testLatestDeparture() {
+        FrozenTemporalNetwork network = createChain().freeze();
+        TemporalPaths paths = new TemporalPaths(network, null);
+        TemporalPaths.Journeys journeys = paths.latestDeparture(network.getNodeIndex("D"), 25);
+
+        Assert.assertEquals(25, journeys.getTime(network.getNodeIndex("C")), 0);
+        Assert.assertTrue(journeys.getTime(network.getNodeIndex("B")) < 6);
+        Assert.assertTrue(journeys.getTime(network.getNodeIndex("B")) > 5.99);
+        Assert.assertEquals(journeys.getTime(network.getNodeIndex("B")), journeys.getTime(network.getNodeIndex("A")), 0);
+        Assert.assertEquals(journeys.getTime(network.getNodeIndex("A")), journeys.getTime(network.getNodeIndex("E")), 0);
+        Assert.assertArrayEquals(new int[]{network.getEdgeIndex("AB"), network.getEdgeIndex("BC"),
+                network.getEdgeIndex("CD")}, journeys.getPath(network.getNodeIndex("A"), network));
+
+        journeys = paths.latestDeparture(network.getNodeIndex("A"), 5);
+        Assert.assertFalse(journeys.isReached(network.getNodeIndex("D")));
+    }
+
+    @Test
+    public void testFastest() {
+        FrozenTemporalNetwork network = createChain().freeze();
+        TemporalPaths paths = new TemporalPaths(network, null);
+        int a = network.getNodeIndex("A"), g = network.getNodeIndex("G");
+
+        // A can be left at 9 and reach G at once
+        Assert.assertEquals(0, paths.fastestDurations(a, 0, 30)[g], 0);
+
+        TemporalPaths.Journeys fastest = paths.fastestPath(a, g, 0, 30);
+
+        Assert.assertEquals(0, fastest.getDuration(a), 0);
+        Assert.assertEquals(9, fastest.getTime(a), 0);
+        Assert.assertArrayEquals(new int[]{network.getEdgeIndex("AB"), network.getEdgeIndex("BF"),
+                network.getEdgeIndex("FG")}, fastest.getPath(a, network));
+        Assert.assertNull(paths.fastestPath(a, network.getNodeIndex("E"), 0, 30));
+    }
+
+    @Test
+    public void testFastestLeavingAtWindowEnd() {
+        DefaultTemporalNetwork chain = new DefaultTemporalNetwork();
+
+        for (String id : new String[]{"S", "A", "B"}) {
+            chain.addNodeAt(id, 0);
+        }
+
+        chain.addEdgeAt("SA", "S", "A", false, 0).removeAt(10);
+        chain.addEdgeAt("AB", "A", "B", false, 10).removeAt(20);
+
+        FrozenTemporalNetwork network = chain.freeze();
+        TemporalPaths paths = new TemporalPaths(network, null);
+        int s = network.getNodeIndex("S"), b = network.getNodeIndex("B");
+        double last = Math.nextAfter(10.0, Double.NEGATIVE_INFINITY);
+
+        // the fastest journey leaves S just before SA ends
+        Assert.assertEquals(10 - last, paths.fastestDurations(s, 0, 30)[b], 0);
+        Assert.assertEquals(10 - last, paths.fastestPath(s, b, 0, 30).getDuration(s), 0);
+
+        // ... unless S must be left before 5
+        Assert.assertEquals(10 - Math.nextAfter(5.0, Double.NEGATIVE_INFINITY),
+                paths.fastestDurations(s, 0, 5)[b], 0);
+        Assert.assertTrue(paths.fastestPath(s, b, 0, 5).getTime(s) < 5);
+    }
+
+    @Test
+    public void testFastestThroughLaterRoute() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+
+        for (String id : new String[]{"S", "X", "Y", "B"}) {
+            network.addNodeAt(id, 0);
+        }
+
+        // leaving at 0 arrives the earliest through X after a wait, leaving later through Y does not wait
+        network.addEdgeAt("SX", "S", "X", false, 0).removeAt(1);
+        network.addEdgeAt("XB", "X", "B", false, 5).removeAt(6);
+        network.addEdgeAt("SY", "S", "Y", false, 0).removeAt(10);
+        network.addEdgeAt("YB", "Y", "B", false, 7).removeAt(8);
+        network.getTemporalEdge("SY").setAttributeAt("time", 0, 2);
+        network.getTemporalEdge("SY").setAttributeAt("time", 6, 0.5);
+
+        FrozenTemporalNetwork frozen = network.freeze();
+        TemporalPaths paths = new TemporalPaths(frozen, "time");
+        int s = frozen.getNodeIndex("S");
+
+        Assert.assertEquals(0.5, paths.fastestDurations(s, 0, 30)[frozen.getNodeIndex("B")], 0);
+        Assert.assertEquals(0.5, paths.fastestDurations(s, 0, 30)[frozen.getNodeIndex("Y")], 0);
+
+        TemporalPaths.Journeys fastest = paths.fastestPath(s, frozen.getNodeIndex("B"), 0, 30);
+        Assert.assertEquals(0.5, fastest.getDuration(s), 0);
+        Assert.assertArrayEquals(new int[]{frozen.getEdgeIndex("SY"), frozen.getEdgeIndex("YB")},
+                fastest.getPath(s, frozen));
+    }
+
+    /**
+     * Compare the fastest journeys with the earliest arrivals from all the dates at which a fastest journey can
+     * leave when edges are taken instantly : the start of the period, and the starts of the time-windows and
+     * the last dates before their ends.
+     */
+    @Test
+    public void testFastestMatchesDepartures() {
+        for (long seed = 1; seed <= 3; seed++) {
+            FrozenTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(seed).freeze();
+            TemporalPaths paths = new TemporalPaths(network, null);
+            double from = 20 * seed, to = 200;
+            TreeSet<Double> departures = new TreeSet<>();
+
+            departures.add(from);
+
+            for (int e = 0; e < network.getEdgeCount(); e++) {
+                for (int w = 0; w < network.getEdgeWindowCount(e); w++) {
+                    departures.add(network.getEdgeWindowStart(e, w));
+                    departures.add(Math.nextAfter(network.getEdgeWindowEnd(e, w), Double.NEGATIVE_INFINITY));
+                }
+            }
+
+            for (int source = 0; source < network.getNodeCount(); source += 3) {
+                double[] expected = new double[network.getNodeCount()];
+                Arrays.fill(expected, Double.POSITIVE_INFINITY);
+
+                for (double departure : departures.subSet(from, to)) {
+                    TemporalPaths.Journeys journeys = paths.earliestArrival(source, departure);
+
+                    for (int v = 0; v < network.getNodeCount(); v++) {
+                        expected[v] = Math.min(expected[v], journeys.getTime(v) - departure);
+                    }
+                }
+
+                Assert.assertArrayEquals(expected, paths.fastestDurations(source, from, to), 0);
+            }
+        }
+    }
+
+    /**
+     * Compare the earliest arrivals with a simulation over the dates of the events of the network, at which
+     * all the earliest arrivals happen when edges are taken instantly.
+     */
+    @Test
+    public void testEarliestArrivalMatchesSimulation() {
+        for (long seed = 1; seed <= 4; seed++) {
+            FrozenTemporalNetwork network = TestSnapshotCursor.createRandomNetwork(seed).freeze();
+            TemporalPaths paths = new TemporalPaths(network, null);
+            TreeSet<Double> dates = new TreeSet<>();
+
+            for (int e = 0; e < network.getEdgeCount(); e++) {
+                for (int w = 0; w < network.getEdgeWindowCount(e); w++) {
+                    dates.add(network.getEdgeWindowStart(e, w));
+                }
+            }
+
+            for (int source = 0; source < network.getNodeCount(); source += 3) {
+                double start = 10 * seed + 0.1;
+                double[] expected = simulate(network, source, start, dates);
+                TemporalPaths.Journeys journeys = paths.earliestArrival(source, start);
+
+                for (int v = 0; v < network.getNodeCount(); v++) {
+                    Assert.assertEquals(expected[v], journeys.getTime(v), 0);
+                }
+
+                for (int target = 0; target < network.getNodeCount(); target += 5) {
+                    checkLatestDeparture(network, paths, target, 60);
+                }
+            }
+        }
+    }
+
+    static double[] simulate(FrozenTemporalNetwork network, int source, double start, TreeSet<Double> dates) {
+        double[] arrivals = new double[network.getNodeCount()];
+        Arrays.fill(arrivals, Double.POSITIVE_INFINITY);
+        arrivals[source] = start;
+
+        TreeSet<Double> steps = new TreeSet<>(dates.tailSet(start));
+        steps.add(start);
+
+        for (double date : steps) {
+            boolean changed = true;
+
+            while (changed) {
+                changed = false;
+
+                for (int e = 0; e < network.getEdgeCount(); e++) {
+                    if (!network.edgeExistsAt(e, date)) {
+                        continue;
+                    }
+
+                    int s = network.getSource(e), t = network.getTarget(e);
+
+                    if (arrivals[s] <= date && arrivals[t] > date) {
+                        arrivals[t] = date;
+                        changed = true;
+                    }
+
+                    if (!network.isDirected(e) && arrivals[t] <= date && arrivals[s] > date) {
+                        arrivals[s] = date;
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        return arrivals;
+    }
+
+    /**
+     * Leaving a node at its latest departure date reaches the target by the deadline, leaving it later does
+     * not.
+     */
+    static void checkLatestDeparture(FrozenTemporalNetwork network, TemporalPaths paths, int target,
+                                     double deadline) {
+        TemporalPaths.Journeys journeys = paths.latestDeparture(target, deadline);
+
+        for (int v = 0; v < network.getNodeCount(); v++) {
+            if (v == target || !journeys.isReached(v)) {
+                continue;
+            }
+
+            double departure = journeys.getTime(v);
+
+            Assert.assertTrue(paths.earliestArrival(v, departure).getTime(target) <= deadline);
+            Assert.assertTrue(paths.earliestArrival(v, departure + 0.01).getTime(target) > deadline);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.FrozenTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.TemporalPaths;
+import org.graphstream.graph.temporalNetwork.TemporalReachability;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestTemporalReachability {
+    /**
+     * Count the nodes reached from each node with one earliest-arrival search per node.
+     */
+    static int[] countWithJourneys(FrozenTemporalNetwork network, double from, double to) {
+        TemporalPaths paths = new TemporalPaths(network, null);
+        int[] counts = new int[network.getNodeCount()];
+
+        for (int s = 0; s < counts.length; s++) {
+            TemporalPaths.Journeys journeys = paths.earliestArrival(s, from);
+
+            for (int v = 0; v < counts.length; v++) {
+                if (v != s && journeys.getTime(v) < to) {
+                    counts[s]++;
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    @Test
+    public void testChain() {
+        FrozenTemporalNetwork network = TestTemporalPaths.createChain().freeze();
+        int[] counts = new TemporalReachability(network, 0, 30).countReachable();
+
+        Assert.assertEquals(5, counts[network.getNodeIndex("A")]);
+        Assert.assertEquals(5, counts[network.getNodeIndex("C")]);
+        Assert.assertEquals(0, counts[network.getNodeIndex("D")]);
+        Assert.assertEquals(6, counts[network.getNodeIndex("E")]);
+        Assert.assertEquals(3, new TemporalReachability(network, 7, 30).countReachable()[network.getNodeIndex("A")]);
+        Assert.assertEquals(4, new TemporalReachability(network, 0, 20).countReachable()[network.getNodeIndex("A")]);
+    }
+
+    @Test
+    public void testCountsMatchJourneys() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            for (long seed = 1; seed <= 4; seed++) {
+                FrozenTemporalNetwork network = createLargeNetwork(seed).freeze();
+                double from = 5 * seed, to = from + 40;
+
+                Assert.assertArrayEquals(countWithJourneys(network, from, to),
+                        new TemporalReachability(network, from, to).countReachable(pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEstimates() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            FrozenTemporalNetwork network = createLargeNetwork(7).freeze();
+            TemporalReachability reachability = new TemporalReachability(network, 0, 60);
+            int[] counts = reachability.countReachable(pool);
+            double[] precise = reachability.estimateReachable(10, pool);
+            double[] coarse = reachability.estimateReachable(6, pool);
+            double error = 0;
+
+            for (int v = 0; v < counts.length; v++) {
+                Assert.assertEquals(counts[v], precise[v], 0.1 * counts[v] + 2);
+                error += Math.abs(coarse[v] - counts[v]) / Math.max(1, counts[v]);
+            }
+
+            // 64 registers give a relative standard error of 13%.
+            Assert.assertTrue(error / counts.length < 0.15);
+
+            // registers are swept independently, so the estimates do not depend on how they are split
+            ForkJoinPool single = new ForkJoinPool(1);
+
+            try {
+                Assert.assertArrayEquals(precise, reachability.estimateReachable(10, single), 0);
+            } finally {
+                single.shutdown();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A random network with several blocks of sources.
+     */
+    static DefaultTemporalNetwork createLargeNetwork(long seed) {
+        Random random = new Random(seed);
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        int nodes = 600;
+
+        for (int i = 0; i < nodes; i++) {
+            network.addNodeAt("n" + i, 0);
+        }
+
+        for (int i = 0; i < 1500; i++) {
+            double start = random.nextInt(100) / 2.0;
+
+            network.addEdgeAt("e" + i, "n" + random.nextInt(nodes), "n" + random.nextInt(nodes),
+                    random.nextBoolean(), start).removeAt(start + 0.5 + random.nextInt(6));
+        }
+
+        return network;
+    }
+}
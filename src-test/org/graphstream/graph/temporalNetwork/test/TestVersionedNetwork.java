@@ -0,0 +1,346 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork.test;
+
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.temporalNetwork.DefaultTemporalNetwork;
+import org.graphstream.graph.temporalNetwork.SnapshotCursor;
+import org.graphstream.graph.temporalNetwork.VersionClock;
+import org.graphstream.graph.temporalNetwork.VersionedView;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Check that views pinned on a versioned network keep reading the commit they pinned while the network
+ * changes, comparing them with networks rebuilt up to each commit.
+ */
+public class TestVersionedNetwork {
+    static final int NODES = 10;
+    static final int EDGES = 15;
+    static final int BATCHES = 30;
+
+    static DefaultTemporalNetwork createVersionedNetwork() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        network.setVersionClock(new VersionClock());
+        return network;
+    }
+
+    /**
+     * Views read the elements from the arrays published with their commit, which stay valid when the network
+     * replaces its arrays to hold more elements.
+     */
+    @Test
+    public void testViewAfterArraysGrow() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork(1, 1);
+        network.setVersionClock(new VersionClock());
+
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 0);
+        network.addEdgeAt("AB", "A", "B", false, 0);
+        network.commit();
+
+        VersionedView view = network.pin();
+
+        for (int i = 0; i < 100; i++) {
+            network.addNodeAt("n" + i, 1);
+            network.addEdgeAt("e" + i, "A", "n" + i, false, 1);
+        }
+
+        network.commit();
+        VersionedView next = network.pin();
+
+        Assert.assertEquals(2, view.getNodeCount());
+        Assert.assertEquals("B", view.getNodeId(1));
+        Assert.assertEquals("AB", view.getEdgeId(0));
+        Assert.assertEquals(102, next.getNodeCount());
+        Assert.assertEquals("n99", next.getNodeId(101));
+        Assert.assertEquals("e99", next.getEdgeId(100));
+
+        view.close();
+        next.close();
+    }
+
+    @Test
+    public void testPinnedViewIsStable() {
+        DefaultTemporalNetwork network = createVersionedNetwork();
+
+        network.addNodeAt("A", 0).setAttributeAt("x", 0, 1);
+        network.addNodeAt("B", 0);
+        network.addEdgeAt("AB", "A", "B", false, 0);
+        network.commit();
+
+        VersionedView view = network.pin();
+
+        network.getTemporalNode("A").setAttributeAt("x", 0, 2);
+        network.removeNodeAt("B", 5);
+        network.addNodeAt("C", 1);
+
+        Assert.assertEquals(1, (int) view.<Integer>getNodeAttributeAt(0, "x", 2));
+        Assert.assertTrue(view.nodeExistsAt(1, 6));
+        Assert.assertEquals(2, view.getNodeCount());
+
+        network.commit();
+        VersionedView next = network.pin();
+
+        Assert.assertEquals(1, (int) view.<Integer>getNodeAttributeAt(0, "x", 2));
+        Assert.assertTrue(view.edgeExistsAt(0, 6));
+        Assert.assertEquals(2, view.getGraphAt(6).getNodeCount());
+
+        Assert.assertEquals(view.getSequence() + 1, next.getSequence());
+        Assert.assertEquals(2, (int) next.<Integer>getNodeAttributeAt(0, "x", 2));
+        Assert.assertFalse(next.nodeExistsAt(1, 6));
+        Assert.assertEquals(3, next.getNodeCount());
+        Assert.assertEquals(2, next.getGraphAt(6).getNodeCount());
+        Assert.assertEquals(0, next.getGraphAt(6).getEdgeCount());
+        Assert.assertEquals(2, network.getVersionClock().getPinCount());
+
+        view.close();
+        next.close();
+
+        Assert.assertEquals(0, network.getVersionClock().getPinCount());
+    }
+
+    @Test
+    public void testGraphsOfOneInterval() {
+        DefaultTemporalNetwork network = createVersionedNetwork();
+
+        network.addNodeAt("A", 0);
+        network.addNodeAt("B", 0);
+        network.getTemporalNode("A").setAttributeAt("x", 0, 1);
+        network.getTemporalNode("A").setAttributeAt("x", 3, 2);
+        network.addEdgeAt("AB", "A", "B", false, 5);
+        network.commit();
+
+        VersionedView view = network.pin();
+
+        //
+        // Dates 1 and 4 share the interval [0;5[ but not the values of the attributes.
+        //
+        Assert.assertEquals(1, (int) view.getGraphAt(1).getNode("A").<Integer>getAttribute("x"));
+        Assert.assertEquals(2, (int) view.getGraphAt(4).getNode("A").<Integer>getAttribute("x"));
+        Assert.assertEquals(0, view.getGraphAt(4).getEdgeCount());
+        Assert.assertEquals(1, view.getGraphAt(6).getEdgeCount());
+        Assert.assertEquals(0, view.getGraphAt(1).getEdgeCount());
+        Assert.assertEquals(0, view.getGraphAt(-1).getNodeCount());
+
+        //
+        // Changes done after the commit are not seen, even in an interval already read.
+        //
+        network.removeNodeAt("B", 7);
+        network.commit();
+
+        Assert.assertEquals(1, view.getGraphAt(8).getEdgeCount());
+
+        view.close();
+
+        try {
+            view.getGraphAt(8);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClockSetTooLate() {
+        DefaultTemporalNetwork network = new DefaultTemporalNetwork();
+        network.addNodeAt("A", 0);
+        network.setVersionClock(new VersionClock());
+    }
+
+    /**
+     * Apply random batches to a versioned network, pinning a view after each of them, then compare each view
+     * with a network on which only the batches committed before the view have been applied.
+     */
+    @Test
+    public void testViewsMatchEachCommit() {
+        Random random = new Random(97531);
+        DefaultTemporalNetwork network = createVersionedNetwork();
+        List<List<double[]>> batches = new ArrayList<>();
+        List<VersionedView> views = new ArrayList<>();
+
+        for (int b = 0; b < BATCHES; b++) {
+            List<double[]> batch = new ArrayList<>();
+
+            for (int k = 0; k < 6; k++) {
+                batch.add(nextOperation(random, network, b));
+                apply(network, batch.get(k));
+            }
+
+            batches.add(batch);
+            network.beginBatch();
+            network.endBatch();
+            views.add(network.pin());
+        }
+
+        for (int v = 0; v < views.size(); v++) {
+            DefaultTemporalNetwork reference = new DefaultTemporalNetwork();
+
+            for (int b = 0; b <= v; b++) {
+                for (double[] operation : batches.get(b)) {
+                    apply(reference, operation);
+                }
+            }
+
+            for (double date = -1; date < BATCHES + 1; date += 0.5) {
+                TestSnapshotCursor.assertSameGraph(new SnapshotCursor(reference, date).getGraph(),
+                        views.get(v).getGraphAt(date));
+            }
+
+            views.get(v).close();
+        }
+
+        Assert.assertEquals(0, network.getVersionClock().getPinCount());
+    }
+
+    /**
+     * An operation is encoded as {kind, element, date, value} : kind 0 toggles a node, 1 toggles an edge and 2
+     * sets the attribute of a node.
+     */
+    static double[] nextOperation(Random random, DefaultTemporalNetwork network, int batch) {
+        int kind = random.nextInt(3);
+        int element = random.nextInt(kind == 1 ? EDGES : NODES);
+        double date = kind == 2 && random.nextBoolean() ? batch - 0.5 : batch;
+
+        if (kind == 2 && network.getTemporalNode("n" + element) == null) {
+            kind = 0;
+        }
+
+        return new double[]{kind, element, date, random.nextInt(100)};
+    }
+
+    static void apply(DefaultTemporalNetwork network, double[] operation) {
+        int element = (int) operation[1];
+        double date = operation[2];
+
+        if (operation[0] == 0) {
+            TemporalNode node = network.getTemporalNode("n" + element);
+
+            if (node != null && node.existsAt(date)) {
+                network.removeNodeAt(node.getId(), date);
+            } else {
+                network.addNodeAt("n" + element, date);
+            }
+        } else if (operation[0] == 1) {
+            String id = "e" + element, source = "n" + (element % NODES), target = "n" + ((element * 3 + 1) % NODES);
+
+            if (network.getTemporalNode(source) == null || network.getTemporalNode(target) == null) {
+                return;
+            }
+
+            if (network.getTemporalEdge(id) != null && network.getTemporalEdge(id).existsAt(date)) {
+                network.removeEdgeAt(id, date);
+            } else {
+                network.addEdgeAt(id, source, target, element % 2 == 0, date);
+            }
+        } else {
+            network.getTemporalNode("n" + element).setAttributeAt("x", date, (int) operation[3]);
+        }
+    }
+
+    /**
+     * A writer commits a new value of the attribute of every node at each batch, readers pinning commits in the
+     * meantime must see the same value on all the nodes of their commit.
+     */
+    @Test
+    public void testNoTornReadsDuringIngest() throws Throwable {
+        final DefaultTemporalNetwork network = createVersionedNetwork();
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> readers = new ArrayList<>();
+
+        network.beginBatch();
+        network.addNodeAt("n0", 0).setAttributeAt("x", 0, 0);
+        network.endBatch();
+
+        for (int t = 0; t < 3; t++) {
+            Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+
+                        while (writing.get()) {
+                            try (VersionedView view = network.pin()) {
+                                Object value = view.getNodeAttributeAt(0, "x", 1);
+
+                                for (int i = 1; i < view.getNodeCount(); i++) {
+                                    Assert.assertEquals(value, view.getNodeAttributeAt(i, "x", 1));
+                                }
+
+                                Assert.assertEquals(view.getNodeCount(), view.getGraphAt(1).getNodeCount());
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+
+            readers.add(reader);
+            reader.start();
+        }
+
+        start.countDown();
+
+        for (int c = 1; c < 600 && failure.get() == null; c++) {
+            network.beginBatch();
+            network.addNodeAt("n" + c, 0);
+
+            for (int i = 0; i <= c; i++) {
+                network.getTemporalNode(i).setAttributeAt("x", 0, c);
+            }
+
+            network.endBatch();
+        }
+
+        writing.set(false);
+
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        Assert.assertEquals(0, network.getVersionClock().getPinCount());
+    }
+}
@@ -40,6 +40,8 @@ import org.graphstream.graph.temporalNetwork.TemporalTimeline;
 public interface TemporalElement {
     String getId();
 
+    int getIndex();
+
     TemporalTimeline<? extends Element> getElementTimeline();
 
     AttributesTimeline getAttributesTimeline();
@@ -52,5 +54,11 @@ public interface TemporalElement {
 
     void removeAt(double date);
 
+    void setAttributeAt(String key, double date, Object... values);
+
+    void removeAttributeAt(String key, double date);
+
+    void clearAttributesAt(double date);
+
     TemporalNetwork getTemporalNetwork();
 }
@@ -31,6 +31,8 @@
  */
 package org.graphstream.graph;
 
+import org.graphstream.graph.temporalNetwork.EventLog;
+
 /**
  *
  */
@@ -41,7 +43,13 @@ public interface TemporalNetwork {
 
     Graph getGraphAt(double date);
 
+    EventLog getEventLog();
+
     TemporalNode getTemporalNode(String nodeId);
 
     TemporalEdge getTemporalEdge(String edgeId);
+
+    TemporalNode getTemporalNode(int index);
+
+    TemporalEdge getTemporalEdge(int index);
 }
@@ -31,9 +31,13 @@
  */
 package org.graphstream.graph;
 
+import org.graphstream.graph.temporalNetwork.NeighbourTimeline;
+
 /**
  *
  */
 public interface TemporalNode extends TemporalElement {
     Node getNodeAt(double date);
+
+    NeighbourTimeline getNeighbourTimeline();
 }
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Build a timeline using parallel primitive arrays rather than a binary search tree.
+ * <p/>
+ * Start-dates, end-dates and values of the time-windows are stored in three arrays sorted by start-date,
+ * so each time-window costs two doubles and a reference. Point lookups are binary searches over the
+ * start-dates and do not allocate anything. Appending a time-window after the last one is done in amortized
+ * constant time, which makes this timeline well suited for elements whose history is built in chronological
+ * order and holds a few time-windows.
+ * <p/>
+ * Time-windows returned by this timeline are views over the arrays : changing their dates will update the
+ * timeline.
+ */
+public class ArrayTemporalTimeline<T> extends TemporalTimeline<T> {
+    protected static final int DEFAULT_CAPACITY = 2;
+
+    /**
+     * Start-dates of the time-windows, in ascending order.
+     */
+    protected double[] starts;
+    /**
+     * End-dates of the time-windows, matching {@link #starts}.
+     */
+    protected double[] ends;
+    /**
+     * Values associated with the time-windows, matching {@link #starts}.
+     */
+    protected Object[] values;
+    /**
+     * Count of time-windows stored in this timeline.
+     */
+    protected int size;
+
+    public ArrayTemporalTimeline() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayTemporalTimeline(int initialCapacity) {
+        this(initialCapacity, true);
+    }
+
+    /**
+     * @param objectValues false if a sub-class stores the values itself, in which case {@link #values} is null
+     */
+    protected ArrayTemporalTimeline(int initialCapacity, boolean objectValues) {
+        super(null);
+
+        starts = new double[initialCapacity];
+        ends = new double[initialCapacity];
+        values = objectValues ? new Object[initialCapacity] : null;
+        size = 0;
+    }
+
+    /*
+     * @see java.lang.Iterable#iterator()
+     */
+    @Override
+    public Iterator<TimeWindow> iterator() {
+        return new WindowIterator();
+    }
+
+    /*
+     * @see org.graphstream.graph.temporalNetwork.TemporalTimeline#getValueAt(double)
+     */
+    @Override
+    public T getValueAt(double date) {
+        int i = indexOf(date);
+        return i < 0 ? null : valueAt(i);
+    }
+
+    /*
+     * @see org.graphstream.graph.temporalNetwork.TemporalTimeline#getValueAt(org.graphstream.graph.temporalNetwork.TimeWindow)
+     */
+    @Override
+    public T getValueAt(TimeWindow timeWindow) {
+        int i = indexOf(timeWindow);
+        return i < 0 ? null : valueAt(i);
+    }
+
+    @Override
+    public T removeTimeWindow(TimeWindow timeWindow) {
+        int i = indexOf(timeWindow);
+
+        if (i < 0) {
+            return null;
+        }
+
+        T value = valueAt(i);
+        remove(i);
+
+        return value;
+    }
+
+    @Override
+    public boolean existsAt(double date) {
+        return indexOf(date) >= 0;
+    }
+
+    @Override
+    public boolean hasOpenTimeWindow() {
+        return size > 0 && Double.isInfinite(endAt(size - 1));
+    }
+
+    @Override
+    public void insertTimeWindow(double start, double end, T associatedValue) {
+        put(start, end, associatedValue);
+    }
+
+    @Override
+    public void startTimeWindow(double start, T associatedValue) {
+        if (size > 0) {
+            if (!Double.isInfinite(endAt(size - 1))) {
+                if (start < endAt(size - 1)) {
+                    throw new InvalidTimeWindowException("When starting a new time-window, start-date should be greater than the end-date of the last existing windows.");
+                }
+            } else {
+                endTimeWindow(start);
+            }
+        }
+
+        put(start, Double.POSITIVE_INFINITY, associatedValue);
+    }
+
+    @Override
+    public void endTimeWindow(double end) {
+        if (size == 0) {
+            throw new InvalidTimeWindowException("try to end last time window but timeline is empty.");
+        } else if (!Double.isInfinite(endAt(size - 1))) {
+            throw new InvalidTimeWindowException("try to end last time window but last window is already ended.");
+        } else {
+            setEndAt(size - 1, end);
+        }
+    }
+
+    @Override
+    public TimeWindow getCeilingTimeWindow(double date) {
+        int i = floorStartIndex(date);
+
+        if (i < 0 || date >= endAt(i)) {
+            i++;
+        }
+
+        return i < size ? new WindowView(i) : null;
+    }
+
+    @Override
+    public TimeWindow getFloorTimeWindow(double date) {
+        int i = floorStartIndex(date);
+        return i < 0 ? null : new WindowView(i);
+    }
+
+    /**
+     * Count of time-windows in this timeline.
+     *
+     * @return the count of time-windows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Shrink the internal arrays to the count of time-windows. This should be called once the history of an
+     * element is complete, to release unused slots.
+     */
+    public void trimToSize() {
+        if (size < starts.length) {
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            resizeValues(size);
+        }
+    }
+
+    /*
+     * Storage of the time-windows. All the accesses to the arrays go through the following methods, so that
+     * sub-classes can store the time-windows elsewhere.
+     */
+
+    protected double startAt(int i) {
+        return starts[i];
+    }
+
+    protected double endAt(int i) {
+        return ends[i];
+    }
+
+    protected void setEndAt(int i, double end) {
+        ends[i] = end;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected T valueAt(int i) {
+        return (T) values[i];
+    }
+
+    protected void setValueAt(int i, Object value) {
+        values[i] = value;
+    }
+
+    /**
+     * Move the values of a range of slots, like {@link System#arraycopy(Object, int, Object, int, int)}.
+     */
+    protected void moveValues(int from, int to, int count) {
+        System.arraycopy(values, from, values, to, count);
+    }
+
+    protected void resizeValues(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * Release the value of a slot which is not used anymore.
+     */
+    protected void clearValue(int i) {
+        values[i] = null;
+    }
+
+    /**
+     * Get the index of the last time-window starting before or at the given date.
+     *
+     * @param date
+     * @return the index of the time-window, or -1 if all time-windows start after date
+     */
+    protected int floorStartIndex(double date) {
+        if (size == 0 || startAt(size - 1) <= date) {
+            return size - 1;
+        }
+
+        int lo = 0, hi = size - 2;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (startAt(mid) <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        return hi;
+    }
+
+    /**
+     * Get the index of the time-window containing the given date.
+     *
+     * @param date
+     * @return the index of the time-window, or -1 if there is no such time-window
+     */
+    protected int indexOf(double date) {
+        int i = floorStartIndex(date);
+        return i >= 0 && date < endAt(i) ? i : -1;
+    }
+
+    /**
+     * Get the index of the time-window matching the given one, following the semantic of
+     * {@link TimeWindow#compareTo(TimeWindow)} : a date matches the time-window containing it, whereas a
+     * time-window matches the time-window with the same start-date.
+     *
+     * @param timeWindow
+     * @return the index of the matching time-window, or -1 if there is no such time-window
+     */
+    protected int indexOf(TimeWindow timeWindow) {
+        if (timeWindow.isDate()) {
+            return indexOf(timeWindow.getStartDate());
+        }
+
+        int i = floorStartIndex(timeWindow.getStartDate());
+        return i >= 0 && startAt(i) == timeWindow.getStartDate() ? i : -1;
+    }
+
+    /**
+     * Store a time-window. If a time-window with the same start-date already exists, only its value is
+     * replaced, as it is done by {@link java.util.TreeMap#put(Object, Object)}.
+     */
+    protected void put(double start, double end, T value) {
+        if (size == 0 || start > startAt(size - 1)) {
+            insert(size, start, end, value);
+            return;
+        }
+
+        int i = floorStartIndex(start);
+
+        if (i >= 0 && startAt(i) == start) {
+            setValueAt(i, value);
+        } else {
+            insert(i + 1, start, end, value);
+        }
+    }
+
+    protected void insert(int i, double start, double end, Object value) {
+        if (size == starts.length) {
+            grow(size + 1);
+        }
+
+        if (i < size) {
+            System.arraycopy(starts, i, starts, i + 1, size - i);
+            System.arraycopy(ends, i, ends, i + 1, size - i);
+            moveValues(i, i + 1, size - i);
+        }
+
+        starts[i] = start;
+        ends[i] = end;
+        setValueAt(i, value);
+        size++;
+    }
+
+    protected void remove(int i) {
+        int moved = size - i - 1;
+
+        if (moved > 0) {
+            System.arraycopy(starts, i + 1, starts, i, moved);
+            System.arraycopy(ends, i + 1, ends, i, moved);
+            moveValues(i + 1, i, moved);
+        }
+
+        size--;
+        clearValue(size);
+    }
+
+    protected void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, starts.length + (starts.length >> 1) + 1);
+
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        resizeValues(capacity);
+    }
+
+    /**
+     * A time-window reflecting the state of a slot of the arrays. Slots are found back using the start-date,
+     * so a view remains valid when other time-windows are inserted or removed.
+     */
+    protected class WindowView extends TimeWindow {
+        WindowView(int i) {
+            super(startAt(i), endAt(i));
+        }
+
+        @Override
+        public void setStartDate(double date) {
+            int i = indexOf(this);
+
+            assert date < endDate;
+
+            if (i >= 0) {
+                T value = valueAt(i);
+                remove(i);
+                super.setStartDate(date);
+                put(date, endDate, value);
+            } else {
+                super.setStartDate(date);
+            }
+        }
+
+        @Override
+        public void setEndDate(double date) {
+            int i = indexOf(this);
+
+            assert date > startDate;
+
+            if (i >= 0) {
+                setEndAt(i, date);
+            }
+
+            super.setEndDate(date);
+        }
+    }
+
+    protected class WindowIterator implements Iterator<TimeWindow> {
+        int next = 0;
+        int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public TimeWindow next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+
+            last = next++;
+            return new WindowView(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+
+            ArrayTemporalTimeline.this.remove(last);
+            next = last;
+            last = -1;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.TemporalElement;
+import org.graphstream.graph.TemporalNetwork;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Columnar copy of the values of a numeric attribute over all the nodes, or all the edges, of a network.
+ * <p/>
+ * The time-windows of the attribute are stored element after element in three arrays of doubles, the
+ * time-windows of the element of index i being those between {@code offsets[i]} and {@code offsets[i + 1]}.
+ * Reading the value of the attribute on every element at a date, with {@link #readAt(double, double[])}, scans
+ * these arrays sequentially rather than looking up the attributes of each element, and can be split between
+ * the threads of a {@link ForkJoinPool}.
+ * <p/>
+ * A column is a copy : it does not follow the changes of the network. Values which are not numbers are read
+ * as NaN, as with {@link AttributesTimeline#getNumberAt(String, double)}. Columns of a
+ * {@link FrozenTemporalNetwork} also keep the values themselves, see {@link #getValueAt(int, double)}.
+ */
+public class AttributeColumn {
+    /**
+     * Count of elements under which a parallel read is not split anymore.
+     */
+    protected static final int SPLIT_THRESHOLD = 4096;
+
+    protected final String key;
+    protected final int[] offsets;
+    protected final double[] starts;
+    protected final double[] ends;
+    protected final double[] values;
+    /**
+     * Values of the time-windows, or null if this column only keeps numbers.
+     */
+    protected final Object[] objects;
+
+    protected AttributeColumn(String key, int[] offsets, double[] starts, double[] ends, double[] values,
+                              Object[] objects) {
+        this.key = key;
+        this.offsets = offsets;
+        this.starts = starts;
+        this.ends = ends;
+        this.values = values;
+        this.objects = objects;
+    }
+
+    /**
+     * Build the column of an attribute over the nodes of a network.
+     *
+     * @param network the network
+     * @param key     the attribute
+     * @return the column, holding one entry per node index
+     */
+    public static AttributeColumn ofNodes(TemporalNetwork network, String key) {
+        int count = network.getTotalNodeCount();
+        TemporalElement[] elements = new TemporalElement[count];
+
+        for (int i = 0; i < count; i++) {
+            elements[i] = network.getTemporalNode(i);
+        }
+
+        return build(key, elements, false);
+    }
+
+    /**
+     * Build the column of an attribute over the edges of a network.
+     *
+     * @param network the network
+     * @param key     the attribute
+     * @return the column, holding one entry per edge index
+     */
+    public static AttributeColumn ofEdges(TemporalNetwork network, String key) {
+        int count = network.getTotalEdgeCount();
+        TemporalElement[] elements = new TemporalElement[count];
+
+        for (int i = 0; i < count; i++) {
+            elements[i] = network.getTemporalEdge(i);
+        }
+
+        return build(key, elements, false);
+    }
+
+    /**
+     * Build the column of an attribute over some elements.
+     *
+     * @param key      the attribute
+     * @param elements the elements, in the order of their index in the column
+     * @param objects  true to keep the values, and not only the numbers
+     */
+    protected static AttributeColumn build(String key, TemporalElement[] elements, boolean objects) {
+        int[] offsets = new int[elements.length + 1];
+        int size = 0;
+
+        for (int i = 0; i < elements.length; i++) {
+            TemporalTimeline<Object> ttl = elements[i].getAttributesTimeline().getAttributeTimeline(key);
+
+            offsets[i] = size;
+
+            if (ttl != null) {
+                for (TimeWindow ignored : ttl) {
+                    size++;
+                }
+            }
+        }
+
+        offsets[elements.length] = size;
+
+        double[] starts = new double[size];
+        double[] ends = new double[size];
+        double[] values = new double[size];
+        Object[] valueObjects = objects ? new Object[size] : null;
+        int j = 0;
+
+        for (TemporalElement element : elements) {
+            TemporalTimeline<Object> ttl = element.getAttributesTimeline().getAttributeTimeline(key);
+
+            if (ttl == null) {
+                continue;
+            }
+
+            for (TimeWindow timeWindow : ttl) {
+                starts[j] = timeWindow.getStartDate();
+                ends[j] = timeWindow.getEndDate();
+                values[j] = numberOf(ttl, timeWindow);
+
+                if (objects) {
+                    valueObjects[j] = ttl.getValueAt(timeWindow);
+                }
+
+                j++;
+            }
+        }
+
+        return new AttributeColumn(key, offsets, starts, ends, values, valueObjects);
+    }
+
+    protected static double numberOf(TemporalTimeline<Object> ttl, TimeWindow timeWindow) {
+        if (ttl instanceof NumericTimeline) {
+            return ((NumericTimeline) ttl).getNumberAt(timeWindow.getStartDate());
+        }
+
+        Object value = ttl.getValueAt(timeWindow);
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Count of elements in this column.
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Get the value of the attribute of one element at a date.
+     *
+     * @param element the index of the element
+     * @param date    the date
+     * @return the value, or NaN if the element has no numeric value at this date
+     */
+    public double getNumberAt(int element, double date) {
+        int i = indexAt(element, date);
+        return i < 0 ? Double.NaN : values[i];
+    }
+
+    /**
+     * Get the value of the attribute of one element at a date.
+     *
+     * @param element the index of the element
+     * @param date    the date
+     * @return the value, or null if the element has no value at this date
+     * @throws UnsupportedOperationException if this column only keeps numbers
+     */
+    public Object getValueAt(int element, double date) {
+        if (objects == null) {
+            throw new UnsupportedOperationException("column of \"" + key + "\" only keeps numbers");
+        }
+
+        int i = indexAt(element, date);
+        return i < 0 ? null : objects[i];
+    }
+
+    /**
+     * Get the position of the time-window of an element containing a date.
+     *
+     * @param element the index of the element
+     * @param date    the date
+     * @return the position of the time-window in the arrays of this column, or -1 if there is none
+     */
+    protected int indexAt(int element, double date) {
+        int lo = offsets[element], hi = offsets[element + 1] - 1;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (starts[mid] <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        return hi >= offsets[element] && date < ends[hi] ? hi : -1;
+    }
+
+    /**
+     * Get the first date after a date at which the value of the attribute of an element may change.
+     *
+     * @param element the index of the element
+     * @param date    the date
+     * @return the end of the time-window containing the date, or else the start of the next one, or positive
+     * infinity if there is none
+     */
+    public double getNextChangeAfter(int element, double date) {
+        int i = indexAt(element, date);
+
+        if (i >= 0) {
+            return ends[i];
+        }
+
+        int lo = offsets[element], hi = offsets[element + 1];
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (starts[mid] <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo < offsets[element + 1] ? starts[lo] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Read the value of the attribute of every element at a date.
+     *
+     * @param date the date
+     * @param out  the array receiving the values, indexed by element index, at least {@link #size()} long.
+     *             Elements with no numeric value at this date are set to NaN.
+     */
+    public void readAt(double date, double[] out) {
+        checkOutput(out);
+        readAt(date, out, 0, size());
+    }
+
+    /**
+     * Read the value of the attribute of every element at a date, splitting the elements between the threads
+     * of a pool.
+     *
+     * @param date the date
+     * @param out  the array receiving the values, see {@link #readAt(double, double[])}
+     * @param pool the pool running the reads
+     */
+    public void readAt(double date, double[] out, ForkJoinPool pool) {
+        checkOutput(out);
+        pool.invoke(new ReadTask(date, out, 0, size()));
+    }
+
+    protected void readAt(double date, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = getNumberAt(i, date);
+        }
+    }
+
+    protected void checkOutput(double[] out) {
+        if (out.length < size()) {
+            throw new IllegalArgumentException("output holds " + out.length + " values, " + size() + " needed");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[key=%s, elements=%d, windows=%d]", getClass().getSimpleName(), key, size(),
+                starts.length);
+    }
+
+    /**
+     * Read a range of elements, splitting it in halves as long as it is larger than the threshold.
+     */
+    protected class ReadTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        protected final double date;
+        protected final double[] out;
+        protected final int from, to;
+
+        ReadTask(double date, double[] out, int from, int to) {
+            this.date = date;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                readAt(date, out, from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ReadTask(date, out, from, mid), new ReadTask(date, out, mid, to));
+            }
+        }
+    }
+}
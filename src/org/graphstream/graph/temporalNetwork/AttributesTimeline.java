@@ -31,68 +31,257 @@
  */
 package org.graphstream.graph.temporalNetwork;
 
-import java.util.HashMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Timelines of the attributes of an element.
+ * <p/>
+ * Keys are resolved to ints by a {@link KeyDictionary}, shared by all the elements of a network, and the
+ * timelines are stored in an array sorted by key index. An element has a few attributes, so finding the
+ * timeline of a key is a short binary search over an int array, and an element costs two small arrays rather
+ * than a hash map. Callers resolving the keys themselves can use the methods taking the index of a key.
+ * <p/>
+ * The set of keys having a value is a step function of the date, which is built the first time keys are
+ * counted or iterated. Counting the attributes at a date is then a binary search over the dates at which this
+ * set changes, and the keys at this date are read from the array of the step. Once built, the step function is
+ * updated by each change of an attribute, which only touches the steps between the date of the change and the
+ * next bound of the time-windows of the attribute.
+ * <p/>
+ * The step function is built lazily by readers, which may be several threads reading a network which is not
+ * changed anymore, as the workers of a {@link SnapshotSweep}. It is thus published through a volatile field:
+ * a thread either builds its own copy or sees one fully built by another.
+ *
  * @author Guilhelm Savin
  * @since 20/01/16.
  */
 public class AttributesTimeline {
     private static final Logger LOGGER = Logger.getLogger(AttributesTimeline.class.getName());
 
-    protected Map<String, TemporalTimeline<Object>> attributes;
+    protected static final int[] NO_KEYS = new int[0];
+    protected static final TemporalTimeline<?>[] NO_TIMELINES = new TemporalTimeline<?>[0];
+
+    protected final KeyDictionary dictionary;
+    /**
+     * Indices of the keys of the attributes, in ascending order.
+     */
+    protected int[] keys;
+    /**
+     * Timelines of the attributes, matching {@link #keys}.
+     */
+    protected TemporalTimeline<?>[] timelines;
+    protected int count;
+
+    /**
+     * Keys having a value as a function of the date, or null if it has not been built yet.
+     */
+    protected volatile KeySteps steps;
+
+    protected final boolean arrayTimelines;
+    protected final WindowSlab slab;
 
     public AttributesTimeline() {
-        attributes = new HashMap<>();
+        this(false);
+    }
+
+    /**
+     * @param arrayTimelines true to store the values of each attribute in an {@link ArrayTemporalTimeline}
+     *                       rather than in a tree
+     */
+    public AttributesTimeline(boolean arrayTimelines) {
+        this(new KeyDictionary(), arrayTimelines);
+    }
+
+    /**
+     * @param dictionary     the dictionary resolving the keys, usually the one of the network
+     * @param arrayTimelines true to store the values of each attribute in an {@link ArrayTemporalTimeline}
+     *                       rather than in a tree
+     */
+    public AttributesTimeline(KeyDictionary dictionary, boolean arrayTimelines) {
+        this(dictionary, arrayTimelines, null);
+    }
+
+    /**
+     * @param slab the slab where the values of each attribute are stored, in an {@link OffHeapTemporalTimeline}
+     */
+    public AttributesTimeline(WindowSlab slab) {
+        this(new KeyDictionary(), slab);
+    }
+
+    /**
+     * @param dictionary the dictionary resolving the keys, usually the one of the network
+     * @param slab       the slab where the values of each attribute are stored, in an
+     *                   {@link OffHeapTemporalTimeline}
+     */
+    public AttributesTimeline(KeyDictionary dictionary, WindowSlab slab) {
+        this(dictionary, true, slab);
+    }
+
+    private AttributesTimeline(KeyDictionary dictionary, boolean arrayTimelines, WindowSlab slab) {
+        this.dictionary = dictionary;
+        this.arrayTimelines = arrayTimelines;
+        this.slab = slab;
+
+        keys = NO_KEYS;
+        timelines = NO_TIMELINES;
+        count = 0;
+        steps = null;
+    }
+
+    public KeyDictionary getKeyDictionary() {
+        return dictionary;
     }
 
     public boolean hasAttributeAt(String key, double date) {
-        TemporalTimeline<?> ttl = attributes.get(key);
+        return hasAttributeAt(dictionary.getIndex(key), date);
+    }
+
+    /**
+     * @param key the index of the key in the dictionary
+     * @see #hasAttributeAt(String, double)
+     */
+    public boolean hasAttributeAt(int key, double date) {
+        TemporalTimeline<Object> ttl = getTimeline(key);
+
+        if (ttl instanceof PrimitiveTemporalTimeline) {
+            return ttl.existsAt(date);
+        }
+
         return ttl == null ? false : ttl.getValueAt(date) != null;
     }
 
-    @SuppressWarnings("unchecked")
     public <T> T getAttributeAt(String key, double date) {
-        TemporalTimeline<?> ttl = attributes.get(key);
+        int index = dictionary.getIndex(key);
+
+        if (LOGGER.isLoggable(Level.FINEST) && getTimeline(index) == null)
+            LOGGER.finest("no timeline for attribute \"" + key + "\"");
 
-        if (ttl == null)
-            LOGGER.info("no timeline for attribute \"" + key + "\"");
+        return getAttributeAt(index, date);
+    }
 
+    /**
+     * @param key the index of the key in the dictionary
+     * @see #getAttributeAt(String, double)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAttributeAt(int key, double date) {
+        TemporalTimeline<Object> ttl = getTimeline(key);
         return ttl == null ? null : (T) ttl.getValueAt(date);
     }
 
+    /**
+     * Set the value of an attribute from the given date. The value holds until the next change of the
+     * attribute, that is the start of the next value or the removal of the attribute, so dates may be given
+     * in any order.
+     *
+     * @param key    the attribute
+     * @param date   the date from which the attribute takes the value
+     * @param values the value of the attribute
+     */
     public void setAttributeAt(String key, double date, Object... values) {
-        TemporalTimeline<Object> ttl = attributes.get(key);
+        int index = dictionary.intern(key);
+        TemporalTimeline<Object> ttl = getTimeline(index);
         Object value = values == null ? Boolean.TRUE : (values.length == 1 ? values[0] : values);
 
         if (ttl == null) {
-            ttl = new TemporalTimeline<>();
-            attributes.put(key, ttl);
+            ttl = createTimeline(value);
+            putTimeline(index, ttl);
+        } else if (ttl instanceof PrimitiveTemporalTimeline && !((PrimitiveTemporalTimeline) ttl).accepts(value)) {
+            ttl = widen(ttl);
+            putTimeline(index, ttl);
         }
 
         TimeWindow before = ttl.getFloorTimeWindow(date);
-        TimeWindow after = ttl.getCeilingTimeWindow(date);
 
-        if (before != null && (!before.isEnded() || before.getEndDate() > date)) {
-            before.setEndDate(date);
-        }
+        if (before != null && before.contains(date)) {
+            double end = before.getEndDate();
 
-        if (after == null || after == before) {
-            ttl.startTimeWindow(date, value);
-        } else {
-            if (after.getStartDate() <= date) {
-                ttl.removeTimeWindow(after);
+            if (before.getStartDate() < date) {
+                before.setEndDate(date);
             }
 
-            ttl.insertTimeWindow(date, after.getStartDate(), value);
+            ttl.insertTimeWindow(date, end, value);
+        } else {
+            TimeWindow after = ttl.getCeilingTimeWindow(date);
+            ttl.insertTimeWindow(date, after == null ? Double.POSITIVE_INFINITY : after.getStartDate(), value);
+        }
+
+        KeySteps s = steps;
+
+        if (s != null) {
+            updateKeySteps(s, index, ttl, date);
+        }
+    }
+
+    /**
+     * Get the value of an attribute at a date, as a number. Attributes stored in a {@link NumericTimeline} are
+     * read without boxing.
+     *
+     * @param key  the attribute
+     * @param date the date
+     * @return the value of the attribute, or NaN if the attribute has no value at this date or if the value is
+     * not a number
+     */
+    public double getNumberAt(String key, double date) {
+        return getNumberAt(dictionary.getIndex(key), date);
+    }
+
+    /**
+     * @param key the index of the key in the dictionary
+     * @see #getNumberAt(String, double)
+     */
+    public double getNumberAt(int key, double date) {
+        TemporalTimeline<Object> ttl = getTimeline(key);
+
+        if (ttl instanceof NumericTimeline) {
+            return ((NumericTimeline) ttl).getNumberAt(date);
+        }
+
+        Object value = ttl == null ? null : ttl.getValueAt(date);
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    /**
+     * Create the timeline of the values of a new attribute. Doubles, longs, ints and booleans are stored in a
+     * {@link PrimitiveTemporalTimeline}, unless the time-windows are stored off-heap.
+     *
+     * @param value the first value of the attribute
+     */
+    protected TemporalTimeline<Object> createTimeline(Object value) {
+        if (slab != null) {
+            return new OffHeapTemporalTimeline<>(slab);
         }
+
+        TemporalTimeline<Object> ttl = PrimitiveTemporalTimeline.forValue(value);
+
+        if (ttl == null) {
+            ttl = arrayTimelines ? new ArrayTemporalTimeline<>() : new TemporalTimeline<>();
+        }
+
+        return ttl;
+    }
+
+    /**
+     * Copy a primitive timeline in a timeline of objects, once a value of another type has to be stored.
+     */
+    protected TemporalTimeline<Object> widen(TemporalTimeline<Object> ttl) {
+        TemporalTimeline<Object> objects = arrayTimelines ? new ArrayTemporalTimeline<>() : new TemporalTimeline<>();
+
+        for (TimeWindow timeWindow : ttl) {
+            objects.insertTimeWindow(timeWindow.getStartDate(), timeWindow.getEndDate(), ttl.getValueAt(timeWindow));
+        }
+
+        return objects;
     }
 
     public void removeAttributeAt(String key, double date) {
-        TemporalTimeline<Object> ttl = attributes.get(key);
+        int index = dictionary.getIndex(key);
+        TemporalTimeline<Object> ttl = getTimeline(index);
 
         if (ttl == null) {
             return;
@@ -101,69 +290,411 @@ public class AttributesTimeline {
         TimeWindow timeWindow = ttl.getFloorTimeWindow(date);
 
         if (timeWindow != null && timeWindow.contains(date)) {
-            timeWindow.setEndDate(date);
+            if (timeWindow.getStartDate() < date) {
+                timeWindow.setEndDate(date);
+            } else {
+                ttl.removeTimeWindow(timeWindow);
+            }
+
+            KeySteps s = steps;
+
+            if (s != null) {
+                updateKeySteps(s, index, ttl, date);
+            }
         }
     }
 
     public void clearAttributesAt(double date) {
-        for (String key : attributes.keySet()) {
-            removeAttributeAt(key, date);
+        for (int i = 0; i < count; i++) {
+            removeAttributeAt(dictionary.getKey(keys[i]), date);
         }
     }
 
     public int getAttributesCountAt(double date) {
-        int c = 0;
+        KeySteps s = getKeySteps();
+        int step = s.stepAt(date);
+
+        return step < 0 ? 0 : s.keys[step].length;
+    }
+
+    /**
+     * Get one of the keys having a value at a date. Together with {@link #getAttributesCountAt(double)}, this
+     * iterates the keys without allocating an iterator.
+     *
+     * @param date the date
+     * @param i    the rank of the key, between 0 and the count of attributes at this date
+     * @return the key
+     */
+    public String getKeyAt(double date, int i) {
+        KeySteps s = getKeySteps();
+        int step = s.stepAt(date);
+
+        if (step < 0 || i < 0 || i >= s.keys[step].length) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+
+        return dictionary.getKey(s.keys[step][i]);
+    }
+
+    /**
+     * Keys of the attributes which have been set at least once, whatever the date.
+     */
+    public Set<String> getKeys() {
+        return new KeySet();
+    }
+
+    /**
+     * Get the timeline of the values of an attribute. The timeline should not be changed directly, as changes
+     * not done through this object are not seen when iterating or counting the keys.
+     *
+     * @param key the attribute
+     * @return the timeline, or null if the attribute has never been set
+     */
+    public TemporalTimeline<Object> getAttributeTimeline(String key) {
+        return getTimeline(dictionary.getIndex(key));
+    }
+
+    /**
+     * Get the timeline of an attribute from the index of its key.
+     *
+     * @param key the index of the key in the dictionary, or -1
+     * @return the timeline, or null if the attribute has never been set
+     */
+    @SuppressWarnings("unchecked")
+    protected TemporalTimeline<Object> getTimeline(int key) {
+        if (key < 0) {
+            return null;
+        }
+
+        int i = Arrays.binarySearch(keys, 0, count, key);
+        return i < 0 ? null : (TemporalTimeline<Object>) timelines[i];
+    }
+
+    /**
+     * Store the timeline of an attribute, replacing the previous one if any.
+     *
+     * @param key the index of the key in the dictionary
+     * @param ttl the timeline of the attribute
+     */
+    protected void putTimeline(int key, TemporalTimeline<Object> ttl) {
+        int i = Arrays.binarySearch(keys, 0, count, key);
+
+        if (i >= 0) {
+            timelines[i] = ttl;
+            return;
+        }
+
+        i = -i - 1;
+
+        if (count == keys.length) {
+            int capacity = count == 0 ? 2 : count + (count >> 1) + 1;
+
+            keys = Arrays.copyOf(keys, capacity);
+            timelines = Arrays.copyOf(timelines, capacity);
+        }
+
+        System.arraycopy(keys, i, keys, i + 1, count - i);
+        System.arraycopy(timelines, i, timelines, i + 1, count - i);
+
+        keys[i] = key;
+        timelines[i] = ttl;
+        count++;
+
+        if (ttl.iterator().hasNext()) {
+            steps = null;
+        }
+    }
+
+    protected KeySteps getKeySteps() {
+        KeySteps s = steps;
+
+        if (s == null) {
+            s = buildKeySteps(keys, timelines, count);
+            steps = s;
+        }
+
+        return s;
+    }
+
+    /**
+     * Build the step function of the keys having a value, from the time-windows of all the attributes.
+     *
+     * @param keys      indices of the keys of the attributes, in ascending order
+     * @param timelines timelines of the attributes, matching keys
+     * @param count     count of attributes
+     */
+    protected static KeySteps buildKeySteps(int[] keys, TemporalTimeline<?>[] timelines, int count) {
+        int windows = 0;
+
+        for (int j = 0; j < count; j++) {
+            for (TimeWindow ignored : timelines[j]) {
+                windows++;
+            }
+        }
+
+        double[] dates = new double[2 * windows];
+        int n = 0;
+
+        for (int j = 0; j < count; j++) {
+            for (TimeWindow timeWindow : timelines[j]) {
+                dates[n++] = timeWindow.getStartDate();
+
+                if (timeWindow.getEndDate() < Double.POSITIVE_INFINITY) {
+                    dates[n++] = timeWindow.getEndDate();
+                }
+            }
+        }
+
+        Arrays.sort(dates, 0, n);
+
+        int m = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (m == 0 || dates[i] != dates[m - 1]) {
+                dates[m++] = dates[i];
+            }
+        }
+
+        dates = Arrays.copyOf(dates, m);
+
+        //
+        // First count the keys of each step, then fill the steps. Slots are visited in ascending order of key,
+        // so keys of a step are sorted as well.
+        //
+        int[] offsets = new int[m + 1];
+
+        for (int j = 0; j < count; j++) {
+            for (TimeWindow timeWindow : timelines[j]) {
+                int to = stepEnd(dates, timeWindow);
+
+                for (int i = Arrays.binarySearch(dates, timeWindow.getStartDate()); i < to; i++) {
+                    offsets[i + 1]++;
+                }
+            }
+        }
+
+        for (int i = 0; i < m; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] stepKeys = new int[offsets[m]];
+        int[] next = Arrays.copyOf(offsets, m);
+
+        for (int j = 0; j < count; j++) {
+            for (TimeWindow timeWindow : timelines[j]) {
+                int to = stepEnd(dates, timeWindow);
 
-        for (TemporalTimeline<?> ttl : attributes.values()) {
-            if (ttl.existsAt(date)) {
-                c++;
+                for (int i = Arrays.binarySearch(dates, timeWindow.getStartDate()); i < to; i++) {
+                    stepKeys[next[i]++] = keys[j];
+                }
             }
         }
 
-        return c;
+        int[][] keysOfSteps = new int[m][];
+
+        for (int i = 0; i < m; i++) {
+            keysOfSteps[i] = Arrays.copyOfRange(stepKeys, offsets[i], offsets[i + 1]);
+        }
+
+        return new KeySteps(dates, keysOfSteps, m);
+    }
+
+    /**
+     * Update the step function of the keys once an attribute has been set or removed at a date. The attribute
+     * then has or has not a value from this date to the next bound of its time-windows, and keeps its presence
+     * after, so only the steps in between are changed.
+     *
+     * @param s   the step function, changed in place
+     * @param key the index of the key of the attribute
+     * @param ttl the timeline of the attribute, after the change
+     */
+    protected static void updateKeySteps(KeySteps s, int key, TemporalTimeline<?> ttl, double date) {
+        TimeWindow floor = ttl.getFloorTimeWindow(date);
+
+        if (floor != null && floor.contains(date)) {
+            s.update(key, date, floor.getEndDate(), true);
+        } else {
+            TimeWindow ceiling = ttl.getCeilingTimeWindow(date);
+            s.update(key, date, ceiling == null ? Double.POSITIVE_INFINITY : ceiling.getStartDate(), false);
+        }
+    }
+
+    private static int stepEnd(double[] dates, TimeWindow timeWindow) {
+        double end = timeWindow.getEndDate();
+        return end < Double.POSITIVE_INFINITY ? Arrays.binarySearch(dates, end) : dates.length;
     }
 
     public Iterator<String> getKeyIteratorAt(double date) {
         return new KeyIteratorAt(date);
     }
 
-    protected class KeyIteratorAt implements Iterator<String> {
-        protected final double date;
-        Iterator<Map.Entry<String, TemporalTimeline<Object>>> it;
+    /**
+     * Keys having a value, for each interval between two consecutive dates at which this set of keys changes.
+     * The keys of the interval starting at {@code dates[i]} are in {@code keys[i]}, in ascending order. The array
+     * of keys of a step is never changed, but replaced, so it can be read while the steps are updated.
+     */
+    protected static class KeySteps {
+        double[] dates;
+        int[][] keys;
+        int count;
+
+        KeySteps(double[] dates, int[][] keys, int count) {
+            this.dates = dates;
+            this.keys = keys;
+            this.count = count;
+        }
 
-        String prev, next;
+        /**
+         * Copy the steps, sharing the arrays of keys of the steps.
+         */
+        KeySteps copy() {
+            return new KeySteps(Arrays.copyOf(dates, count), Arrays.copyOf(keys, count), count);
+        }
 
-        KeyIteratorAt(double date) {
-            this.date = date;
-            it = attributes.entrySet().iterator();
-            prev = null;
+        /**
+         * Get the step containing a date.
+         *
+         * @return the index of the step, or -1 if the date is before the first change
+         */
+        int stepAt(double date) {
+            int lo = 0, hi = count - 1;
+
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+
+                if (dates[mid] <= date) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
 
-            findNext();
+            return hi;
         }
 
-        void findNext() {
-            next = null;
+        /**
+         * Add or remove a key in the steps of [from;to[, splitting the steps containing the bounds, then merge
+         * the steps of this period which have the same keys as the previous one.
+         */
+        void update(int key, double from, double to, boolean present) {
+            int first = split(from);
+            int last = to < Double.POSITIVE_INFINITY ? split(to) : count;
+
+            for (int i = first; i < last; i++) {
+                keys[i] = present ? withKey(keys[i], key) : withoutKey(keys[i], key);
+            }
 
-            while (next == null && it.hasNext()) {
-                Map.Entry<String, TemporalTimeline<Object>> e = it.next();
-                TemporalTimeline<Object> ttl = e.getValue();
+            int end = Math.min(last + 1, count), n = first;
 
-                if (ttl.existsAt(date)) {
-                    next = e.getKey();
+            for (int i = first; i < end; i++) {
+                if (!Arrays.equals(keys[i], n > 0 ? keys[n - 1] : NO_KEYS)) {
+                    dates[n] = dates[i];
+                    keys[n] = keys[i];
+                    n++;
                 }
             }
+
+            if (n < end) {
+                System.arraycopy(dates, end, dates, n, count - end);
+                System.arraycopy(keys, end, keys, n, count - end);
+                Arrays.fill(keys, n + count - end, count, null);
+                count -= end - n;
+            }
+        }
+
+        /**
+         * Make a step start at a date, splitting the step containing it.
+         *
+         * @return the index of the step starting at the date
+         */
+        int split(double date) {
+            int i = stepAt(date);
+
+            if (i >= 0 && dates[i] == date) {
+                return i;
+            }
+
+            if (count == dates.length) {
+                int capacity = count + (count >> 1) + 2;
+
+                dates = Arrays.copyOf(dates, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+
+            System.arraycopy(dates, i + 1, dates, i + 2, count - i - 1);
+            System.arraycopy(keys, i + 1, keys, i + 2, count - i - 1);
+
+            dates[i + 1] = date;
+            keys[i + 1] = i >= 0 ? keys[i] : NO_KEYS;
+            count++;
+
+            return i + 1;
+        }
+
+        static int[] withKey(int[] keys, int key) {
+            int i = Arrays.binarySearch(keys, key);
+
+            if (i >= 0) {
+                return keys;
+            }
+
+            i = -i - 1;
+
+            int[] with = new int[keys.length + 1];
+
+            System.arraycopy(keys, 0, with, 0, i);
+            with[i] = key;
+            System.arraycopy(keys, i, with, i + 1, keys.length - i);
+
+            return with;
+        }
+
+        static int[] withoutKey(int[] keys, int key) {
+            int i = Arrays.binarySearch(keys, key);
+
+            if (i < 0) {
+                return keys;
+            }
+
+            int[] without = new int[keys.length - 1];
+
+            System.arraycopy(keys, 0, without, 0, i);
+            System.arraycopy(keys, i + 1, without, i, keys.length - i - 1);
+
+            return without;
+        }
+    }
+
+    protected class KeyIteratorAt implements Iterator<String> {
+        protected final double date;
+        protected final int[] stepKeys;
+
+        int next;
+        String prev;
+
+        KeyIteratorAt(double date) {
+            KeySteps steps = getKeySteps();
+            int step = steps.stepAt(date);
+
+            this.date = date;
+            this.stepKeys = step < 0 ? NO_KEYS : steps.keys[step];
+
+            next = 0;
+            prev = null;
         }
 
         @Override
         public boolean hasNext() {
-            return next != null;
+            return next < stepKeys.length;
         }
 
         @Override
         public String next() {
-            prev = next;
-            findNext();
+            if (next >= stepKeys.length) {
+                throw new NoSuchElementException();
+            }
 
+            prev = dictionary.getKey(stepKeys[next++]);
             return prev;
         }
 
@@ -174,4 +705,41 @@ public class AttributesTimeline {
             }
         }
     }
+    protected class KeySet extends AbstractSet<String> {
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < count;
+                }
+
+                @Override
+                public String next() {
+                    if (next >= count) {
+                        throw new NoSuchElementException();
+                    }
+
+                    return dictionary.getKey(keys[next++]);
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String && getTimeline(dictionary.getIndex((String) o)) != null;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+
+/**
+ * Timeline of {@link Boolean} values, stored in an array of booleans. Booleans are not numbers, so
+ * {@link #getNumberAt(double)} always gives NaN.
+ */
+public class BooleanTemporalTimeline extends PrimitiveTemporalTimeline {
+    protected boolean[] booleans;
+
+    public BooleanTemporalTimeline() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BooleanTemporalTimeline(int initialCapacity) {
+        super(initialCapacity);
+        booleans = new boolean[initialCapacity];
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+        return value instanceof Boolean;
+    }
+
+    @Override
+    protected Object valueAt(int i) {
+        return booleans[i];
+    }
+
+    @Override
+    protected void setValueAt(int i, Object value) {
+        booleans[i] = (Boolean) value;
+    }
+
+    @Override
+    protected double numberAt(int i) {
+        return Double.NaN;
+    }
+
+    @Override
+    protected void moveValues(int from, int to, int count) {
+        System.arraycopy(booleans, from, booleans, to, count);
+    }
+
+    @Override
+    protected void resizeValues(int capacity) {
+        booleans = Arrays.copyOf(booleans, capacity);
+    }
+}
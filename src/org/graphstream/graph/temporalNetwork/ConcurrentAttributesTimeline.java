@@ -0,0 +1,331 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attributes of an element which can be read and written by several threads.
+ * <p/>
+ * Values are stored in {@link ConcurrentTemporalTimeline}s, and the array of timelines is copied when an
+ * attribute is set for the first time, then published through a volatile reference, so reading an attribute
+ * does not lock. Setting or removing a value is a single change of the timeline of the attribute, so a read at
+ * some date returns either the value before or the value after a concurrent change, never something in
+ * between.
+ * <p/>
+ * Counting and iterating keys use the step function of {@link AttributesTimeline}. Once built, it is updated
+ * after each change, under the lock of this object : the steps touched by the change are updated in a copy of the
+ * step function, which is then published, so readers never see steps being changed. They reflect the changes
+ * completed before they start, and possibly some of the changes running at the same time.
+ * <p/>
+ * Given a {@link VersionClock}, the attributes can also be read as they were at a commit of the clock, see
+ * {@link #getAttributesAt(double, long)}.
+ */
+public class ConcurrentAttributesTimeline extends AttributesTimeline {
+    protected volatile Slots slots;
+    protected volatile KeySteps publishedSteps;
+    protected final VersionClock clock;
+
+    public ConcurrentAttributesTimeline() {
+        this(new KeyDictionary());
+    }
+
+    /**
+     * @param dictionary the dictionary resolving the keys, which is shared by the threads
+     */
+    public ConcurrentAttributesTimeline(KeyDictionary dictionary) {
+        this(dictionary, null);
+    }
+
+    /**
+     * @param dictionary the dictionary resolving the keys, which is shared by the threads
+     * @param clock      the clock giving the sequence of the changes, or null if previous states are not kept
+     */
+    public ConcurrentAttributesTimeline(KeyDictionary dictionary, VersionClock clock) {
+        super(dictionary, true);
+
+        this.clock = clock;
+        slots = new Slots(NO_KEYS, NO_TIMELINES);
+        publishedSteps = null;
+    }
+
+    /**
+     * Get the value of an attribute at a date, as it was at a commit of the clock.
+     *
+     * @param key      the attribute
+     * @param date     the date
+     * @param sequence the sequence of a commit which has not been released
+     * @return the value, or null if the attribute had no value at this date
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAttributeAt(String key, double date, long sequence) {
+        Slots s = slotsAt(sequence);
+        int i = Arrays.binarySearch(s.keys, dictionary.getIndex(key));
+
+        return i < 0 ? null : (T) ((ConcurrentTemporalTimeline<?>) s.timelines[i]).getValueAt(date, sequence);
+    }
+
+    /**
+     * Get all the attributes having a value at a date, as they were at a commit of the clock.
+     *
+     * @param date     the date
+     * @param sequence the sequence of a commit which has not been released
+     * @return the values of the attributes, by key
+     */
+    public Map<String, Object> getAttributesAt(double date, long sequence) {
+        Slots s = slotsAt(sequence);
+        Map<String, Object> attributes = new LinkedHashMap<>();
+
+        for (int i = 0; i < s.keys.length; i++) {
+            Object value = ((ConcurrentTemporalTimeline<?>) s.timelines[i]).getValueAt(date, sequence);
+
+            if (value != null) {
+                attributes.put(dictionary.getKey(s.keys[i]), value);
+            }
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Get the last slots written before or in a sequence.
+     */
+    protected Slots slotsAt(long sequence) {
+        Slots s = slots;
+
+        while (s.sequence > sequence) {
+            s = s.previous;
+        }
+
+        return s;
+    }
+
+    @Override
+    public void setAttributeAt(String key, double date, Object... values) {
+        int index = dictionary.intern(key);
+        Object value = values == null ? Boolean.TRUE : (values.length == 1 ? values[0] : values);
+        ConcurrentTemporalTimeline<Object> ttl = (ConcurrentTemporalTimeline<Object>) getTimeline(index);
+
+        if (ttl == null) {
+            synchronized (this) {
+                ttl = (ConcurrentTemporalTimeline<Object>) getTimeline(index);
+
+                if (ttl == null) {
+                    ttl = new ConcurrentTemporalTimeline<>(clock);
+                    putTimeline(index, ttl);
+                }
+            }
+        }
+
+        ttl.setValueFrom(date, value);
+        keyStepsChanged(index, ttl, date);
+    }
+
+    @Override
+    public void removeAttributeAt(String key, double date) {
+        int index = dictionary.getIndex(key);
+        ConcurrentTemporalTimeline<Object> ttl = (ConcurrentTemporalTimeline<Object>) getTimeline(index);
+
+        if (ttl != null) {
+            ttl.endValueAt(date);
+            keyStepsChanged(index, ttl, date);
+        }
+    }
+
+    @Override
+    public void clearAttributesAt(double date) {
+        Slots s = slots;
+
+        for (int i = 0; i < s.keys.length; i++) {
+            ((ConcurrentTemporalTimeline<?>) s.timelines[i]).endValueAt(date);
+        }
+
+        synchronized (this) {
+            KeySteps steps = publishedSteps;
+
+            if (steps != null) {
+                steps = steps.copy();
+
+                for (int i = 0; i < s.keys.length; i++) {
+                    updateKeySteps(steps, s.keys[i], s.timelines[i], date);
+                }
+
+                publishedSteps = steps;
+            }
+        }
+    }
+
+    /**
+     * Update the published step function once an attribute has been changed at a date. Builds of the step
+     * function hold the same lock, so a change completed during a build is either seen by the build or applied
+     * to its result.
+     */
+    protected synchronized void keyStepsChanged(int key, TemporalTimeline<?> ttl, double date) {
+        KeySteps steps = publishedSteps;
+
+        if (steps != null) {
+            steps = steps.copy();
+            updateKeySteps(steps, key, ttl, date);
+            publishedSteps = steps;
+        }
+    }
+
+    @Override
+    public Set<String> getKeys() {
+        Slots s = slots;
+        Set<String> keys = new LinkedHashSet<>();
+
+        for (int key : s.keys) {
+            keys.add(dictionary.getKey(key));
+        }
+
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /*
+     * @see org.graphstream.graph.temporalNetwork.AttributesTimeline#createTimeline(java.lang.Object)
+     */
+    @Override
+    protected TemporalTimeline<Object> createTimeline(Object value) {
+        return new ConcurrentTemporalTimeline<>(clock);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected TemporalTimeline<Object> getTimeline(int key) {
+        if (key < 0) {
+            return null;
+        }
+
+        Slots s = slots;
+        int i = Arrays.binarySearch(s.keys, key);
+
+        return i < 0 ? null : (TemporalTimeline<Object>) s.timelines[i];
+    }
+
+    @Override
+    protected synchronized void putTimeline(int key, TemporalTimeline<Object> ttl) {
+        Slots s = slots;
+        int i = Arrays.binarySearch(s.keys, key);
+
+        if (i >= 0) {
+            TemporalTimeline<?>[] timelines = Arrays.copyOf(s.timelines, s.timelines.length);
+            timelines[i] = ttl;
+            publish(new Slots(s.keys, timelines));
+        } else {
+            i = -i - 1;
+
+            int size = s.keys.length;
+            int[] keys = new int[size + 1];
+            TemporalTimeline<?>[] timelines = new TemporalTimeline<?>[size + 1];
+
+            System.arraycopy(s.keys, 0, keys, 0, i);
+            System.arraycopy(s.timelines, 0, timelines, 0, i);
+            keys[i] = key;
+            timelines[i] = ttl;
+            System.arraycopy(s.keys, i, keys, i + 1, size - i);
+            System.arraycopy(s.timelines, i, timelines, i + 1, size - i);
+
+            publish(new Slots(keys, timelines));
+
+            if (ttl.iterator().hasNext()) {
+                publishedSteps = null;
+            }
+        }
+    }
+
+    /**
+     * Publish new slots, keeping the previous ones for the readers of older commits, as it is done by
+     * {@link ConcurrentTemporalTimeline#publish(ConcurrentTemporalTimeline.State)}.
+     */
+    protected void publish(Slots next) {
+        if (clock != null) {
+            Slots current = slots;
+            long sequence = clock.getWriteSequence();
+
+            next.sequence = sequence;
+            next.previous = current.sequence == sequence ? current.previous : current;
+
+            Slots oldest = next.previous;
+            long readable = clock.getOldestReadable();
+
+            while (oldest != null && oldest.sequence > readable) {
+                oldest = oldest.previous;
+            }
+
+            if (oldest != null) {
+                oldest.previous = null;
+            }
+        }
+
+        slots = next;
+    }
+
+    @Override
+    protected KeySteps getKeySteps() {
+        KeySteps steps = publishedSteps;
+        return steps == null ? buildPublishedSteps() : steps;
+    }
+
+    protected synchronized KeySteps buildPublishedSteps() {
+        KeySteps steps = publishedSteps;
+
+        if (steps == null) {
+            Slots s = slots;
+            steps = buildKeySteps(s.keys, s.timelines, s.keys.length);
+            publishedSteps = steps;
+        }
+
+        return steps;
+    }
+
+    /**
+     * Keys and timelines of the attributes, never changed once published.
+     */
+    protected static final class Slots {
+        final int[] keys;
+        final TemporalTimeline<?>[] timelines;
+
+        long sequence;
+        volatile Slots previous;
+
+        Slots(int[] keys, TemporalTimeline<?>[] timelines) {
+            this.keys = keys;
+            this.timelines = timelines;
+        }
+    }
+}
@@ -0,0 +1,606 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Timeline which can be read and written by several threads.
+ * <p/>
+ * The time-windows are stored in sorted arrays, like in {@link ArrayTemporalTimeline}, but the arrays are never
+ * changed once published : each change builds new arrays and publishes them through a single volatile
+ * reference. Readers do not lock, they read the current state once and search it, so each lookup sees the
+ * timeline as it was after some complete change. Writers are serialized on the timeline, which is cheap as
+ * concurrent writers usually work on different elements.
+ * <p/>
+ * Time-windows appended after the last one, and the end of the last time-window, are written in place in
+ * arrays shared by the successive states, which have room for the next time-windows, so building the history of
+ * an element in date order takes constant amortized time per change. Other changes copy the arrays, which is
+ * linear in the count of time-windows. Compound changes used by {@link ConcurrentAttributesTimeline}, like
+ * {@link #setValueFrom(double, Object)}, are done in one step, so readers never see them half done.
+ * <p/>
+ * A timeline given a {@link VersionClock} keeps its previous states, tagged with the sequence in which they
+ * have been written, so that it can be read as it was at a commit of the clock, see
+ * {@link #getValueAt(double, long)}.
+ * <p/>
+ * Time-windows returned by this timeline are views : changing their dates updates the timeline.
+ */
+public class ConcurrentTemporalTimeline<T> extends TemporalTimeline<T> {
+    protected static final State EMPTY = new State(new Columns(0), 0, Double.POSITIVE_INFINITY);
+
+    protected volatile State state;
+    protected final VersionClock clock;
+
+    public ConcurrentTemporalTimeline() {
+        this(null);
+    }
+
+    /**
+     * @param clock the clock giving the sequence of the changes, or null if previous states are not kept
+     */
+    public ConcurrentTemporalTimeline(VersionClock clock) {
+        super(null);
+
+        this.clock = clock;
+        state = EMPTY;
+    }
+
+    public VersionClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Get the value associated with the time-window containing a date, as it was at a commit.
+     *
+     * @param date     the date
+     * @param sequence the sequence of a commit which has not been released
+     * @return the value, or null if there was no time-window containing date
+     */
+    public T getValueAt(double date, long sequence) {
+        State s = stateAt(sequence);
+        int i = s.indexOf(date);
+
+        return i < 0 ? null : s.<T>valueAt(i);
+    }
+
+    /**
+     * Check if a time-window contained a date at a commit.
+     *
+     * @param date     the date
+     * @param sequence the sequence of a commit which has not been released
+     */
+    public boolean existsAt(double date, long sequence) {
+        return stateAt(sequence).indexOf(date) >= 0;
+    }
+
+    /**
+     * Get the last state written before or in a sequence.
+     */
+    protected State stateAt(long sequence) {
+        State s = state;
+
+        while (s.sequence > sequence) {
+            s = s.previous;
+        }
+
+        return s;
+    }
+
+    /**
+     * Publish a new state. If the timeline is versioned, the new state is tagged with the current write
+     * sequence and linked to the previous one, unless it replaces a state of the same sequence, and the states
+     * nobody can read anymore are dropped.
+     */
+    protected void publish(State next) {
+        if (clock != null) {
+            State current = state;
+            long sequence = clock.getWriteSequence();
+
+            next.sequence = sequence;
+            next.previous = current.sequence == sequence ? current.previous : current;
+
+            State oldest = next.previous;
+            long readable = clock.getOldestReadable();
+
+            while (oldest != null && oldest.sequence > readable) {
+                oldest = oldest.previous;
+            }
+
+            if (oldest != null) {
+                oldest.previous = null;
+            }
+        }
+
+        state = next;
+    }
+
+    /*
+     * @see java.lang.Iterable#iterator()
+     */
+    @Override
+    public Iterator<TimeWindow> iterator() {
+        return new WindowIterator(state);
+    }
+
+    /*
+     * @see org.graphstream.graph.temporalNetwork.TemporalTimeline#getValueAt(double)
+     */
+    @Override
+    public T getValueAt(double date) {
+        State s = state;
+        int i = s.indexOf(date);
+
+        return i < 0 ? null : s.<T>valueAt(i);
+    }
+
+    /*
+     * @see org.graphstream.graph.temporalNetwork.TemporalTimeline#getValueAt(org.graphstream.graph.temporalNetwork.TimeWindow)
+     */
+    @Override
+    public T getValueAt(TimeWindow timeWindow) {
+        State s = state;
+        int i = s.indexOf(timeWindow);
+
+        return i < 0 ? null : s.<T>valueAt(i);
+    }
+
+    @Override
+    public synchronized T removeTimeWindow(TimeWindow timeWindow) {
+        State s = state;
+        int i = s.indexOf(timeWindow);
+
+        if (i < 0) {
+            return null;
+        }
+
+        publish(s.remove(i));
+        return s.valueAt(i);
+    }
+
+    @Override
+    public boolean existsAt(double date) {
+        return state.indexOf(date) >= 0;
+    }
+
+    @Override
+    public boolean hasOpenTimeWindow() {
+        State s = state;
+        return s.size() > 0 && Double.isInfinite(s.end(s.size() - 1));
+    }
+
+    @Override
+    public synchronized void insertTimeWindow(double start, double end, T associatedValue) {
+        publish(put(state, start, end, associatedValue));
+    }
+
+    @Override
+    public synchronized void startTimeWindow(double start, T associatedValue) {
+        State s = state;
+        int last = s.size() - 1;
+
+        if (last >= 0) {
+            if (!Double.isInfinite(s.end(last))) {
+                if (start < s.end(last)) {
+                    throw new InvalidTimeWindowException("When starting a new time-window, start-date should be greater than the end-date of the last existing windows.");
+                }
+            } else {
+                s = s.withEnd(last, start);
+            }
+        }
+
+        publish(put(s, start, Double.POSITIVE_INFINITY, associatedValue));
+    }
+
+    @Override
+    public synchronized void endTimeWindow(double end) {
+        State s = state;
+        int last = s.size() - 1;
+
+        if (last < 0) {
+            throw new InvalidTimeWindowException("try to end last time window but timeline is empty.");
+        } else if (!Double.isInfinite(s.end(last))) {
+            throw new InvalidTimeWindowException("try to end last time window but last window is already ended.");
+        } else {
+            publish(s.withEnd(last, end));
+        }
+    }
+
+    @Override
+    public TimeWindow getCeilingTimeWindow(double date) {
+        State s = state;
+        int i = s.floorStartIndex(date);
+
+        if (i < 0 || date >= s.end(i)) {
+            i++;
+        }
+
+        return i < s.size() ? new WindowView(s, i) : null;
+    }
+
+    @Override
+    public TimeWindow getFloorTimeWindow(double date) {
+        State s = state;
+        int i = s.floorStartIndex(date);
+
+        return i < 0 ? null : new WindowView(s, i);
+    }
+
+    /**
+     * Count of time-windows in this timeline.
+     */
+    public int size() {
+        return state.size();
+    }
+
+    /**
+     * Give a value from a date until the start of the next time-window, splitting the time-window containing
+     * the date if any. This is the change done by {@link AttributesTimeline#setAttributeAt(String, double,
+     * Object...)}, done here in one step.
+     *
+     * @param date  the date from which the value holds
+     * @param value the value
+     */
+    public synchronized void setValueFrom(double date, T value) {
+        State s = state;
+        int i = s.floorStartIndex(date);
+
+        if (i >= 0 && date < s.end(i)) {
+            double end = s.end(i);
+
+            if (s.starts[i] < date) {
+                s = s.withEnd(i, date);
+            }
+
+            publish(put(s, date, end, value));
+        } else {
+            publish(put(s, date, i + 1 < s.size() ? s.starts[i + 1] : Double.POSITIVE_INFINITY, value));
+        }
+    }
+
+    /**
+     * End the time-window containing a date at this date, removing it if it starts at this date. This is the
+     * change done by {@link AttributesTimeline#removeAttributeAt(String, double)}, done here in one step.
+     *
+     * @param date the date
+     */
+    public synchronized void endValueAt(double date) {
+        State s = state;
+        int i = s.indexOf(date);
+
+        if (i >= 0) {
+            publish(s.starts[i] < date ? s.withEnd(i, date) : s.remove(i));
+        }
+    }
+
+    /**
+     * Store a time-window. If a time-window with the same start-date already exists, only its value is
+     * replaced, as it is done by {@link ArrayTemporalTimeline}.
+     */
+    protected static State put(State s, double start, double end, Object value) {
+        int i = s.floorStartIndex(start);
+
+        if (i >= 0 && s.starts[i] == start) {
+            return s.withValue(i, value);
+        }
+
+        return s.insert(i + 1, start, end, value);
+    }
+
+    protected synchronized void setStartDate(double from, double to) {
+        State s = state;
+        int i = s.floorStartIndex(from);
+
+        if (i >= 0 && s.starts[i] == from) {
+            Object value = s.values[i];
+            double end = s.end(i);
+
+            publish(put(s.remove(i), to, end, value));
+        }
+    }
+
+    protected synchronized void setEndDate(double start, double to) {
+        State s = state;
+        int i = s.floorStartIndex(start);
+
+        if (i >= 0 && s.starts[i] == start) {
+            publish(s.withEnd(i, to));
+        }
+    }
+
+    /**
+     * Immutable content of the timeline. Each change returns a new state. The sequence and the previous state
+     * are set before the state is published.
+     */
+    protected static final class State {
+        final double[] starts;
+        final double[] ends;
+        final Object[] values;
+        final int size;
+
+        /**
+         * End-date of the last time-window, which is held by the state rather than by the arrays, so that
+         * ending the last time-window does not copy them.
+         */
+        final double lastEnd;
+
+        /**
+         * Arrays of the states, shared by the states built by appending time-windows.
+         */
+        final Columns columns;
+
+        long sequence;
+        volatile State previous;
+
+        State(Columns columns, int size, double lastEnd) {
+            this.columns = columns;
+            this.starts = columns.starts;
+            this.ends = columns.ends;
+            this.values = columns.values;
+            this.size = size;
+            this.lastEnd = lastEnd;
+        }
+
+        int size() {
+            return size;
+        }
+
+        double end(int i) {
+            return i == size - 1 ? lastEnd : ends[i];
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T valueAt(int i) {
+            return (T) values[i];
+        }
+
+        /**
+         * @see ArrayTemporalTimeline#floorStartIndex(double)
+         */
+        int floorStartIndex(double date) {
+            int lo = 0, hi = size - 1;
+
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+
+                if (starts[mid] <= date) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+
+            return hi;
+        }
+
+        int indexOf(double date) {
+            int i = floorStartIndex(date);
+            return i >= 0 && date < end(i) ? i : -1;
+        }
+
+        /**
+         * @see ArrayTemporalTimeline#indexOf(TimeWindow)
+         */
+        int indexOf(TimeWindow timeWindow) {
+            if (timeWindow.isDate()) {
+                return indexOf(timeWindow.getStartDate());
+            }
+
+            int i = floorStartIndex(timeWindow.getStartDate());
+            return i >= 0 && starts[i] == timeWindow.getStartDate() ? i : -1;
+        }
+
+        /**
+         * Copy the time-windows of this state in new arrays, leaving room for the given count of time-windows.
+         */
+        Columns copy(int capacity) {
+            Columns c = new Columns(capacity);
+
+            System.arraycopy(starts, 0, c.starts, 0, size);
+            System.arraycopy(ends, 0, c.ends, 0, size);
+            System.arraycopy(values, 0, c.values, 0, size);
+
+            if (size > 0) {
+                c.ends[size - 1] = lastEnd;
+            }
+
+            c.used = size;
+            return c;
+        }
+
+        State insert(int i, double start, double end, Object value) {
+            if (i == size) {
+                return append(start, end, value);
+            }
+
+            Columns c = new Columns(size + 1);
+
+            System.arraycopy(starts, 0, c.starts, 0, i);
+            System.arraycopy(ends, 0, c.ends, 0, i);
+            System.arraycopy(values, 0, c.values, 0, i);
+
+            c.starts[i] = start;
+            c.ends[i] = end;
+            c.values[i] = value;
+
+            System.arraycopy(starts, i, c.starts, i + 1, size - i);
+            System.arraycopy(ends, i, c.ends, i + 1, size - i);
+            System.arraycopy(values, i, c.values, i + 1, size - i);
+
+            c.ends[size] = lastEnd;
+            c.used = size + 1;
+
+            return new State(c, size + 1, lastEnd);
+        }
+
+        /**
+         * Add a time-window after the last one. If this state is the longest state of its arrays and they have
+         * room left, the time-window is written in place : the states sharing the arrays do not read past their
+         * size, so they are not changed. Otherwise the arrays are copied with some room, so that appending is
+         * done in constant amortized time.
+         */
+        State append(double start, double end, Object value) {
+            Columns c = columns;
+
+            if (c.used != size || size == c.starts.length) {
+                c = copy(size + (size >> 1) + 4);
+            }
+
+            if (size > 0) {
+                c.ends[size - 1] = lastEnd;
+            }
+
+            c.starts[size] = start;
+            c.values[size] = value;
+            c.used = size + 1;
+
+            return new State(c, size + 1, end);
+        }
+
+        State remove(int i) {
+            Columns c = new Columns(size - 1);
+
+            System.arraycopy(starts, 0, c.starts, 0, i);
+            System.arraycopy(ends, 0, c.ends, 0, i);
+            System.arraycopy(values, 0, c.values, 0, i);
+
+            System.arraycopy(starts, i + 1, c.starts, i, size - i - 1);
+            System.arraycopy(ends, i + 1, c.ends, i, size - i - 1);
+            System.arraycopy(values, i + 1, c.values, i, size - i - 1);
+
+            if (i < size - 1) {
+                c.ends[size - 2] = lastEnd;
+            }
+
+            c.used = size - 1;
+            return new State(c, size - 1, size > 1 ? c.ends[size - 2] : Double.POSITIVE_INFINITY);
+        }
+
+        State withEnd(int i, double end) {
+            if (i == size - 1) {
+                return new State(columns, size, end);
+            }
+
+            Columns c = copy(size);
+            c.ends[i] = end;
+
+            return new State(c, size, lastEnd);
+        }
+
+        State withValue(int i, Object value) {
+            Columns c = copy(size);
+            c.values[i] = value;
+
+            return new State(c, size, lastEnd);
+        }
+    }
+
+    /**
+     * Arrays holding the time-windows of some states, with the count of slots used by the longest of them. The
+     * slots of a state are never changed once it has been published, except the end of its last time-window,
+     * which is read from the state.
+     */
+    protected static final class Columns {
+        final double[] starts;
+        final double[] ends;
+        final Object[] values;
+        int used;
+
+        Columns(int capacity) {
+            starts = new double[capacity];
+            ends = new double[capacity];
+            values = new Object[capacity];
+            used = 0;
+        }
+    }
+
+    protected class WindowView extends TimeWindow {
+        WindowView(State s, int i) {
+            super(s.starts[i], s.end(i));
+        }
+
+        @Override
+        public void setStartDate(double date) {
+            assert date < endDate;
+
+            ConcurrentTemporalTimeline.this.setStartDate(startDate, date);
+            super.setStartDate(date);
+        }
+
+        @Override
+        public void setEndDate(double date) {
+            assert date > startDate;
+
+            ConcurrentTemporalTimeline.this.setEndDate(startDate, date);
+            super.setEndDate(date);
+        }
+    }
+
+    /**
+     * Iterate over the state of the timeline at the creation of the iterator.
+     */
+    protected class WindowIterator implements Iterator<TimeWindow> {
+        final State s;
+        int next = 0;
+        TimeWindow last = null;
+
+        WindowIterator(State s) {
+            this.s = s;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < s.size();
+        }
+
+        @Override
+        public TimeWindow next() {
+            if (next >= s.size()) {
+                throw new NoSuchElementException();
+            }
+
+            last = new WindowView(s, next++);
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+
+            removeTimeWindow(last);
+            last = null;
+        }
+    }
+}
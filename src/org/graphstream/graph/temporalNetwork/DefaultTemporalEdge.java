@@ -0,0 +1,265 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNetwork;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.implementations.AbstractElement;
+
+/**
+ * Default implementation of a temporal edge. On creation, the edge registers itself in the
+ * {@link NeighbourTimeline} of its endpoints.
+ */
+public class DefaultTemporalEdge extends DefaultTemporalElement<EdgeSnapshot> implements TemporalEdge {
+    protected final TemporalNode source;
+    protected final TemporalNode target;
+    protected final boolean directed;
+
+    public DefaultTemporalEdge(TemporalNetwork network, String edgeId, TemporalNode source, TemporalNode target,
+                               boolean directed, double creationDate) {
+        this(network, edgeId, source, target, directed, creationDate, new TemporalTimeline<EdgeSnapshot>());
+    }
+
+    public DefaultTemporalEdge(TemporalNetwork network, String edgeId, TemporalNode source, TemporalNode target,
+                               boolean directed, double creationDate, TemporalTimeline<EdgeSnapshot> timeline) {
+        super(network, edgeId, network.getTotalEdgeCount(), creationDate, timeline);
+
+        this.source = source;
+        this.target = target;
+        this.directed = directed;
+
+        if (isConcurrent()) {
+            synchronized (getFirstEndpoint().getNeighbourTimeline()) {
+                synchronized (getOpposite(getFirstEndpoint()).getNeighbourTimeline()) {
+                    register(creationDate);
+                }
+            }
+        } else {
+            register(creationDate);
+        }
+    }
+
+    /**
+     * Register this new edge in the incidence of its endpoints, with a first time-window.
+     */
+    protected void register(double creationDate) {
+        source.getNeighbourTimeline().addEdge(this);
+
+        if (target != source) {
+            target.getNeighbourTimeline().addEdge(this);
+        }
+
+        windowStartedAt(creationDate);
+    }
+
+    /**
+     * Create an edge whose history is already known. The edge is registered in the incidence of its endpoints,
+     * but its time-windows are not : the neighbour timelines of the endpoints have to know them already.
+     */
+    protected DefaultTemporalEdge(TemporalNetwork network, String edgeId, TemporalNode source, TemporalNode target,
+                                  boolean directed, TemporalTimeline<EdgeSnapshot> timeline,
+                                  AttributesTimeline attributes) {
+        super(network, edgeId, network.getTotalEdgeCount(), timeline, attributes);
+
+        this.source = source;
+        this.target = target;
+        this.directed = directed;
+
+        source.getNeighbourTimeline().addEdge(this);
+
+        if (target != source) {
+            target.getNeighbourTimeline().addEdge(this);
+        }
+    }
+
+    /**
+     * Start a new time-window of this edge, and update the incidence of its endpoints. If the last time-window
+     * is not ended, it is ended at the same date.
+     *
+     * @param date start-date of the new time-window
+     */
+    @Override
+    public void addAt(double date) {
+        if (isConcurrent()) {
+            synchronized (getFirstEndpoint().getNeighbourTimeline()) {
+                synchronized (getOpposite(getFirstEndpoint()).getNeighbourTimeline()) {
+                    startWindowAt(date);
+                }
+            }
+        } else {
+            startWindowAt(date);
+        }
+    }
+
+    @Override
+    public void removeAt(double date) {
+        if (isConcurrent()) {
+            synchronized (getFirstEndpoint().getNeighbourTimeline()) {
+                synchronized (getOpposite(getFirstEndpoint()).getNeighbourTimeline()) {
+                    endWindowAt(date);
+                }
+            }
+        } else {
+            endWindowAt(date);
+        }
+    }
+
+    protected void startWindowAt(double date) {
+        double openStart = getOpenStartDate(date);
+
+        super.addAt(date);
+
+        if (!Double.isNaN(openStart)) {
+            windowEndedAt(openStart, date);
+        }
+
+        windowStartedAt(date);
+    }
+
+    protected void endWindowAt(double date) {
+        double openStart = getOpenStartDate(date);
+
+        super.removeAt(date);
+        windowEndedAt(openStart, date);
+    }
+
+    /**
+     * Check if this edge can be changed by several threads. Such an edge changes the incidence of its endpoints
+     * under the locks of their neighbour timelines, taken in the order of the indices of the endpoints, so that
+     * threads changing edges with a common endpoint do not corrupt its incidence, and do not deadlock.
+     */
+    protected boolean isConcurrent() {
+        return timeline instanceof ConcurrentTemporalTimeline;
+    }
+
+    /**
+     * Get the endpoint of lowest index, whose neighbour timeline is locked first.
+     */
+    protected TemporalNode getFirstEndpoint() {
+        return source.getIndex() <= target.getIndex() ? source : target;
+    }
+
+    /**
+     * Get the start-date of the time-window that a change at the given date would end.
+     *
+     * @param date date of the change
+     * @return the start-date of the last time-window if it is not ended, else NaN
+     */
+    protected double getOpenStartDate(double date) {
+        if (!timeline.hasOpenTimeWindow()) {
+            return Double.NaN;
+        }
+
+        TimeWindow open = timeline.getFloorTimeWindow(date);
+        return open == null ? Double.NaN : open.getStartDate();
+    }
+
+    /**
+     * Let the network defer the update of the incidence of the endpoints for a change of a time-window.
+     *
+     * @return true if the network defers it, see {@link DefaultTemporalNetwork#beginBatch()}
+     */
+    protected boolean deferIncidenceChange(double startDate, double endDate) {
+        return !isConcurrent() && network instanceof DefaultTemporalNetwork
+                && ((DefaultTemporalNetwork) network).deferIncidenceChange(this, startDate, endDate);
+    }
+
+    /**
+     * Update the incidence of the endpoints when a time-window of this edge starts, unless the network defers it
+     * to the end of its current batch.
+     */
+    protected void windowStartedAt(double date) {
+        if (deferIncidenceChange(date, Double.NaN)) {
+            return;
+        }
+
+        source.getNeighbourTimeline().edgeAddedAt(this, date);
+
+        if (target != source) {
+            target.getNeighbourTimeline().edgeAddedAt(this, date);
+        }
+    }
+
+    protected void windowEndedAt(double startDate, double endDate) {
+        if (deferIncidenceChange(startDate, endDate)) {
+            return;
+        }
+
+        source.getNeighbourTimeline().edgeRemovedAt(this, startDate, endDate);
+
+        if (target != source) {
+            target.getNeighbourTimeline().edgeRemovedAt(this, startDate, endDate);
+        }
+    }
+
+    @Override
+    protected void attributeChanged(AbstractElement.AttributeChangeEvent event, String attribute, Object oldValue, Object newValue) {
+
+    }
+
+    @Override
+    protected EdgeSnapshot createSnapshot(double date) {
+        return new EdgeSnapshot(this, date);
+    }
+
+    @Override
+    public Edge getEdgeAt(double date) {
+        return existsAt(date) ? createSnapshot(date) : null;
+    }
+
+    @Override
+    public TemporalNode getSourceNode() {
+        return source;
+    }
+
+    @Override
+    public TemporalNode getTargetNode() {
+        return target;
+    }
+
+    /**
+     * Get the endpoint of this edge which is not the given node.
+     *
+     * @param node one of the endpoints
+     * @return the other endpoint
+     */
+    public TemporalNode getOpposite(TemporalNode node) {
+        return node == source ? target : source;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+}
@@ -32,10 +32,15 @@
 package org.graphstream.graph.temporalNetwork;
 
 import org.graphstream.graph.Element;
+import org.graphstream.graph.TemporalEdge;
 import org.graphstream.graph.TemporalElement;
 import org.graphstream.graph.TemporalNetwork;
 import org.graphstream.graph.implementations.AbstractElement;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  *
  */
@@ -49,17 +54,59 @@ public abstract class DefaultTemporalElement<T extends ElementSnapshot> implemen
     protected AttributesTimeline attributes;
 
     protected DefaultTemporalElement(TemporalNetwork network, String id, int index, double creationDate) {
+        this(network, id, index, creationDate, new TemporalTimeline<T>());
+    }
+
+    /**
+     * Create a new element using a specific implementation of the element timeline, for example an
+     * {@link org.graphstream.graph.temporalNetwork.ArrayTemporalTimeline} for elements with a short history.
+     * Attributes of an element using an array timeline are stored in array timelines too, attributes of an
+     * element using an {@link OffHeapTemporalTimeline} are stored in the same slab, and attributes of an element
+     * using a {@link ConcurrentTemporalTimeline} can be used by several threads as well, and keep their previous
+     * states if the timeline has a {@link VersionClock}.
+     *
+     * @param timeline the empty timeline which will handle the time-windows of this element
+     */
+    protected DefaultTemporalElement(TemporalNetwork network, String id, int index, double creationDate,
+                                     TemporalTimeline<T> timeline) {
         this.id = id;
         this.index = index;
         this.network = network;
+        this.timeline = timeline;
+
+        KeyDictionary dictionary = network instanceof DefaultTemporalNetwork
+                ? ((DefaultTemporalNetwork) network).getKeyDictionary() : new KeyDictionary();
+
+        if (timeline instanceof ConcurrentTemporalTimeline) {
+            attributes = new ConcurrentAttributesTimeline(dictionary,
+                    ((ConcurrentTemporalTimeline<T>) timeline).getClock());
+        } else if (timeline instanceof OffHeapTemporalTimeline) {
+            attributes = new AttributesTimeline(dictionary, ((OffHeapTemporalTimeline<T>) timeline).getSlab());
+        } else {
+            attributes = new AttributesTimeline(dictionary, timeline instanceof ArrayTemporalTimeline);
+        }
 
-        attributes = new AttributesTimeline();
-        timeline = new TemporalTimeline<>();
         currentSnapshot = createSnapshot(creationDate);
 
         timeline.startTimeWindow(creationDate, currentSnapshot);
     }
 
+    /**
+     * Create an element whose history is already known, for example when it is loaded from a file. No
+     * time-window is started and no event is logged.
+     *
+     * @param timeline   the timeline holding the time-windows of this element
+     * @param attributes the timelines of the attributes of this element
+     */
+    protected DefaultTemporalElement(TemporalNetwork network, String id, int index, TemporalTimeline<T> timeline,
+                                     AttributesTimeline attributes) {
+        this.id = id;
+        this.index = index;
+        this.network = network;
+        this.timeline = timeline;
+        this.attributes = attributes;
+    }
+
     /**
      * Called for each change in the attribute set. This method must be
      * implemented by sub-elements in order to send events to the graph
@@ -104,11 +151,64 @@ public abstract class DefaultTemporalElement<T extends ElementSnapshot> implemen
     @Override
     public void addAt(double date) {
         timeline.startTimeWindow(date, createSnapshot(date));
+        logEvent(date, EventLog.NODE_ADDED, EventLog.EDGE_ADDED, null, null);
     }
 
     @Override
     public void removeAt(double date) {
         timeline.endTimeWindow(date);
+        logEvent(date, EventLog.NODE_REMOVED, EventLog.EDGE_REMOVED, null, null);
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalElement#setAttributeAt(java.lang.String, double, java.lang.Object[])
+     */
+    @Override
+    public void setAttributeAt(String key, double date, Object... values) {
+        attributes.setAttributeAt(key, date, values);
+        logEvent(date, EventLog.NODE_ATTRIBUTE_SET, EventLog.EDGE_ATTRIBUTE_SET, key,
+                attributes.getAttributeAt(key, date));
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalElement#removeAttributeAt(java.lang.String, double)
+     */
+    @Override
+    public void removeAttributeAt(String key, double date) {
+        if (attributes.hasAttributeAt(key, date)) {
+            attributes.removeAttributeAt(key, date);
+            logEvent(date, EventLog.NODE_ATTRIBUTE_REMOVED, EventLog.EDGE_ATTRIBUTE_REMOVED, key, null);
+        }
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalElement#clearAttributesAt(double)
+     */
+    @Override
+    public void clearAttributesAt(double date) {
+        Iterator<String> keys = attributes.getKeyIteratorAt(date);
+        List<String> removed = new ArrayList<>();
+
+        while (keys.hasNext()) {
+            removed.add(keys.next());
+        }
+
+        for (String key : removed) {
+            removeAttributeAt(key, date);
+        }
+    }
+
+    /**
+     * Log an event of this element in the event log of the network.
+     *
+     * @param nodeType type of the event if this element is a node
+     * @param edgeType type of the event if this element is an edge
+     */
+    protected void logEvent(double date, byte nodeType, byte edgeType, String key, Object value) {
+        if (network instanceof DefaultTemporalNetwork) {
+            byte type = this instanceof TemporalEdge ? edgeType : nodeType;
+            ((DefaultTemporalNetwork) network).logEvent(date, type, index, key, value);
+        }
     }
 
     protected abstract T createSnapshot(double date);
@@ -119,6 +219,11 @@ public abstract class DefaultTemporalElement<T extends ElementSnapshot> implemen
         return id;
     }
 
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public AttributesTimeline getAttributesTimeline() {
         return attributes;
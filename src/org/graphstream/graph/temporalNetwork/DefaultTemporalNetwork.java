@@ -0,0 +1,787 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNetwork;
+import org.graphstream.graph.TemporalNode;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default implementation of a temporal network.
+ * <p/>
+ * Nodes and edges get a dense index, in the order they are first added to the network, and are stored in arrays
+ * at this index. Identifiers are mapped to indices with an {@link IdIndexMap}, so getting an element from its
+ * identifier or from its index is done in constant time and does not allocate.
+ * <p/>
+ * Elements log their changes in the {@link EventLog} of the network. Between two consecutive dates at which an
+ * element is added or removed, the structure of the network does not change, so {@link #getGraphAt(double)}
+ * shares one {@link GraphSnapshot} for all the dates of this interval. Recently used snapshots are kept in a
+ * {@link SnapshotCache}.
+ */
+public class DefaultTemporalNetwork implements TemporalNetwork {
+    protected static final int DEFAULT_CAPACITY = 128;
+
+    protected TemporalNode[] nodes;
+    protected int nodeCount;
+    protected final IdIndexMap nodeIndices;
+
+    protected TemporalEdge[] edges;
+    protected int edgeCount;
+    protected final IdIndexMap edgeIndices;
+
+    protected final EventLog events;
+    protected final SnapshotCache snapshots;
+
+    protected final KeyDictionary keyDictionary;
+
+    /**
+     * Columns built by {@link #getNodeColumn(String)} and {@link #getEdgeColumn(String)}, dropped when the
+     * attribute changes.
+     */
+    protected final Map<String, AttributeColumn> nodeColumns;
+    protected final Map<String, AttributeColumn> edgeColumns;
+
+    protected boolean arrayTimelines;
+    protected WindowSlab windowSlab;
+    protected boolean concurrentTimelines;
+    protected VersionClock versionClock;
+
+    /**
+     * Earliest date of the structural changes done since the beginning of the current batch, positive infinity
+     * if there is none.
+     */
+    protected double batchChangeDate;
+    protected boolean batching;
+
+    /**
+     * Changes of the incidence of the nodes deferred to the end of the current batch, in the order they have
+     * been done : the edge, and the start-date and end-date of the time-window started or ended. The end-date of
+     * a time-window started is NaN.
+     */
+    protected TemporalEdge[] pendingEdges;
+    protected double[] pendingStarts;
+    protected double[] pendingEnds;
+    protected int pendingCount;
+
+    public DefaultTemporalNetwork() {
+        this(DEFAULT_CAPACITY, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a network sized to hold the given count of elements without being resized.
+     *
+     * @param expectedNodeCount the expected count of nodes
+     * @param expectedEdgeCount the expected count of edges
+     */
+    public DefaultTemporalNetwork(int expectedNodeCount, int expectedEdgeCount) {
+        this(expectedNodeCount, expectedEdgeCount, new EventLog());
+    }
+
+    /**
+     * Create a network logging its events in a given log.
+     */
+    protected DefaultTemporalNetwork(int expectedNodeCount, int expectedEdgeCount, EventLog events) {
+        nodes = new TemporalNode[Math.max(1, expectedNodeCount)];
+        nodeCount = 0;
+        nodeIndices = new IdIndexMap(expectedNodeCount);
+
+        edges = new TemporalEdge[Math.max(1, expectedEdgeCount)];
+        edgeCount = 0;
+        edgeIndices = new IdIndexMap(expectedEdgeCount);
+
+        this.events = events;
+        snapshots = new SnapshotCache();
+        keyDictionary = new KeyDictionary();
+        nodeColumns = new HashMap<>();
+        edgeColumns = new HashMap<>();
+
+        arrayTimelines = false;
+        windowSlab = null;
+        concurrentTimelines = false;
+        versionClock = null;
+        batching = false;
+        batchChangeDate = Double.POSITIVE_INFINITY;
+
+        pendingEdges = new TemporalEdge[0];
+        pendingStarts = new double[0];
+        pendingEnds = new double[0];
+        pendingCount = 0;
+    }
+
+    /**
+     * Use {@link ArrayTemporalTimeline} for the elements created from now on. Array timelines append
+     * time-windows without rebalancing a tree, which is faster and lighter when the history of the network is
+     * built in chronological order.
+     */
+    public void setArrayTimelines(boolean arrayTimelines) {
+        this.arrayTimelines = arrayTimelines;
+    }
+
+    public boolean isArrayTimelines() {
+        return arrayTimelines;
+    }
+
+    /**
+     * Store the time-windows of the elements created from now on, and of their attributes, in direct memory
+     * allocated by a slab, see {@link OffHeapTemporalTimeline}. This takes precedence over array timelines.
+     *
+     * @param windowSlab the slab, or null to store time-windows on the heap
+     */
+    public void setWindowSlab(WindowSlab windowSlab) {
+        this.windowSlab = windowSlab;
+    }
+
+    public WindowSlab getWindowSlab() {
+        return windowSlab;
+    }
+
+    /**
+     * Use {@link ConcurrentTemporalTimeline} for the elements created from now on, and for their attributes. This
+     * takes precedence over array timelines and off-heap storage.
+     * <p/>
+     * Once created, elements can then be changed by several threads : nodes, edges and attributes can be added
+     * and removed concurrently, and events are logged under a lock. Edges change the incidence of their
+     * endpoints under the locks of the neighbour timelines of the endpoints, taken in the order of their indices.
+     * Creating elements and getting snapshots still have to be done by a single thread.
+     */
+    public void setConcurrentTimelines(boolean concurrentTimelines) {
+        this.concurrentTimelines = concurrentTimelines;
+    }
+
+    public boolean isConcurrentTimelines() {
+        return concurrentTimelines;
+    }
+
+    /**
+     * Keep the previous states of the elements, so that readers can pin a commit of the network with
+     * {@link #pin()} and read it while the network keeps changing. The elements and their attributes use
+     * {@link ConcurrentTemporalTimeline} sharing the clock, which has to be set before any element is created.
+     * <p/>
+     * Changes are made visible to the readers by {@link #commit()}, which is also done at the end of each batch.
+     * The network has a single writer : commits and changes must be done by the same thread.
+     *
+     * @param versionClock the clock, or null to stop keeping previous states for the elements created afterwards
+     * @throws IllegalStateException if the network already has elements
+     */
+    public void setVersionClock(VersionClock versionClock) {
+        if (nodeCount > 0 || edgeCount > 0) {
+            throw new IllegalStateException("the version clock must be set before creating any element");
+        }
+
+        this.versionClock = versionClock;
+    }
+
+    public VersionClock getVersionClock() {
+        return versionClock;
+    }
+
+    /**
+     * Make the changes done since the last commit visible to the readers pinning a commit from now on.
+     *
+     * @return the new commit
+     * @throws IllegalStateException if the network has no version clock
+     */
+    public VersionClock.Commit commit() {
+        if (versionClock == null) {
+            throw new IllegalStateException("the network has no version clock");
+        }
+
+        return versionClock.commit(nodes, nodeCount, edges, edgeCount);
+    }
+
+    /**
+     * Pin the last commit of the network. The view reads the network as it was at this commit until it is
+     * closed, whatever the changes done in the meantime, and it can be used by any thread.
+     *
+     * @return a view of the last commit
+     * @throws IllegalStateException if the network has no version clock
+     */
+    public VersionedView pin() {
+        if (versionClock == null) {
+            throw new IllegalStateException("the network has no version clock");
+        }
+
+        return new VersionedView(this);
+    }
+
+    /**
+     * Dictionary of the attribute keys, shared by the attributes of all the elements of this network.
+     */
+    public KeyDictionary getKeyDictionary() {
+        return keyDictionary;
+    }
+
+    /**
+     * Start a batch of changes. Snapshots are invalidated once at the end of the batch rather than for each
+     * change, so snapshots must not be requested before {@link #endBatch()}.
+     * <p/>
+     * Unless the network is read concurrently, edges only append their time-windows during a batch : the
+     * incidence of their endpoints, that is their degrees and their index of incident edges, is updated at the
+     * end of the batch, once for each node, so the degrees and the incident edges of the nodes must not be read
+     * before {@link #endBatch()} either. A node having more changes in the batch than time-windows of incident
+     * edges before it gets its incidence rebuilt at once, see {@link NeighbourTimeline#rebuild(TemporalNetwork)},
+     * which makes large batches built in any order cost O(n log n). Other nodes get their changes applied one by
+     * one, as they would have been without a batch.
+     */
+    public void beginBatch() {
+        batching = true;
+    }
+
+    /**
+     * End a batch of changes, updating the incidence of the nodes and invalidating the snapshots affected by the
+     * changes of the batch. If the network has a version clock, the changes are committed.
+     */
+    public void endBatch() {
+        batching = false;
+
+        if (pendingCount > 0) {
+            applyIncidenceChanges();
+        }
+
+        if (batchChangeDate < Double.POSITIVE_INFINITY) {
+            snapshots.invalidateFrom(batchChangeDate);
+            batchChangeDate = Double.POSITIVE_INFINITY;
+        }
+
+        if (versionClock != null) {
+            commit();
+        }
+    }
+
+    /**
+     * Add a node to the network at a given date. If the node already exists, a new time-window of presence is
+     * started for this node.
+     *
+     * @param nodeId identifier of the node
+     * @param date   date at which the node is added
+     * @return the temporal node
+     */
+    public TemporalNode addNodeAt(String nodeId, double date) {
+        int index = nodeIndices.get(nodeId);
+
+        if (index >= 0) {
+            TemporalNode node = nodes[index];
+            node.addAt(date);
+
+            return node;
+        }
+
+        TemporalNode node = createNode(nodeId, date);
+        registerNode(node);
+        logEvent(date, EventLog.NODE_ADDED, node.getIndex(), null, null);
+
+        return node;
+    }
+
+    /**
+     * Remove a node from the network at a given date, ending its current time-window of presence.
+     *
+     * @param nodeId identifier of the node
+     * @param date   date at which the node is removed
+     * @return the temporal node
+     * @throws ElementNotFoundException if there is no node with this identifier
+     */
+    public TemporalNode removeNodeAt(String nodeId, double date) {
+        TemporalNode node = getTemporalNode(nodeId);
+
+        if (node == null) {
+            throw new ElementNotFoundException("node \"%s\" not found", nodeId);
+        }
+
+        node.removeAt(date);
+        return node;
+    }
+
+    /**
+     * Add an edge to the network at a given date. If the edge already exists, a new time-window of presence is
+     * started for this edge.
+     *
+     * @param edgeId   identifier of the edge
+     * @param sourceId identifier of the source node
+     * @param targetId identifier of the target node
+     * @param directed true if the edge is directed
+     * @param date     date at which the edge is added
+     * @return the temporal edge
+     * @throws ElementNotFoundException if one of the endpoints is not in the network
+     */
+    public TemporalEdge addEdgeAt(String edgeId, String sourceId, String targetId, boolean directed, double date) {
+        int index = edgeIndices.get(edgeId);
+
+        if (index >= 0) {
+            TemporalEdge edge = edges[index];
+            edge.addAt(date);
+
+            return edge;
+        }
+
+        TemporalNode source = getTemporalNode(sourceId);
+        TemporalNode target = getTemporalNode(targetId);
+
+        if (source == null) {
+            throw new ElementNotFoundException("node \"%s\" not found", sourceId);
+        }
+
+        if (target == null) {
+            throw new ElementNotFoundException("node \"%s\" not found", targetId);
+        }
+
+        TemporalEdge edge = createEdge(edgeId, source, target, directed, date);
+        registerEdge(edge);
+        logEvent(date, EventLog.EDGE_ADDED, edge.getIndex(), null, null);
+
+        return edge;
+    }
+
+    /**
+     * Remove an edge from the network at a given date, ending its current time-window of presence.
+     *
+     * @param edgeId identifier of the edge
+     * @param date   date at which the edge is removed
+     * @return the temporal edge
+     * @throws ElementNotFoundException if there is no edge with this identifier
+     */
+    public TemporalEdge removeEdgeAt(String edgeId, double date) {
+        TemporalEdge edge = getTemporalEdge(edgeId);
+
+        if (edge == null) {
+            throw new ElementNotFoundException("edge \"%s\" not found", edgeId);
+        }
+
+        edge.removeAt(date);
+        return edge;
+    }
+
+    /**
+     * Create a new node. This can be overridden to use other implementations of nodes, or other implementations
+     * of timelines for some nodes. The index of the new node is {@link #getTotalNodeCount()}.
+     *
+     * @param nodeId       identifier of the node
+     * @param creationDate date at which the node is created
+     * @return a new node
+     */
+    protected TemporalNode createNode(String nodeId, double creationDate) {
+        if (versionClock != null || concurrentTimelines) {
+            return new DefaultTemporalNode(this, nodeId, creationDate,
+                    new ConcurrentTemporalTimeline<NodeSnapshot>(versionClock));
+        }
+
+        if (windowSlab != null) {
+            return new DefaultTemporalNode(this, nodeId, creationDate,
+                    new OffHeapTemporalTimeline<NodeSnapshot>(windowSlab));
+        }
+
+        if (arrayTimelines) {
+            return new DefaultTemporalNode(this, nodeId, creationDate, new ArrayTemporalTimeline<NodeSnapshot>());
+        }
+
+        return new DefaultTemporalNode(this, nodeId, creationDate);
+    }
+
+    /**
+     * Create a new edge. Like {@link #createNode(String, double)}, this can be overridden. The index of the new
+     * edge is {@link #getTotalEdgeCount()}.
+     *
+     * @param edgeId       identifier of the edge
+     * @param source       source node of the edge
+     * @param target       target node of the edge
+     * @param directed     true if the edge is directed
+     * @param creationDate date at which the edge is created
+     * @return a new edge
+     */
+    protected TemporalEdge createEdge(String edgeId, TemporalNode source, TemporalNode target, boolean directed,
+                                      double creationDate) {
+        if (versionClock != null || concurrentTimelines) {
+            return new DefaultTemporalEdge(this, edgeId, source, target, directed, creationDate,
+                    new ConcurrentTemporalTimeline<EdgeSnapshot>(versionClock));
+        }
+
+        if (windowSlab != null) {
+            return new DefaultTemporalEdge(this, edgeId, source, target, directed, creationDate,
+                    new OffHeapTemporalTimeline<EdgeSnapshot>(windowSlab));
+        }
+
+        if (arrayTimelines) {
+            return new DefaultTemporalEdge(this, edgeId, source, target, directed, creationDate,
+                    new ArrayTemporalTimeline<EdgeSnapshot>());
+        }
+
+        return new DefaultTemporalEdge(this, edgeId, source, target, directed, creationDate);
+    }
+
+    protected void registerNode(TemporalNode node) {
+        assert node.getIndex() == nodeCount;
+
+        if (nodeCount == nodes.length) {
+            nodes = Arrays.copyOf(nodes, grow(nodeCount));
+        }
+
+        nodes[nodeCount++] = node;
+        nodeIndices.put(node.getId(), node.getIndex());
+    }
+
+    protected void registerEdge(TemporalEdge edge) {
+        assert edge.getIndex() == edgeCount;
+
+        if (edgeCount == edges.length) {
+            edges = Arrays.copyOf(edges, grow(edgeCount));
+        }
+
+        edges[edgeCount++] = edge;
+        edgeIndices.put(edge.getId(), edge.getIndex());
+    }
+
+    /**
+     * Defer the update of the incidence of the endpoints of an edge to the end of the current batch. This is
+     * called by the edges when one of their time-windows starts or ends.
+     *
+     * @param edge      the edge
+     * @param startDate start-date of the time-window
+     * @param endDate   end-date of the time-window if it is ended, NaN if it is started
+     * @return true if the change has been deferred, false if the incidence has to be updated now
+     */
+    protected boolean deferIncidenceChange(TemporalEdge edge, double startDate, double endDate) {
+        if (!batching || concurrentTimelines || versionClock != null) {
+            return false;
+        }
+
+        if (pendingCount == pendingEdges.length) {
+            int capacity = Math.max(16, grow(pendingCount));
+
+            pendingEdges = Arrays.copyOf(pendingEdges, capacity);
+            pendingStarts = Arrays.copyOf(pendingStarts, capacity);
+            pendingEnds = Arrays.copyOf(pendingEnds, capacity);
+        }
+
+        pendingEdges[pendingCount] = edge;
+        pendingStarts[pendingCount] = startDate;
+        pendingEnds[pendingCount] = endDate;
+        pendingCount++;
+
+        return true;
+    }
+
+    /**
+     * Apply the changes of the incidence deferred during the batch, grouped by node.
+     */
+    protected void applyIncidenceChanges() {
+        //
+        // Each change is listed once for each endpoint, keyed by the index of the node then by the order of the
+        // change, so sorting the keys groups the changes of each node, in the order they have been done.
+        //
+        long[] keys = new long[2 * pendingCount];
+        int n = 0;
+
+        for (int i = 0; i < pendingCount; i++) {
+            TemporalEdge edge = pendingEdges[i];
+            keys[n++] = (long) edge.getSourceNode().getIndex() << 32 | i;
+
+            if (edge.getTargetNode() != edge.getSourceNode()) {
+                keys[n++] = (long) edge.getTargetNode().getIndex() << 32 | i;
+            }
+        }
+
+        Arrays.sort(keys, 0, n);
+
+        int from = 0;
+
+        while (from < n) {
+            int node = (int) (keys[from] >>> 32), to = from + 1;
+
+            while (to < n && (int) (keys[to] >>> 32) == node) {
+                to++;
+            }
+
+            NeighbourTimeline neighbours = nodes[node].getNeighbourTimeline();
+
+            if (to - from >= neighbours.getWindowCount()) {
+                neighbours.rebuild(this);
+            } else {
+                for (int k = from; k < to; k++) {
+                    int i = (int) keys[k];
+
+                    if (Double.isNaN(pendingEnds[i])) {
+                        neighbours.edgeAddedAt(pendingEdges[i], pendingStarts[i]);
+                    } else {
+                        neighbours.edgeRemovedAt(pendingEdges[i], pendingStarts[i], pendingEnds[i]);
+                    }
+                }
+            }
+
+            from = to;
+        }
+
+        Arrays.fill(pendingEdges, 0, pendingCount, null);
+        pendingCount = 0;
+    }
+
+    /**
+     * Log an event in the event log of the network. This is called by the elements of the network when their
+     * time-windows or their attributes change. Events changing the structure of the network invalidate the
+     * snapshots affected by the change.
+     *
+     * @param date    date of the event
+     * @param type    type of the event, one of the constants of {@link EventLog}
+     * @param element index of the node or of the edge
+     * @param key     attribute key, null for events adding or removing an element
+     * @param value   value of the attribute, null if the event does not set an attribute
+     */
+    public void logEvent(double date, byte type, int element, String key, Object value) {
+        if (concurrentTimelines) {
+            synchronized (events) {
+                appendEvent(date, type, element, key, value);
+            }
+        } else {
+            appendEvent(date, type, element, key, value);
+        }
+    }
+
+    protected void appendEvent(double date, byte type, int element, String key, Object value) {
+        events.append(date, type, element, key, value);
+
+        if (key != null) {
+            Map<String, AttributeColumn> columns = EventLog.isNodeEvent(type) ? nodeColumns : edgeColumns;
+
+            if (!columns.isEmpty()) {
+                columns.remove(key);
+            }
+        }
+
+        if (EventLog.isStructural(type)) {
+            if (batching) {
+                batchChangeDate = Math.min(batchChangeDate, date);
+            } else {
+                snapshots.invalidateFrom(date);
+            }
+        }
+    }
+
+    /**
+     * Get the column of a numeric attribute over all the nodes of this network. The column is built on the
+     * first call and kept until the attribute of a node changes.
+     *
+     * @param key the attribute
+     * @return the column, indexed by node index
+     */
+    public AttributeColumn getNodeColumn(String key) {
+        AttributeColumn column = nodeColumns.get(key);
+
+        if (column == null || column.size() != nodeCount) {
+            column = AttributeColumn.ofNodes(this, key);
+            nodeColumns.put(key, column);
+        }
+
+        return column;
+    }
+
+    /**
+     * Get the column of a numeric attribute over all the edges of this network, see
+     * {@link #getNodeColumn(String)}.
+     *
+     * @param key the attribute
+     * @return the column, indexed by edge index
+     */
+    public AttributeColumn getEdgeColumn(String key) {
+        AttributeColumn column = edgeColumns.get(key);
+
+        if (column == null || column.size() != edgeCount) {
+            column = AttributeColumn.ofEdges(this, key);
+            edgeColumns.put(key, column);
+        }
+
+        return column;
+    }
+
+    /**
+     * Read the value of an attribute on every node at a date.
+     *
+     * @param key  the attribute
+     * @param date the date
+     * @param out  the array receiving the values, indexed by node index. Nodes with no numeric value at this
+     *             date are set to NaN.
+     * @see AttributeColumn#readAt(double, double[])
+     */
+    public void readNodeColumnAt(String key, double date, double[] out) {
+        getNodeColumn(key).readAt(date, out);
+    }
+
+    /**
+     * Read the value of an attribute on every edge at a date.
+     *
+     * @param key  the attribute
+     * @param date the date
+     * @param out  the array receiving the values, indexed by edge index. Edges with no numeric value at this
+     *             date are set to NaN.
+     * @see AttributeColumn#readAt(double, double[])
+     */
+    public void readEdgeColumnAt(String key, double date, double[] out) {
+        getEdgeColumn(key).readAt(date, out);
+    }
+
+    /**
+     * Copy this network into an immutable network stored in flat arrays, which can be read by several threads
+     * without synchronization. The copy does not follow the changes done afterwards.
+     *
+     * @return the frozen copy of this network
+     */
+    public FrozenTemporalNetwork freeze() {
+        return new FrozenTemporalNetwork(this);
+    }
+
+    /**
+     * Get the snapshots of this network at regularly spaced dates, built in parallel by the threads of the
+     * common pool, see {@link SnapshotSweep}. The network must not be changed in the meantime.
+     *
+     * @param start first date
+     * @param end   end of the period, exclusive
+     * @param step  interval between two dates
+     * @return the snapshots at start, start + step, ... in [start;end[
+     */
+    public List<GraphSnapshot> snapshotsBetween(double start, double end, double step) {
+        return new SnapshotSweep(this, start, end, step).snapshots();
+    }
+
+    /**
+     * Compute a result on the graph of this network at regularly spaced dates, in parallel in the threads of
+     * the common pool, see {@link SnapshotSweep}. The network must not be changed in the meantime.
+     *
+     * @param start   first date
+     * @param end     end of the period, exclusive
+     * @param step    interval between two dates
+     * @param visitor the computation, called by several threads at the same time
+     * @return the results at start, start + step, ... in [start;end[
+     */
+    public <R> List<R> snapshotsBetween(double start, double end, double step, SnapshotSweep.Visitor<R> visitor) {
+        return new SnapshotSweep(this, start, end, step).visit(visitor);
+    }
+
+    /**
+     * Get the cache of snapshots, to change its capacity for example.
+     */
+    public SnapshotCache getSnapshotCache() {
+        return snapshots;
+    }
+
+    protected static int grow(int capacity) {
+        return capacity + (capacity >> 1) + 1;
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalNetwork#getTotalNodeCount()
+     */
+    @Override
+    public int getTotalNodeCount() {
+        return nodeCount;
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalNetwork#getTotalEdgeCount()
+     */
+    @Override
+    public int getTotalEdgeCount() {
+        return edgeCount;
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalNetwork#getGraphAt(double)
+     */
+    @Override
+    public GraphSnapshot getGraphAt(double date) {
+        double start = events.lastStructureChangeAt(date);
+        GraphSnapshot snapshot = snapshots.get(start);
+
+        if (snapshot == null) {
+            double end = events.nextStructureChangeAfter(date);
+            snapshot = new GraphSnapshot(this, date, start, end);
+        } else {
+            snapshot = snapshot.at(date);
+        }
+
+        snapshots.put(snapshot);
+        return snapshot;
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalNetwork#getEventLog()
+     */
+    @Override
+    public EventLog getEventLog() {
+        return events;
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalNetwork#getTemporalNode(java.lang.String)
+     */
+    @Override
+    public TemporalNode getTemporalNode(String nodeId) {
+        int index = nodeIndices.get(nodeId);
+        return index < 0 ? null : nodes[index];
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalNetwork#getTemporalEdge(java.lang.String)
+     */
+    @Override
+    public TemporalEdge getTemporalEdge(String edgeId) {
+        int index = edgeIndices.get(edgeId);
+        return index < 0 ? null : edges[index];
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalNetwork#getTemporalNode(int)
+     */
+    @Override
+    public TemporalNode getTemporalNode(int index) {
+        if (index < 0 || index >= nodeCount) {
+            throw new IndexOutOfBoundsException("node index " + index + " out of [0;" + nodeCount + "[");
+        }
+
+        return nodes[index];
+    }
+
+    /*
+     * @see org.graphstream.graph.TemporalNetwork#getTemporalEdge(int)
+     */
+    @Override
+    public TemporalEdge getTemporalEdge(int index) {
+        if (index < 0 || index >= edgeCount) {
+            throw new IndexOutOfBoundsException("edge index " + index + " out of [0;" + edgeCount + "[");
+        }
+
+        return edges[index];
+    }
+}
@@ -34,19 +34,38 @@ package org.graphstream.graph.temporalNetwork;
 import org.graphstream.graph.*;
 import org.graphstream.graph.implementations.AbstractElement;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.List;
-
 /**
  * @since 05/02/16.
  */
 public class DefaultTemporalNode extends DefaultTemporalElement<NodeSnapshot> implements TemporalNode {
-    protected List<TemporalEdge> edges;
+    protected final NeighbourTimeline neighbours;
 
     public DefaultTemporalNode(TemporalNetwork network, String nodeId, double creationDate) {
-        super(network, nodeId, network.getTotalNodeCount(), creationDate);
+        this(network, nodeId, creationDate, new TemporalTimeline<NodeSnapshot>());
+    }
+
+    public DefaultTemporalNode(TemporalNetwork network, String nodeId, double creationDate,
+                               TemporalTimeline<NodeSnapshot> timeline) {
+        super(network, nodeId, network.getTotalNodeCount(), creationDate, timeline);
+
+        neighbours = createNeighbourTimeline();
+    }
+
+    /**
+     * Create a node whose history is already known. No time-window is started and no event is logged.
+     */
+    protected DefaultTemporalNode(TemporalNetwork network, String nodeId, TemporalTimeline<NodeSnapshot> timeline,
+                                  AttributesTimeline attributes) {
+        super(network, nodeId, network.getTotalNodeCount(), timeline, attributes);
 
+        neighbours = createNeighbourTimeline();
+    }
+
+    /**
+     * Create the incidence of this node. This is called once, by the constructor.
+     */
+    protected NeighbourTimeline createNeighbourTimeline() {
+        return new NeighbourTimeline(this);
     }
 
     @Override
@@ -61,6 +80,11 @@ public class DefaultTemporalNode extends DefaultTemporalElement<NodeSnapshot> im
 
     @Override
     public Node getNodeAt(double date) {
-        return null;
+        return existsAt(date) ? createSnapshot(date) : null;
+    }
+
+    @Override
+    public NeighbourTimeline getNeighbourTimeline() {
+        return neighbours;
     }
 }
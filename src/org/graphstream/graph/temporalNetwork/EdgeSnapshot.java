@@ -0,0 +1,109 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNode;
+
+/**
+ * View of a temporal edge at a given date.
+ */
+public class EdgeSnapshot extends ElementSnapshot<TemporalEdge> implements Edge {
+    /**
+     * The graph snapshot this edge belongs to, or null if this is a standalone view.
+     */
+    protected final GraphSnapshot graph;
+
+    public EdgeSnapshot(TemporalEdge edge, double date) {
+        super(edge, date);
+        graph = null;
+    }
+
+    public EdgeSnapshot(GraphSnapshot graph, TemporalEdge edge, int index) {
+        super(edge, graph.getSnapshotDate(), index);
+        this.graph = graph;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return element.isDirected();
+    }
+
+    @Override
+    public boolean isLoop() {
+        return element.getSourceNode() == element.getTargetNode();
+    }
+
+    @Override
+    public <T extends Node> T getNode0() {
+        return getNodeAt(element.getSourceNode());
+    }
+
+    @Override
+    public <T extends Node> T getNode1() {
+        return getNodeAt(element.getTargetNode());
+    }
+
+    @Override
+    public <T extends Node> T getSourceNode() {
+        return getNode0();
+    }
+
+    @Override
+    public <T extends Node> T getTargetNode() {
+        return getNode1();
+    }
+
+    @Override
+    public <T extends Node> T getOpposite(Node node) {
+        if (node.getId().equals(element.getSourceNode().getId())) {
+            return getNode1();
+        } else if (node.getId().equals(element.getTargetNode().getId())) {
+            return getNode0();
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T extends Node> T getNodeAt(TemporalNode node) {
+        return (T) (graph == null ? node.getNodeAt(snapshotDate) : graph.getNodeSnapshot(node));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s-%s%s]", getId(), element.getSourceNode().getId(), element.isDirected() ? ">" : "-",
+                element.getTargetNode().getId());
+    }
+}
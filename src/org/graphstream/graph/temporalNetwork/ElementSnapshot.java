@@ -42,12 +42,34 @@ import java.util.*;
 public abstract class ElementSnapshot<T extends TemporalElement> implements Element {
     protected final T element;
     protected double snapshotDate;
+    protected final int index;
 
     protected ElementSnapshot(T element, double date) {
+        this(element, date, -1);
+    }
+
+    /**
+     * Create a snapshot belonging to a {@link GraphSnapshot}.
+     *
+     * @param index index of the element in the graph snapshot
+     */
+    protected ElementSnapshot(T element, double date, int index) {
         this.element = element;
+        this.index = index;
         snapshotDate = date;
     }
 
+    /**
+     * The temporal element this snapshot is a view of.
+     */
+    public T getTemporalElement() {
+        return element;
+    }
+
+    public double getSnapshotDate() {
+        return snapshotDate;
+    }
+
     @Override
     public String getId() {
         return element.getId();
@@ -55,7 +77,7 @@ public abstract class ElementSnapshot<T extends TemporalElement> implements Elem
 
     @Override
     public int getIndex() {
-        return -1;
+        return index;
     }
 
     @Override
@@ -102,8 +124,7 @@ public abstract class ElementSnapshot<T extends TemporalElement> implements Elem
 
     @Override
     public double getNumber(String key) {
-        Number n = (Number) getAttribute(key, Number.class);
-        return n == null ? Double.NaN : n.doubleValue();
+        return element.getAttributesTimeline().getNumberAt(key, snapshotDate);
     }
 
     @Override
@@ -179,36 +200,36 @@ public abstract class ElementSnapshot<T extends TemporalElement> implements Elem
 
     @Override
     public void clearAttributes() {
-        element.getAttributesTimeline().clearAttributesAt(snapshotDate);
+        element.clearAttributesAt(snapshotDate);
     }
 
     @Override
     public void addAttribute(String attribute, Object... values) {
-        element.getAttributesTimeline().setAttributeAt(attribute, snapshotDate, values);
+        element.setAttributeAt(attribute, snapshotDate, values);
     }
 
     @Override
     public void changeAttribute(String attribute, Object... values) {
-        element.getAttributesTimeline().setAttributeAt(attribute, snapshotDate, values);
+        element.setAttributeAt(attribute, snapshotDate, values);
     }
 
     @Override
     public void setAttribute(String attribute, Object... values) {
-        element.getAttributesTimeline().setAttributeAt(attribute, snapshotDate, values);
+        element.setAttributeAt(attribute, snapshotDate, values);
     }
 
     @Override
     public void addAttributes(Map<String, Object> attributes) {
         if (attributes != null) {
             for (Map.Entry<String, Object> e : attributes.entrySet()) {
-                element.getAttributesTimeline().setAttributeAt(e.getKey(), snapshotDate, e.getValue());
+                element.setAttributeAt(e.getKey(), snapshotDate, e.getValue());
             }
         }
     }
 
     @Override
     public void removeAttribute(String attribute) {
-        element.getAttributesTimeline().removeAttributeAt(attribute, snapshotDate);
+        element.removeAttributeAt(attribute, snapshotDate);
     }
 
     @Override
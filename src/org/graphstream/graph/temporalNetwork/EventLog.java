@@ -0,0 +1,587 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+
+/**
+ * Network-wide index of the events of a temporal network, sorted by date.
+ * <p/>
+ * An event is an element added or removed, or an attribute of an element set or removed. Events are stored in
+ * parallel arrays : the date, the type, the index of the element, the identifier of the attribute key and the
+ * value of the attribute. Keys are stored once in a dictionary and events only hold their identifier. Events at
+ * the same date are kept in the order they have been logged.
+ * <p/>
+ * Events are appended in the order they are logged, in constant time. When some events are older than the ones
+ * logged before them, the log is sorted the first time it is read : the events logged out of order are sorted
+ * and merged with the sorted part of the log, so loading a network element by element costs a sort rather than
+ * a shift of the log for each event.
+ * <p/>
+ * The log also keeps the distinct dates of the events which change the structure of the network, that is the
+ * events adding or removing an element. Between two of these dates, the structure of the network does not
+ * change.
+ */
+public class EventLog {
+    public static final byte NODE_ADDED = 0;
+    public static final byte NODE_REMOVED = 1;
+    public static final byte EDGE_ADDED = 2;
+    public static final byte EDGE_REMOVED = 3;
+    public static final byte NODE_ATTRIBUTE_SET = 4;
+    public static final byte NODE_ATTRIBUTE_REMOVED = 5;
+    public static final byte EDGE_ATTRIBUTE_SET = 6;
+    public static final byte EDGE_ATTRIBUTE_REMOVED = 7;
+
+    protected static final int DEFAULT_CAPACITY = 64;
+
+    protected double[] dates;
+    protected byte[] types;
+    protected int[] elements;
+    protected int[] keys;
+    protected Object[] values;
+    protected int size;
+
+    /**
+     * Count of events at the start of the arrays which are sorted, the following ones being in the order they
+     * have been logged. The flag is raised when an event is logged out of order, and lowered once the log is
+     * sorted again.
+     */
+    protected int sortedSize;
+    protected volatile boolean unsorted;
+
+    protected final IdIndexMap keyIndices;
+    protected String[] keyNames;
+
+    /**
+     * Sorted distinct dates of the events changing the structure of the network.
+     */
+    protected double[] structureDates;
+    protected int structureDateCount;
+    protected int sortedStructureDateCount;
+
+    public EventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EventLog(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+
+        dates = new double[capacity];
+        types = new byte[capacity];
+        elements = new int[capacity];
+        keys = new int[capacity];
+        values = new Object[capacity];
+        size = 0;
+        sortedSize = 0;
+        unsorted = false;
+
+        keyIndices = new IdIndexMap();
+        keyNames = new String[16];
+
+        structureDates = new double[16];
+        structureDateCount = 0;
+        sortedStructureDateCount = 0;
+    }
+
+    /**
+     * Check if events of a given type change the structure of the network.
+     */
+    public static boolean isStructural(int type) {
+        return type <= EDGE_REMOVED;
+    }
+
+    /**
+     * Check if events of a given type concern a node, rather than an edge.
+     */
+    public static boolean isNodeEvent(int type) {
+        return type == NODE_ADDED || type == NODE_REMOVED || type == NODE_ATTRIBUTE_SET
+                || type == NODE_ATTRIBUTE_REMOVED;
+    }
+
+    /**
+     * Log an event.
+     *
+     * @param date    date of the event
+     * @param type    type of the event, one of the constants of this class
+     * @param element index of the node or of the edge
+     * @param key     attribute key, null for events adding or removing an element
+     * @param value   value of the attribute, null if the event does not set an attribute
+     */
+    public void append(double date, byte type, int element, String key, Object value) {
+        if (size == dates.length) {
+            grow();
+        }
+
+        if (!unsorted && size > 0 && dates[size - 1] > date) {
+            unsorted = true;
+        }
+
+        dates[size] = date;
+        types[size] = type;
+        elements[size] = element;
+        keys[size] = key == null ? -1 : keyId(key);
+        values[size] = value;
+        size++;
+
+        if (!unsorted) {
+            sortedSize = size;
+        }
+
+        if (isStructural(type)) {
+            addStructureDate(date);
+        }
+    }
+
+    protected void grow() {
+        int capacity = size + (size >> 1) + 1;
+
+        dates = Arrays.copyOf(dates, capacity);
+        types = Arrays.copyOf(types, capacity);
+        elements = Arrays.copyOf(elements, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    protected int keyId(String key) {
+        int id = keyIndices.get(key);
+
+        if (id < 0) {
+            id = keyIndices.size();
+
+            if (id == keyNames.length) {
+                keyNames = Arrays.copyOf(keyNames, id << 1);
+            }
+
+            keyNames[id] = key;
+            keyIndices.put(key, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Add a structure date. Dates of events logged in order are appended once, the other ones are kept after the
+     * sorted dates until the log is sorted.
+     */
+    protected void addStructureDate(double date) {
+        if (!unsorted && structureDateCount > 0 && structureDates[structureDateCount - 1] == date) {
+            return;
+        }
+
+        if (structureDateCount == structureDates.length) {
+            structureDates = Arrays.copyOf(structureDates, structureDateCount << 1);
+        }
+
+        structureDates[structureDateCount++] = date;
+
+        if (!unsorted) {
+            sortedStructureDateCount = structureDateCount;
+        }
+    }
+
+    /**
+     * Sort the log if some events have been logged out of order. This is called by all the methods reading the
+     * log.
+     */
+    protected void ensureSorted() {
+        if (unsorted) {
+            sort();
+        }
+    }
+
+    /**
+     * Sort the events logged out of order, keeping the events of the same date in the order they have been
+     * logged, and merge them with the sorted events. Only the sorted events after the oldest of the unsorted
+     * ones are moved.
+     */
+    protected synchronized void sort() {
+        if (!unsorted) {
+            return;
+        }
+
+        int count = size - sortedSize;
+        int[] order = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            order[i] = sortedSize + i;
+        }
+
+        sortByDate(order, dates);
+
+        int from = floorIndex(dates, sortedSize, dates[order[0]]) + 1;
+        int moved = sortedSize - from;
+        int total = moved + count;
+
+        double[] mergedDates = new double[total];
+        byte[] mergedTypes = new byte[total];
+        int[] mergedElements = new int[total];
+        int[] mergedKeys = new int[total];
+        Object[] mergedValues = new Object[total];
+
+        for (int k = 0, i = from, j = 0; k < total; k++) {
+            int e = j == count || (i < sortedSize && dates[i] <= dates[order[j]]) ? i++ : order[j++];
+
+            mergedDates[k] = dates[e];
+            mergedTypes[k] = types[e];
+            mergedElements[k] = elements[e];
+            mergedKeys[k] = keys[e];
+            mergedValues[k] = values[e];
+        }
+
+        System.arraycopy(mergedDates, 0, dates, from, total);
+        System.arraycopy(mergedTypes, 0, types, from, total);
+        System.arraycopy(mergedElements, 0, elements, from, total);
+        System.arraycopy(mergedKeys, 0, keys, from, total);
+        System.arraycopy(mergedValues, 0, values, from, total);
+
+        sortedSize = size;
+        sortStructureDates();
+        unsorted = false;
+    }
+
+    protected void sortStructureDates() {
+        int sorted = sortedStructureDateCount;
+
+        Arrays.sort(structureDates, sorted, structureDateCount);
+
+        double[] merged = new double[structureDateCount];
+        int count = 0;
+
+        for (int i = 0, j = sorted; i < sorted || j < structureDateCount; ) {
+            double date = j == structureDateCount || (i < sorted && structureDates[i] <= structureDates[j])
+                    ? structureDates[i++] : structureDates[j++];
+
+            if (count == 0 || merged[count - 1] != date) {
+                merged[count++] = date;
+            }
+        }
+
+        System.arraycopy(merged, 0, structureDates, 0, count);
+        structureDateCount = sortedStructureDateCount = count;
+    }
+
+    /**
+     * Stable merge sort of positions in an array of dates, by date.
+     */
+    protected static void sortByDate(int[] order, double[] dates) {
+        int[] buffer = new int[order.length];
+        int[] from = order, to = buffer;
+
+        for (int width = 1; width < order.length; width <<= 1) {
+            for (int lo = 0; lo < order.length; lo += width << 1) {
+                int mid = Math.min(lo + width, order.length), hi = Math.min(lo + (width << 1), order.length);
+
+                for (int k = lo, i = lo, j = mid; k < hi; k++) {
+                    to[k] = j == hi || (i < mid && dates[from[i]] <= dates[from[j]]) ? from[i++] : from[j++];
+                }
+            }
+
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, order.length);
+        }
+    }
+
+    /**
+     * Count of events in the log.
+     */
+    public int size() {
+        return size;
+    }
+
+    public double getDate(int i) {
+        ensureSorted();
+        checkIndex(i);
+        return dateAt(i);
+    }
+
+    public byte getType(int i) {
+        ensureSorted();
+        checkIndex(i);
+        return typeAt(i);
+    }
+
+    /**
+     * Index of the node or of the edge concerned by an event.
+     */
+    public int getElement(int i) {
+        ensureSorted();
+        checkIndex(i);
+        return elementAt(i);
+    }
+
+    /**
+     * Identifier of the attribute key of an event, -1 if the event does not concern an attribute.
+     */
+    public int getKeyId(int i) {
+        ensureSorted();
+        checkIndex(i);
+        return keyAt(i);
+    }
+
+    /**
+     * Attribute key of an event, null if the event does not concern an attribute.
+     */
+    public String getKey(int i) {
+        ensureSorted();
+        checkIndex(i);
+
+        int key = keyAt(i);
+        return key < 0 ? null : keyNames[key];
+    }
+
+    public Object getValue(int i) {
+        ensureSorted();
+        checkIndex(i);
+        return valueAt(i);
+    }
+
+    /**
+     * Date of an event of the sorted log, without checking its position. This method and the following ones are
+     * the only reads of the columns, so that a subclass can keep part of the log elsewhere.
+     */
+    protected double dateAt(int i) {
+        return dates[i];
+    }
+
+    protected byte typeAt(int i) {
+        return types[i];
+    }
+
+    protected int elementAt(int i) {
+        return elements[i];
+    }
+
+    protected int keyAt(int i) {
+        return keys[i];
+    }
+
+    protected Object valueAt(int i) {
+        return values[i];
+    }
+
+    /**
+     * Get the identifier of an attribute key.
+     *
+     * @return the identifier, or -1 if no event concerns this key
+     */
+    public int getKeyId(String key) {
+        return keyIndices.get(key);
+    }
+
+    public String getKeyName(int id) {
+        if (id < 0 || id >= keyIndices.size()) {
+            throw new IndexOutOfBoundsException("key " + id + " out of [0;" + keyIndices.size() + "[");
+        }
+
+        return keyNames[id];
+    }
+
+    public int getKeyCount() {
+        return keyIndices.size();
+    }
+
+    protected void checkIndex(int i) {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("event " + i + " out of [0;" + size() + "[");
+        }
+    }
+
+    /**
+     * Position of the first event whose date is greater or equal to a date.
+     *
+     * @return a position in [0;size]
+     */
+    public int indexFrom(double date) {
+        ensureSorted();
+
+        int lo = 0, hi = size();
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (dateAt(mid) < date) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+    }
+
+    /**
+     * Position of the first event whose date is strictly greater than a date.
+     *
+     * @return a position in [0;size]
+     */
+    public int indexAfter(double date) {
+        ensureSorted();
+
+        int lo = 0, hi = size();
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (dateAt(mid) <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+    }
+
+    /**
+     * Date of the first event strictly after a date.
+     *
+     * @return the date, or positive infinity if there is no such event
+     */
+    public double nextChangeAfter(double date) {
+        int i = indexAfter(date);
+        return i < size() ? dateAt(i) : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Date of the last event at or before a date.
+     *
+     * @return the date, or negative infinity if there is no such event
+     */
+    public double lastChangeAt(double date) {
+        int i = indexAfter(date) - 1;
+        return i >= 0 ? dateAt(i) : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Date of the first event changing the structure of the network strictly after a date.
+     *
+     * @return the date, or positive infinity if there is no such event
+     */
+    public double nextStructureChangeAfter(double date) {
+        ensureSorted();
+
+        int i = floorIndex(structureDates, structureDateCount, date) + 1;
+        return i < structureDateCount ? structureDates[i] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Date of the last event changing the structure of the network at or before a date.
+     *
+     * @return the date, or negative infinity if there is no such event
+     */
+    public double lastStructureChangeAt(double date) {
+        ensureSorted();
+
+        int i = floorIndex(structureDates, structureDateCount, date);
+        return i >= 0 ? structureDates[i] : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Get the distinct dates of the events in [from;to[.
+     *
+     * @param from start of the period, inclusive
+     * @param to   end of the period, exclusive
+     * @return sorted dates, which may be empty
+     */
+    public double[] changesBetween(double from, double to) {
+        int first = indexFrom(from), last = indexFrom(to);
+        double[] changes = new double[Math.max(0, last - first)];
+        int count = 0;
+
+        for (int i = first; i < last; i++) {
+            double date = dateAt(i);
+
+            if (count == 0 || changes[count - 1] != date) {
+                changes[count++] = date;
+            }
+        }
+
+        return count == changes.length ? changes : Arrays.copyOf(changes, count);
+    }
+
+    /**
+     * Count the events in [from;to[.
+     */
+    public int countBetween(double from, double to) {
+        return Math.max(0, indexFrom(to) - indexFrom(from));
+    }
+
+    /**
+     * Count the events in consecutive buckets of the same width. Bucket b covers
+     * [origin + b * width; origin + (b + 1) * width[.
+     *
+     * @param origin      start of the first bucket
+     * @param width       width of the buckets
+     * @param bucketCount count of buckets
+     * @return the count of events of each bucket
+     */
+    public int[] countPerBucket(double origin, double width, int bucketCount) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("width of buckets must be positive");
+        }
+
+        int[] counts = new int[bucketCount];
+        int start = indexFrom(origin);
+
+        for (int b = 0; b < bucketCount; b++) {
+            int end = indexFrom(origin + (b + 1) * width);
+
+            counts[b] = end - start;
+            start = end;
+        }
+
+        return counts;
+    }
+
+    /**
+     * Index of the greatest value lower or equal to a date in a sorted array, -1 if there is none.
+     */
+    protected static int floorIndex(double[] sorted, int length, double date) {
+        int lo = 0, hi = length;
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (sorted[mid] <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo - 1;
+    }
+}
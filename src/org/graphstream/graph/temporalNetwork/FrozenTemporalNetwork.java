@@ -0,0 +1,524 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalElement;
+import org.graphstream.graph.TemporalNetwork;
+import org.graphstream.graph.TemporalNode;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of a temporal network, laid out in flat arrays for fast reads from any number of threads.
+ * <p/>
+ * Nodes and edges keep the indices they have in the original network. The time-windows of presence of the
+ * elements are stored element after element in arrays of start-dates and end-dates, the time-windows of the
+ * element of index i being those between {@code offsets[i]} and {@code offsets[i + 1]}. Incident edges of the
+ * nodes are stored the same way, by ascending edge index, and each attribute is stored in an
+ * {@link AttributeColumn} holding its values.
+ * <p/>
+ * As in the snapshots of the network, an edge is only present while both its endpoints are, so the
+ * time-windows of an edge are intersected with the time-windows of its endpoints when it is frozen.
+ * <p/>
+ * Nothing is changed once the network is built, and all the arrays are reached through final fields, so the
+ * network can be shared between threads without any synchronization. A frozen network does not follow the
+ * changes of the network it has been built from.
+ *
+ * @see DefaultTemporalNetwork#freeze()
+ */
+public class FrozenTemporalNetwork {
+    protected final String[] nodeIds;
+    protected final IdIndexMap nodeIndices;
+    protected final int[] nodeWindowOffsets;
+    protected final double[] nodeStarts;
+    protected final double[] nodeEnds;
+
+    protected final String[] edgeIds;
+    protected final IdIndexMap edgeIndices;
+    protected final int[] sources;
+    protected final int[] targets;
+    protected final boolean[] directed;
+    protected final int[] edgeWindowOffsets;
+    protected final double[] edgeStarts;
+    protected final double[] edgeEnds;
+
+    /**
+     * Incident edges of each node, a loop being incident once to its node.
+     */
+    protected final int[] incidenceOffsets;
+    protected final int[] incidentEdges;
+
+    protected final Map<String, AttributeColumn> nodeColumns;
+    protected final Map<String, AttributeColumn> edgeColumns;
+
+    /**
+     * Copy a network. The network must not be changed during the copy.
+     *
+     * @param network the network to copy
+     */
+    public FrozenTemporalNetwork(TemporalNetwork network) {
+        int nodeCount = network.getTotalNodeCount();
+        int edgeCount = network.getTotalEdgeCount();
+        TemporalElement[] nodes = new TemporalElement[nodeCount];
+        TemporalElement[] edges = new TemporalElement[edgeCount];
+
+        nodeIds = new String[nodeCount];
+        nodeIndices = new IdIndexMap(nodeCount);
+
+        for (int i = 0; i < nodeCount; i++) {
+            TemporalNode node = network.getTemporalNode(i);
+
+            nodes[i] = node;
+            nodeIds[i] = node.getId();
+            nodeIndices.put(node.getId(), i);
+        }
+
+        edgeIds = new String[edgeCount];
+        edgeIndices = new IdIndexMap(edgeCount);
+        sources = new int[edgeCount];
+        targets = new int[edgeCount];
+        directed = new boolean[edgeCount];
+
+        for (int i = 0; i < edgeCount; i++) {
+            TemporalEdge edge = network.getTemporalEdge(i);
+
+            edges[i] = edge;
+            edgeIds[i] = edge.getId();
+            edgeIndices.put(edge.getId(), i);
+            sources[i] = edge.getSourceNode().getIndex();
+            targets[i] = edge.getTargetNode().getIndex();
+            directed[i] = edge.isDirected();
+        }
+
+        nodeWindowOffsets = new int[nodeCount + 1];
+        nodeStarts = new double[countWindows(nodes, nodeWindowOffsets)];
+        nodeEnds = new double[nodeStarts.length];
+        copyWindows(nodes, nodeStarts, nodeEnds);
+
+        edgeWindowOffsets = new int[edgeCount + 1];
+
+        double[] starts = new double[16], ends = new double[16];
+        int size = 0;
+
+        //
+        // The time-windows of an edge, of its source and of its target are sorted and disjoint, so they are
+        // intersected in a single pass, moving forward in the sequence whose current time-window ends first.
+        //
+        for (int i = 0; i < edgeCount; i++) {
+            edgeWindowOffsets[i] = size;
+
+            Iterator<TimeWindow> windows = edges[i].getElementTimeline().iterator();
+            int j = nodeWindowOffsets[sources[i]], sourceEnd = nodeWindowOffsets[sources[i] + 1];
+            int k = nodeWindowOffsets[targets[i]], targetEnd = nodeWindowOffsets[targets[i] + 1];
+            TimeWindow timeWindow = windows.hasNext() ? windows.next() : null;
+
+            while (timeWindow != null && j < sourceEnd && k < targetEnd) {
+                double a = Math.max(timeWindow.getStartDate(), Math.max(nodeStarts[j], nodeStarts[k]));
+                double b = Math.min(timeWindow.getEndDate(), Math.min(nodeEnds[j], nodeEnds[k]));
+
+                if (a < b) {
+                    if (size == starts.length) {
+                        starts = Arrays.copyOf(starts, size << 1);
+                        ends = Arrays.copyOf(ends, size << 1);
+                    }
+
+                    starts[size] = a;
+                    ends[size] = b;
+                    size++;
+                }
+
+                if (timeWindow.getEndDate() == b) {
+                    timeWindow = windows.hasNext() ? windows.next() : null;
+                } else if (nodeEnds[j] == b) {
+                    j++;
+                } else {
+                    k++;
+                }
+            }
+        }
+
+        edgeWindowOffsets[edgeCount] = size;
+        edgeStarts = Arrays.copyOf(starts, size);
+        edgeEnds = Arrays.copyOf(ends, size);
+
+        incidenceOffsets = new int[nodeCount + 1];
+
+        for (int i = 0; i < edgeCount; i++) {
+            incidenceOffsets[sources[i] + 1]++;
+
+            if (targets[i] != sources[i]) {
+                incidenceOffsets[targets[i] + 1]++;
+            }
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            incidenceOffsets[i + 1] += incidenceOffsets[i];
+        }
+
+        incidentEdges = new int[incidenceOffsets[nodeCount]];
+        int[] next = new int[nodeCount];
+
+        for (int i = 0; i < edgeCount; i++) {
+            incidentEdges[incidenceOffsets[sources[i]] + next[sources[i]]++] = i;
+
+            if (targets[i] != sources[i]) {
+                incidentEdges[incidenceOffsets[targets[i]] + next[targets[i]]++] = i;
+            }
+        }
+
+        nodeColumns = buildColumns(nodes);
+        edgeColumns = buildColumns(edges);
+    }
+
+    protected static int countWindows(TemporalElement[] elements, int[] offsets) {
+        int size = 0;
+
+        for (int i = 0; i < elements.length; i++) {
+            offsets[i] = size;
+
+            for (TimeWindow ignored : elements[i].getElementTimeline()) {
+                size++;
+            }
+        }
+
+        offsets[elements.length] = size;
+        return size;
+    }
+
+    protected static void copyWindows(TemporalElement[] elements, double[] starts, double[] ends) {
+        int j = 0;
+
+        for (TemporalElement element : elements) {
+            for (TimeWindow timeWindow : element.getElementTimeline()) {
+                starts[j] = timeWindow.getStartDate();
+                ends[j] = timeWindow.getEndDate();
+                j++;
+            }
+        }
+    }
+
+    protected static Map<String, AttributeColumn> buildColumns(TemporalElement[] elements) {
+        Set<String> keys = new LinkedHashSet<>();
+        Map<String, AttributeColumn> columns = new HashMap<>();
+
+        for (TemporalElement element : elements) {
+            keys.addAll(element.getAttributesTimeline().getKeys());
+        }
+
+        for (String key : keys) {
+            columns.put(key, AttributeColumn.build(key, elements, true));
+        }
+
+        return Collections.unmodifiableMap(columns);
+    }
+
+    /**
+     * Get the position of the time-window containing a date, among the time-windows of an element.
+     *
+     * @return the position of the time-window in the arrays, or -1 if there is none
+     */
+    protected static int windowAt(int[] offsets, double[] starts, double[] ends, int element, double date) {
+        int i = floorWindow(offsets, starts, element, date);
+        return i >= offsets[element] && date < ends[i] ? i : -1;
+    }
+
+    /**
+     * Get the position of the last time-window starting at or before a date, among the time-windows of an
+     * element.
+     *
+     * @return the position of the time-window in the arrays, or offsets[element] - 1 if there is none
+     */
+    protected static int floorWindow(int[] offsets, double[] starts, int element, double date) {
+        int lo = offsets[element], hi = offsets[element + 1] - 1;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (starts[mid] <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        return hi;
+    }
+
+    /**
+     * Count of nodes, whatever the date.
+     */
+    public int getNodeCount() {
+        return nodeIds.length;
+    }
+
+    /**
+     * Count of edges, whatever the date.
+     */
+    public int getEdgeCount() {
+        return edgeIds.length;
+    }
+
+    /**
+     * @return the index of the node, or -1 if there is no such node
+     */
+    public int getNodeIndex(String nodeId) {
+        return nodeIndices.get(nodeId);
+    }
+
+    public String getNodeId(int node) {
+        return nodeIds[node];
+    }
+
+    /**
+     * @return the index of the edge, or -1 if there is no such edge
+     */
+    public int getEdgeIndex(String edgeId) {
+        return edgeIndices.get(edgeId);
+    }
+
+    public String getEdgeId(int edge) {
+        return edgeIds[edge];
+    }
+
+    public int getSource(int edge) {
+        return sources[edge];
+    }
+
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    public boolean isDirected(int edge) {
+        return directed[edge];
+    }
+
+    /**
+     * Get the endpoint of an edge which is not the given node.
+     *
+     * @param edge the edge
+     * @param node one of the endpoints of the edge
+     * @return the other endpoint, or node itself if the edge is a loop
+     */
+    public int getOpposite(int edge, int node) {
+        return sources[edge] == node ? targets[edge] : sources[edge];
+    }
+
+    public boolean nodeExistsAt(int node, double date) {
+        return windowAt(nodeWindowOffsets, nodeStarts, nodeEnds, node, date) >= 0;
+    }
+
+    public boolean edgeExistsAt(int edge, double date) {
+        return windowAt(edgeWindowOffsets, edgeStarts, edgeEnds, edge, date) >= 0;
+    }
+
+    public int getNodeCountAt(double date) {
+        int count = 0;
+
+        for (int i = 0; i < nodeIds.length; i++) {
+            if (nodeExistsAt(i, date)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    public int getEdgeCountAt(double date) {
+        int count = 0;
+
+        for (int i = 0; i < edgeIds.length; i++) {
+            if (edgeExistsAt(i, date)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Count of time-windows of presence of a node.
+     */
+    public int getNodeWindowCount(int node) {
+        return nodeWindowOffsets[node + 1] - nodeWindowOffsets[node];
+    }
+
+    public double getNodeWindowStart(int node, int window) {
+        return nodeStarts[nodeWindowOffsets[node] + window];
+    }
+
+    public double getNodeWindowEnd(int node, int window) {
+        return nodeEnds[nodeWindowOffsets[node] + window];
+    }
+
+    /**
+     * Count of time-windows of presence of an edge.
+     */
+    public int getEdgeWindowCount(int edge) {
+        return edgeWindowOffsets[edge + 1] - edgeWindowOffsets[edge];
+    }
+
+    public double getEdgeWindowStart(int edge, int window) {
+        return edgeStarts[edgeWindowOffsets[edge] + window];
+    }
+
+    public double getEdgeWindowEnd(int edge, int window) {
+        return edgeEnds[edgeWindowOffsets[edge] + window];
+    }
+
+    /**
+     * Get the first time-window of an edge which is not over at a date : the one containing the date, or else
+     * the first one starting after it.
+     *
+     * @return the rank of the time-window, or {@link #getEdgeWindowCount(int)} if all are over
+     */
+    public int getEdgeWindowFrom(int edge, double date) {
+        int i = floorWindow(edgeWindowOffsets, edgeStarts, edge, date);
+
+        if (i < edgeWindowOffsets[edge] || date >= edgeEnds[i]) {
+            i++;
+        }
+
+        return i - edgeWindowOffsets[edge];
+    }
+
+    /**
+     * Get the last time-window of an edge starting at or before a date.
+     *
+     * @return the rank of the time-window, or -1 if all start after the date
+     */
+    public int getEdgeWindowBefore(int edge, double date) {
+        return floorWindow(edgeWindowOffsets, edgeStarts, edge, date) - edgeWindowOffsets[edge];
+    }
+
+    /**
+     * Count of edges incident to a node, whatever the date.
+     */
+    public int getIncidentEdgeCount(int node) {
+        return incidenceOffsets[node + 1] - incidenceOffsets[node];
+    }
+
+    /**
+     * Get one of the edges incident to a node. Incident edges are sorted by index.
+     *
+     * @param node the node
+     * @param i    the rank of the edge, between 0 and {@link #getIncidentEdgeCount(int)}
+     * @return the index of the edge
+     */
+    public int getIncidentEdge(int node, int i) {
+        return incidentEdges[incidenceOffsets[node] + i];
+    }
+
+    /**
+     * Count of edges incident to a node at a date, a loop counting once.
+     */
+    public int getDegreeAt(int node, double date) {
+        int degree = 0;
+
+        for (int i = incidenceOffsets[node]; i < incidenceOffsets[node + 1]; i++) {
+            if (edgeExistsAt(incidentEdges[i], date)) {
+                degree++;
+            }
+        }
+
+        return degree;
+    }
+
+    /**
+     * Keys of the attributes set on at least one node.
+     */
+    public Set<String> getNodeAttributeKeys() {
+        return nodeColumns.keySet();
+    }
+
+    /**
+     * Keys of the attributes set on at least one edge.
+     */
+    public Set<String> getEdgeAttributeKeys() {
+        return edgeColumns.keySet();
+    }
+
+    /**
+     * Get the column of an attribute over all the nodes.
+     *
+     * @return the column, or null if no node has this attribute
+     */
+    public AttributeColumn getNodeColumn(String key) {
+        return nodeColumns.get(key);
+    }
+
+    /**
+     * Get the column of an attribute over all the edges.
+     *
+     * @return the column, or null if no edge has this attribute
+     */
+    public AttributeColumn getEdgeColumn(String key) {
+        return edgeColumns.get(key);
+    }
+
+    public Object getNodeAttributeAt(int node, String key, double date) {
+        AttributeColumn column = nodeColumns.get(key);
+        return column == null ? null : column.getValueAt(node, date);
+    }
+
+    public Object getEdgeAttributeAt(int edge, String key, double date) {
+        AttributeColumn column = edgeColumns.get(key);
+        return column == null ? null : column.getValueAt(edge, date);
+    }
+
+    /**
+     * @return the value of the attribute, or NaN if the node has no numeric value at this date
+     */
+    public double getNodeNumberAt(int node, String key, double date) {
+        AttributeColumn column = nodeColumns.get(key);
+        return column == null ? Double.NaN : column.getNumberAt(node, date);
+    }
+
+    /**
+     * @return the value of the attribute, or NaN if the edge has no numeric value at this date
+     */
+    public double getEdgeNumberAt(int edge, String key, double date) {
+        AttributeColumn column = edgeColumns.get(key);
+        return column == null ? Double.NaN : column.getNumberAt(edge, date);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%d nodes, %d edges]", getClass().getSimpleName(), getNodeCount(), getEdgeCount());
+    }
+}
@@ -0,0 +1,980 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.*;
+import org.graphstream.stream.AttributeSink;
+import org.graphstream.stream.ElementSink;
+import org.graphstream.stream.GraphParseException;
+import org.graphstream.stream.Replayable;
+import org.graphstream.stream.Sink;
+import org.graphstream.stream.SourceBase;
+import org.graphstream.stream.file.FileSink;
+import org.graphstream.stream.file.FileSinkFactory;
+import org.graphstream.stream.file.FileSource;
+import org.graphstream.ui.layout.Layout;
+import org.graphstream.ui.layout.Layouts;
+import org.graphstream.ui.swingViewer.GraphRenderer;
+import org.graphstream.ui.view.Viewer;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Read-only view of a temporal network at a given date, implementing the {@link Graph} interface so that the
+ * algorithms of gs-core can run on it.
+ * <p/>
+ * The snapshot contains the nodes existing at its date, and the edges existing at its date whose endpoints both
+ * exist. Their indices are materialized in arrays when the snapshot is built, so that nodes and edges get a dense
+ * index in the snapshot, which is the one returned by {@link Element#getIndex()}. Views of the nodes and edges are
+ * created lazily and kept, so that an element is always represented by the same object in a snapshot.
+ * <p/>
+ * The structure of the network is the same for all the dates of a <i>no-change interval</i>, the interval
+ * between two consecutive dates at which an element of the network is added or removed. A snapshot knows this
+ * interval, and {@link #at(double)} gives the snapshot of another date of the interval, sharing the structure
+ * of this one. Attributes are not part of the structure : they are read in the timelines at the date of the
+ * snapshot.
+ * <p/>
+ * The structure can not be changed through the snapshot, so operations adding or removing elements, and
+ * graph attributes, throw an {@link UnsupportedOperationException}. Attributes of nodes and edges can be changed
+ * at the date of the snapshot.
+ */
+public class GraphSnapshot implements Graph, Replayable {
+    protected final TemporalNetwork network;
+    protected final double snapshotDate;
+    protected final double startDate;
+    protected final double endDate;
+
+    /**
+     * Indices in the network of the nodes and edges of the snapshot.
+     */
+    protected final int[] nodeIndices;
+    protected final int[] edgeIndices;
+
+    /**
+     * Indices in the snapshot of the nodes and edges of the network, -1 for elements which are not part of
+     * the snapshot.
+     */
+    protected final int[] nodePositions;
+    protected final int[] edgePositions;
+
+    /**
+     * Degrees of the nodes of the snapshot, stored at their index in the snapshot.
+     */
+    protected final int[] degrees;
+    protected final int[] inDegrees;
+    protected final int[] outDegrees;
+
+    protected final NodeSnapshot[] nodeViews;
+    protected final EdgeSnapshot[] edgeViews;
+
+    /**
+     * Build the snapshot of a network at a given date.
+     *
+     * @param network   the temporal network
+     * @param date      date of the snapshot
+     * @param startDate start of the no-change interval containing the date, inclusive
+     * @param endDate   end of the no-change interval containing the date, exclusive
+     */
+    public GraphSnapshot(TemporalNetwork network, double date, double startDate, double endDate) {
+        if (date < startDate || date >= endDate) {
+            throw new IllegalArgumentException(String.format("date %f out of [%f;%f[", date, startDate, endDate));
+        }
+
+        this.network = network;
+        this.snapshotDate = date;
+        this.startDate = startDate;
+        this.endDate = endDate;
+
+        int totalNodes = network.getTotalNodeCount();
+        int[] nodes = new int[totalNodes];
+        int nodeCount = 0;
+
+        nodePositions = new int[totalNodes];
+
+        for (int i = 0; i < totalNodes; i++) {
+            if (network.getTemporalNode(i).existsAt(date)) {
+                nodePositions[i] = nodeCount;
+                nodes[nodeCount++] = i;
+            } else {
+                nodePositions[i] = -1;
+            }
+        }
+
+        nodeIndices = Arrays.copyOf(nodes, nodeCount);
+        degrees = new int[nodeCount];
+        inDegrees = new int[nodeCount];
+        outDegrees = new int[nodeCount];
+
+        //
+        // Edges are taken from the interval index of their source node, so that each edge is seen once and
+        // the build only depends on the size of the snapshot.
+        //
+        int[] edges = new int[16];
+        int edgeCount = 0;
+
+        for (int position = 0; position < nodeCount; position++) {
+            TemporalNode node = network.getTemporalNode(nodeIndices[position]);
+
+            for (int e : node.getNeighbourTimeline().getEdgeIndicesAt(date)) {
+                TemporalEdge edge = network.getTemporalEdge(e);
+
+                if (edge.getSourceNode() == node && nodePositions[edge.getTargetNode().getIndex()] >= 0) {
+                    if (edgeCount == edges.length) {
+                        edges = Arrays.copyOf(edges, edgeCount << 1);
+                    }
+
+                    edges[edgeCount++] = e;
+                }
+            }
+        }
+
+        edgeIndices = Arrays.copyOf(edges, edgeCount);
+        Arrays.sort(edgeIndices);
+
+        edgePositions = new int[network.getTotalEdgeCount()];
+        Arrays.fill(edgePositions, -1);
+
+        for (int position = 0; position < edgeCount; position++) {
+            TemporalEdge edge = network.getTemporalEdge(edgeIndices[position]);
+            int source = nodePositions[edge.getSourceNode().getIndex()];
+            int target = nodePositions[edge.getTargetNode().getIndex()];
+
+            edgePositions[edgeIndices[position]] = position;
+
+            degrees[source]++;
+            outDegrees[source]++;
+            inDegrees[target]++;
+
+            if (source != target) {
+                degrees[target]++;
+            }
+
+            if (!edge.isDirected() && source != target) {
+                inDegrees[source]++;
+                outDegrees[target]++;
+            }
+        }
+
+        nodeViews = new NodeSnapshot[nodeCount];
+        edgeViews = new EdgeSnapshot[edgeCount];
+    }
+
+    /**
+     * Create a snapshot at another date of the no-change interval of a snapshot, sharing its structure.
+     */
+    protected GraphSnapshot(GraphSnapshot structure, double date) {
+        network = structure.network;
+        snapshotDate = date;
+        startDate = structure.startDate;
+        endDate = structure.endDate;
+        nodeIndices = structure.nodeIndices;
+        edgeIndices = structure.edgeIndices;
+        nodePositions = structure.nodePositions;
+        edgePositions = structure.edgePositions;
+        degrees = structure.degrees;
+        inDegrees = structure.inDegrees;
+        outDegrees = structure.outDegrees;
+        nodeViews = new NodeSnapshot[nodeIndices.length];
+        edgeViews = new EdgeSnapshot[edgeIndices.length];
+    }
+
+    /**
+     * Get the snapshot at another date of the no-change interval of this snapshot. The structure of this
+     * snapshot is shared, nothing is rebuilt.
+     *
+     * @param date the date, in [{@link #getStartDate()};{@link #getEndDate()}[
+     * @return this snapshot if the date is the date of this snapshot, a new view otherwise
+     */
+    public GraphSnapshot at(double date) {
+        if (date == snapshotDate) {
+            return this;
+        }
+
+        if (!contains(date)) {
+            throw new IllegalArgumentException(String.format("date %f out of [%f;%f[", date, startDate, endDate));
+        }
+
+        return new GraphSnapshot(this, date);
+    }
+
+    public TemporalNetwork getTemporalNetwork() {
+        return network;
+    }
+
+    public double getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    /**
+     * Start of the no-change interval of this snapshot, inclusive.
+     */
+    public double getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * End of the no-change interval of this snapshot, exclusive.
+     */
+    public double getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Check if a date is in the no-change interval of this snapshot.
+     */
+    public boolean contains(double date) {
+        return startDate <= date && date < endDate;
+    }
+
+    /**
+     * Check if an edge of the network is part of this snapshot.
+     */
+    public boolean contains(TemporalEdge edge) {
+        return edge.getIndex() < edgePositions.length && edgePositions[edge.getIndex()] >= 0;
+    }
+
+    /**
+     * Check if a node of the network is part of this snapshot.
+     */
+    public boolean contains(TemporalNode node) {
+        return node.getIndex() < nodePositions.length && nodePositions[node.getIndex()] >= 0;
+    }
+
+    /**
+     * Get the view of a node of the network in this snapshot.
+     *
+     * @param node the temporal node
+     * @return the view, or null if the node is not part of this snapshot
+     */
+    public NodeSnapshot getNodeSnapshot(TemporalNode node) {
+        return contains(node) ? nodeView(nodePositions[node.getIndex()]) : null;
+    }
+
+    /**
+     * Get the view of an edge of the network in this snapshot.
+     *
+     * @param edge the temporal edge
+     * @return the view, or null if the edge is not part of this snapshot
+     */
+    public EdgeSnapshot getEdgeSnapshot(TemporalEdge edge) {
+        return contains(edge) ? edgeView(edgePositions[edge.getIndex()]) : null;
+    }
+
+    protected NodeSnapshot nodeView(int position) {
+        NodeSnapshot view = nodeViews[position];
+
+        if (view == null) {
+            view = new NodeSnapshot(this, network.getTemporalNode(nodeIndices[position]), position);
+            nodeViews[position] = view;
+        }
+
+        return view;
+    }
+
+    protected EdgeSnapshot edgeView(int position) {
+        EdgeSnapshot view = edgeViews[position];
+
+        if (view == null) {
+            view = new EdgeSnapshot(this, network.getTemporalEdge(edgeIndices[position]), position);
+            edgeViews[position] = view;
+        }
+
+        return view;
+    }
+
+    int getDegree(int position) {
+        return degrees[position];
+    }
+
+    int getInDegree(int position) {
+        return inDegrees[position];
+    }
+
+    int getOutDegree(int position) {
+        return outDegrees[position];
+    }
+
+    protected UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("graph snapshots are read-only, change the temporal network instead");
+    }
+
+    @Override
+    public <T extends Node> T getNode(String id) {
+        TemporalNode node = network.getTemporalNode(id);
+        return node == null ? null : (T) getNodeSnapshot(node);
+    }
+
+    @Override
+    public <T extends Edge> T getEdge(String id) {
+        TemporalEdge edge = network.getTemporalEdge(id);
+        return edge == null ? null : (T) getEdgeSnapshot(edge);
+    }
+
+    @Override
+    public <T extends Node> T getNode(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= nodeIndices.length) {
+            throw new IndexOutOfBoundsException("node index " + index + " out of [0;" + nodeIndices.length + "[");
+        }
+
+        return (T) nodeView(index);
+    }
+
+    @Override
+    public <T extends Edge> T getEdge(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= edgeIndices.length) {
+            throw new IndexOutOfBoundsException("edge index " + index + " out of [0;" + edgeIndices.length + "[");
+        }
+
+        return (T) edgeView(index);
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodeIndices.length;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeIndices.length;
+    }
+
+    @Override
+    public <T extends Node> Iterator<T> getNodeIterator() {
+        return new ViewIterator<T>(nodeIndices.length, true);
+    }
+
+    @Override
+    public <T extends Edge> Iterator<T> getEdgeIterator() {
+        return new ViewIterator<T>(edgeIndices.length, false);
+    }
+
+    @Override
+    public <T extends Node> Iterable<? extends T> getEachNode() {
+        return this.<T>getNodeSet();
+    }
+
+    @Override
+    public <T extends Edge> Iterable<? extends T> getEachEdge() {
+        return this.<T>getEdgeSet();
+    }
+
+    @Override
+    public <T extends Node> Collection<T> getNodeSet() {
+        return new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return getNodeIterator();
+            }
+
+            @Override
+            public int size() {
+                return getNodeCount();
+            }
+        };
+    }
+
+    @Override
+    public <T extends Edge> Collection<T> getEdgeSet() {
+        return new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return getEdgeIterator();
+            }
+
+            @Override
+            public int size() {
+                return getEdgeCount();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return getNodeIterator();
+    }
+
+    /**
+     * Identifier of the snapshot, built from its date.
+     */
+    @Override
+    public String getId() {
+        return "snapshot@" + snapshotDate;
+    }
+
+    @Override
+    public int getIndex() {
+        return 0;
+    }
+
+    @Override
+    public double getStep() {
+        return snapshotDate;
+    }
+
+    @Override
+    public NodeFactory<? extends Node> nodeFactory() {
+        return null;
+    }
+
+    @Override
+    public EdgeFactory<? extends Edge> edgeFactory() {
+        return null;
+    }
+
+    @Override
+    public boolean isStrict() {
+        return true;
+    }
+
+    @Override
+    public boolean isAutoCreationEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean nullAttributesAreErrors() {
+        return false;
+    }
+
+    @Override
+    public void setNullAttributesAreErrors(boolean on) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setNodeFactory(NodeFactory<? extends Node> nf) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setEdgeFactory(EdgeFactory<? extends Edge> ef) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setStrict(boolean on) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAutoCreate(boolean on) {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear() {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Node> T addNode(String id) throws IdAlreadyInUseException {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Node> T removeNode(String id) throws ElementNotFoundException {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T addEdge(String id, String node1, String node2) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T addEdge(String id, String from, String to, boolean directed) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T removeEdge(String from, String to) throws ElementNotFoundException {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T removeEdge(String id) throws ElementNotFoundException {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T addEdge(String id, int index1, int index2) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T addEdge(String id, int fromIndex, int toIndex, boolean directed) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T addEdge(String id, Node node1, Node node2) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T addEdge(String id, Node from, Node to, boolean directed) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T removeEdge(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T removeEdge(int fromIndex, int toIndex) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T removeEdge(Node node1, Node node2) throws ElementNotFoundException {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Edge> T removeEdge(Edge edge) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Node> T removeNode(int index) {
+        throw readOnly();
+    }
+
+    @Override
+    public <T extends Node> T removeNode(Node node) {
+        throw readOnly();
+    }
+
+    @Override
+    public void stepBegins(double time) {
+        throw readOnly();
+    }
+
+    @Override
+    public void read(String filename) throws IOException, GraphParseException, ElementNotFoundException {
+        throw readOnly();
+    }
+
+    @Override
+    public void read(FileSource input, String filename) throws IOException, GraphParseException {
+        throw readOnly();
+    }
+
+    @Override
+    public void write(String filename) throws IOException {
+        FileSink sink = FileSinkFactory.sinkFor(filename);
+
+        if (sink == null) {
+            throw new IOException("no sink for file \"" + filename + "\"");
+        }
+
+        write(sink, filename);
+    }
+
+    @Override
+    public void write(FileSink sink, String filename) throws IOException {
+        sink.writeAll(this, filename);
+    }
+
+    @Override
+    public Viewer display() {
+        return display(true);
+    }
+
+    /*
+     * @see org.graphstream.stream.Replayable#getReplayController()
+     */
+    @Override
+    public Replayable.Controller getReplayController() {
+        return new SnapshotReplayController();
+    }
+
+    /*
+     * The viewer runs in its own thread and gets a copy of the snapshot, replayed by its proxy pipe. Positions
+     * computed by the layout are written in this copy, never in the network.
+     *
+     * @see org.graphstream.graph.Graph#display(boolean)
+     */
+    @Override
+    public Viewer display(boolean autoLayout) {
+        Viewer viewer = new Viewer(this, Viewer.ThreadingModel.GRAPH_IN_ANOTHER_THREAD);
+        GraphRenderer renderer = Viewer.newGraphRenderer();
+
+        viewer.addView(Viewer.DEFAULT_VIEW_ID, renderer);
+
+        if (autoLayout) {
+            Layout layout = Layouts.newLayoutAlgorithm();
+            viewer.enableAutoLayout(layout);
+        }
+
+        return viewer;
+    }
+
+    /*
+     * A snapshot never changes, so sinks registered on it never receive any event.
+     */
+
+    @Override
+    public Iterable<AttributeSink> attributeSinks() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Iterable<ElementSink> elementSinks() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void addSink(Sink sink) {
+    }
+
+    @Override
+    public void removeSink(Sink sink) {
+    }
+
+    @Override
+    public void addAttributeSink(AttributeSink sink) {
+    }
+
+    @Override
+    public void removeAttributeSink(AttributeSink sink) {
+    }
+
+    @Override
+    public void addElementSink(ElementSink sink) {
+    }
+
+    @Override
+    public void removeElementSink(ElementSink sink) {
+    }
+
+    @Override
+    public void clearElementSinks() {
+    }
+
+    @Override
+    public void clearAttributeSinks() {
+    }
+
+    @Override
+    public void clearSinks() {
+    }
+
+    @Override
+    public void graphAttributeAdded(String sourceId, long timeId, String attribute, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void graphAttributeChanged(String sourceId, long timeId, String attribute, Object oldValue,
+                                      Object newValue) {
+        throw readOnly();
+    }
+
+    @Override
+    public void graphAttributeRemoved(String sourceId, long timeId, String attribute) {
+        throw readOnly();
+    }
+
+    @Override
+    public void nodeAttributeAdded(String sourceId, long timeId, String nodeId, String attribute, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void nodeAttributeChanged(String sourceId, long timeId, String nodeId, String attribute,
+                                     Object oldValue, Object newValue) {
+        throw readOnly();
+    }
+
+    @Override
+    public void nodeAttributeRemoved(String sourceId, long timeId, String nodeId, String attribute) {
+        throw readOnly();
+    }
+
+    @Override
+    public void edgeAttributeAdded(String sourceId, long timeId, String edgeId, String attribute, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void edgeAttributeChanged(String sourceId, long timeId, String edgeId, String attribute,
+                                     Object oldValue, Object newValue) {
+        throw readOnly();
+    }
+
+    @Override
+    public void edgeAttributeRemoved(String sourceId, long timeId, String edgeId, String attribute) {
+        throw readOnly();
+    }
+
+    @Override
+    public void nodeAdded(String sourceId, long timeId, String nodeId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void edgeAdded(String sourceId, long timeId, String edgeId, String fromNodeId, String toNodeId,
+                          boolean directed) {
+        throw readOnly();
+    }
+
+    @Override
+    public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void graphCleared(String sourceId, long timeId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void stepBegins(String sourceId, long timeId, double step) {
+        throw readOnly();
+    }
+
+    /*
+     * The temporal network has no attributes, so the snapshot has none.
+     */
+
+    @Override
+    public <T> T getAttribute(String key) {
+        return null;
+    }
+
+    @Override
+    public <T> T getFirstAttributeOf(String... keys) {
+        return null;
+    }
+
+    @Override
+    public <T> T getAttribute(String key, Class<T> clazz) {
+        return null;
+    }
+
+    @Override
+    public <T> T getFirstAttributeOf(Class<T> clazz, String... keys) {
+        return null;
+    }
+
+    @Override
+    public CharSequence getLabel(String key) {
+        return null;
+    }
+
+    @Override
+    public double getNumber(String key) {
+        return Double.NaN;
+    }
+
+    @Override
+    public ArrayList<? extends Number> getVector(String key) {
+        return null;
+    }
+
+    @Override
+    public Object[] getArray(String key) {
+        return null;
+    }
+
+    @Override
+    public HashMap<?, ?> getHash(String key) {
+        return null;
+    }
+
+    @Override
+    public boolean hasAttribute(String key) {
+        return false;
+    }
+
+    @Override
+    public boolean hasAttribute(String key, Class<?> clazz) {
+        return false;
+    }
+
+    @Override
+    public boolean hasLabel(String key) {
+        return false;
+    }
+
+    @Override
+    public boolean hasNumber(String key) {
+        return false;
+    }
+
+    @Override
+    public boolean hasVector(String key) {
+        return false;
+    }
+
+    @Override
+    public boolean hasArray(String key) {
+        return false;
+    }
+
+    @Override
+    public boolean hasHash(String key) {
+        return false;
+    }
+
+    @Override
+    public Iterator<String> getAttributeKeyIterator() {
+        return Collections.<String>emptyList().iterator();
+    }
+
+    @Override
+    public Iterable<String> getEachAttributeKey() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> getAttributeKeySet() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void clearAttributes() {
+        throw readOnly();
+    }
+
+    @Override
+    public void addAttribute(String attribute, Object... values) {
+        throw readOnly();
+    }
+
+    @Override
+    public void changeAttribute(String attribute, Object... values) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAttribute(String attribute, Object... values) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addAttributes(Map<String, Object> attributes) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAttribute(String attribute) {
+        throw readOnly();
+    }
+
+    @Override
+    public int getAttributeCount() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%d nodes, %d edges]", getId(), getNodeCount(), getEdgeCount());
+    }
+
+    /**
+     * Send the nodes and edges of the snapshot, with their attributes at the date of the snapshot, as a
+     * sequence of events. This is how a viewer or a proxy pipe gets the content of the snapshot.
+     */
+    protected class SnapshotReplayController extends SourceBase implements Replayable.Controller {
+        protected SnapshotReplayController() {
+            super(getId() + "replay");
+        }
+
+        @Override
+        public void replay() {
+            replay(sourceId);
+        }
+
+        @Override
+        public void replay(String sourceId) {
+            for (int i = 0; i < getNodeCount(); i++) {
+                Node node = getNode(i);
+                sendNodeAdded(sourceId, node.getId());
+
+                for (String key : node.getEachAttributeKey()) {
+                    sendNodeAttributeAdded(sourceId, node.getId(), key, node.getAttribute(key));
+                }
+            }
+
+            for (int i = 0; i < getEdgeCount(); i++) {
+                Edge edge = getEdge(i);
+                sendEdgeAdded(sourceId, edge.getId(), edge.getSourceNode().getId(), edge.getTargetNode().getId(),
+                        edge.isDirected());
+
+                for (String key : edge.getEachAttributeKey()) {
+                    sendEdgeAttributeAdded(sourceId, edge.getId(), key, edge.getAttribute(key));
+                }
+            }
+        }
+    }
+
+    protected class ViewIterator<T extends Element> implements Iterator<T> {
+        protected final int count;
+        protected final boolean nodes;
+        protected int position;
+
+        protected ViewIterator(int count, boolean nodes) {
+            this.count = count;
+            this.nodes = nodes;
+            position = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < count;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (position >= count) {
+                throw new NoSuchElementException();
+            }
+
+            return (T) (nodes ? nodeView(position++) : edgeView(position++));
+        }
+
+        @Override
+        public void remove() {
+            throw readOnly();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+/**
+ * Map element identifiers to their index.
+ * <p/>
+ * This is an open-addressing hash table with linear probing, storing identifiers and indices in two parallel
+ * arrays. Indices are kept as primitive ints, so neither insertions nor lookups allocate, and an entry costs a
+ * reference and an int rather than a {@link java.util.HashMap} node and a boxed integer. Entries can not be
+ * removed, as elements of a temporal network are never forgotten.
+ */
+public class IdIndexMap {
+    protected static final float LOAD_FACTOR = 0.6f;
+    protected static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    protected String[] keys;
+    protected int[] indices;
+    protected int size;
+    protected int threshold;
+
+    public IdIndexMap() {
+        this(16);
+    }
+
+    /**
+     * Create a map able to hold the given count of identifiers without being resized.
+     *
+     * @param expectedSize the expected count of identifiers
+     */
+    public IdIndexMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.min(MAXIMUM_CAPACITY, (long) Math.ceil(expectedSize / LOAD_FACTOR))));
+    }
+
+    /**
+     * Get the index associated with an identifier.
+     *
+     * @param id the identifier
+     * @return the index of id, or -1 if id is unknown
+     */
+    public int get(String id) {
+        int mask = keys.length - 1;
+        int i = hash(id) & mask;
+        String k;
+
+        while ((k = keys[i]) != null) {
+            if (k == id || k.equals(id)) {
+                return indices[i];
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    public boolean contains(String id) {
+        return get(id) >= 0;
+    }
+
+    /**
+     * Associate an index with an identifier.
+     *
+     * @param id    the identifier
+     * @param index the index, which should be positive
+     * @return the previous index of id, or -1 if id was unknown
+     */
+    public int put(String id, int index) {
+        int mask = keys.length - 1;
+        int i = hash(id) & mask;
+        String k;
+
+        while ((k = keys[i]) != null) {
+            if (k == id || k.equals(id)) {
+                int previous = indices[i];
+                indices[i] = index;
+
+                return previous;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = id;
+        indices[i] = index;
+
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    protected void rehash(int capacity) {
+        if (keys.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("too many identifiers");
+        }
+
+        String[] oldKeys = keys;
+        int[] oldIndices = indices;
+
+        allocate(capacity);
+
+        int mask = capacity - 1;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = hash(oldKeys[j]) & mask;
+
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+
+                keys[i] = oldKeys[j];
+                indices[i] = oldIndices[j];
+            }
+        }
+    }
+
+    protected void allocate(int capacity) {
+        keys = new String[capacity];
+        indices = new int[capacity];
+        threshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Spread the bits of the string hash, as identifiers often share long prefixes.
+     */
+    protected static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    protected static int tableSizeFor(int capacity) {
+        int n = 16;
+
+        while (n < capacity && n < MAXIMUM_CAPACITY) {
+            n <<= 1;
+        }
+
+        return n;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+/**
+ * Encoding of values as a type tag and a 64 bits payload, used where values are stored outside of the Java heap :
+ * in network files and in off-heap timelines.
+ * <p/>
+ * Booleans and numbers are stored in the payload itself, they are said to be inline. Strings and other objects
+ * can not be stored in 64 bits, the meaning of their payload is given by the storage : a rank in a string table,
+ * an offset in a file, an index in an array of references...
+ */
+public final class InlineValues {
+    public static final byte NULL = 0;
+    public static final byte BOOLEAN = 1;
+    public static final byte INTEGER = 2;
+    public static final byte LONG = 3;
+    public static final byte FLOAT = 4;
+    public static final byte DOUBLE = 5;
+    public static final byte STRING = 6;
+    public static final byte OBJECT = 7;
+
+    private InlineValues() {
+    }
+
+    /**
+     * Get the tag of a value.
+     */
+    public static byte tagOf(Object value) {
+        if (value == null) {
+            return NULL;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof Integer) {
+            return INTEGER;
+        } else if (value instanceof Long) {
+            return LONG;
+        } else if (value instanceof Float) {
+            return FLOAT;
+        } else if (value instanceof Double) {
+            return DOUBLE;
+        } else if (value instanceof String) {
+            return STRING;
+        }
+
+        return OBJECT;
+    }
+
+    /**
+     * Check if values with a tag are stored in their payload.
+     */
+    public static boolean isInline(byte tag) {
+        return tag < STRING;
+    }
+
+    /**
+     * Get the payload of an inline value.
+     *
+     * @param value the value
+     * @param tag   the tag of the value
+     * @return the payload, 0 if the value is not inline
+     */
+    public static long payloadOf(Object value, byte tag) {
+        switch (tag) {
+            case BOOLEAN:
+                return (Boolean) value ? 1 : 0;
+            case INTEGER:
+            case LONG:
+                return ((Number) value).longValue();
+            case FLOAT:
+                return Float.floatToRawIntBits((Float) value);
+            case DOUBLE:
+                return Double.doubleToRawLongBits((Double) value);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Decode an inline value.
+     *
+     * @param tag     the tag of the value
+     * @param payload the payload of the value
+     * @return the value
+     * @throws IllegalArgumentException if the tag is not the one of an inline value
+     */
+    public static Object valueOf(byte tag, long payload) {
+        switch (tag) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return payload != 0;
+            case INTEGER:
+                return (int) payload;
+            case LONG:
+                return payload;
+            case FLOAT:
+                return Float.intBitsToFloat((int) payload);
+            case DOUBLE:
+                return Double.longBitsToDouble(payload);
+            default:
+                throw new IllegalArgumentException("not an inline value type : " + tag);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+
+/**
+ * Index of intervals [start;end[, each labelled with an integer identifier, answering "which intervals contain
+ * this date" in O(log n + k).
+ * <p/>
+ * Intervals are stored in arrays sorted by start-date, which are seen as an implicit balanced binary search
+ * tree : the root of the range [lo;hi[ is the slot (lo+hi)/2. Each slot also stores the greatest end-date of its
+ * subtree, so subtrees whose intervals all end before the date are skipped. The capacity of the arrays is a
+ * power of two and unused slots hold empty intervals, so the shape of the tree does not depend on the count of
+ * intervals : appending an interval or changing an end-date only updates the path from the root to the slot.
+ * Inserting an interval in the middle of the arrays rebuilds the tree in linear time.
+ */
+public class IntervalIndex {
+    protected static final double EMPTY_START = Double.POSITIVE_INFINITY;
+    protected static final double EMPTY_END = Double.NEGATIVE_INFINITY;
+
+    protected double[] starts;
+    protected double[] ends;
+    /**
+     * Greatest end-date of the subtree rooted at each slot.
+     */
+    protected double[] maxEnds;
+    protected int[] ids;
+    protected int size;
+
+    public IntervalIndex() {
+        this(4);
+    }
+
+    public IntervalIndex(int initialCapacity) {
+        int capacity = 1;
+
+        while (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+
+        allocate(capacity);
+        size = 0;
+    }
+
+    /**
+     * Count of intervals in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add an interval. Intervals added in ascending order of start-dates are appended in O(log n).
+     *
+     * @param start start-date of the interval, inclusive
+     * @param end   end-date of the interval, exclusive
+     * @param id    identifier of the interval
+     */
+    public void add(double start, double end, int id) {
+        int slot = upperBound(start);
+        boolean rebuild = slot < size;
+
+        if (size == starts.length) {
+            double[] oldStarts = starts, oldEnds = ends;
+            int[] oldIds = ids;
+
+            allocate(starts.length << 1);
+
+            System.arraycopy(oldStarts, 0, starts, 0, size);
+            System.arraycopy(oldEnds, 0, ends, 0, size);
+            System.arraycopy(oldIds, 0, ids, 0, size);
+
+            rebuild = true;
+        }
+
+        if (slot < size) {
+            System.arraycopy(starts, slot, starts, slot + 1, size - slot);
+            System.arraycopy(ends, slot, ends, slot + 1, size - slot);
+            System.arraycopy(ids, slot, ids, slot + 1, size - slot);
+        }
+
+        starts[slot] = start;
+        ends[slot] = end;
+        ids[slot] = id;
+        size++;
+
+        if (rebuild) {
+            build(0, starts.length);
+        } else {
+            update(0, starts.length, slot);
+        }
+    }
+
+    /**
+     * Add intervals given in any order. The intervals are sorted and the tree is built once, so this costs
+     * O(n log n) for the n intervals of the index, rather than a rebuild for each interval inserted in the middle
+     * of the arrays.
+     *
+     * @param starts start-dates of the intervals, inclusive
+     * @param ends   end-dates of the intervals, exclusive
+     * @param ids    identifiers of the intervals
+     * @param count  count of intervals to add
+     */
+    public void addAll(double[] starts, double[] ends, int[] ids, int count) {
+        int total = size + count, capacity = this.starts.length;
+
+        while (capacity < total) {
+            capacity <<= 1;
+        }
+
+        double[] allStarts = Arrays.copyOf(this.starts, total);
+        double[] allEnds = Arrays.copyOf(this.ends, total);
+        int[] allIds = Arrays.copyOf(this.ids, total);
+        int[] order = new int[total];
+
+        System.arraycopy(starts, 0, allStarts, size, count);
+        System.arraycopy(ends, 0, allEnds, size, count);
+        System.arraycopy(ids, 0, allIds, size, count);
+
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+
+        EventLog.sortByDate(order, allStarts);
+
+        if (capacity != this.starts.length) {
+            allocate(capacity);
+        }
+
+        for (int i = 0; i < total; i++) {
+            this.starts[i] = allStarts[order[i]];
+            this.ends[i] = allEnds[order[i]];
+            this.ids[i] = allIds[order[i]];
+        }
+
+        size = total;
+        build(0, capacity);
+    }
+
+    /**
+     * Set the end-date of an interval which is not ended yet, that is whose end-date is infinite.
+     *
+     * @param start start-date of the interval
+     * @param id    identifier of the interval
+     * @param end   the new end-date
+     * @return true if the interval has been found
+     */
+    public boolean end(double start, int id, double end) {
+        for (int i = lowerBound(start); i < size && starts[i] == start; i++) {
+            if (ids[i] == id && Double.isInfinite(ends[i])) {
+                ends[i] = end;
+                update(0, starts.length, i);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the identifiers of the intervals containing a date, in ascending order of start-dates.
+     *
+     * @param date the date
+     * @return an array of identifiers, which may be empty
+     */
+    public int[] getIdsAt(double date) {
+        Collector collector = new Collector();
+        collect(0, starts.length, date, collector);
+
+        return Arrays.copyOf(collector.ids, collector.size);
+    }
+
+    /**
+     * Count the intervals containing a date.
+     *
+     * @param date the date
+     * @return the count of intervals
+     */
+    public int countAt(double date) {
+        return count(0, starts.length, date);
+    }
+
+    protected int count(int lo, int hi, double date) {
+        int c = 0;
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (maxEnds[mid] <= date) {
+                break;
+            }
+
+            c += count(lo, mid, date);
+
+            if (starts[mid] > date) {
+                break;
+            }
+
+            if (ends[mid] > date) {
+                c++;
+            }
+
+            lo = mid + 1;
+        }
+
+        return c;
+    }
+
+    protected void collect(int lo, int hi, double date, Collector collector) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (maxEnds[mid] <= date) {
+                return;
+            }
+
+            collect(lo, mid, date, collector);
+
+            if (starts[mid] > date) {
+                return;
+            }
+
+            if (ends[mid] > date) {
+                collector.add(ids[mid]);
+            }
+
+            lo = mid + 1;
+        }
+    }
+
+    /**
+     * Index of the first slot whose start-date is greater or equal to a date.
+     */
+    protected int lowerBound(double date) {
+        int lo = 0, hi = size;
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (starts[mid] < date) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+    }
+
+    /**
+     * Index of the first slot whose start-date is strictly greater than a date.
+     */
+    protected int upperBound(double date) {
+        if (size == 0 || starts[size - 1] <= date) {
+            return size;
+        }
+
+        int lo = 0, hi = size - 1;
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (starts[mid] <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+    }
+
+    protected double build(int lo, int hi) {
+        if (lo >= hi) {
+            return EMPTY_END;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        double max = Math.max(ends[mid], Math.max(build(lo, mid), build(mid + 1, hi)));
+
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    /**
+     * Update the greatest end-dates on the path from the root of [lo;hi[ to a slot.
+     */
+    protected double update(int lo, int hi, int slot) {
+        int mid = (lo + hi) >>> 1;
+        double left = EMPTY_END, right = EMPTY_END;
+
+        if (lo < mid) {
+            left = slot < mid ? update(lo, mid, slot) : maxEnds[(lo + mid) >>> 1];
+        }
+
+        if (mid + 1 < hi) {
+            right = slot > mid ? update(mid + 1, hi, slot) : maxEnds[(mid + 1 + hi) >>> 1];
+        }
+
+        double max = Math.max(ends[mid], Math.max(left, right));
+
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    protected void allocate(int capacity) {
+        starts = new double[capacity];
+        ends = new double[capacity];
+        maxEnds = new double[capacity];
+        ids = new int[capacity];
+
+        Arrays.fill(starts, EMPTY_START);
+        Arrays.fill(ends, EMPTY_END);
+        Arrays.fill(maxEnds, EMPTY_END);
+    }
+
+    protected static class Collector {
+        int[] ids = new int[8];
+        int size = 0;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+            }
+
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of the attribute keys of a network, mapping each key to a small int.
+ * <p/>
+ * Elements of a network usually share a handful of keys, so rather than each {@link AttributesTimeline} holding
+ * its own hash map from keys to timelines, keys are resolved once in the dictionary of the network and the
+ * timelines of an element are stored in a small array sorted by key index. The index of a key never changes
+ * and keys are never removed.
+ * <p/>
+ * A dictionary can be used by several threads : lookups do not lock, and new keys are added under a lock. A key
+ * is published in the array of keys before its index is published in the map, so any index read from the map
+ * can be resolved with {@link #getKey(int)}.
+ */
+public class KeyDictionary {
+    protected final ConcurrentHashMap<String, Integer> indices;
+    protected volatile String[] keys;
+    protected volatile int size;
+
+    public KeyDictionary() {
+        indices = new ConcurrentHashMap<>(16);
+        keys = new String[16];
+        size = 0;
+    }
+
+    /**
+     * Get the index of a key.
+     *
+     * @param key the key
+     * @return the index of the key, or -1 if the key is not in this dictionary
+     */
+    public int getIndex(String key) {
+        Integer index = indices.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get the index of a key, adding the key to this dictionary if needed.
+     *
+     * @param key the key
+     * @return the index of the key
+     */
+    public int intern(String key) {
+        Integer index = indices.get(key);
+        return index == null ? add(key) : index;
+    }
+
+    protected synchronized int add(String key) {
+        Integer existing = indices.get(key);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        int index = size;
+        String[] k = keys;
+
+        if (index == k.length) {
+            k = Arrays.copyOf(k, index << 1);
+        }
+
+        k[index] = key;
+        keys = k;
+        size = index + 1;
+        indices.put(key, index);
+
+        return index;
+    }
+
+    /**
+     * Get the key with the given index.
+     *
+     * @param index the index of the key, as given by {@link #intern(String)}
+     * @return the key
+     */
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Count of keys in this dictionary.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only memory mapping of a whole file, whatever its size.
+ * <p/>
+ * A single {@link MappedByteBuffer} can not map more than 2GB, so the file is mapped as a sequence of segments.
+ * Values are read with absolute offsets in the file ; a value overlapping two segments is copied, which is rare
+ * and only costs a small allocation. Reads do not change the state of the mapping, so several threads can read
+ * the same file.
+ * <p/>
+ * Mapped data stay readable after {@link #close()}, which only releases the file descriptor.
+ */
+public class MappedFile implements Closeable {
+    public static final int DEFAULT_SEGMENT_BITS = 30;
+
+    protected final RandomAccessFile file;
+    protected final long size;
+    protected final int segmentBits;
+    protected final long segmentMask;
+    protected final MappedByteBuffer[] segments;
+
+    public MappedFile(File file) throws IOException {
+        this(file, DEFAULT_SEGMENT_BITS);
+    }
+
+    /**
+     * @param file        the file to map
+     * @param segmentBits the size of the segments, as a power of two, at most 30
+     */
+    public MappedFile(File file, int segmentBits) throws IOException {
+        if (segmentBits < 3 || segmentBits > 30) {
+            throw new IllegalArgumentException("segment bits must be in [3;30]");
+        }
+
+        this.file = new RandomAccessFile(file, "r");
+        this.segmentBits = segmentBits;
+        this.segmentMask = (1L << segmentBits) - 1;
+
+        try {
+            FileChannel channel = this.file.getChannel();
+
+            size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + segmentMask) >>> segmentBits)];
+
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << segmentBits;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentMask + 1, size - start));
+            }
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Size of the file, in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    public byte get(long offset) {
+        check(offset, 1);
+        return segments[(int) (offset >>> segmentBits)].get((int) (offset & segmentMask));
+    }
+
+    public int getInt(long offset) {
+        check(offset, 4);
+
+        ByteBuffer segment = segments[(int) (offset >>> segmentBits)];
+        int position = (int) (offset & segmentMask);
+
+        return position + 4 <= segment.limit() ? segment.getInt(position) : slice(offset, 4).getInt();
+    }
+
+    public long getLong(long offset) {
+        check(offset, 8);
+
+        ByteBuffer segment = segments[(int) (offset >>> segmentBits)];
+        int position = (int) (offset & segmentMask);
+
+        return position + 8 <= segment.limit() ? segment.getLong(position) : slice(offset, 8).getLong();
+    }
+
+    public double getDouble(long offset) {
+        return Double.longBitsToDouble(getLong(offset));
+    }
+
+    /**
+     * Get a buffer over a range of the file. The buffer is independent of the mapping, its position and its limit
+     * can be changed freely.
+     *
+     * @param offset offset of the range in the file
+     * @param length length of the range
+     * @return a buffer whose position is 0 and whose limit is length
+     */
+    public ByteBuffer slice(long offset, int length) {
+        check(offset, length);
+
+        if (length == 0) {
+            return ByteBuffer.allocate(0);
+        }
+
+        ByteBuffer segment = segments[(int) (offset >>> segmentBits)].duplicate();
+        int position = (int) (offset & segmentMask);
+
+        if (position + length <= segment.limit()) {
+            segment.position(position);
+            segment.limit(position + length);
+
+            return segment.slice();
+        }
+
+        byte[] bytes = new byte[length];
+        int done = 0;
+
+        while (done < length) {
+            long at = offset + done;
+
+            segment = segments[(int) (at >>> segmentBits)].duplicate();
+            segment.position((int) (at & segmentMask));
+
+            int count = Math.min(length - done, segment.remaining());
+            segment.get(bytes, done, count);
+            done += count;
+        }
+
+        return ByteBuffer.wrap(bytes);
+    }
+
+    protected void check(long offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new IndexOutOfBoundsException(String.format("[%d;%d[ out of [0;%d[", offset, offset + length, size));
+        }
+    }
+
+    /*
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
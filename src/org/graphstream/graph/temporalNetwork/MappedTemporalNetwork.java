@@ -0,0 +1,676 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Temporal network loaded from a file written by {@link TemporalNetworkWriter}.
+ * <p/>
+ * The file is mapped in memory and only the string table and the element tables are read when the network is
+ * opened. The time-windows of an element, the timelines of its attributes and the incidence timeline of a node
+ * are read from the mapping the first time they are used, and the events of the log each time they are read, so
+ * opening a network costs the count of its elements rather than the size of its history.
+ * <p/>
+ * The network can be changed after it has been loaded, like any {@link DefaultTemporalNetwork} ; the file is
+ * never written. Elements added after loading use array timelines.
+ */
+public class MappedTemporalNetwork extends DefaultTemporalNetwork implements Closeable {
+    protected final MappedFile file;
+    protected final String[] strings;
+
+    /**
+     * Location of the time-windows of the edges, needed to build the incidence of the nodes.
+     */
+    protected final long[] edgeWindowOffsets;
+    protected final int[] edgeWindowCounts;
+
+    /**
+     * Open a network file.
+     *
+     * @param file the file written by a {@link TemporalNetworkWriter}
+     * @return the network
+     * @throws IOException if the file can not be read or is not a network file
+     */
+    public static MappedTemporalNetwork open(File file) throws IOException {
+        return open(new MappedFile(file));
+    }
+
+    /**
+     * Open a network from a mapped file. The mapping is closed with the network.
+     */
+    public static MappedTemporalNetwork open(MappedFile file) throws IOException {
+        if (file.size() < TemporalNetworkWriter.HEADER_SIZE || file.getInt(0) != TemporalNetworkWriter.MAGIC) {
+            file.close();
+            throw new IOException("not a temporal network file");
+        }
+
+        if (file.getInt(4) != TemporalNetworkWriter.VERSION) {
+            file.close();
+            throw new IOException("unsupported version " + file.getInt(4));
+        }
+
+        return new MappedTemporalNetwork(file);
+    }
+
+    protected MappedTemporalNetwork(MappedFile file) {
+        super(file.getInt(12), file.getInt(16), new MappedEventLog());
+
+        this.file = file;
+
+        int stringCount = file.getInt(8);
+        int nodeCount = file.getInt(12);
+        int edgeCount = file.getInt(16);
+        int eventCount = file.getInt(20);
+
+        strings = new String[stringCount];
+        readStrings(file.getLong(24));
+
+        edgeWindowOffsets = new long[edgeCount];
+        edgeWindowCounts = new int[edgeCount];
+
+        readNodes(file.getLong(32), nodeCount);
+        readEdges(file.getLong(40), edgeCount);
+        readEvents(file.getLong(48), eventCount);
+
+        arrayTimelines = true;
+    }
+
+    protected void readStrings(long offset) {
+        for (int i = 0; i < strings.length; i++) {
+            int length = file.getInt(offset);
+            ByteBuffer bytes = file.slice(offset + 4, length);
+
+            strings[i] = StandardCharsets.UTF_8.decode(bytes).toString();
+            offset += 4 + length;
+        }
+    }
+
+    protected void readNodes(long offset, int count) {
+        for (int i = 0; i < count; i++) {
+            long record = offset + (long) i * TemporalNetworkWriter.NODE_RECORD_SIZE;
+            ElementTimeline<NodeSnapshot> timeline = new ElementTimeline<>(file, file.getLong(record + 8),
+                    file.getInt(record + 4));
+
+            MappedNode node = new MappedNode(this, strings[file.getInt(record)], timeline,
+                    attributes(file.getLong(record + 16)));
+
+            timeline.element = node;
+            registerNode(node);
+        }
+    }
+
+    protected void readEdges(long offset, int count) {
+        for (int i = 0; i < count; i++) {
+            long record = offset + (long) i * TemporalNetworkWriter.EDGE_RECORD_SIZE;
+            ElementTimeline<EdgeSnapshot> timeline = new ElementTimeline<>(file, file.getLong(record + 20),
+                    file.getInt(record + 16));
+
+            edgeWindowCounts[i] = file.getInt(record + 16);
+            edgeWindowOffsets[i] = file.getLong(record + 20);
+
+            DefaultTemporalEdge edge = new DefaultTemporalEdge(this, strings[file.getInt(record)],
+                    nodes[file.getInt(record + 4)], nodes[file.getInt(record + 8)], file.getInt(record + 12) != 0,
+                    timeline, attributes(file.getLong(record + 28)));
+
+            timeline.element = edge;
+            registerEdge(edge);
+        }
+    }
+
+    protected void readEvents(long offset, int count) {
+        ((MappedEventLog) events).map(this, offset, count);
+    }
+
+    protected AttributesTimeline attributes(long offset) {
+        if (offset < 0) {
+            return new AttributesTimeline(keyDictionary, true);
+        }
+
+        internKeys(offset);
+
+        return new MappedAttributesTimeline(this, offset);
+    }
+
+    /**
+     * Put the keys of the attributes of an element in the dictionary, so that their indices are known before the
+     * attributes are loaded.
+     *
+     * @param offset the offset of the key records of the element
+     */
+    protected void internKeys(long offset) {
+        int count = file.getInt(offset);
+
+        for (int i = 0; i < count; i++) {
+            long record = offset + 4 + (long) i * TemporalNetworkWriter.KEY_RECORD_SIZE;
+            keyDictionary.intern(strings[file.getInt(record)]);
+        }
+    }
+
+    /**
+     * Decode a value of the file.
+     *
+     * @param tag     the type of the value
+     * @param payload the payload of the value
+     * @return the value
+     */
+    protected Object readValue(byte tag, long payload) {
+        switch (tag) {
+            case InlineValues.STRING:
+                return strings[(int) payload];
+            case InlineValues.OBJECT:
+                ByteBuffer buffer = file.slice(payload + 4, file.getInt(payload));
+                byte[] bytes = new byte[buffer.remaining()];
+
+                buffer.get(bytes);
+
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return objects.readObject();
+                } catch (IOException | ClassNotFoundException e) {
+                    throw new IllegalStateException("can not read value at " + payload, e);
+                }
+            default:
+                if (!InlineValues.isInline(tag)) {
+                    throw new IllegalStateException("unknown value type " + tag);
+                }
+
+                return InlineValues.valueOf(tag, payload);
+        }
+    }
+
+    public MappedFile getFile() {
+        return file;
+    }
+
+    /**
+     * Close the file. The parts of the network which have not been loaded yet remain readable, since the mapping
+     * is released only when the network is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Timeline of an element, whose values are the snapshots of the element at the start of each time-window.
+     */
+    protected static class ElementTimeline<T extends ElementSnapshot> extends MappedTemporalTimeline<T> {
+        protected DefaultTemporalElement<T> element;
+
+        ElementTimeline(MappedFile file, long offset, int count) {
+            super(file, offset, count, 16 * count);
+        }
+
+        @Override
+        protected void readValues(ByteBuffer buffer, double[] starts, Object[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = element.createSnapshot(starts[i]);
+            }
+        }
+    }
+
+    /**
+     * Timeline of the values of an attribute.
+     */
+    protected static class ValueTimeline extends MappedTemporalTimeline<Object> {
+        protected final MappedTemporalNetwork network;
+
+        ValueTimeline(MappedTemporalNetwork network, long offset, int count) {
+            super(network.file, offset, count, 25 * count);
+            this.network = network;
+        }
+
+        @Override
+        protected void readValues(ByteBuffer buffer, double[] starts, Object[] values) {
+            int payloads = buffer.position();
+            int tags = payloads + 8 * values.length;
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = network.readValue(buffer.get(tags + i), buffer.getLong(payloads + 8 * i));
+            }
+        }
+    }
+
+    /**
+     * Attributes of an element, whose timelines are read the first time they are needed. The values of each key
+     * are read when the key is used. Their keys are put in the dictionary when the network is opened.
+     */
+    protected static class MappedAttributesTimeline extends AttributesTimeline {
+        protected final MappedTemporalNetwork network;
+        protected final long offset;
+        protected volatile boolean loaded;
+
+        MappedAttributesTimeline(MappedTemporalNetwork network, long offset) {
+            super(network.getKeyDictionary(), true);
+
+            this.network = network;
+            this.offset = offset;
+            this.loaded = false;
+        }
+
+        protected void ensureLoaded() {
+            if (!loaded) {
+                load();
+            }
+        }
+
+        protected synchronized void load() {
+            if (loaded) {
+                return;
+            }
+
+            MappedFile file = network.file;
+            int count = file.getInt(offset);
+
+            for (int i = 0; i < count; i++) {
+                long record = offset + 4 + (long) i * TemporalNetworkWriter.KEY_RECORD_SIZE;
+                putTimeline(dictionary.getIndex(network.strings[file.getInt(record)]),
+                        new ValueTimeline(network, file.getLong(record + 8), file.getInt(record + 4)));
+            }
+
+            loaded = true;
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.AttributesTimeline#getTimeline(int)
+         */
+        @Override
+        protected TemporalTimeline<Object> getTimeline(int key) {
+            ensureLoaded();
+            return super.getTimeline(key);
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.AttributesTimeline#getKeySteps()
+         */
+        @Override
+        protected KeySteps getKeySteps() {
+            ensureLoaded();
+            return super.getKeySteps();
+        }
+
+        @Override
+        public void clearAttributesAt(double date) {
+            ensureLoaded();
+            super.clearAttributesAt(date);
+        }
+
+        @Override
+        public Set<String> getKeys() {
+            ensureLoaded();
+            return super.getKeys();
+        }
+    }
+
+    protected static class MappedNode extends DefaultTemporalNode {
+        MappedNode(MappedTemporalNetwork network, String nodeId, TemporalTimeline<NodeSnapshot> timeline,
+                   AttributesTimeline attributes) {
+            super(network, nodeId, timeline, attributes);
+        }
+
+        @Override
+        protected NeighbourTimeline createNeighbourTimeline() {
+            return new MappedNeighbourTimeline(this, (MappedTemporalNetwork) network);
+        }
+    }
+
+    /**
+     * Event log of a loaded network. The events of the file are read from the mapping when they are used, and
+     * only the events logged after the network has been loaded are kept on the heap, after them. The identifier
+     * of a key is its rank in the string table, so that keys are read as they are stored.
+     * <p/>
+     * The events of the file are copied to the heap only if an event older than the last of them is logged,
+     * since the log must then be sorted as a whole.
+     */
+    protected static class MappedEventLog extends EventLog {
+        protected MappedTemporalNetwork network;
+        protected long dateColumn, typeColumn, elementColumn, keyColumn, payloadColumn, tagColumn;
+
+        /**
+         * Count of events read from the file, 0 once they have been copied to the heap.
+         */
+        protected int mapped;
+        protected volatile boolean structureDatesLoaded;
+
+        MappedEventLog() {
+            mapped = 0;
+            structureDatesLoaded = true;
+        }
+
+        protected void map(MappedTemporalNetwork network, long offset, int count) {
+            this.network = network;
+
+            dateColumn = offset;
+            typeColumn = dateColumn + 8L * count;
+            elementColumn = typeColumn + count;
+            keyColumn = elementColumn + 4L * count;
+            payloadColumn = keyColumn + 4L * count;
+            tagColumn = payloadColumn + 8L * count;
+
+            for (String s : network.strings) {
+                keyId(s);
+            }
+
+            mapped = count;
+            structureDatesLoaded = count == 0;
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.EventLog#append(double, byte, int, java.lang.String, java.lang.Object)
+         */
+        @Override
+        public void append(double date, byte type, int element, String key, Object value) {
+            loadStructureDates();
+
+            if (mapped > 0 && date < dateAt(mapped - 1)) {
+                copyMapped();
+            }
+
+            super.append(date, type, element, key, value);
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.EventLog#ensureSorted()
+         */
+        @Override
+        protected void ensureSorted() {
+            loadStructureDates();
+            super.ensureSorted();
+        }
+
+        /**
+         * Collect the structure dates of the events of the file, the first time they are needed. This is done
+         * before any event is logged, so that these dates come first.
+         */
+        protected void loadStructureDates() {
+            if (!structureDatesLoaded) {
+                readStructureDates();
+            }
+        }
+
+        protected synchronized void readStructureDates() {
+            if (structureDatesLoaded) {
+                return;
+            }
+
+            for (int i = 0; i < mapped; i++) {
+                if (isStructural(typeAt(i))) {
+                    addStructureDate(dateAt(i));
+                }
+            }
+
+            structureDatesLoaded = true;
+        }
+
+        /**
+         * Copy the events of the file before the events of the heap.
+         */
+        protected synchronized void copyMapped() {
+            int count = mapped, capacity = count + Math.max(dates.length, DEFAULT_CAPACITY);
+            double[] copiedDates = new double[capacity];
+            byte[] copiedTypes = new byte[capacity];
+            int[] copiedElements = new int[capacity];
+            int[] copiedKeys = new int[capacity];
+            Object[] copiedValues = new Object[capacity];
+
+            for (int i = 0; i < count; i++) {
+                copiedDates[i] = dateAt(i);
+                copiedTypes[i] = typeAt(i);
+                copiedElements[i] = elementAt(i);
+                copiedKeys[i] = keyAt(i);
+                copiedValues[i] = valueAt(i);
+            }
+
+            System.arraycopy(dates, 0, copiedDates, count, size);
+            System.arraycopy(types, 0, copiedTypes, count, size);
+            System.arraycopy(elements, 0, copiedElements, count, size);
+            System.arraycopy(keys, 0, copiedKeys, count, size);
+            System.arraycopy(values, 0, copiedValues, count, size);
+
+            dates = copiedDates;
+            types = copiedTypes;
+            elements = copiedElements;
+            keys = copiedKeys;
+            values = copiedValues;
+            size += count;
+            sortedSize += count;
+            mapped = 0;
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.EventLog#size()
+         */
+        @Override
+        public int size() {
+            return mapped + size;
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.EventLog#dateAt(int)
+         */
+        @Override
+        protected double dateAt(int i) {
+            return i < mapped ? network.file.getDouble(dateColumn + 8L * i) : dates[i - mapped];
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.EventLog#typeAt(int)
+         */
+        @Override
+        protected byte typeAt(int i) {
+            return i < mapped ? network.file.get(typeColumn + i) : types[i - mapped];
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.EventLog#elementAt(int)
+         */
+        @Override
+        protected int elementAt(int i) {
+            return i < mapped ? network.file.getInt(elementColumn + 4L * i) : elements[i - mapped];
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.EventLog#keyAt(int)
+         */
+        @Override
+        protected int keyAt(int i) {
+            return i < mapped ? network.file.getInt(keyColumn + 4L * i) : keys[i - mapped];
+        }
+
+        /*
+         * @see org.graphstream.graph.temporalNetwork.EventLog#valueAt(int)
+         */
+        @Override
+        protected Object valueAt(int i) {
+            if (i >= mapped) {
+                return values[i - mapped];
+            }
+
+            return network.readValue(network.file.get(tagColumn + i), network.file.getLong(payloadColumn + 8L * i));
+        }
+    }
+
+    /**
+     * Incidence of a loaded node. Incident edges are registered when the edges are loaded, but the degrees and
+     * the index of the time-windows of the incident edges are built the first time they are used, from the
+     * time-windows stored in the file.
+     */
+    protected static class MappedNeighbourTimeline extends NeighbourTimeline {
+        protected final MappedTemporalNetwork network;
+        protected volatile boolean loaded;
+
+        MappedNeighbourTimeline(TemporalNode node, MappedTemporalNetwork network) {
+            super(node);
+
+            this.network = network;
+            this.loaded = false;
+        }
+
+        protected void ensureLoaded() {
+            if (!loaded) {
+                load();
+            }
+        }
+
+        /**
+         * Register the time-windows of the incident edges, as they are in the file. They are gathered and set at
+         * once, which sorts them once rather than inserting them edge by edge. Edges added after the network has
+         * been loaded are skipped : like the changes of the loaded edges, they go through
+         * {@link #edgeAddedAt(TemporalEdge, double)} and {@link #edgeRemovedAt(TemporalEdge, double, double)}
+         * once this timeline is loaded.
+         */
+        protected synchronized void load() {
+            if (loaded) {
+                return;
+            }
+
+            int count = 0;
+
+            for (int i = 0; i < outCount; i++) {
+                count += windowCount(outEdges[i]);
+            }
+
+            for (int i = 0; i < inCount; i++) {
+                count += isLoop(inEdges[i]) ? 0 : windowCount(inEdges[i]);
+            }
+
+            TemporalEdge[] edges = new TemporalEdge[count];
+            double[] starts = new double[count];
+            double[] ends = new double[count];
+            int n = 0;
+
+            for (int i = 0; i < outCount; i++) {
+                n = readWindows(outEdges[i], edges, starts, ends, n);
+            }
+
+            for (int i = 0; i < inCount; i++) {
+                if (!isLoop(inEdges[i])) {
+                    n = readWindows(inEdges[i], edges, starts, ends, n);
+                }
+            }
+
+            setEdgeWindows(edges, starts, ends, count);
+            loaded = true;
+        }
+
+        protected int windowCount(int edgeIndex) {
+            return edgeIndex < network.edgeWindowCounts.length ? network.edgeWindowCounts[edgeIndex] : 0;
+        }
+
+        /**
+         * Read the time-windows of an incident edge from the file.
+         *
+         * @param n position of the first window to fill
+         * @return the position following the windows of the edge
+         */
+        protected int readWindows(int edgeIndex, TemporalEdge[] edges, double[] starts, double[] ends, int n) {
+            int count = windowCount(edgeIndex);
+
+            if (count > 0) {
+                TemporalEdge edge = network.getTemporalEdge(edgeIndex);
+                MappedFile file = network.file;
+                long offset = network.edgeWindowOffsets[edgeIndex];
+
+                for (int i = 0; i < count; i++, n++) {
+                    edges[n] = edge;
+                    starts[n] = file.getDouble(offset + 8L * i);
+                    ends[n] = file.getDouble(offset + 8L * (count + i));
+                }
+            }
+
+            return n;
+        }
+
+        protected boolean isLoop(int edgeIndex) {
+            return edgeIndex < network.edgeWindowCounts.length
+                    && network.getTemporalEdge(edgeIndex).getSourceNode() == node;
+        }
+
+        @Override
+        public void edgeAddedAt(TemporalEdge edge, double date) {
+            ensureLoaded();
+            super.edgeAddedAt(edge, date);
+        }
+
+        @Override
+        public void edgeRemovedAt(TemporalEdge edge, double startDate, double endDate) {
+            ensureLoaded();
+            super.edgeRemovedAt(edge, startDate, endDate);
+        }
+
+        @Override
+        public int[] getEdgeIndicesAt(double date) {
+            ensureLoaded();
+            return super.getEdgeIndicesAt(date);
+        }
+
+        @Override
+        public int getDegreeAt(double date) {
+            ensureLoaded();
+            return super.getDegreeAt(date);
+        }
+
+        @Override
+        public int getOutDegreeAt(double date) {
+            ensureLoaded();
+            return super.getOutDegreeAt(date);
+        }
+
+        @Override
+        public int getInDegreeAt(double date) {
+            ensureLoaded();
+            return super.getInDegreeAt(date);
+        }
+
+        @Override
+        public int getDegreeChangeCount() {
+            ensureLoaded();
+            return super.getDegreeChangeCount();
+        }
+
+        @Override
+        public double getDegreeChangeDate(int i) {
+            ensureLoaded();
+            return super.getDegreeChangeDate(i);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Iterator;
+
+/**
+ * Array timeline whose time-windows are stored in a {@link MappedFile}, and loaded the first time the timeline is
+ * used.
+ * <p/>
+ * The time-windows are stored as a column of start-dates followed by a column of end-dates, which are copied in
+ * one bulk read each, followed by whatever the values of the timeline need, read by
+ * {@link #readValues(ByteBuffer, double[], Object[])}. Once loaded, the timeline behaves as an
+ * {@link ArrayTemporalTimeline} and can be changed : the file itself is never written.
+ */
+public abstract class MappedTemporalTimeline<T> extends ArrayTemporalTimeline<T> {
+    protected final MappedFile file;
+    protected final long offset;
+    protected final int count;
+    protected final int length;
+
+    protected volatile boolean loaded;
+
+    /**
+     * @param file   the file holding the time-windows
+     * @param offset offset of the columns of the time-windows in the file
+     * @param count  count of time-windows
+     * @param length length of the data of the timeline, starting at offset
+     */
+    protected MappedTemporalTimeline(MappedFile file, long offset, int count, int length) {
+        super(0);
+
+        this.file = file;
+        this.offset = offset;
+        this.count = count;
+        this.length = length;
+
+        loaded = count == 0;
+    }
+
+    /**
+     * Read the values associated with the time-windows.
+     *
+     * @param buffer the data of the timeline, positioned after the columns of dates
+     * @param starts start-dates of the time-windows
+     * @param values the array to fill
+     */
+    protected abstract void readValues(ByteBuffer buffer, double[] starts, Object[] values);
+
+    /**
+     * Check if the time-windows have been read from the file.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    protected void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    protected synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        ByteBuffer buffer = file.slice(offset, length);
+        DoubleBuffer dates = buffer.asDoubleBuffer();
+        double[] s = new double[count];
+        double[] e = new double[count];
+        Object[] v = new Object[count];
+
+        dates.get(s);
+        dates.get(e);
+        buffer.position(16 * count);
+        readValues(buffer, s, v);
+
+        starts = s;
+        ends = e;
+        values = v;
+        size = count;
+        loaded = true;
+    }
+
+    /*
+     * @see java.lang.Iterable#iterator()
+     */
+    @Override
+    public Iterator<TimeWindow> iterator() {
+        ensureLoaded();
+        return super.iterator();
+    }
+
+    @Override
+    public T getValueAt(double date) {
+        ensureLoaded();
+        return super.getValueAt(date);
+    }
+
+    @Override
+    public T getValueAt(TimeWindow timeWindow) {
+        ensureLoaded();
+        return super.getValueAt(timeWindow);
+    }
+
+    @Override
+    public T removeTimeWindow(TimeWindow timeWindow) {
+        ensureLoaded();
+        return super.removeTimeWindow(timeWindow);
+    }
+
+    @Override
+    public boolean existsAt(double date) {
+        ensureLoaded();
+        return super.existsAt(date);
+    }
+
+    @Override
+    public boolean hasOpenTimeWindow() {
+        ensureLoaded();
+        return super.hasOpenTimeWindow();
+    }
+
+    @Override
+    public void insertTimeWindow(double start, double end, T associatedValue) {
+        ensureLoaded();
+        super.insertTimeWindow(start, end, associatedValue);
+    }
+
+    @Override
+    public void startTimeWindow(double start, T associatedValue) {
+        ensureLoaded();
+        super.startTimeWindow(start, associatedValue);
+    }
+
+    @Override
+    public void endTimeWindow(double end) {
+        ensureLoaded();
+        super.endTimeWindow(end);
+    }
+
+    @Override
+    public TimeWindow getCeilingTimeWindow(double date) {
+        ensureLoaded();
+        return super.getCeilingTimeWindow(date);
+    }
+
+    @Override
+    public TimeWindow getFloorTimeWindow(double date) {
+        ensureLoaded();
+        return super.getFloorTimeWindow(date);
+    }
+
+    @Override
+    public int size() {
+        return loaded ? size : count;
+    }
+
+    @Override
+    public void trimToSize() {
+        if (loaded) {
+            super.trimToSize();
+        }
+    }
+}
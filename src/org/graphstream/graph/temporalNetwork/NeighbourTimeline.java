@@ -32,26 +32,404 @@
 package org.graphstream.graph.temporalNetwork;
 
 import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNetwork;
 import org.graphstream.graph.TemporalNode;
 
-import java.util.List;
+import java.util.Arrays;
 
 /**
+ * Incidence of a temporal node.
+ * <p/>
+ * Every edge which has ever been attached to the node is registered here, by index, in one of two arrays :
+ * leaving edges (the node is the source of the edge) and entering edges (the node is the target of the edge).
+ * A loop is registered in both arrays. Undirected edges are registered according to the order of their
+ * endpoints but are considered both leaving and entering when counting degrees.
+ * <p/>
+ * Degrees are indexed over time as step functions : each change of the degree is stored as a date, sorted
+ * in ascending order, with the degree, in-degree and out-degree holding from this date. They are updated each
+ * time an incident edge is added or removed, with {@link #edgeAddedAt(TemporalEdge, double)} and
+ * {@link #edgeRemovedAt(TemporalEdge, double, double)}, so getting a degree at a date is a binary search.
+ * <p/>
+ * The same updates feed an {@link IntervalIndex} of the time-windows of incident edges, so edges existing at a
+ * date are enumerated in O(log n + k), k being the degree at this date, rather than in the size of the history.
+ *
  * @since 08/02/16.
  */
 public class NeighbourTimeline {
+    protected static final int[] EMPTY = new int[0];
+
     protected final TemporalNode node;
-    protected List<TemporalEdge> edges;
+
+    /**
+     * Indices of the edges whose source is the node.
+     */
+    protected int[] outEdges;
+    protected int outCount;
+
+    /**
+     * Indices of the edges whose target is the node.
+     */
+    protected int[] inEdges;
+    protected int inCount;
+
+    /**
+     * Dates at which the degree of the node changes, in ascending order.
+     */
+    protected double[] changeDates;
+    /**
+     * Degrees of the node from the matching change date.
+     */
+    protected int[] degrees;
+    protected int[] inDegrees;
+    protected int[] outDegrees;
+    protected int changeCount;
+
+    /**
+     * Time-windows of the incident edges, labelled with the edge indices. Created with the first edge.
+     */
+    protected IntervalIndex windows;
 
     public NeighbourTimeline(TemporalNode node) {
         this.node = node;
+
+        outEdges = EMPTY;
+        inEdges = EMPTY;
+
+        changeDates = new double[0];
+        degrees = EMPTY;
+        inDegrees = EMPTY;
+        outDegrees = EMPTY;
+        changeCount = 0;
     }
 
     public void addEdge(TemporalEdge edge) {
-        edges.add(edge);
+        if (edge.getSourceNode() == node) {
+            outEdges = append(outEdges, outCount++, edge.getIndex());
+        }
+
+        if (edge.getTargetNode() == node) {
+            inEdges = append(inEdges, inCount++, edge.getIndex());
+        }
+    }
+
+    /**
+     * Update the degrees when an incident edge starts a time-window.
+     *
+     * @param edge an edge registered in this timeline
+     * @param date the start-date of the time-window
+     */
+    public void edgeAddedAt(TemporalEdge edge, double date) {
+        shift(edge, date, 1);
+
+        if (windows == null) {
+            windows = new IntervalIndex();
+        }
+
+        windows.add(date, Double.POSITIVE_INFINITY, edge.getIndex());
+    }
+
+    /**
+     * Update the degrees when an incident edge ends a time-window.
+     *
+     * @param edge      an edge registered in this timeline
+     * @param startDate the start-date of the time-window
+     * @param endDate   the end-date of the time-window
+     */
+    public void edgeRemovedAt(TemporalEdge edge, double startDate, double endDate) {
+        shift(edge, endDate, -1);
+
+        if (windows != null) {
+            windows.end(startDate, edge.getIndex(), endDate);
+        }
+    }
+
+    /**
+     * Set the time-windows of the incident edges at once, replacing the current degrees and index. Windows can
+     * be given in any order : the changes of degree are sorted once and the index is built once, so this costs
+     * O(n log n) for n windows, whereas adding them one by one out of order shifts the later changes each time.
+     *
+     * @param edges  edge of each time-window, registered in this timeline
+     * @param starts start-dates of the time-windows
+     * @param ends   end-dates of the time-windows, infinite if the window is not ended
+     * @param count  count of time-windows
+     */
+    public void setEdgeWindows(TemporalEdge[] edges, double[] starts, double[] ends, int count) {
+        double[] dates = new double[2 * count];
+        int[] order = new int[2 * count];
+        int[] ids = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            dates[2 * i] = starts[i];
+            dates[2 * i + 1] = ends[i];
+            order[2 * i] = 2 * i;
+            order[2 * i + 1] = 2 * i + 1;
+            ids[i] = edges[i].getIndex();
+        }
+
+        EventLog.sortByDate(order, dates);
+
+        changeDates = new double[Math.max(4, count)];
+        degrees = new int[changeDates.length];
+        inDegrees = new int[changeDates.length];
+        outDegrees = new int[changeDates.length];
+        changeCount = 0;
+
+        int degree = 0, in = 0, out = 0;
+
+        for (int k = 0; k < order.length && !Double.isInfinite(dates[order[k]]); ) {
+            double date = dates[order[k]];
+
+            for (; k < order.length && dates[order[k]] == date; k++) {
+                TemporalEdge edge = edges[order[k] >> 1];
+                int sign = (order[k] & 1) == 0 ? 1 : -1;
+
+                degree += sign;
+                in += inSign(edge, sign);
+                out += outSign(edge, sign);
+            }
+
+            int last = changeCount - 1;
+
+            if (last >= 0 ? degree != degrees[last] || in != inDegrees[last] || out != outDegrees[last]
+                    : degree != 0 || in != 0 || out != 0) {
+                insertChange(changeCount, date);
+
+                degrees[changeCount - 1] = degree;
+                inDegrees[changeCount - 1] = in;
+                outDegrees[changeCount - 1] = out;
+            }
+        }
+
+        windows = new IntervalIndex(count);
+        windows.addAll(starts, ends, ids, count);
+    }
+
+    /**
+     * Rebuild the degrees and the index from the time-windows of the edges registered in this timeline, with
+     * {@link #setEdgeWindows(TemporalEdge[], double[], double[], int)}. This is used when the time-windows of the
+     * edges have been changed without updating the incidence, as done during a batch of
+     * {@link DefaultTemporalNetwork}.
+     *
+     * @param network the network of the node, giving the edges from their index
+     */
+    public void rebuild(TemporalNetwork network) {
+        TemporalEdge[] edges = new TemporalEdge[16];
+        double[] starts = new double[16];
+        double[] ends = new double[16];
+        int count = 0;
+
+        for (int i = 0; i < outCount + inCount; i++) {
+            TemporalEdge edge = network.getTemporalEdge(i < outCount ? outEdges[i] : inEdges[i - outCount]);
+
+            //
+            // A loop is registered in both arrays but its time-windows are only counted once.
+            //
+            if (i >= outCount && edge.getSourceNode() == node) {
+                continue;
+            }
+
+            for (TimeWindow timeWindow : edge.getElementTimeline()) {
+                if (count == edges.length) {
+                    edges = Arrays.copyOf(edges, count << 1);
+                    starts = Arrays.copyOf(starts, count << 1);
+                    ends = Arrays.copyOf(ends, count << 1);
+                }
+
+                edges[count] = edge;
+                starts[count] = timeWindow.getStartDate();
+                ends[count] = timeWindow.getEndDate();
+                count++;
+            }
+        }
+
+        setEdgeWindows(edges, starts, ends, count);
+    }
+
+    /**
+     * Get the indices of the incident edges existing at a date.
+     *
+     * @param date the date
+     * @return indices of the edges, which may be empty
+     */
+    public int[] getEdgeIndicesAt(double date) {
+        return windows == null ? EMPTY : windows.getIdsAt(date);
     }
 
     public int getDegreeAt(double date) {
+        int i = changeIndex(date);
+        return i < 0 ? 0 : degrees[i];
+    }
+
+    public int getOutDegreeAt(double date) {
+        int i = changeIndex(date);
+        return i < 0 ? 0 : outDegrees[i];
+    }
+
+    public int getInDegreeAt(double date) {
+        int i = changeIndex(date);
+        return i < 0 ? 0 : inDegrees[i];
+    }
+
+    /**
+     * Count of time-windows of the incident edges in the index.
+     */
+    public int getWindowCount() {
+        return windows == null ? 0 : windows.size();
+    }
+
+    /**
+     * Count of dates at which the degree of the node changes.
+     */
+    public int getDegreeChangeCount() {
+        return changeCount;
+    }
+
+    public double getDegreeChangeDate(int i) {
+        return changeDates[i];
+    }
+
+    /**
+     * Count of edges registered in this timeline, whatever their dates.
+     */
+    public int getEdgeCount() {
+        return outCount + inCount;
+    }
+
+    public int getOutEdgeCount() {
+        return outCount;
+    }
+
+    public int getOutEdgeIndex(int i) {
+        return outEdges[i];
+    }
+
+    public int getInEdgeCount() {
+        return inCount;
+    }
+
+    public int getInEdgeIndex(int i) {
+        return inEdges[i];
+    }
+
+    public TemporalNode getNode() {
+        return node;
+    }
+
+    /**
+     * Get the index of the last change happening before or at a date.
+     *
+     * @param date
+     * @return the index of the change, or -1 if the degree never changes before date
+     */
+    protected int changeIndex(double date) {
+        if (changeCount == 0 || changeDates[changeCount - 1] <= date) {
+            return changeCount - 1;
+        }
+
+        int lo = 0, hi = changeCount - 2;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (changeDates[mid] <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        return hi;
+    }
+
+    /**
+     * Add the contribution of an edge to the degrees holding from a date.
+     *
+     * @param edge an incident edge
+     * @param date the date from which degrees change
+     * @param sign 1 if the edge is added, -1 if it is removed
+     */
+    protected void shift(TemporalEdge edge, double date, int sign) {
+        int in = inSign(edge, sign), out = outSign(edge, sign);
+        int i = changeIndex(date);
+
+        if (i < 0 || changeDates[i] != date) {
+            insertChange(++i, date);
+        }
+
+        for (int k = i; k < changeCount; k++) {
+            degrees[k] += sign;
+            inDegrees[k] += in;
+            outDegrees[k] += out;
+        }
+
+        if (i > 0 ? degrees[i] == degrees[i - 1] && inDegrees[i] == inDegrees[i - 1]
+                && outDegrees[i] == outDegrees[i - 1] : degrees[i] == 0 && inDegrees[i] == 0 && outDegrees[i] == 0) {
+            removeChange(i);
+        }
+    }
+
+    /**
+     * Contribution of an edge to the in-degree : undirected edges and loops count as entering edges.
+     */
+    protected int inSign(TemporalEdge edge, int sign) {
+        return !edge.isDirected() || edge.getTargetNode() == node ? sign : 0;
+    }
+
+    /**
+     * Contribution of an edge to the out-degree : undirected edges and loops count as leaving edges.
+     */
+    protected int outSign(TemporalEdge edge, int sign) {
+        return !edge.isDirected() || edge.getSourceNode() == node ? sign : 0;
+    }
+
+    /**
+     * Insert a change at a given index, holding the degrees of the previous change.
+     */
+    protected void insertChange(int i, double date) {
+        if (changeCount == changeDates.length) {
+            int capacity = Math.max(4, changeCount + (changeCount >> 1));
+
+            changeDates = Arrays.copyOf(changeDates, capacity);
+            degrees = Arrays.copyOf(degrees, capacity);
+            inDegrees = Arrays.copyOf(inDegrees, capacity);
+            outDegrees = Arrays.copyOf(outDegrees, capacity);
+        }
+
+        int moved = changeCount - i;
+
+        if (moved > 0) {
+            System.arraycopy(changeDates, i, changeDates, i + 1, moved);
+            System.arraycopy(degrees, i, degrees, i + 1, moved);
+            System.arraycopy(inDegrees, i, inDegrees, i + 1, moved);
+            System.arraycopy(outDegrees, i, outDegrees, i + 1, moved);
+        }
+
+        changeDates[i] = date;
+        degrees[i] = i > 0 ? degrees[i - 1] : 0;
+        inDegrees[i] = i > 0 ? inDegrees[i - 1] : 0;
+        outDegrees[i] = i > 0 ? outDegrees[i - 1] : 0;
+        changeCount++;
+    }
+
+    protected void removeChange(int i) {
+        int moved = changeCount - i - 1;
+
+        if (moved > 0) {
+            System.arraycopy(changeDates, i + 1, changeDates, i, moved);
+            System.arraycopy(degrees, i + 1, degrees, i, moved);
+            System.arraycopy(inDegrees, i + 1, inDegrees, i, moved);
+            System.arraycopy(outDegrees, i + 1, outDegrees, i, moved);
+        }
+
+        changeCount--;
+    }
+
+    protected static int[] append(int[] array, int size, int value) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, Math.max(4, size + (size >> 1)));
+        }
 
+        array[size] = value;
+        return array;
     }
 }
@@ -33,201 +33,270 @@ package org.graphstream.graph.temporalNetwork;
 
 import org.graphstream.graph.*;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * @since 08/02/16.
  */
 public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node {
-    protected final List<TemporalEdge> edges;
+    protected static final int ALL_EDGES = 0;
+    protected static final int LEAVING_EDGES = 1;
+    protected static final int ENTERING_EDGES = 2;
 
-    public NodeSnapshot(TemporalNode node, List<TemporalEdge> edges, double date) {
+    /**
+     * The graph snapshot this node belongs to, or null if this is a standalone view.
+     */
+    protected final GraphSnapshot graph;
+
+    public NodeSnapshot(TemporalNode node, double date) {
         super(node, date);
-        this.edges = edges;
+        graph = null;
+    }
+
+    public NodeSnapshot(GraphSnapshot graph, TemporalNode node, int index) {
+        super(node, graph.getSnapshotDate(), index);
+        this.graph = graph;
+    }
+
+    protected NeighbourTimeline neighbours() {
+        return element.getNeighbourTimeline();
+    }
+
+    protected TemporalEdge edge(int index) {
+        return element.getTemporalNetwork().getTemporalEdge(index);
+    }
+
+    /**
+     * Get the view of an edge at the snapshot date, from the graph snapshot if this node belongs to one.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T extends Edge> T edgeAt(TemporalEdge e) {
+        return (T) (graph == null ? e.getEdgeAt(snapshotDate) : graph.getEdgeSnapshot(e));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T extends Node> T nodeAt(TemporalNode n) {
+        return (T) (graph == null ? n.getNodeAt(snapshotDate) : graph.getNodeSnapshot(n));
+    }
+
+    /**
+     * Get the view of this node in the graph snapshot, which is this node if it belongs to a graph snapshot.
+     */
+    protected NodeSnapshot inGraph() {
+        return graph == null ? getGraph().<NodeSnapshot>getNode(getId()) : this;
     }
 
     @Override
     public Graph getGraph() {
-        return element.getTemporalNetwork().getGraphAt(snapshotDate);
+        return graph == null ? element.getTemporalNetwork().getGraphAt(snapshotDate) : graph;
     }
 
+    /*
+     * A graph snapshot leaves out the edges whose opposite node does not exist at the snapshot date, so it
+     * counts the degrees itself.
+     */
+
     @Override
     public int getDegree() {
-        int d = 0;
-
-        for (TemporalEdge e : edges) {
-            if (e.existsAt(snapshotDate))
-                d++;
-        }
-
-        return d;
+        return graph == null ? neighbours().getDegreeAt(snapshotDate) : graph.getDegree(index);
     }
 
     @Override
     public int getOutDegree() {
-        int d = 0;
-
-        for (TemporalEdge e : edges) {
-            if (e.getSourceNode() == element && e.existsAt(snapshotDate))
-                d++;
-        }
-
-        return d;
+        return graph == null ? neighbours().getOutDegreeAt(snapshotDate) : graph.getOutDegree(index);
     }
 
     @Override
     public int getInDegree() {
-        int d = 0;
-
-        for (TemporalEdge e : edges) {
-            if (e.getSourceNode() == element && e.existsAt(snapshotDate))
-                d++;
+        return graph == null ? neighbours().getInDegreeAt(snapshotDate) : graph.getInDegree(index);
+    }
+
+    /**
+     * Get an edge existing at the snapshot date between this node and another one.
+     *
+     * @param other the opposite node
+     * @param mode  one of {@link #ALL_EDGES}, {@link #LEAVING_EDGES} or {@link #ENTERING_EDGES}
+     * @return an edge, or null if there is no such edge
+     */
+    protected TemporalEdge getTemporalEdgeBetween(TemporalNode other, int mode) {
+        if (other == null) {
+            return null;
         }
 
-        return d;
-    }
+        EdgeIterator<Edge> it = new EdgeIterator<>(mode);
 
-    protected TemporalEdge getTemporalEdgeBetween(TemporalNode source, TemporalNode target, boolean directed) {
-        for (TemporalEdge e : edges) {
-            if (directed) {
-                if (e.getSourceNode() == source && e.getTargetNode() == target && e.existsAt(snapshotDate))
-                    return e;
-            } else {
-                if ((e.getSourceNode() == source || e.getTargetNode() == target) && e.existsAt(snapshotDate))
-                    return e;
-            }
+        while (it.hasNext()) {
+            TemporalEdge e = it.nextTemporalEdge();
+
+            if (opposite(e) == other)
+                return e;
         }
 
         return null;
     }
 
+    protected TemporalNode opposite(TemporalEdge e) {
+        return e.getSourceNode() == element ? e.getTargetNode() : e.getSourceNode();
+    }
+
     @Override
     public boolean hasEdgeToward(String id) {
         TemporalNode other = element.getTemporalNetwork().getTemporalNode(id);
-        return getTemporalEdgeBetween(element, other, true) != null;
+        return getTemporalEdgeBetween(other, LEAVING_EDGES) != null;
     }
 
     @Override
     public boolean hasEdgeFrom(String id) {
         TemporalNode other = element.getTemporalNetwork().getTemporalNode(id);
-        return getTemporalEdgeBetween(other, element, true) != null;
+        return getTemporalEdgeBetween(other, ENTERING_EDGES) != null;
     }
 
     @Override
     public boolean hasEdgeBetween(String id) {
         TemporalNode other = element.getTemporalNetwork().getTemporalNode(id);
-        return getTemporalEdgeBetween(other, other, false) != null;
+        return getTemporalEdgeBetween(other, ALL_EDGES) != null;
     }
 
     @Override
     public <T extends Edge> T getEdgeToward(String id) {
         TemporalNode other = element.getTemporalNetwork().getTemporalNode(id);
-        TemporalEdge e = getTemporalEdgeBetween(element, other, true);
+        TemporalEdge e = getTemporalEdgeBetween(other, LEAVING_EDGES);
 
-        return e == null ? null : (T) e.getEdgeAt(snapshotDate);
+        return e == null ? null : this.<T>edgeAt(e);
     }
 
     @Override
     public <T extends Edge> T getEdgeFrom(String id) {
         TemporalNode other = element.getTemporalNetwork().getTemporalNode(id);
-        TemporalEdge e = getTemporalEdgeBetween(other, element, true);
+        TemporalEdge e = getTemporalEdgeBetween(other, ENTERING_EDGES);
 
-        return e == null ? null : (T) e.getEdgeAt(snapshotDate);
+        return e == null ? null : this.<T>edgeAt(e);
     }
 
     @Override
     public <T extends Edge> T getEdgeBetween(String id) {
         TemporalNode other = element.getTemporalNetwork().getTemporalNode(id);
-        TemporalEdge e = getTemporalEdgeBetween(other, other, false);
+        TemporalEdge e = getTemporalEdgeBetween(other, ALL_EDGES);
 
-        return e == null ? null : (T) e.getEdgeAt(snapshotDate);
+        return e == null ? null : this.<T>edgeAt(e);
     }
 
     @Override
     public <T extends Edge> Iterator<T> getEdgeIterator() {
-        return new EdgeIterator<T>();
+        return new EdgeIterator<T>(ALL_EDGES);
     }
 
     @Override
     public <T extends Edge> Iterator<T> getEnteringEdgeIterator() {
-        return null;
+        return new EdgeIterator<T>(ENTERING_EDGES);
     }
 
     @Override
     public <T extends Edge> Iterator<T> getLeavingEdgeIterator() {
-        return null;
+        return new EdgeIterator<T>(LEAVING_EDGES);
     }
 
     @Override
     public <T extends Node> Iterator<T> getNeighborNodeIterator() {
-        return null;
+        return new NeighborNodeIterator<T>();
     }
 
     @Override
     public <T extends Edge> T getEdge(int i) {
-        return null;
+        return nth(new EdgeIterator<T>(ALL_EDGES), i);
     }
 
     @Override
     public <T extends Edge> T getEnteringEdge(int i) {
-        return null;
+        return nth(new EdgeIterator<T>(ENTERING_EDGES), i);
     }
 
     @Override
     public <T extends Edge> T getLeavingEdge(int i) {
-        return null;
+        return nth(new EdgeIterator<T>(LEAVING_EDGES), i);
+    }
+
+    protected static <T> T nth(Iterator<T> it, int i) {
+        if (i < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        while (i-- > 0 && it.hasNext()) {
+            it.next();
+        }
+
+        if (!it.hasNext()) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return it.next();
     }
 
+    /*
+     * Traversals index nodes, so they run on the graph snapshot.
+     */
+
     @Override
     public <T extends Node> Iterator<T> getBreadthFirstIterator() {
-        return null;
+        return new BreadthFirstIterator<T>(inGraph());
     }
 
     @Override
     public <T extends Node> Iterator<T> getBreadthFirstIterator(boolean directed) {
-        return null;
+        return new BreadthFirstIterator<T>(inGraph(), directed);
     }
 
     @Override
     public <T extends Node> Iterator<T> getDepthFirstIterator() {
-        return null;
+        return new DepthFirstIterator<T>(inGraph());
     }
 
     @Override
     public <T extends Node> Iterator<T> getDepthFirstIterator(boolean directed) {
-        return null;
+        return new DepthFirstIterator<T>(inGraph(), directed);
     }
 
     @Override
     public <T extends Edge> Iterable<T> getEachEdge() {
-        return null;
+        return new EdgeIterable<>(ALL_EDGES);
     }
 
     @Override
     public <T extends Edge> Iterable<T> getEachLeavingEdge() {
-        return null;
+        return new EdgeIterable<>(LEAVING_EDGES);
     }
 
     @Override
     public <T extends Edge> Iterable<T> getEachEnteringEdge() {
-        return null;
+        return new EdgeIterable<>(ENTERING_EDGES);
     }
 
     @Override
     public <T extends Edge> Collection<T> getEdgeSet() {
-        return null;
+        return collect(new EdgeIterator<T>(ALL_EDGES));
     }
 
     @Override
     public <T extends Edge> Collection<T> getLeavingEdgeSet() {
-        return null;
+        return collect(new EdgeIterator<T>(LEAVING_EDGES));
     }
 
     @Override
     public <T extends Edge> Collection<T> getEnteringEdgeSet() {
-        return null;
+        return collect(new EdgeIterator<T>(ENTERING_EDGES));
+    }
+
+    protected static <T> Collection<T> collect(Iterator<T> it) {
+        ArrayList<T> list = new ArrayList<>();
+
+        while (it.hasNext()) {
+            list.add(it.next());
+        }
+
+        return list;
     }
 
     @Override
@@ -237,7 +306,7 @@ public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node
 
     @Override
     public boolean hasEdgeToward(int index) throws IndexOutOfBoundsException {
-        return false;
+        return hasEdgeToward(getGraph().getNode(index).getId());
     }
 
     @Override
@@ -247,7 +316,7 @@ public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node
 
     @Override
     public boolean hasEdgeFrom(int index) throws IndexOutOfBoundsException {
-        return false;
+        return hasEdgeFrom(getGraph().getNode(index).getId());
     }
 
     @Override
@@ -257,7 +326,7 @@ public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node
 
     @Override
     public boolean hasEdgeBetween(int index) throws IndexOutOfBoundsException {
-        return false;
+        return hasEdgeBetween(getGraph().getNode(index).getId());
     }
 
     @Override
@@ -267,7 +336,7 @@ public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node
 
     @Override
     public <T extends Edge> T getEdgeToward(int index) throws IndexOutOfBoundsException {
-        return null;
+        return getEdgeToward(getGraph().getNode(index).getId());
     }
 
     @Override
@@ -277,7 +346,7 @@ public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node
 
     @Override
     public <T extends Edge> T getEdgeFrom(int index) throws IndexOutOfBoundsException {
-        return null;
+        return getEdgeFrom(getGraph().getNode(index).getId());
     }
 
     @Override
@@ -287,7 +356,7 @@ public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node
 
     @Override
     public <T extends Edge> T getEdgeBetween(int index) throws IndexOutOfBoundsException {
-        return null;
+        return getEdgeBetween(getGraph().getNode(index).getId());
     }
 
     @Override
@@ -295,47 +364,86 @@ public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node
         return getEdgeIterator();
     }
 
+    @Override
+    public String toString() {
+        return getId();
+    }
+
+    protected class EdgeIterable<T extends Edge> implements Iterable<T> {
+        protected final int mode;
+
+        protected EdgeIterable(int mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new EdgeIterator<>(mode);
+        }
+    }
+
+    /**
+     * Iterate over the edges existing at the snapshot date, in ascending order of the start-date of their
+     * current time-window. Edges are taken from the interval index of the node, so the iteration costs
+     * O(log n + k) rather than the size of the history of the node.
+     * When the node belongs to a graph snapshot, edges which are not part of this snapshot are skipped.
+     */
     protected class EdgeIterator<T extends Edge> implements Iterator<T> {
-        protected final Iterator<TemporalEdge> it;
-        protected boolean hasNext;
+        protected final int mode;
+        protected final int[] indices;
+        protected int position;
         protected TemporalEdge prev, next;
 
-        protected EdgeIterator() {
-            it = edges.iterator();
+        protected EdgeIterator(int mode) {
+            this.mode = mode;
+            indices = neighbours().getEdgeIndicesAt(snapshotDate);
+            position = 0;
             prev = next = null;
             findNext();
         }
 
         protected void findNext() {
-            prev = next;
+            next = null;
 
-            while (it.hasNext()) {
-                next = it.next();
+            while (position < indices.length) {
+                TemporalEdge e = edge(indices[position++]);
 
-                if (checkDirection() && next.existsAt(snapshotDate)) {
-                    hasNext = true;
+                if (checkDirection(e) && (graph == null || graph.contains(e))) {
+                    next = e;
                     return;
                 }
             }
+        }
 
-            next = null;
-            hasNext = false;
+        protected boolean checkDirection(TemporalEdge e) {
+            switch (mode) {
+                case LEAVING_EDGES:
+                    return !e.isDirected() || e.getSourceNode() == element;
+                case ENTERING_EDGES:
+                    return !e.isDirected() || e.getTargetNode() == element;
+                default:
+                    return true;
+            }
         }
 
         @Override
         public boolean hasNext() {
-            return hasNext;
+            return next != null;
         }
 
-        @Override
-        public T next() {
+        protected TemporalEdge nextTemporalEdge() {
             if (next == null)
-                return null;
-
-            Edge e = next.getEdgeAt(snapshotDate);
+                throw new NoSuchElementException();
 
+            prev = next;
             findNext();
-            return (T) e;
+
+            return prev;
+        }
+
+        @Override
+        public T next() {
+            return edgeAt(nextTemporalEdge());
         }
 
         @Override
@@ -344,9 +452,24 @@ public class NodeSnapshot extends ElementSnapshot<TemporalNode> implements Node
                 prev.removeAt(snapshotDate);
             }
         }
+    }
 
-        protected boolean checkDirection() {
-            return true;
+    protected class NeighborNodeIterator<T extends Node> implements Iterator<T> {
+        protected final EdgeIterator<Edge> edges = new EdgeIterator<>(ALL_EDGES);
+
+        @Override
+        public boolean hasNext() {
+            return edges.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return nodeAt(opposite(edges.nextTemporalEdge()));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
         }
     }
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Array timeline whose time-windows are stored in direct memory, in a block allocated by a {@link WindowSlab}.
+ * <p/>
+ * Dates are stored off-heap, as well as values which are booleans or numbers, encoded as {@link InlineValues}.
+ * Other values, strings and objects, can not leave the heap : they are kept in an array of references which is
+ * only created when the timeline holds such a value. A timeline of numbers thus costs a single object on the
+ * heap, whatever the count of its time-windows. Numbers are boxed each time they are read, except with
+ * {@link #getNumberAt(double)}.
+ * <p/>
+ * The block of a timeline is given back to the slab when the timeline grows, shrinks or is released.
+ */
+public class OffHeapTemporalTimeline<T> extends ArrayTemporalTimeline<T> implements NumericTimeline {
+    protected final WindowSlab slab;
+
+    /**
+     * Handle of the block of this timeline, -1 if the timeline has no block yet.
+     */
+    protected long handle;
+    protected int sizeClass;
+    protected int capacity;
+    protected ByteBuffer buffer;
+    protected int base;
+
+    /**
+     * Values which are not inline, at the index of their time-window. Null until such a value is stored.
+     */
+    protected Object[] references;
+
+    public OffHeapTemporalTimeline(WindowSlab slab) {
+        super(0);
+
+        this.slab = slab;
+
+        handle = -1;
+        capacity = 0;
+    }
+
+    public WindowSlab getSlab() {
+        return slab;
+    }
+
+    /**
+     * Give the block of this timeline back to the slab. The timeline is empty afterwards.
+     */
+    public void release() {
+        if (handle >= 0) {
+            slab.free(handle, sizeClass);
+        }
+
+        handle = -1;
+        capacity = 0;
+        buffer = null;
+        references = null;
+        size = 0;
+    }
+
+    /*
+     * @see org.graphstream.graph.temporalNetwork.NumericTimeline#getNumberAt(double)
+     */
+    @Override
+    public double getNumberAt(double date) {
+        int i = indexOf(date);
+
+        if (i < 0) {
+            return Double.NaN;
+        }
+
+        long payload = buffer.getLong(position(i) + WindowSlab.PAYLOAD);
+
+        switch (buffer.get(position(i) + WindowSlab.TAG)) {
+            case InlineValues.INTEGER:
+            case InlineValues.LONG:
+                return payload;
+            case InlineValues.FLOAT:
+                return Float.intBitsToFloat((int) payload);
+            case InlineValues.DOUBLE:
+                return Double.longBitsToDouble(payload);
+            default:
+                return Double.NaN;
+        }
+    }
+
+    @Override
+    public void trimToSize() {
+        if (size == 0) {
+            release();
+        } else if (WindowSlab.sizeClass(size) < sizeClass) {
+            resize(WindowSlab.sizeClass(size));
+        }
+    }
+
+    @Override
+    protected double startAt(int i) {
+        return buffer.getDouble(position(i) + WindowSlab.START);
+    }
+
+    @Override
+    protected double endAt(int i) {
+        return buffer.getDouble(position(i) + WindowSlab.END);
+    }
+
+    @Override
+    protected void setEndAt(int i, double end) {
+        buffer.putDouble(position(i) + WindowSlab.END, end);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T valueAt(int i) {
+        int position = position(i);
+        byte tag = buffer.get(position + WindowSlab.TAG);
+
+        if (!InlineValues.isInline(tag)) {
+            return (T) references[i];
+        }
+
+        return (T) InlineValues.valueOf(tag, buffer.getLong(position + WindowSlab.PAYLOAD));
+    }
+
+    @Override
+    protected void setValueAt(int i, Object value) {
+        int position = position(i);
+        byte tag = InlineValues.tagOf(value);
+
+        if (InlineValues.isInline(tag)) {
+            buffer.putLong(position + WindowSlab.PAYLOAD, InlineValues.payloadOf(value, tag));
+
+            if (references != null) {
+                references[i] = null;
+            }
+        } else {
+            if (references == null) {
+                references = new Object[capacity];
+            }
+
+            tag = InlineValues.OBJECT;
+            references[i] = value;
+        }
+
+        buffer.put(position + WindowSlab.TAG, tag);
+    }
+
+    @Override
+    protected void insert(int i, double start, double end, Object value) {
+        if (size == capacity) {
+            grow(size + 1);
+        }
+
+        for (int k = size; k > i; k--) {
+            copy(buffer, position(k - 1), buffer, position(k));
+        }
+
+        if (references != null && i < size) {
+            System.arraycopy(references, i, references, i + 1, size - i);
+        }
+
+        buffer.putDouble(position(i) + WindowSlab.START, start);
+        buffer.putDouble(position(i) + WindowSlab.END, end);
+        setValueAt(i, value);
+        size++;
+    }
+
+    @Override
+    protected void remove(int i) {
+        for (int k = i + 1; k < size; k++) {
+            copy(buffer, position(k), buffer, position(k - 1));
+        }
+
+        if (references != null) {
+            System.arraycopy(references, i + 1, references, i, size - i - 1);
+            references[size - 1] = null;
+        }
+
+        size--;
+    }
+
+    @Override
+    protected void grow(int minCapacity) {
+        resize(WindowSlab.sizeClass(minCapacity));
+    }
+
+    /**
+     * Move the time-windows to a new block of 2^newClass records.
+     */
+    protected void resize(int newClass) {
+        long newHandle = slab.allocate(newClass);
+        ByteBuffer newBuffer = slab.chunk(newHandle);
+        int newBase = WindowSlab.offset(newHandle);
+
+        for (int k = 0; k < size; k++) {
+            copy(buffer, position(k), newBuffer, newBase + k * WindowSlab.RECORD_SIZE);
+        }
+
+        if (handle >= 0) {
+            slab.free(handle, sizeClass);
+        }
+
+        handle = newHandle;
+        sizeClass = newClass;
+        capacity = 1 << newClass;
+        buffer = newBuffer;
+        base = newBase;
+
+        if (references != null) {
+            references = Arrays.copyOf(references, capacity);
+        }
+    }
+
+    protected int position(int i) {
+        return base + i * WindowSlab.RECORD_SIZE;
+    }
+
+    protected static void copy(ByteBuffer from, int fromPosition, ByteBuffer to, int toPosition) {
+        for (int k = 0; k < WindowSlab.RECORD_SIZE; k += 8) {
+            to.putLong(toPosition + k, from.getLong(fromPosition + k));
+        }
+    }
+}
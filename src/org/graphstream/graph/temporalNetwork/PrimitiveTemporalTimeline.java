@@ -0,0 +1,94 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+/**
+ * Array timeline storing its values in an array of primitives rather than in an array of objects.
+ * <p/>
+ * A boxed value costs an object header and a reference on top of the primitive itself, so storing the
+ * primitives divides the memory used by the values of a numeric attribute by three or four. Values are boxed
+ * again when they are read with {@link #getValueAt(double)}, but not when they are read with
+ * {@link #getNumberAt(double)}.
+ * <p/>
+ * A primitive timeline only accepts values of one type, see {@link #accepts(Object)}. {@link AttributesTimeline}
+ * chooses the timeline of an attribute from its first value, with {@link #forValue(Object)}, and falls back to
+ * a timeline of objects when a value of another type is set.
+ */
+public abstract class PrimitiveTemporalTimeline extends ArrayTemporalTimeline<Object> implements NumericTimeline {
+    protected PrimitiveTemporalTimeline(int initialCapacity) {
+        super(initialCapacity, false);
+    }
+
+    /**
+     * Create the primitive timeline suited to a value.
+     *
+     * @param value the first value of the timeline
+     * @return a new timeline, or null if the value is not a double, a long, an int or a boolean
+     */
+    public static PrimitiveTemporalTimeline forValue(Object value) {
+        if (value instanceof Double) {
+            return new DoubleTemporalTimeline();
+        } else if (value instanceof Integer) {
+            return new IntTemporalTimeline();
+        } else if (value instanceof Long) {
+            return new LongTemporalTimeline();
+        } else if (value instanceof Boolean) {
+            return new BooleanTemporalTimeline();
+        }
+
+        return null;
+    }
+
+    /**
+     * Check if a value can be stored in this timeline. Storing another value throws a
+     * {@link ClassCastException}.
+     */
+    public abstract boolean accepts(Object value);
+
+    /*
+     * @see org.graphstream.graph.temporalNetwork.NumericTimeline#getNumberAt(double)
+     */
+    @Override
+    public double getNumberAt(double date) {
+        int i = indexOf(date);
+        return i < 0 ? Double.NaN : numberAt(i);
+    }
+
+    /**
+     * Get the value of a slot as a double.
+     */
+    protected abstract double numberAt(int i);
+
+    @Override
+    protected void clearValue(int i) {
+    }
+}
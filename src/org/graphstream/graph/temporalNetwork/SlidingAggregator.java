@@ -0,0 +1,503 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Element;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNetwork;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.implementations.MultiGraph;
+
+import java.util.Arrays;
+
+/**
+ * Static graph aggregating a temporal network over a sliding period.
+ * <p/>
+ * At date t, the graph holds the nodes and the edges present at some date of [t - width;t[, an edge being
+ * present while it exists and both its endpoints exist, as in the snapshots of the network. The weight of an
+ * element, stored in an attribute, is the time it has been present during the period.
+ * <p/>
+ * The weights are maintained incrementally as the period slides, with two cursors over the {@link EventLog} :
+ * one at the end of the period, where the weight of the elements present grows, and one at the start of the
+ * period, where the weight of the elements present decreases. Each cursor keeps the set of the elements present
+ * at its date, and only the elements concerned by the events crossed by a cursor are read in the timelines of
+ * the network. Sliding the period forward thus costs the count of elements present at its ends plus the count
+ * of events it crosses, rather than the size of the history. Sliding it backward rebuilds the graph.
+ * <p/>
+ * The network must not be changed while it is aggregated, and the graph must not be changed outside of the
+ * aggregator.
+ */
+public class SlidingAggregator {
+    public static final String DEFAULT_WEIGHT_KEY = "weight";
+
+    protected final TemporalNetwork network;
+    protected final EventLog events;
+    protected final Graph graph;
+    protected final double width;
+    protected final String weightKey;
+
+    protected final Track nodes;
+    protected final Track edges;
+
+    /**
+     * Dates of the cursors, at the start and at the end of the period, and position of the next event each
+     * cursor will cross.
+     */
+    protected double trailDate, leadDate;
+    protected int trailEvent, leadEvent;
+
+    /**
+     * Aggregate a network over a period ending at a given date, in a new graph.
+     *
+     * @param network the temporal network
+     * @param width   the length of the period, strictly positive
+     * @param date    the end of the period, exclusive
+     */
+    public SlidingAggregator(TemporalNetwork network, double width, double date) {
+        this(network, width, date, new MultiGraph(String.format("aggregate@%s", date)), DEFAULT_WEIGHT_KEY);
+    }
+
+    /**
+     * Aggregate a network in a given empty graph, which has to accept several edges between the same nodes if
+     * the network contains such edges.
+     *
+     * @param network   the temporal network
+     * @param width     the length of the period, strictly positive
+     * @param date      the end of the period, exclusive
+     * @param graph     the graph receiving the aggregate
+     * @param weightKey the attribute holding the weights of the nodes and edges
+     */
+    public SlidingAggregator(TemporalNetwork network, double width, double date, Graph graph, String weightKey) {
+        if (!(width > 0) || Double.isInfinite(width)) {
+            throw new IllegalArgumentException("width must be a strictly positive finite number : " + width);
+        }
+
+        this.network = network;
+        this.events = network.getEventLog();
+        this.graph = graph;
+        this.width = width;
+        this.weightKey = weightKey;
+
+        nodes = new Track(network.getTotalNodeCount());
+        edges = new Track(network.getTotalEdgeCount());
+
+        reset(date);
+    }
+
+    /**
+     * The graph holding the aggregate of the current period. It must be considered as read-only.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * End of the current period, exclusive.
+     */
+    public double getDate() {
+        return leadDate;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Time a node has been present during the current period.
+     */
+    public double getNodeWeight(int node) {
+        return nodes.weights[node];
+    }
+
+    /**
+     * Time an edge has been present during the current period.
+     */
+    public double getEdgeWeight(int edge) {
+        return edges.weights[edge];
+    }
+
+    /**
+     * Slide the period so that it ends at a date, updating the graph.
+     *
+     * @param date the new end of the period
+     */
+    public void moveTo(double date) {
+        if (date < leadDate) {
+            graph.clear();
+            reset(date);
+        } else if (date > leadDate) {
+            slide(date);
+        }
+    }
+
+    /**
+     * Start over with the period ending at a date : both cursors are put at the start of the period, then
+     * the end cursor is moved to the end.
+     */
+    protected void reset(double date) {
+        double start = date - width;
+
+        nodes.clear();
+        edges.clear();
+
+        for (int i = 0; i < nodes.size; i++) {
+            nodes.init(i, isPresent(network.getTemporalNode(i), start), start);
+        }
+
+        for (int i = 0; i < edges.size; i++) {
+            edges.init(i, isPresent(network.getTemporalEdge(i), start), start);
+        }
+
+        trailDate = leadDate = start;
+        trailEvent = leadEvent = events.indexAfter(start);
+
+        slide(date);
+    }
+
+    protected void slide(double date) {
+        moveLead(date);
+        moveTrail(date - width);
+        update();
+    }
+
+    /**
+     * Move the cursor at the end of the period, adding the time spent by the elements present.
+     */
+    protected void moveLead(double date) {
+        nodes.grow(date - leadDate);
+        edges.grow(date - leadDate);
+
+        for (; leadEvent < events.size() && events.getDate(leadEvent) <= date; leadEvent++) {
+            crossEvent(leadEvent, date, true);
+        }
+
+        leadDate = date;
+    }
+
+    /**
+     * Move the cursor at the start of the period, removing the time spent by the elements present.
+     */
+    protected void moveTrail(double date) {
+        nodes.shrink(date - trailDate);
+        edges.shrink(date - trailDate);
+
+        for (; trailEvent < events.size() && events.getDate(trailEvent) <= date; trailEvent++) {
+            crossEvent(trailEvent, date, false);
+        }
+
+        trailDate = date;
+    }
+
+    /**
+     * Update the presence of the elements concerned by an event crossed by a cursor. An element appearing at
+     * the date of the event has only been present since then, and an element disappearing has only been
+     * present until then, so the time counted for the whole move is corrected.
+     *
+     * @param event the event
+     * @param date  the date the cursor is moved to
+     * @param lead  true for the cursor at the end of the period
+     */
+    protected void crossEvent(int event, double date, boolean lead) {
+        double eventDate = events.getDate(event);
+        int index = events.getElement(event);
+
+        switch (events.getType(event)) {
+            case EventLog.NODE_ADDED:
+            case EventLog.NODE_REMOVED:
+                TemporalNode node = network.getTemporalNode(index);
+                NeighbourTimeline neighbours = node.getNeighbourTimeline();
+
+                nodes.cross(index, isPresent(node, eventDate), eventDate, date, lead);
+
+                // only the edges existing just before the event, or from it, can change with the node
+
+                for (int e : neighbours.getEdgeIndicesAt(Math.nextAfter(eventDate, Double.NEGATIVE_INFINITY))) {
+                    crossEdge(e, eventDate, date, lead);
+                }
+
+                for (int e : neighbours.getEdgeIndicesAt(eventDate)) {
+                    crossEdge(e, eventDate, date, lead);
+                }
+
+                break;
+            case EventLog.EDGE_ADDED:
+            case EventLog.EDGE_REMOVED:
+                crossEdge(index, eventDate, date, lead);
+                break;
+        }
+    }
+
+    protected void crossEdge(int edge, double eventDate, double date, boolean lead) {
+        edges.cross(edge, isPresent(network.getTemporalEdge(edge), eventDate), eventDate, date, lead);
+    }
+
+    protected static boolean isPresent(TemporalNode node, double date) {
+        return node.existsAt(date);
+    }
+
+    protected static boolean isPresent(TemporalEdge edge, double date) {
+        return edge.existsAt(date) && edge.getSourceNode().existsAt(date) && edge.getTargetNode().existsAt(date);
+    }
+
+    /**
+     * Bring the graph up to date for the elements whose weight may have changed : the ones present at either
+     * end of the period, and the ones crossed by a cursor. Nodes are added before the edges, and removed
+     * after them.
+     */
+    protected void update() {
+        nodes.gatherChanges();
+        edges.gatherChanges();
+
+        for (int i = 0; i < nodes.changed.size; i++) {
+            int node = nodes.changed.items[i];
+
+            if (nodes.isInPeriod(node, trailDate, leadDate)) {
+                String id = network.getTemporalNode(node).getId();
+                Node n = graph.getNode(id);
+
+                setWeight(n == null ? graph.addNode(id) : n, nodes.weights[node]);
+            }
+        }
+
+        for (int i = 0; i < edges.changed.size; i++) {
+            int edge = edges.changed.items[i];
+            TemporalEdge temporalEdge = network.getTemporalEdge(edge);
+            Edge e = graph.getEdge(temporalEdge.getId());
+
+            if (edges.isInPeriod(edge, trailDate, leadDate)) {
+                if (e == null) {
+                    e = graph.addEdge(temporalEdge.getId(), temporalEdge.getSourceNode().getId(),
+                            temporalEdge.getTargetNode().getId(), temporalEdge.isDirected());
+                }
+
+                setWeight(e, edges.weights[edge]);
+            } else if (e != null) {
+                graph.removeEdge(e);
+            }
+        }
+
+        for (int i = 0; i < nodes.changed.size; i++) {
+            int node = nodes.changed.items[i];
+
+            if (!nodes.isInPeriod(node, trailDate, leadDate)) {
+                Node n = graph.getNode(network.getTemporalNode(node).getId());
+
+                if (n != null) {
+                    graph.removeNode(n);
+                }
+            }
+        }
+    }
+
+    protected void setWeight(Element e, double weight) {
+        e.setAttribute(weightKey, weight);
+    }
+
+    /**
+     * Presence and weights of the nodes, or of the edges.
+     */
+    protected static class Track {
+        final int size;
+        final double[] weights;
+
+        /**
+         * Presence at the date of each cursor, with the elements present at each cursor.
+         */
+        final boolean[] leadPresent;
+        final boolean[] trailPresent;
+        final IndexSet lead;
+        final IndexSet trail;
+
+        /**
+         * Date at which the element appeared at the end cursor if it is present there, or disappeared
+         * otherwise. Membership is decided with these dates rather than with the weights, which are sums of
+         * floating-point numbers.
+         */
+        final double[] leadSince;
+        final double[] leadUntil;
+
+        /**
+         * Elements crossed by a cursor since the last update, and elements to update.
+         */
+        final IndexSet crossed;
+        final IndexSet changed;
+
+        Track(int size) {
+            this.size = size;
+
+            weights = new double[size];
+            leadPresent = new boolean[size];
+            trailPresent = new boolean[size];
+            leadSince = new double[size];
+            leadUntil = new double[size];
+            lead = new IndexSet(size);
+            trail = new IndexSet(size);
+            crossed = new IndexSet(size);
+            changed = new IndexSet(size);
+        }
+
+        void clear() {
+            lead.clear();
+            trail.clear();
+            crossed.clear();
+        }
+
+        void init(int i, boolean present, double date) {
+            weights[i] = 0;
+            leadPresent[i] = trailPresent[i] = present;
+            leadSince[i] = date;
+            leadUntil[i] = Double.NEGATIVE_INFINITY;
+
+            if (present) {
+                lead.add(i);
+                trail.add(i);
+            }
+        }
+
+        void grow(double delta) {
+            for (int i = 0; i < lead.size; i++) {
+                weights[lead.items[i]] += delta;
+            }
+        }
+
+        void shrink(double delta) {
+            for (int i = 0; i < trail.size; i++) {
+                weights[trail.items[i]] -= delta;
+            }
+        }
+
+        void cross(int i, boolean present, double eventDate, double date, boolean atLead) {
+            if (atLead) {
+                if (present == leadPresent[i]) {
+                    return;
+                }
+
+                leadPresent[i] = present;
+
+                if (present) {
+                    weights[i] += date - eventDate;
+                    leadSince[i] = eventDate;
+                    lead.add(i);
+                } else {
+                    weights[i] -= date - eventDate;
+                    leadUntil[i] = eventDate;
+                    lead.remove(i);
+                }
+            } else {
+                if (present == trailPresent[i]) {
+                    return;
+                }
+
+                trailPresent[i] = present;
+
+                if (present) {
+                    weights[i] -= date - eventDate;
+                    trail.add(i);
+                } else {
+                    weights[i] += date - eventDate;
+                    trail.remove(i);
+                }
+            }
+
+            crossed.add(i);
+        }
+
+        boolean isInPeriod(int i, double start, double end) {
+            return leadPresent[i] ? leadSince[i] < end : leadUntil[i] > start;
+        }
+
+        /**
+         * Gather the elements to update in {@link #changed}. An element which has left the set of a cursor
+         * has been crossed, so it is not missed.
+         */
+        void gatherChanges() {
+            changed.clear();
+            changed.addAll(lead);
+            changed.addAll(trail);
+            changed.addAll(crossed);
+            crossed.clear();
+        }
+    }
+
+    /**
+     * Set of indices with constant time insertion, removal and membership test, enumerated through its array.
+     */
+    protected static class IndexSet {
+        final int[] items;
+        final int[] positions;
+        int size;
+
+        IndexSet(int capacity) {
+            items = new int[capacity];
+            positions = new int[capacity];
+            size = 0;
+
+            Arrays.fill(positions, -1);
+        }
+
+        void add(int i) {
+            if (positions[i] < 0) {
+                positions[i] = size;
+                items[size++] = i;
+            }
+        }
+
+        void remove(int i) {
+            int p = positions[i];
+
+            if (p >= 0) {
+                int last = items[--size];
+
+                items[p] = last;
+                positions[last] = p;
+                positions[i] = -1;
+            }
+        }
+
+        void addAll(IndexSet other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.items[i]);
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                positions[items[i]] = -1;
+            }
+
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the recently used {@link GraphSnapshot}, evicting the least recently used one when full.
+ * <p/>
+ * Snapshots are keyed by the start of their no-change interval, so all the dates of an interval share one
+ * entry. When the network changes at a date, the snapshots whose interval ends after this date are no longer
+ * valid and have to be removed with {@link #invalidateFrom(double)}.
+ */
+public class SnapshotCache {
+    public static final int DEFAULT_CAPACITY = 16;
+
+    protected final LinkedHashMap<Double, GraphSnapshot> snapshots;
+    protected int capacity;
+
+    public SnapshotCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum count of snapshots kept, 0 disables the cache
+     */
+    public SnapshotCache(int capacity) {
+        this.capacity = capacity;
+
+        snapshots = new LinkedHashMap<Double, GraphSnapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Double, GraphSnapshot> eldest) {
+                return size() > SnapshotCache.this.capacity;
+            }
+        };
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Change the maximum count of snapshots kept. The least recently used snapshots are evicted if the cache
+     * holds more snapshots than the new capacity.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+
+        Iterator<Double> it = snapshots.keySet().iterator();
+
+        while (snapshots.size() > capacity) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    /**
+     * Get the cached snapshot of a no-change interval, and mark it as recently used.
+     *
+     * @param startDate start of the no-change interval
+     * @return the snapshot, or null if it is not cached
+     */
+    public GraphSnapshot get(double startDate) {
+        return snapshots.get(startDate);
+    }
+
+    public void put(GraphSnapshot snapshot) {
+        if (capacity > 0) {
+            snapshots.put(snapshot.getStartDate(), snapshot);
+        }
+    }
+
+    /**
+     * Remove the snapshots which are changed by a modification of the network at a given date, that is the
+     * snapshots whose no-change interval ends after this date.
+     *
+     * @param date date of the modification
+     */
+    public void invalidateFrom(double date) {
+        Iterator<GraphSnapshot> it = snapshots.values().iterator();
+
+        while (it.hasNext()) {
+            if (it.next().getEndDate() > date) {
+                it.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        snapshots.clear();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Element;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalElement;
+import org.graphstream.graph.TemporalNetwork;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.implementations.MultiGraph;
+
+import java.util.Iterator;
+
+/**
+ * Mutable graph following a temporal network through time.
+ * <p/>
+ * The cursor holds a {@link Graph} which is the state of the network at the current date of the cursor : the
+ * nodes existing at this date, the edges existing at this date whose endpoints both exist, and their attributes.
+ * When the cursor moves to another date, forward or backward, only the elements concerned by the events of the
+ * {@link EventLog} between the two dates are updated, so that sweeping through a period costs the count of
+ * events of this period rather than the count of dates times the size of the graph.
+ * <p/>
+ * Each element concerned by an event is brought to its state at the new date, read in the timelines of the
+ * network, which makes moving forward and moving backward the same operation. The graph is a gs-core graph, so
+ * sinks can be registered on it to receive the changes as the cursor moves.
+ * <p/>
+ * The graph must not be changed outside of the cursor.
+ */
+public class SnapshotCursor {
+    protected final TemporalNetwork network;
+    protected final EventLog events;
+    protected final Graph graph;
+    protected double date;
+
+    /**
+     * Create a cursor at a given date. The state of the network at this date is fully built.
+     *
+     * @param network the temporal network
+     * @param date    the initial date of the cursor
+     */
+    public SnapshotCursor(TemporalNetwork network, double date) {
+        this(network, date, new MultiGraph(String.format("cursor@%s", date)));
+    }
+
+    /**
+     * Create a cursor building the state of the network in a given empty graph. The graph has to accept
+     * several edges between the same nodes if the network contains such edges.
+     */
+    public SnapshotCursor(TemporalNetwork network, double date, Graph graph) {
+        this.network = network;
+        this.events = network.getEventLog();
+        this.graph = graph;
+        this.date = date;
+
+        for (int i = 0; i < network.getTotalNodeCount(); i++) {
+            TemporalNode node = network.getTemporalNode(i);
+
+            if (node.existsAt(date)) {
+                copyAttributes(node, graph.addNode(node.getId()));
+            }
+        }
+
+        for (int i = 0; i < network.getTotalEdgeCount(); i++) {
+            updateEdge(network.getTemporalEdge(i));
+        }
+    }
+
+    /**
+     * The graph holding the state of the network at the current date. It must be considered as read-only.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public double getDate() {
+        return date;
+    }
+
+    /**
+     * Move the cursor to a date, updating the graph.
+     *
+     * @param target the new date, before or after the current one
+     * @return the count of events applied
+     */
+    public int moveTo(double target) {
+        int from, to;
+
+        if (target >= date) {
+            from = events.indexAfter(date);
+            to = events.indexAfter(target);
+        } else {
+            from = events.indexAfter(target);
+            to = events.indexAfter(date);
+        }
+
+        date = target;
+
+        for (int i = from; i < to; i++) {
+            apply(i);
+        }
+
+        return to - from;
+    }
+
+    /**
+     * Move the cursor to the date of the next event.
+     *
+     * @return false if there is no event after the current date, in which case the cursor does not move
+     */
+    public boolean next() {
+        double next = events.nextChangeAfter(date);
+
+        if (Double.isInfinite(next)) {
+            return false;
+        }
+
+        moveTo(next);
+        return true;
+    }
+
+    /**
+     * Move the cursor to the date of the last event before the current one. The state at this date includes
+     * the events of this date.
+     *
+     * @return false if there is no event before the current date, in which case the cursor does not move
+     */
+    public boolean previous() {
+        int i = events.indexFrom(date) - 1;
+
+        if (i < 0) {
+            return false;
+        }
+
+        moveTo(events.getDate(i));
+        return true;
+    }
+
+    /**
+     * Bring the element concerned by an event to its state at the current date.
+     */
+    protected void apply(int event) {
+        byte type = events.getType(event);
+        int index = events.getElement(event);
+
+        switch (type) {
+            case EventLog.NODE_ADDED:
+            case EventLog.NODE_REMOVED:
+                updateNode(network.getTemporalNode(index));
+                break;
+            case EventLog.EDGE_ADDED:
+            case EventLog.EDGE_REMOVED:
+                updateEdge(network.getTemporalEdge(index));
+                break;
+            case EventLog.NODE_ATTRIBUTE_SET:
+            case EventLog.NODE_ATTRIBUTE_REMOVED:
+                TemporalNode node = network.getTemporalNode(index);
+                updateAttribute(node, graph.getNode(node.getId()), events.getKey(event));
+                break;
+            case EventLog.EDGE_ATTRIBUTE_SET:
+            case EventLog.EDGE_ATTRIBUTE_REMOVED:
+                TemporalEdge edge = network.getTemporalEdge(index);
+                updateAttribute(edge, graph.getEdge(edge.getId()), events.getKey(event));
+                break;
+        }
+    }
+
+    protected void updateNode(TemporalNode node) {
+        Node n = graph.getNode(node.getId());
+        boolean exists = node.existsAt(date);
+
+        if (exists && n == null) {
+            copyAttributes(node, graph.addNode(node.getId()));
+
+            for (int e : node.getNeighbourTimeline().getEdgeIndicesAt(date)) {
+                updateEdge(network.getTemporalEdge(e));
+            }
+        } else if (!exists && n != null) {
+            graph.removeNode(n);
+        }
+    }
+
+    protected void updateEdge(TemporalEdge edge) {
+        Edge e = graph.getEdge(edge.getId());
+        boolean exists = edge.existsAt(date) && graph.getNode(edge.getSourceNode().getId()) != null
+                && graph.getNode(edge.getTargetNode().getId()) != null;
+
+        if (exists && e == null) {
+            e = graph.addEdge(edge.getId(), edge.getSourceNode().getId(), edge.getTargetNode().getId(),
+                    edge.isDirected());
+            copyAttributes(edge, e);
+        } else if (!exists && e != null) {
+            graph.removeEdge(e);
+        }
+    }
+
+    protected void updateAttribute(TemporalElement element, Element e, String key) {
+        if (e == null) {
+            return;
+        }
+
+        Object value = element.getAttributesTimeline().getAttributeAt(key, date);
+
+        if (value == null) {
+            e.removeAttribute(key);
+        } else {
+            setAttribute(e, key, value);
+        }
+    }
+
+    protected void copyAttributes(TemporalElement element, Element e) {
+        AttributesTimeline attributes = element.getAttributesTimeline();
+        Iterator<String> keys = attributes.getKeyIteratorAt(date);
+
+        while (keys.hasNext()) {
+            String key = keys.next();
+            setAttribute(e, key, attributes.getAttributeAt(key, date));
+        }
+    }
+
+    /**
+     * Set an attribute of the graph to a value of the network. The value is wrapped, so that a multi-valued
+     * attribute, stored as an array, is kept as one value rather than spread by gs-core.
+     */
+    protected static void setAttribute(Element e, String key, Object value) {
+        e.setAttribute(key, new Object[]{value});
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.TemporalNetwork;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Snapshots of a temporal network at regularly spaced dates, computed in parallel.
+ * <p/>
+ * The dates of the sweep are {@code start + i * step}, in [start;end[. They are split in ranges of consecutive
+ * dates between the threads of a {@link ForkJoinPool}, each task building the state of the network at the
+ * first date of its range and moving forward from there :
+ * <ul>
+ * <li>{@link #visit(Visitor, ForkJoinPool)} moves a {@link SnapshotCursor} from date to date, so that only the
+ * elements changed between two dates are updated, and hands the graph of the cursor to a visitor computing a
+ * result for each date ;</li>
+ * <li>{@link #snapshots(ForkJoinPool)} gives a {@link GraphSnapshot} for each date, the dates of a same
+ * no-change interval sharing the structure of a single snapshot, see {@link GraphSnapshot#at(double)}.</li>
+ * </ul>
+ * Ranges are large enough for the state built at their first date to be amortized over several dates, and
+ * small enough to keep all the threads of the pool busy.
+ * <p/>
+ * The network is only read, it must not be changed during the sweep. The snapshot cache of the network is not
+ * used, since it is not safe for concurrent use.
+ */
+public class SnapshotSweep {
+    /**
+     * Least count of dates handled by a task.
+     */
+    protected static final int MIN_DATES_PER_TASK = 8;
+    /**
+     * Count of tasks per thread of the pool, to balance the load when some ranges hold more changes.
+     */
+    protected static final int TASKS_PER_THREAD = 4;
+
+    protected final TemporalNetwork network;
+    protected final double start;
+    protected final double end;
+    protected final double step;
+    protected final int dateCount;
+
+    /**
+     * @param network the network
+     * @param start   first date of the sweep
+     * @param end     end of the sweep, exclusive
+     * @param step    interval between two dates of the sweep, strictly positive
+     * @throws IllegalArgumentException if the step is not strictly positive, or end is before start
+     */
+    public SnapshotSweep(TemporalNetwork network, double start, double end, double step) {
+        if (!(step > 0) || Double.isInfinite(step)) {
+            throw new IllegalArgumentException("step must be a strictly positive finite number : " + step);
+        }
+
+        if (!(end >= start) || Double.isInfinite(start) || Double.isInfinite(end)) {
+            throw new IllegalArgumentException(String.format("invalid sweep [%f;%f[", start, end));
+        }
+
+        long count = (long) Math.ceil((end - start) / step);
+
+        while (count > 0 && start + (count - 1) * step >= end) {
+            count--;
+        }
+
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many dates in the sweep : " + count);
+        }
+
+        this.network = network;
+        this.start = start;
+        this.end = end;
+        this.step = step;
+        this.dateCount = (int) count;
+    }
+
+    /**
+     * Count of dates of the sweep.
+     */
+    public int getDateCount() {
+        return dateCount;
+    }
+
+    /**
+     * Date of rank i in the sweep.
+     */
+    public double getDate(int i) {
+        return start + i * step;
+    }
+
+    /**
+     * Get the snapshots of the network at the dates of the sweep, using the common pool.
+     *
+     * @return the snapshots, in the order of the dates
+     */
+    public List<GraphSnapshot> snapshots() {
+        return snapshots(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get the snapshots of the network at the dates of the sweep.
+     *
+     * @param pool the pool building the snapshots
+     * @return the snapshots, in the order of the dates
+     */
+    public List<GraphSnapshot> snapshots(ForkJoinPool pool) {
+        GraphSnapshot[] snapshots = new GraphSnapshot[dateCount];
+        pool.invoke(new SweepTask(snapshots, null, 0, dateCount, getGrain(pool)));
+
+        return Collections.unmodifiableList(Arrays.asList(snapshots));
+    }
+
+    /**
+     * Compute a result on the graph of the network at each date of the sweep, using the common pool.
+     *
+     * @param visitor the computation
+     * @return the results, in the order of the dates
+     */
+    public <R> List<R> visit(Visitor<R> visitor) {
+        return visit(visitor, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute a result on the graph of the network at each date of the sweep. The visitor is called by several
+     * threads at the same time, with different graphs.
+     *
+     * @param visitor the computation
+     * @param pool    the pool running the computation
+     * @return the results, in the order of the dates
+     */
+    @SuppressWarnings("unchecked")
+    public <R> List<R> visit(Visitor<R> visitor, ForkJoinPool pool) {
+        Object[] results = new Object[dateCount];
+        pool.invoke(new SweepTask(results, visitor, 0, dateCount, getGrain(pool)));
+
+        return Collections.unmodifiableList((List<R>) Arrays.asList(results));
+    }
+
+    /**
+     * Count of dates under which a range is not split anymore.
+     */
+    protected int getGrain(ForkJoinPool pool) {
+        return Math.max(MIN_DATES_PER_TASK, dateCount / (pool.getParallelism() * TASKS_PER_THREAD));
+    }
+
+    /**
+     * Build the snapshots of a range of dates, from the snapshot of the first date.
+     */
+    protected void buildSnapshots(GraphSnapshot[] snapshots, int from, int to) {
+        EventLog events = network.getEventLog();
+        GraphSnapshot snapshot = null;
+
+        for (int i = from; i < to; i++) {
+            double date = getDate(i);
+
+            if (snapshot != null && snapshot.contains(date)) {
+                snapshot = snapshot.at(date);
+            } else {
+                snapshot = new GraphSnapshot(network, date, events.lastStructureChangeAt(date),
+                        events.nextStructureChangeAfter(date));
+            }
+
+            snapshots[i] = snapshot;
+        }
+    }
+
+    /**
+     * Visit a range of dates, moving a cursor from the first date to the next ones.
+     */
+    protected <R> void visitRange(Visitor<R> visitor, Object[] results, int from, int to) {
+        SnapshotCursor cursor = new SnapshotCursor(network, getDate(from));
+        results[from] = visitor.visit(getDate(from), cursor.getGraph());
+
+        for (int i = from + 1; i < to; i++) {
+            cursor.moveTo(getDate(i));
+            results[i] = visitor.visit(getDate(i), cursor.getGraph());
+        }
+    }
+
+    /**
+     * Computation done on the graph of the network at each date of a sweep.
+     *
+     * @param <R> type of the results
+     */
+    public interface Visitor<R> {
+        /**
+         * Compute the result of a date. The graph is reused for the next dates, so it must not be changed nor
+         * kept once this method returns.
+         *
+         * @param date  the date
+         * @param graph the state of the network at this date
+         * @return the result for this date
+         */
+        R visit(double date, Graph graph);
+    }
+
+    /**
+     * Handle a range of dates, splitting it in halves as long as it is larger than the grain.
+     */
+    protected class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        protected final Object[] results;
+        protected final Visitor<?> visitor;
+        protected final int from, to, grain;
+
+        /**
+         * @param visitor the visitor, or null to build snapshots in the results
+         */
+        SweepTask(Object[] results, Visitor<?> visitor, int from, int to, int grain) {
+            this.results = results;
+            this.visitor = visitor;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (from >= to) {
+                return;
+            }
+
+            if (to - from <= grain) {
+                if (visitor == null) {
+                    buildSnapshots((GraphSnapshot[]) results, from, to);
+                } else {
+                    visitRange(visitor, results, from, to);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SweepTask(results, visitor, from, mid, grain),
+                        new SweepTask(results, visitor, mid, to, grain));
+            }
+        }
+    }
+}
@@ -0,0 +1,640 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Centralities of the nodes of a temporal network computed on its journeys, see {@link TemporalPaths}, rather
+ * than on static snapshots.
+ * <p/>
+ * Journeys leave their source at the start of a period and must arrive before its end. For a node s, with N
+ * the count of nodes :
+ * <ul>
+ * <li>the <i>reachability ratio</i> is the fraction of the N - 1 other nodes that s reaches ;</li>
+ * <li>the <i>temporal closeness</i> is the average over the other nodes v of (end - a) / (end - start), a being
+ * the earliest arrival date at v, and v counting for 0 if it is not reached. It is 1 if s reaches all the nodes
+ * at once, and decreases as the arrivals get later ;</li>
+ * <li>the <i>temporal betweenness</i> is the fraction of the shortest-foremost journeys between the pairs of
+ * other nodes which go through s, averaged over the (N - 1)(N - 2) ordered pairs. Shortest-foremost journeys
+ * are the journeys arriving the earliest, and among them the ones with the fewest edges, which keeps the
+ * journeys finite when edges are taken instantly.</li>
+ * </ul>
+ * {@link #compute(ForkJoinPool)} gives the exact values with one search per source, in the manner of Brandes'
+ * algorithm : the shortest-foremost journeys from a source are counted as the states (node, arrival date) are
+ * settled by ascending date and count of edges, and the dependencies are accumulated in the reverse order.
+ * Sources are split between the threads of a pool.
+ * <p/>
+ * {@link #estimate(int, double, long, ForkJoinPool)} samples the searches instead. Betweenness is averaged
+ * over sources drawn at random. Closeness and reachability are averaged over targets drawn at random, each with
+ * one search by latest departure : a node s reaches a target by a date iff the latest departure from s towards
+ * the target by this date is after the start of the period, and for a date drawn uniformly in the period this
+ * happens with a probability equal to the closeness term of the target. The estimates are averages of bounded
+ * samples, so Hoeffding's inequality bounds their error for all the nodes at once.
+ */
+public class TemporalCentrality {
+    protected final TemporalPaths paths;
+    protected final FrozenTemporalNetwork network;
+    protected final double from;
+    protected final double to;
+
+    /**
+     * @param paths the journeys of the network
+     * @param from  date at which journeys leave their source
+     * @param to    date before which journeys must arrive, exclusive
+     */
+    public TemporalCentrality(TemporalPaths paths, double from, double to) {
+        if (!(to > from) || Double.isInfinite(from) || Double.isInfinite(to)) {
+            throw new IllegalArgumentException(String.format("invalid period [%f;%f[", from, to));
+        }
+
+        this.paths = paths;
+        this.network = paths.getNetwork();
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Compute the exact centralities, using the common pool.
+     */
+    public Centralities compute() {
+        return compute(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute the exact centralities, with one search per node.
+     *
+     * @param pool the pool running the searches
+     * @return the centralities of all the nodes
+     */
+    public Centralities compute(ForkJoinPool pool) {
+        int n = network.getNodeCount();
+        int[] sources = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            sources[i] = i;
+        }
+
+        Centralities centralities = new Centralities(n, 0, 0, 0);
+        double[] sums = pool.invoke(new SourceTask(sources, 0, n, centralities));
+
+        if (n > 2) {
+            for (int v = 0; v < n; v++) {
+                centralities.betweenness[v] = sums[v] / ((double) (n - 1) * (n - 2));
+            }
+        }
+
+        return centralities;
+    }
+
+    /**
+     * Estimate the centralities with samples, using the common pool.
+     */
+    public Centralities estimate(int samples, double delta, long seed) {
+        return estimate(samples, delta, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Estimate the centralities with a given count of sampled sources, and the same count of sampled targets.
+     * Samples are drawn with replacement, so the result only depends on the seed.
+     *
+     * @param samples count of sources, and of targets, to sample
+     * @param delta   probability allowed for the error bounds not to hold, in ]0;1[
+     * @param seed    seed of the random draws
+     * @param pool    the pool running the searches
+     * @return the estimated centralities, with the error bounds holding for all the nodes at once with
+     * probability at least 1 - delta, for each kind of centrality
+     */
+    public Centralities estimate(int samples, double delta, long seed, ForkJoinPool pool) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("at least one sample is needed : " + samples);
+        }
+
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("delta must be in ]0;1[ : " + delta);
+        }
+
+        int n = network.getNodeCount();
+        Random random = new Random(seed);
+        int[] sources = new int[samples];
+        int[] targets = new int[samples];
+        double[] deadlines = new double[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sources[i] = n == 0 ? 0 : random.nextInt(n);
+            targets[i] = n == 0 ? 0 : random.nextInt(n);
+            deadlines[i] = from + random.nextDouble() * (to - from);
+        }
+
+        // Each sample is in [0;1], scaled by N / (N - 1) to exclude the node itself from the average.
+        double scale = n > 1 ? (double) n / (n - 1) : 0;
+        double error = scale * Math.sqrt(Math.log(2.0 * Math.max(1, n) / delta) / (2.0 * samples));
+        Centralities centralities = new Centralities(n, error, error, error);
+
+        if (n < 2) {
+            return centralities;
+        }
+
+        double[] betweenness = pool.invoke(new SourceTask(sources, 0, samples, null));
+        double[] reached = pool.invoke(new TargetTask(targets, deadlines, 0, samples));
+
+        for (int v = 0; v < n; v++) {
+            centralities.betweenness[v] = n > 2 ? betweenness[v] / (n - 2) / samples * scale : 0;
+            centralities.closeness[v] = reached[2 * v] / samples * scale;
+            centralities.reachability[v] = reached[2 * v + 1] / samples * scale;
+        }
+
+        return centralities;
+    }
+
+    /**
+     * Sum the sampled closeness and reachability terms of the nodes for a range of targets.
+     *
+     * @return the sums, closeness at 2 * v and reachability at 2 * v + 1
+     */
+    protected double[] sampleTargets(int[] targets, double[] deadlines, int first, int last) {
+        double[] sums = new double[2 * network.getNodeCount()];
+        double beforeEnd = Math.nextAfter(to, Double.NEGATIVE_INFINITY);
+
+        for (int i = first; i < last; i++) {
+            TemporalPaths.Journeys byDeadline = paths.latestDeparture(targets[i], deadlines[i]);
+            TemporalPaths.Journeys byEnd = paths.latestDeparture(targets[i], beforeEnd);
+
+            for (int v = 0; v < network.getNodeCount(); v++) {
+                if (v == targets[i]) {
+                    continue;
+                }
+
+                if (byDeadline.getTime(v) >= from) {
+                    sums[2 * v] += 1;
+                }
+
+                if (byEnd.getTime(v) >= from) {
+                    sums[2 * v + 1] += 1;
+                }
+            }
+        }
+
+        return sums;
+    }
+
+    /**
+     * The centralities of the nodes, indexed by node, with the bound of the error of each kind of centrality.
+     * Bounds are 0 for exact centralities.
+     */
+    public static class Centralities {
+        protected final double[] closeness;
+        protected final double[] reachability;
+        protected final double[] betweenness;
+        protected final double closenessError;
+        protected final double reachabilityError;
+        protected final double betweennessError;
+
+        Centralities(int nodeCount, double closenessError, double reachabilityError, double betweennessError) {
+            this.closeness = new double[nodeCount];
+            this.reachability = new double[nodeCount];
+            this.betweenness = new double[nodeCount];
+            this.closenessError = closenessError;
+            this.reachabilityError = reachabilityError;
+            this.betweennessError = betweennessError;
+        }
+
+        public double getCloseness(int node) {
+            return closeness[node];
+        }
+
+        public double getReachability(int node) {
+            return reachability[node];
+        }
+
+        public double getBetweenness(int node) {
+            return betweenness[node];
+        }
+
+        public double getClosenessError() {
+            return closenessError;
+        }
+
+        public double getReachabilityError() {
+            return reachabilityError;
+        }
+
+        public double getBetweennessError() {
+            return betweennessError;
+        }
+    }
+
+    /**
+     * Search of the shortest-foremost journeys from a source, reusing its arrays from a source to the next.
+     * <p/>
+     * A prefix of a shortest-foremost journey is not always shortest-foremost itself : it may reach its last node
+     * later than the earliest arrival, because only this later arrival connects to the rest of the journey. The
+     * search is therefore run on the states (node, arrival date) rather than on the nodes, each state being
+     * labelled with the fewest edges reaching it. Replacing the prefix of a shortest-foremost journey by a journey
+     * with fewer edges reaching the same state would give a shorter journey, so its prefixes are the journeys
+     * with the fewest edges to their states, and the journeys are counted on the transitions between states which
+     * keep the labels minimal. The target state of a node is its earliest arrival.
+     * <p/>
+     * States are settled by ascending date and count of edges. A state is dropped when its node was reached
+     * before with fewer edges : as leaving later never arrives earlier, the earlier state reaches all it reaches
+     * no later and with fewer edges.
+     */
+    protected class Search {
+        /**
+         * Earliest arrival date at each node, and the fewest edges among the settled states of the node.
+         */
+        final double[] times;
+        final int[] hops;
+        /**
+         * Nodes in the order they are reached.
+         */
+        final int[] reached;
+        int reachedCount;
+
+        /**
+         * States, indexed by their order of discovery, with the count of journeys with the fewest edges reaching
+         * them and their dependency.
+         */
+        int[] stateNodes;
+        double[] stateTimes;
+        int[] stateHops;
+        double[] sigma;
+        double[] delta;
+        int stateCount;
+
+        /**
+         * Open addressing table of the states by node and date, -1 for empty slots, and the slot of each state.
+         */
+        int[] slots;
+        int[] stateSlots;
+
+        /**
+         * States in the order they are settled.
+         */
+        int[] order;
+        int settled;
+
+        /**
+         * Predecessors of the states, as linked lists : predHeads[x] is the first entry of state x, predNext[i]
+         * the entry following entry i, and predStates[i] the predecessor of entry i.
+         */
+        int[] predHeads;
+        int[] predNext;
+        int[] predStates;
+        int predCount;
+
+        final TemporalPaths.DateQueue queue;
+
+        Search() {
+            int n = network.getNodeCount();
+            int capacity = Math.max(16, n);
+
+            times = new double[n];
+            hops = new int[n];
+            reached = new int[n];
+            stateNodes = new int[capacity];
+            stateTimes = new double[capacity];
+            stateHops = new int[capacity];
+            sigma = new double[capacity];
+            delta = new double[capacity];
+            stateSlots = new int[capacity];
+            order = new int[capacity];
+            predHeads = new int[capacity];
+            slots = new int[Integer.highestOneBit(capacity - 1) << 2];
+            predNext = new int[16];
+            predStates = new int[16];
+            queue = new TemporalPaths.DateQueue();
+
+            Arrays.fill(times, Double.POSITIVE_INFINITY);
+            Arrays.fill(slots, -1);
+        }
+
+        /**
+         * Search from a source, then add its dependencies to the betweenness sums.
+         */
+        void run(int source, double[] betweenness) {
+            int start = addState(source, from, 0);
+            sigma[start] = 1;
+            queue.push(from, 0, start);
+
+            while (!queue.isEmpty()) {
+                double time = queue.peekKey();
+                int hop = queue.peekRank();
+                int x = queue.pop();
+                int u = stateNodes[x];
+
+                if (hop != stateHops[x]) {
+                    continue;
+                }
+
+                if (times[u] == Double.POSITIVE_INFINITY) {
+                    times[u] = time;
+                    hops[u] = hop;
+                    reached[reachedCount++] = u;
+                } else if (hop > hops[u]) {
+                    continue;
+                } else {
+                    hops[u] = hop;
+                }
+
+                order[settled++] = x;
+
+                for (int i = 0; i < network.getIncidentEdgeCount(u); i++) {
+                    int edge = network.getIncidentEdge(u, i);
+                    int v = network.getOpposite(edge, u);
+
+                    if (u == v || (network.isDirected(edge) && network.getSource(edge) != u)) {
+                        continue;
+                    }
+
+                    if (times[v] != Double.POSITIVE_INFINITY && hops[v] <= hop) {
+                        continue;
+                    }
+
+                    int window = network.getEdgeWindowFrom(edge, time);
+
+                    if (window == network.getEdgeWindowCount(edge)) {
+                        continue;
+                    }
+
+                    double departure = Math.max(time, network.getEdgeWindowStart(edge, window));
+                    double arrival = departure + paths.getDuration(edge, departure);
+
+                    if (arrival >= to) {
+                        continue;
+                    }
+
+                    int slot = findSlot(v, arrival);
+                    int y = slots[slot];
+
+                    if (y < 0) {
+                        y = addState(v, arrival, hop + 1);
+                        queue.push(arrival, hop + 1, y);
+                    } else if (hop + 1 < stateHops[y]) {
+                        stateHops[y] = hop + 1;
+                        sigma[y] = 0;
+                        predHeads[y] = -1;
+                        queue.push(arrival, hop + 1, y);
+                    }
+
+                    if (hop + 1 == stateHops[y]) {
+                        sigma[y] += sigma[x];
+                        addPredecessor(y, x);
+                    }
+                }
+            }
+
+            for (int i = settled - 1; i >= 0; i--) {
+                int y = order[i];
+                int v = stateNodes[y];
+                double dependency = delta[y];
+
+                if (v != source && stateTimes[y] == times[v]) {
+                    dependency += 1;
+                }
+
+                for (int p = predHeads[y]; p >= 0; p = predNext[p]) {
+                    int x = predStates[p];
+                    delta[x] += sigma[x] / sigma[y] * dependency;
+                }
+
+                if (v != source) {
+                    betweenness[v] += delta[y];
+                }
+            }
+        }
+
+        int addState(int node, double time, int hop) {
+            if (stateCount == stateNodes.length) {
+                int capacity = stateCount << 1;
+
+                stateNodes = Arrays.copyOf(stateNodes, capacity);
+                stateTimes = Arrays.copyOf(stateTimes, capacity);
+                stateHops = Arrays.copyOf(stateHops, capacity);
+                sigma = Arrays.copyOf(sigma, capacity);
+                delta = Arrays.copyOf(delta, capacity);
+                stateSlots = Arrays.copyOf(stateSlots, capacity);
+                order = Arrays.copyOf(order, capacity);
+                predHeads = Arrays.copyOf(predHeads, capacity);
+            }
+
+            if (2 * (stateCount + 1) > slots.length) {
+                rehash(slots.length << 1);
+            }
+
+            int x = stateCount++;
+            int slot = findSlot(node, time);
+
+            stateNodes[x] = node;
+            stateTimes[x] = time;
+            stateHops[x] = hop;
+            sigma[x] = 0;
+            delta[x] = 0;
+            predHeads[x] = -1;
+            slots[slot] = x;
+            stateSlots[x] = slot;
+
+            return x;
+        }
+
+        /**
+         * Slot of the state of a node at a date, or the empty slot where it would be added.
+         */
+        int findSlot(int node, double time) {
+            // Adding 0 turns -0.0 into 0.0, so that equal dates have the same bits.
+            long h = (Double.doubleToLongBits(time + 0.0) ^ node) * 0x9E3779B97F4A7C15L;
+            int mask = slots.length - 1, slot = (int) (h ^ (h >>> 32)) & mask;
+            int x;
+
+            while ((x = slots[slot]) >= 0 && (stateNodes[x] != node || stateTimes[x] != time)) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        void rehash(int capacity) {
+            slots = new int[capacity];
+            Arrays.fill(slots, -1);
+
+            for (int x = 0; x < stateCount; x++) {
+                int slot = findSlot(stateNodes[x], stateTimes[x]);
+
+                slots[slot] = x;
+                stateSlots[x] = slot;
+            }
+        }
+
+        void addPredecessor(int y, int x) {
+            if (predCount == predStates.length) {
+                predNext = Arrays.copyOf(predNext, predCount << 1);
+                predStates = Arrays.copyOf(predStates, predCount << 1);
+            }
+
+            predStates[predCount] = x;
+            predNext[predCount] = predHeads[y];
+            predHeads[y] = predCount++;
+        }
+
+        /**
+         * Closeness of the source of the last search.
+         */
+        double closeness(int source) {
+            double sum = 0;
+
+            for (int i = 0; i < reachedCount; i++) {
+                if (reached[i] != source) {
+                    sum += (to - times[reached[i]]) / (to - from);
+                }
+            }
+
+            return sum / (network.getNodeCount() - 1);
+        }
+
+        /**
+         * Clear the nodes and the states reached by the last search.
+         */
+        void reset() {
+            for (int i = 0; i < reachedCount; i++) {
+                times[reached[i]] = Double.POSITIVE_INFINITY;
+            }
+
+            for (int x = 0; x < stateCount; x++) {
+                slots[stateSlots[x]] = -1;
+            }
+
+            reachedCount = 0;
+            stateCount = 0;
+            settled = 0;
+            predCount = 0;
+        }
+    }
+
+    /**
+     * Run the searches of a range of sources, splitting it in halves down to a few sources, and sum their
+     * dependencies.
+     */
+    protected class SourceTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        protected static final int SPLIT_THRESHOLD = 4;
+
+        protected final int[] sources;
+        protected final int first, last;
+        /**
+         * Exact centralities receiving the closeness and reachability of the sources, null when sampling.
+         */
+        protected final Centralities centralities;
+
+        SourceTask(int[] sources, int first, int last, Centralities centralities) {
+            this.sources = sources;
+            this.first = first;
+            this.last = last;
+            this.centralities = centralities;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (last - first <= SPLIT_THRESHOLD) {
+                double[] betweenness = new double[network.getNodeCount()];
+                Search search = new Search();
+
+                for (int i = first; i < last; i++) {
+                    int source = sources[i];
+                    search.run(source, betweenness);
+
+                    if (centralities != null && network.getNodeCount() > 1) {
+                        centralities.closeness[source] = search.closeness(source);
+                        centralities.reachability[source] = (search.reachedCount - 1)
+                                / (double) (network.getNodeCount() - 1);
+                    }
+
+                    search.reset();
+                }
+
+                return betweenness;
+            }
+
+            int mid = (first + last) >>> 1;
+            SourceTask right = new SourceTask(sources, mid, last, centralities);
+
+            right.fork();
+
+            return add(new SourceTask(sources, first, mid, centralities).compute(), right.join());
+        }
+    }
+
+    /**
+     * Run the searches of a range of sampled targets, splitting it in halves down to a few targets.
+     */
+    protected class TargetTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        protected static final int SPLIT_THRESHOLD = 4;
+
+        protected final int[] targets;
+        protected final double[] deadlines;
+        protected final int first, last;
+
+        TargetTask(int[] targets, double[] deadlines, int first, int last) {
+            this.targets = targets;
+            this.deadlines = deadlines;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (last - first <= SPLIT_THRESHOLD) {
+                return sampleTargets(targets, deadlines, first, last);
+            }
+
+            int mid = (first + last) >>> 1;
+            TargetTask right = new TargetTask(targets, deadlines, mid, last);
+
+            right.fork();
+
+            return add(new TargetTask(targets, deadlines, first, mid).compute(), right.join());
+        }
+    }
+
+    protected static double[] add(double[] sums, double[] other) {
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] += other[i];
+        }
+
+        return sums;
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalElement;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.stream.Sink;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Record a stream of graph events in a temporal network.
+ * <p/>
+ * The date of the events is given by the step-begins events : events received after a step-begins are recorded
+ * at the date of this step. Events of a step are buffered and committed in a batch of the network when the
+ * next step begins, or when {@link #flush()} is called, which has to be done once the stream is over.
+ * <p/>
+ * Only the net change of each element over a step is recorded : an element added and removed during the same
+ * step is not recorded, as its time-window of presence would be empty. Attributes changes are recorded in the
+ * order they have been received. As in a graph, the attributes of an element are removed with the element, even
+ * if it is added again during the same step, and changes of attributes of elements which do not exist are
+ * ignored. Graph attributes are ignored, since a temporal network has no attribute.
+ * <p/>
+ * When the stream is in chronological order, which is the usual case, the network is built by appending
+ * time-windows. The sink enables array timelines on a network which has no element yet, see
+ * {@link DefaultTemporalNetwork#setArrayTimelines(boolean)}, since they append time-windows faster than trees.
+ * <p/>
+ * By default, the batch of the network is ended at each step, so the network can be read between two steps,
+ * as needed by live streams. Loading a large history is faster with a batch spanning many steps, see
+ * {@link #setBatchSize(int)} : the incidence of the nodes is then updated once for all the changes of the batch
+ * rather than for each change, see {@link DefaultTemporalNetwork#beginBatch()}.
+ */
+public class TemporalNetworkSink implements Sink {
+    protected static final byte NODE_SET = 0;
+    protected static final byte NODE_REMOVED = 1;
+    protected static final byte EDGE_SET = 2;
+    protected static final byte EDGE_REMOVED = 3;
+    protected static final byte NODE_CLEARED = 4;
+    protected static final byte EDGE_CLEARED = 5;
+    protected static final byte GRAPH_CLEARED = 6;
+
+    protected final DefaultTemporalNetwork network;
+    protected double date;
+
+    /**
+     * Final state of the elements changed during the current step, in the order they have been changed first.
+     */
+    protected final LinkedHashMap<String, Boolean> nodeStates;
+    protected final LinkedHashMap<String, EdgeState> edgeStates;
+    protected boolean cleared;
+
+    /**
+     * Attribute changes of the current step. An element added again after being removed during the step, or
+     * the removal of all the elements, is recorded there too, since it drops the attributes set before : such an
+     * element only keeps the attributes set after it has been added again. An element removed and not added
+     * again has its attributes cleared with its removal.
+     */
+    protected byte[] attributeOps;
+    protected String[] attributeElements;
+    protected String[] attributeKeys;
+    protected Object[] attributeValues;
+    protected int attributeCount;
+
+    /**
+     * Count of events after which the batch of the network is ended at the next step, and count of events
+     * committed in the current batch.
+     */
+    protected int batchSize;
+    protected int batchEvents;
+    protected boolean batching;
+
+    public TemporalNetworkSink(DefaultTemporalNetwork network) {
+        this(network, 0);
+    }
+
+    /**
+     * @param network     the network where events are recorded
+     * @param initialDate date of the events received before the first step-begins
+     */
+    public TemporalNetworkSink(DefaultTemporalNetwork network, double initialDate) {
+        this.network = network;
+        this.date = initialDate;
+
+        nodeStates = new LinkedHashMap<>();
+        edgeStates = new LinkedHashMap<>();
+        cleared = false;
+
+        attributeOps = new byte[64];
+        attributeElements = new String[64];
+        attributeKeys = new String[64];
+        attributeValues = new Object[64];
+        attributeCount = 0;
+
+        batchSize = 0;
+        batchEvents = 0;
+        batching = false;
+
+        if (network.getTotalNodeCount() == 0 && network.getTotalEdgeCount() == 0) {
+            network.setArrayTimelines(true);
+        }
+    }
+
+    public DefaultTemporalNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Date at which the events are currently recorded.
+     */
+    public double getDate() {
+        return date;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the count of events committed in a batch of the network before it is ended. The batch is ended at the
+     * first step beginning once this count is reached, or by {@link #flush()}. The network must not be read
+     * while a batch is open, see {@link DefaultTemporalNetwork#beginBatch()}.
+     *
+     * @param batchSize the count of events, 0 to end the batch at each step
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Commit the buffered events of the current step into the network, and end the current batch of the
+     * network.
+     */
+    public void flush() {
+        commitStep();
+        endBatch();
+    }
+
+    /**
+     * Commit the buffered events of the current step in the current batch of the network, starting a batch if
+     * none is open.
+     */
+    protected void commitStep() {
+        if (nodeStates.isEmpty() && edgeStates.isEmpty() && attributeCount == 0 && !cleared) {
+            return;
+        }
+
+        if (!batching) {
+            network.beginBatch();
+            batching = true;
+        }
+
+        batchEvents += nodeStates.size() + edgeStates.size() + attributeCount;
+
+        try {
+            commitNodes();
+            commitEdges();
+            commitAttributes();
+        } catch (RuntimeException e) {
+            endBatch();
+            throw e;
+        } finally {
+            nodeStates.clear();
+            edgeStates.clear();
+            cleared = false;
+
+            Arrays.fill(attributeElements, 0, attributeCount, null);
+            Arrays.fill(attributeKeys, 0, attributeCount, null);
+            Arrays.fill(attributeValues, 0, attributeCount, null);
+            attributeCount = 0;
+        }
+    }
+
+    protected void endBatch() {
+        if (batching) {
+            batching = false;
+            batchEvents = 0;
+
+            network.endBatch();
+        }
+    }
+
+    protected void commitNodes() {
+        if (cleared) {
+            for (int i = 0; i < network.getTotalNodeCount(); i++) {
+                TemporalNode node = network.getTemporalNode(i);
+
+                if (node.existsAt(date) && !nodeStates.containsKey(node.getId())) {
+                    nodeStates.put(node.getId(), Boolean.FALSE);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Boolean> e : nodeStates.entrySet()) {
+            TemporalNode node = network.getTemporalNode(e.getKey());
+            boolean existed = node != null && node.existsAt(date);
+
+            if (e.getValue() && !existed) {
+                if (node == null) {
+                    network.addNodeAt(e.getKey(), date);
+                } else {
+                    node.addAt(date);
+                }
+            } else if (!e.getValue() && existed) {
+                node.removeAt(date);
+                node.clearAttributesAt(date);
+            }
+        }
+    }
+
+    protected void commitEdges() {
+        if (cleared) {
+            for (int i = 0; i < network.getTotalEdgeCount(); i++) {
+                TemporalEdge edge = network.getTemporalEdge(i);
+
+                if (edge.existsAt(date) && !edgeStates.containsKey(edge.getId())) {
+                    edgeStates.put(edge.getId(), new EdgeState(false, null, null, false));
+                }
+            }
+        }
+
+        for (Map.Entry<String, EdgeState> e : edgeStates.entrySet()) {
+            EdgeState state = e.getValue();
+            TemporalEdge edge = network.getTemporalEdge(e.getKey());
+            boolean existed = edge != null && edge.existsAt(date);
+
+            if (state.exists && !existed) {
+                if (edge == null) {
+                    network.addEdgeAt(e.getKey(), state.source, state.target, state.directed, date);
+                } else {
+                    edge.addAt(date);
+                }
+            } else if (!state.exists && existed) {
+                edge.removeAt(date);
+                edge.clearAttributesAt(date);
+            }
+        }
+    }
+
+    protected void commitAttributes() {
+        for (int i = 0; i < attributeCount; i++) {
+            byte op = attributeOps[i];
+
+            if (op == GRAPH_CLEARED) {
+                clearAllAttributes();
+                continue;
+            }
+
+            boolean node = op == NODE_SET || op == NODE_REMOVED || op == NODE_CLEARED;
+            TemporalElement element = node ? network.getTemporalNode(attributeElements[i])
+                    : network.getTemporalEdge(attributeElements[i]);
+
+            if (element == null || !element.existsAt(date)) {
+                continue;
+            }
+
+            switch (op) {
+                case NODE_SET:
+                case EDGE_SET:
+                    element.setAttributeAt(attributeKeys[i], date, attributeValues[i]);
+                    break;
+                case NODE_CLEARED:
+                case EDGE_CLEARED:
+                    element.clearAttributesAt(date);
+                    break;
+                default:
+                    element.removeAttributeAt(attributeKeys[i], date);
+            }
+        }
+    }
+
+    /**
+     * Clear the attributes of the elements which exist after a graph-cleared event of the current step, that
+     * is the elements added again after it.
+     */
+    protected void clearAllAttributes() {
+        for (int i = 0; i < network.getTotalNodeCount(); i++) {
+            TemporalNode node = network.getTemporalNode(i);
+
+            if (node.existsAt(date)) {
+                node.clearAttributesAt(date);
+            }
+        }
+
+        for (int i = 0; i < network.getTotalEdgeCount(); i++) {
+            TemporalEdge edge = network.getTemporalEdge(i);
+
+            if (edge.existsAt(date)) {
+                edge.clearAttributesAt(date);
+            }
+        }
+    }
+
+    protected void bufferAttribute(byte op, String elementId, String key, Object value) {
+        if (attributeCount == attributeOps.length) {
+            int capacity = attributeCount << 1;
+
+            attributeOps = Arrays.copyOf(attributeOps, capacity);
+            attributeElements = Arrays.copyOf(attributeElements, capacity);
+            attributeKeys = Arrays.copyOf(attributeKeys, capacity);
+            attributeValues = Arrays.copyOf(attributeValues, capacity);
+        }
+
+        attributeOps[attributeCount] = op;
+        attributeElements[attributeCount] = elementId;
+        attributeKeys[attributeCount] = key;
+        attributeValues[attributeCount] = value;
+        attributeCount++;
+    }
+
+    @Override
+    public void stepBegins(String sourceId, long timeId, double step) {
+        if (step != date) {
+            commitStep();
+
+            if (batchEvents >= batchSize) {
+                endBatch();
+            }
+
+            date = step;
+        }
+    }
+
+    @Override
+    public void nodeAdded(String sourceId, long timeId, String nodeId) {
+        if (nodeStates.put(nodeId, Boolean.TRUE) == Boolean.FALSE) {
+            bufferAttribute(NODE_CLEARED, nodeId, null, null);
+        }
+    }
+
+    @Override
+    public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+        nodeStates.put(nodeId, Boolean.FALSE);
+    }
+
+    @Override
+    public void edgeAdded(String sourceId, long timeId, String edgeId, String fromNodeId, String toNodeId,
+                          boolean directed) {
+        EdgeState previous = edgeStates.put(edgeId, new EdgeState(true, fromNodeId, toNodeId, directed));
+
+        if (previous != null && !previous.exists) {
+            bufferAttribute(EDGE_CLEARED, edgeId, null, null);
+        }
+    }
+
+    @Override
+    public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+        EdgeState state = edgeStates.get(edgeId);
+
+        if (state == null) {
+            edgeStates.put(edgeId, new EdgeState(false, null, null, false));
+        } else {
+            state.exists = false;
+        }
+    }
+
+    @Override
+    public void graphCleared(String sourceId, long timeId) {
+        for (Map.Entry<String, Boolean> e : nodeStates.entrySet()) {
+            e.setValue(Boolean.FALSE);
+        }
+
+        for (EdgeState state : edgeStates.values()) {
+            state.exists = false;
+        }
+
+        cleared = true;
+        bufferAttribute(GRAPH_CLEARED, null, null, null);
+    }
+
+    @Override
+    public void nodeAttributeAdded(String sourceId, long timeId, String nodeId, String attribute, Object value) {
+        bufferAttribute(NODE_SET, nodeId, attribute, value);
+    }
+
+    @Override
+    public void nodeAttributeChanged(String sourceId, long timeId, String nodeId, String attribute, Object oldValue,
+                                     Object newValue) {
+        bufferAttribute(NODE_SET, nodeId, attribute, newValue);
+    }
+
+    @Override
+    public void nodeAttributeRemoved(String sourceId, long timeId, String nodeId, String attribute) {
+        bufferAttribute(NODE_REMOVED, nodeId, attribute, null);
+    }
+
+    @Override
+    public void edgeAttributeAdded(String sourceId, long timeId, String edgeId, String attribute, Object value) {
+        bufferAttribute(EDGE_SET, edgeId, attribute, value);
+    }
+
+    @Override
+    public void edgeAttributeChanged(String sourceId, long timeId, String edgeId, String attribute, Object oldValue,
+                                     Object newValue) {
+        bufferAttribute(EDGE_SET, edgeId, attribute, newValue);
+    }
+
+    @Override
+    public void edgeAttributeRemoved(String sourceId, long timeId, String edgeId, String attribute) {
+        bufferAttribute(EDGE_REMOVED, edgeId, attribute, null);
+    }
+
+    @Override
+    public void graphAttributeAdded(String sourceId, long timeId, String attribute, Object value) {
+    }
+
+    @Override
+    public void graphAttributeChanged(String sourceId, long timeId, String attribute, Object oldValue,
+                                      Object newValue) {
+    }
+
+    @Override
+    public void graphAttributeRemoved(String sourceId, long timeId, String attribute) {
+    }
+
+    protected static class EdgeState {
+        boolean exists;
+        final String source;
+        final String target;
+        final boolean directed;
+
+        EdgeState(boolean exists, String source, String target, boolean directed) {
+            this.exists = exists;
+            this.source = source;
+            this.target = target;
+            this.directed = directed;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalElement;
+import org.graphstream.graph.TemporalNetwork;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.stream.SourceBase;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+
+/**
+ * Replay the history of a temporal network as a stream of graph events, sent to the sinks of this source.
+ * <p/>
+ * The replay starts with the state of the network at a date, and then follows the {@link EventLog} of the
+ * network, so no intermediate graph is built : the source only keeps which elements have been sent, that is
+ * one bit per element, and the events of the current date. Events are grouped in steps : a step begins at each
+ * date of event, or, if a step width is given, at each multiple of this width after the start of the replay.
+ * <p/>
+ * Events are sent so that the sinks always see a consistent graph : an edge is sent when it exists and both of
+ * its endpoints are sent, and the edges of a node are removed before the node. Changes of attributes are sent
+ * with the value of the attribute at the date of the event, once per element and key for each date, and only if
+ * the value has actually changed.
+ */
+public class TemporalNetworkSource extends SourceBase {
+    protected static final int NODE = 0;
+    protected static final int EDGE = 1;
+
+    protected final TemporalNetwork network;
+    protected final EventLog events;
+    protected double stepWidth;
+
+    protected final BitSet nodes;
+    protected final BitSet edges;
+
+    /**
+     * Elements and attributes already sent at the current date.
+     */
+    protected final LongSet sentAtDate;
+
+    protected int position;
+    protected double date;
+    protected double stepOrigin;
+    protected double step;
+
+    public TemporalNetworkSource(TemporalNetwork network) {
+        this(network, String.format("temporal-network@%x", System.identityHashCode(network)));
+    }
+
+    public TemporalNetworkSource(TemporalNetwork network, String sourceId) {
+        super(sourceId);
+
+        this.network = network;
+        this.events = network.getEventLog();
+
+        stepWidth = 0;
+        nodes = new BitSet();
+        edges = new BitSet();
+        sentAtDate = new LongSet();
+    }
+
+    /**
+     * Width of the steps. With a positive width, events are batched in steps beginning at each multiple of the
+     * width after the start of the replay. With a width of 0, a step begins at each date of event.
+     */
+    public void setStepWidth(double stepWidth) {
+        if (stepWidth < 0) {
+            throw new IllegalArgumentException("step width must be positive");
+        }
+
+        this.stepWidth = stepWidth;
+    }
+
+    public double getStepWidth() {
+        return stepWidth;
+    }
+
+    /**
+     * Date of the last replayed event, or of the start of the replay.
+     */
+    public double getDate() {
+        return date;
+    }
+
+    /**
+     * Replay the history of the network between two dates : the state of the network at the first date, and
+     * then the events in ]from;to].
+     *
+     * @param from date of the initial state
+     * @param to   date of the last events
+     */
+    public void replay(double from, double to) {
+        begin(from);
+
+        boolean more;
+
+        do {
+            more = nextStep(to);
+        } while (more);
+    }
+
+    /**
+     * Start a replay, sending the state of the network at a date. If a replay has been started before, a
+     * graph-cleared event is sent first.
+     *
+     * @param from date of the initial state
+     */
+    public void begin(double from) {
+        if (!nodes.isEmpty()) {
+            sendGraphCleared(sourceId);
+        }
+
+        nodes.clear();
+        edges.clear();
+        sentAtDate.clear();
+
+        date = from;
+        stepOrigin = from;
+        step = from;
+        position = events.indexAfter(from);
+
+        sendStepBegins(sourceId, from);
+
+        for (int i = 0; i < network.getTotalNodeCount(); i++) {
+            TemporalNode node = network.getTemporalNode(i);
+
+            if (node.existsAt(from)) {
+                addNode(node);
+            }
+        }
+
+        for (int i = 0; i < network.getTotalEdgeCount(); i++) {
+            updateEdge(network.getTemporalEdge(i));
+        }
+    }
+
+    /**
+     * Send the events of the next step.
+     *
+     * @param to date after which events are not sent
+     * @return false if there is no more event until this date
+     */
+    public boolean nextStep(double to) {
+        if (position >= events.size() || events.getDate(position) > to) {
+            return false;
+        }
+
+        step = stepOf(events.getDate(position));
+        sendStepBegins(sourceId, step);
+
+        while (position < events.size() && events.getDate(position) <= to
+                && stepOf(events.getDate(position)) == step) {
+            double eventDate = events.getDate(position);
+
+            if (eventDate != date) {
+                date = eventDate;
+                sentAtDate.clear();
+            }
+
+            apply(position++);
+        }
+
+        return true;
+    }
+
+    protected double stepOf(double eventDate) {
+        if (stepWidth <= 0) {
+            return eventDate;
+        }
+
+        return stepOrigin + Math.floor((eventDate - stepOrigin) / stepWidth) * stepWidth;
+    }
+
+    protected void apply(int event) {
+        int index = events.getElement(event);
+
+        switch (events.getType(event)) {
+            case EventLog.NODE_ADDED:
+            case EventLog.NODE_REMOVED:
+                updateNode(network.getTemporalNode(index));
+                break;
+            case EventLog.EDGE_ADDED:
+            case EventLog.EDGE_REMOVED:
+                updateEdge(network.getTemporalEdge(index));
+                break;
+            case EventLog.NODE_ATTRIBUTE_SET:
+            case EventLog.NODE_ATTRIBUTE_REMOVED:
+                if (nodes.get(index)) {
+                    updateAttribute(NODE, network.getTemporalNode(index), events.getKeyId(event));
+                }
+                break;
+            case EventLog.EDGE_ATTRIBUTE_SET:
+            case EventLog.EDGE_ATTRIBUTE_REMOVED:
+                if (edges.get(index)) {
+                    updateAttribute(EDGE, network.getTemporalEdge(index), events.getKeyId(event));
+                }
+                break;
+        }
+    }
+
+    protected void updateNode(TemporalNode node) {
+        boolean exists = node.existsAt(date);
+
+        if (exists && !nodes.get(node.getIndex())) {
+            addNode(node);
+
+            for (int e : node.getNeighbourTimeline().getEdgeIndicesAt(date)) {
+                updateEdge(network.getTemporalEdge(e));
+            }
+        } else if (!exists && nodes.get(node.getIndex())) {
+            NeighbourTimeline neighbours = node.getNeighbourTimeline();
+
+            // the sent edges of the node existed just before the date, or have been added at the date
+
+            for (int e : neighbours.getEdgeIndicesAt(Math.nextAfter(date, Double.NEGATIVE_INFINITY))) {
+                removeEdge(network.getTemporalEdge(e));
+            }
+
+            for (int e : neighbours.getEdgeIndicesAt(date)) {
+                removeEdge(network.getTemporalEdge(e));
+            }
+
+            nodes.clear(node.getIndex());
+            sendNodeRemoved(sourceId, node.getId());
+        }
+    }
+
+    protected void addNode(TemporalNode node) {
+        nodes.set(node.getIndex());
+        sentAtDate.add(key(NODE, node.getIndex(), -1));
+        sendNodeAdded(sourceId, node.getId());
+
+        Iterator<String> keys = node.getAttributesTimeline().getKeyIteratorAt(date);
+
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = node.getAttributesTimeline().getAttributeAt(key, date);
+
+            sendNodeAttributeAdded(sourceId, node.getId(), key, value);
+        }
+    }
+
+    protected void updateEdge(TemporalEdge edge) {
+        boolean exists = edge.existsAt(date) && nodes.get(edge.getSourceNode().getIndex())
+                && nodes.get(edge.getTargetNode().getIndex());
+
+        if (exists && !edges.get(edge.getIndex())) {
+            edges.set(edge.getIndex());
+            sentAtDate.add(key(EDGE, edge.getIndex(), -1));
+            sendEdgeAdded(sourceId, edge.getId(), edge.getSourceNode().getId(), edge.getTargetNode().getId(),
+                    edge.isDirected());
+
+            Iterator<String> keys = edge.getAttributesTimeline().getKeyIteratorAt(date);
+
+            while (keys.hasNext()) {
+                String key = keys.next();
+                Object value = edge.getAttributesTimeline().getAttributeAt(key, date);
+
+                sendEdgeAttributeAdded(sourceId, edge.getId(), key, value);
+            }
+        } else if (!exists) {
+            removeEdge(edge);
+        }
+    }
+
+    protected void removeEdge(TemporalEdge edge) {
+        if (edges.get(edge.getIndex())) {
+            edges.clear(edge.getIndex());
+            sendEdgeRemoved(sourceId, edge.getId());
+        }
+    }
+
+    /**
+     * Send the change of an attribute between the instant before the current date and the current date. This
+     * is done once per element and key for a date, and not at all if the element has been added at this date,
+     * since its attributes have been sent with it.
+     */
+    protected void updateAttribute(int kind, TemporalElement element, int keyId) {
+        int index = element.getIndex();
+
+        if (sentAtDate.contains(key(kind, index, -1)) || !sentAtDate.add(key(kind, index, keyId))) {
+            return;
+        }
+
+        String key = events.getKeyName(keyId);
+        AttributesTimeline attributes = element.getAttributesTimeline();
+        Object oldValue = attributes.getAttributeAt(key, Math.nextAfter(date, Double.NEGATIVE_INFINITY));
+        Object newValue = attributes.getAttributeAt(key, date);
+
+        if (oldValue == null ? newValue == null : sameValue(oldValue, newValue)) {
+            return;
+        }
+
+        if (kind == NODE) {
+            if (oldValue == null) {
+                sendNodeAttributeAdded(sourceId, element.getId(), key, newValue);
+            } else if (newValue == null) {
+                sendNodeAttributeRemoved(sourceId, element.getId(), key);
+            } else {
+                sendNodeAttributeChanged(sourceId, element.getId(), key, oldValue, newValue);
+            }
+        } else {
+            if (oldValue == null) {
+                sendEdgeAttributeAdded(sourceId, element.getId(), key, newValue);
+            } else if (newValue == null) {
+                sendEdgeAttributeRemoved(sourceId, element.getId(), key);
+            } else {
+                sendEdgeAttributeChanged(sourceId, element.getId(), key, oldValue, newValue);
+            }
+        }
+    }
+
+    /**
+     * Check if two values are equal, arrays being compared by content.
+     */
+    protected static boolean sameValue(Object a, Object b) {
+        return Arrays.deepEquals(new Object[]{a}, new Object[]{b});
+    }
+
+    protected static long key(int kind, int index, int keyId) {
+        return ((long) kind << 62) | ((long) index << 31) | (keyId + 1);
+    }
+
+    /**
+     * Set of non-negative longs, with open addressing. Clearing the set only costs the count of its elements,
+     * since the slots used are remembered.
+     */
+    protected static class LongSet {
+        static final long EMPTY = -1;
+
+        long[] slots;
+        int[] used;
+        int size;
+
+        LongSet() {
+            slots = new long[64];
+            used = new int[32];
+            size = 0;
+
+            Arrays.fill(slots, EMPTY);
+        }
+
+        boolean contains(long value) {
+            return slots[find(slots, value)] == value;
+        }
+
+        /**
+         * @return false if the value was already in the set
+         */
+        boolean add(long value) {
+            int slot = find(slots, value);
+
+            if (slots[slot] == value) {
+                return false;
+            }
+
+            if (size == used.length) {
+                rehash(slots.length << 1);
+                slot = find(slots, value);
+            }
+
+            slots[slot] = value;
+            used[size++] = slot;
+
+            return true;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                slots[used[i]] = EMPTY;
+            }
+
+            size = 0;
+        }
+
+        void rehash(int capacity) {
+            long[] old = slots;
+
+            slots = new long[capacity];
+            used = new int[capacity >> 1];
+            Arrays.fill(slots, EMPTY);
+            size = 0;
+
+            for (long value : old) {
+                if (value != EMPTY) {
+                    int slot = find(slots, value);
+
+                    slots[slot] = value;
+                    used[size++] = slot;
+                }
+            }
+        }
+
+        static int find(long[] slots, long value) {
+            long h = value * 0x9E3779B97F4A7C15L;
+            int mask = slots.length - 1, slot = (int) (h ^ (h >>> 32)) & mask;
+
+            while (slots[slot] != EMPTY && slots[slot] != value) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalElement;
+import org.graphstream.graph.TemporalNetwork;
+import org.graphstream.graph.TemporalNode;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Write a temporal network in a binary file which can be loaded back with {@link MappedTemporalNetwork}.
+ * <p/>
+ * The file is made of fixed-width columns, so that it can be read in place once mapped in memory. All numbers
+ * are big-endian. The file starts with a header :
+ * <pre>
+ * int MAGIC, int VERSION,
+ * int stringCount, int nodeCount, int edgeCount, int eventCount,
+ * long stringsOffset, long nodesOffset, long edgesOffset, long eventsOffset
+ * </pre>
+ * followed by the data of the elements, the event log, the string table, the node table and the edge table :
+ * <ul>
+ * <li>the string table holds the identifiers of the elements, the attribute keys and the string values, each
+ * as an int length followed by the UTF-8 bytes ; strings are then referred to by their rank in the table ;</li>
+ * <li>a node record is {@code int id, int windowCount, long windowsOffset, long attributesOffset}, and an edge
+ * record is {@code int id, int source, int target, int directed, int windowCount, long windowsOffset,
+ * long attributesOffset} ; the time-windows of an element are a column of start-dates followed by a column of
+ * end-dates ;</li>
+ * <li>the attributes of an element are an int count of keys followed by one {@code int key, int windowCount,
+ * long offset} record per key, or -1 if the element has no attribute ; the data of a key are the columns of
+ * start-dates, end-dates, value payloads (long) and value tags (byte) ;</li>
+ * <li>the event log is made of the columns of dates, types (byte), elements (int), keys (int, -1 for none),
+ * value payloads and value tags.</li>
+ * </ul>
+ * Values are encoded as {@link InlineValues} : numbers and booleans are stored in the payload, strings are
+ * stored in the string table and other values are serialized, the payload being the offset of the serialized
+ * object, stored as an int length followed by the bytes.
+ */
+public class TemporalNetworkWriter {
+    public static final int MAGIC = 0x4753544E;
+    public static final int VERSION = 1;
+
+    protected static final int HEADER_SIZE = 56;
+    protected static final int NODE_RECORD_SIZE = 24;
+    protected static final int EDGE_RECORD_SIZE = 36;
+    protected static final int KEY_RECORD_SIZE = 16;
+
+    protected final TemporalNetwork network;
+
+    protected final HashMap<String, Integer> stringIds;
+    protected final ArrayList<String> strings;
+
+    protected CountingOutputStream counter;
+    protected DataOutputStream out;
+
+    /**
+     * Time-windows and values of the timeline being written.
+     */
+    protected double[] starts;
+    protected double[] ends;
+    protected Object[] values;
+
+    public TemporalNetworkWriter(TemporalNetwork network) {
+        this.network = network;
+
+        stringIds = new HashMap<>();
+        strings = new ArrayList<>();
+
+        starts = new double[16];
+        ends = new double[16];
+        values = new Object[16];
+    }
+
+    /**
+     * Write the network in a file, replacing the file if it exists.
+     *
+     * @param file the file
+     * @throws IOException if the file can not be written, or if a value is neither a number, a boolean, a string
+     *                     nor serializable
+     */
+    public void write(File file) throws IOException {
+        int nodeCount = network.getTotalNodeCount();
+        int edgeCount = network.getTotalEdgeCount();
+        EventLog events = network.getEventLog();
+
+        long[] nodeWindows = new long[nodeCount], nodeAttributes = new long[nodeCount];
+        int[] nodeWindowCounts = new int[nodeCount];
+        long[] edgeWindows = new long[edgeCount], edgeAttributes = new long[edgeCount];
+        int[] edgeWindowCounts = new int[edgeCount];
+        long stringsOffset, nodesOffset, edgesOffset, eventsOffset;
+
+        stringIds.clear();
+        strings.clear();
+
+        for (int i = 0; i < nodeCount; i++) {
+            string(network.getTemporalNode(i).getId());
+        }
+
+        for (int i = 0; i < edgeCount; i++) {
+            string(network.getTemporalEdge(i).getId());
+        }
+
+        try (FileOutputStream stream = new FileOutputStream(file)) {
+            counter = new CountingOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            out = new DataOutputStream(counter);
+
+            out.write(new byte[HEADER_SIZE]);
+
+            for (int i = 0; i < nodeCount; i++) {
+                TemporalNode node = network.getTemporalNode(i);
+
+                nodeWindows[i] = counter.count;
+                nodeWindowCounts[i] = writeWindows(node);
+                nodeAttributes[i] = writeAttributes(node.getAttributesTimeline());
+            }
+
+            for (int i = 0; i < edgeCount; i++) {
+                TemporalEdge edge = network.getTemporalEdge(i);
+
+                edgeWindows[i] = counter.count;
+                edgeWindowCounts[i] = writeWindows(edge);
+                edgeAttributes[i] = writeAttributes(edge.getAttributesTimeline());
+            }
+
+            eventsOffset = writeEvents(events);
+
+            stringsOffset = counter.count;
+
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            nodesOffset = counter.count;
+
+            for (int i = 0; i < nodeCount; i++) {
+                out.writeInt(string(network.getTemporalNode(i).getId()));
+                out.writeInt(nodeWindowCounts[i]);
+                out.writeLong(nodeWindows[i]);
+                out.writeLong(nodeAttributes[i]);
+            }
+
+            edgesOffset = counter.count;
+
+            for (int i = 0; i < edgeCount; i++) {
+                TemporalEdge edge = network.getTemporalEdge(i);
+
+                out.writeInt(string(edge.getId()));
+                out.writeInt(edge.getSourceNode().getIndex());
+                out.writeInt(edge.getTargetNode().getIndex());
+                out.writeInt(edge.isDirected() ? 1 : 0);
+                out.writeInt(edgeWindowCounts[i]);
+                out.writeLong(edgeWindows[i]);
+                out.writeLong(edgeAttributes[i]);
+            }
+
+            out.flush();
+        } finally {
+            out = null;
+            counter = null;
+            Arrays.fill(values, null);
+        }
+
+        try (RandomAccessFile header = new RandomAccessFile(file, "rw")) {
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(strings.size());
+            header.writeInt(nodeCount);
+            header.writeInt(edgeCount);
+            header.writeInt(events.size());
+            header.writeLong(stringsOffset);
+            header.writeLong(nodesOffset);
+            header.writeLong(edgesOffset);
+            header.writeLong(eventsOffset);
+        }
+    }
+
+    /**
+     * Write the time-windows of an element.
+     *
+     * @return the count of time-windows
+     */
+    protected int writeWindows(TemporalElement element) throws IOException {
+        int count = collect(element.getElementTimeline(), false);
+
+        for (int i = 0; i < count; i++) {
+            out.writeDouble(starts[i]);
+        }
+
+        for (int i = 0; i < count; i++) {
+            out.writeDouble(ends[i]);
+        }
+
+        return count;
+    }
+
+    /**
+     * Write the timelines of the attributes of an element.
+     *
+     * @return the offset of the key records, or -1 if the element has no attribute
+     */
+    protected long writeAttributes(AttributesTimeline attributes) throws IOException {
+        Set<String> keys = attributes.getKeys();
+
+        if (keys.isEmpty()) {
+            return -1;
+        }
+
+        int[] keyIds = new int[keys.size()];
+        int[] counts = new int[keys.size()];
+        long[] offsets = new long[keys.size()];
+        int k = 0;
+
+        for (String key : keys) {
+            int count = collect(attributes.getAttributeTimeline(key), true);
+            long[] payloads = new long[count];
+            byte[] tags = new byte[count];
+
+            for (int i = 0; i < count; i++) {
+                tags[i] = InlineValues.tagOf(values[i]);
+                payloads[i] = payloadOf(values[i], tags[i]);
+            }
+
+            keyIds[k] = string(key);
+            counts[k] = count;
+            offsets[k] = counter.count;
+
+            for (int i = 0; i < count; i++) {
+                out.writeDouble(starts[i]);
+            }
+
+            for (int i = 0; i < count; i++) {
+                out.writeDouble(ends[i]);
+            }
+
+            for (int i = 0; i < count; i++) {
+                out.writeLong(payloads[i]);
+            }
+
+            out.write(tags);
+            k++;
+        }
+
+        long offset = counter.count;
+        out.writeInt(keys.size());
+
+        for (int i = 0; i < keyIds.length; i++) {
+            out.writeInt(keyIds[i]);
+            out.writeInt(counts[i]);
+            out.writeLong(offsets[i]);
+        }
+
+        return offset;
+    }
+
+    /**
+     * Write the columns of the event log.
+     *
+     * @return the offset of the first column
+     */
+    protected long writeEvents(EventLog events) throws IOException {
+        int size = events.size();
+        long[] payloads = new long[size];
+        byte[] tags = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            tags[i] = InlineValues.tagOf(events.getValue(i));
+            payloads[i] = payloadOf(events.getValue(i), tags[i]);
+        }
+
+        long offset = counter.count;
+
+        for (int i = 0; i < size; i++) {
+            out.writeDouble(events.getDate(i));
+        }
+
+        for (int i = 0; i < size; i++) {
+            out.writeByte(events.getType(i));
+        }
+
+        for (int i = 0; i < size; i++) {
+            out.writeInt(events.getElement(i));
+        }
+
+        for (int i = 0; i < size; i++) {
+            String key = events.getKey(i);
+            out.writeInt(key == null ? -1 : string(key));
+        }
+
+        for (int i = 0; i < size; i++) {
+            out.writeLong(payloads[i]);
+        }
+
+        out.write(tags);
+        return offset;
+    }
+
+    /**
+     * Copy the time-windows of a timeline, and their values if needed, in {@link #starts}, {@link #ends} and
+     * {@link #values}.
+     *
+     * @return the count of time-windows
+     */
+    protected int collect(TemporalTimeline<?> timeline, boolean withValues) {
+        int count = 0;
+
+        for (TimeWindow timeWindow : timeline) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count << 1);
+                ends = Arrays.copyOf(ends, count << 1);
+                values = Arrays.copyOf(values, count << 1);
+            }
+
+            starts[count] = timeWindow.getStartDate();
+            ends[count] = timeWindow.getEndDate();
+            values[count] = withValues ? timeline.getValueAt(timeWindow) : null;
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the payload of a value. Serialized objects are written at the current position of the file.
+     */
+    protected long payloadOf(Object value, byte tag) throws IOException {
+        switch (tag) {
+            case InlineValues.STRING:
+                return string((String) value);
+            case InlineValues.OBJECT:
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+                try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                    objects.writeObject(value);
+                }
+
+                long offset = counter.count;
+
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+
+                return offset;
+            default:
+                return InlineValues.payloadOf(value, tag);
+        }
+    }
+
+    /**
+     * Get the rank of a string in the string table, adding the string if needed.
+     */
+    protected int string(String s) {
+        Integer id = stringIds.get(s);
+
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(s, id);
+            strings.add(s);
+        }
+
+        return id;
+    }
+
+    /**
+     * Count the bytes written in a stream, giving the offsets in the file.
+     */
+    protected static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+            count = 0;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,783 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.TemporalNetwork;
+
+import java.util.Arrays;
+
+/**
+ * Time-respecting paths, or journeys, in a temporal network.
+ * <p/>
+ * A journey is a sequence of edges traversed one after the other : an edge can be taken at any date it exists
+ * (its endpoints existing too, as in the snapshots of the network), and a journey can wait on a node as long as
+ * needed before taking the next edge. Directed edges are only taken from their source to their target. Taking
+ * an edge lasts the value of a numeric attribute of the edge read at the date of departure, or nothing if no
+ * duration attribute is given or if the edge has no value at this date.
+ * <p/>
+ * Queries are label-setting searches, like Dijkstra's algorithm, ordered by dates rather than by distances :
+ * {@link #earliestArrival(int, double)} settles nodes by ascending arrival date from a source, and
+ * {@link #latestDeparture(int, double)} settles nodes by descending departure date towards a target. Each edge
+ * is relaxed once per settled endpoint with a binary search in its time-windows, which makes a query
+ * O(E log V) plus the binary searches. {@link #fastestDurations(int, double, double)} settles, by ascending
+ * arrival date, the latest departures from the source by which nodes are reached, and relaxes the edges once per
+ * change of these departures. Searches are exact as long as leaving later on an edge never arrives earlier,
+ * which is always true for durations that are constant over each time-window of the duration attribute.
+ * <p/>
+ * Queries run on a {@link FrozenTemporalNetwork}, so that time-windows and incident edges are read in flat
+ * arrays. An instance can be shared between threads.
+ */
+public class TemporalPaths {
+    protected final FrozenTemporalNetwork network;
+    protected final AttributeColumn durations;
+
+    /**
+     * Build the paths of a network whose edges are taken instantly. The network is frozen first.
+     */
+    public TemporalPaths(TemporalNetwork network) {
+        this(new FrozenTemporalNetwork(network), null);
+    }
+
+    /**
+     * @param network     the network
+     * @param durationKey key of the numeric edge attribute giving the time it takes to traverse an edge, or
+     *                    null if edges are taken instantly
+     */
+    public TemporalPaths(FrozenTemporalNetwork network, String durationKey) {
+        this.network = network;
+        this.durations = durationKey == null ? null : network.getEdgeColumn(durationKey);
+    }
+
+    public FrozenTemporalNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Find the earliest date at which each node can be reached from a source, leaving the source at a date or
+     * later.
+     *
+     * @param source index of the source node
+     * @param date   date from which the source can be left
+     * @return the journeys from the source, the time of a node being its earliest arrival date
+     */
+    public Journeys earliestArrival(int source, double date) {
+        return earliestArrival(source, date, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Find the latest date at which each node can be left to reach a target by a deadline.
+     *
+     * @param target   index of the target node
+     * @param deadline date by which the target must be reached
+     * @return the journeys to the target, the time of a node being its latest departure date
+     */
+    public Journeys latestDeparture(int target, double deadline) {
+        return latestDeparture(target, deadline, -1, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Find the latest date at which each node can be left to reach a target by a deadline, one of the nodes
+     * having to be left before a date.
+     *
+     * @param bounded     node whose departures are bounded, or -1
+     * @param leaveBefore date before which this node must be left
+     */
+    protected Journeys latestDeparture(int target, double deadline, int bounded, double leaveBefore) {
+        checkDate(deadline);
+
+        int n = network.getNodeCount();
+        Journeys journeys = new Journeys(target, false, n);
+        DateQueue queue = new DateQueue();
+
+        Arrays.fill(journeys.times, Double.NEGATIVE_INFINITY);
+        journeys.times[target] = deadline;
+        journeys.origins[target] = deadline;
+        queue.push(-deadline, target);
+
+        while (!queue.isEmpty()) {
+            double latest = -queue.peekKey();
+            int v = queue.pop();
+
+            if (latest < journeys.times[v]) {
+                continue;
+            }
+
+            for (int i = 0; i < network.getIncidentEdgeCount(v); i++) {
+                int edge = network.getIncidentEdge(v, i);
+                int u = network.getOpposite(edge, v);
+
+                if (u == v || (network.isDirected(edge) && network.getTarget(edge) != v)) {
+                    continue;
+                }
+
+                double bound = u == bounded ? leaveBefore : Double.POSITIVE_INFINITY;
+                double departure = latestDepartureOn(edge, latest, bound);
+
+                if (Double.isNaN(departure)) {
+                    continue;
+                }
+
+                double origin = v == target ? departure + getDuration(edge, departure) : journeys.origins[v];
+
+                if (departure > journeys.times[u]
+                        || (departure == journeys.times[u] && origin < journeys.origins[u])) {
+                    journeys.times[u] = departure;
+                    journeys.origins[u] = origin;
+                    journeys.edges[u] = edge;
+                    queue.push(-departure, u);
+                }
+            }
+        }
+
+        return journeys;
+    }
+
+    /**
+     * Find the duration of the fastest journey from a source to each node, leaving the source in a period.
+     * <p/>
+     * A single search follows, for each node and each date, the latest departure from the source by which the
+     * node can be reached at this date, see {@link FastestSearch}. The fastest journey to a node is the one
+     * whose arrival is the furthest behind this latest departure.
+     *
+     * @param source index of the source node
+     * @param from   start of the period in which the source can be left
+     * @param to     end of the period, exclusive
+     * @return the durations indexed by node, positive infinity for the nodes which can not be reached
+     */
+    public double[] fastestDurations(int source, double from, double to) {
+        return new FastestSearch(source, from, to).run().durations;
+    }
+
+    /**
+     * Find a fastest journey from a source to a target, leaving the source in a period.
+     * <p/>
+     * The arrival date of the fastest journey is found as in {@link #fastestDurations(int, double, double)},
+     * then the latest departure from the source, within the period, still arriving by this date.
+     *
+     * @param source index of the source node
+     * @param target index of the target node
+     * @param from   start of the period in which the source can be left
+     * @param to     end of the period, exclusive
+     * @return the journeys to the target by the arrival date of the fastest journey, in which the journey of
+     * the source is the fastest one, or null if the target can not be reached
+     */
+    public Journeys fastestPath(int source, int target, double from, double to) {
+        FastestSearch search = new FastestSearch(source, from, to).run();
+
+        if (Double.isInfinite(search.durations[target])) {
+            return null;
+        }
+
+        return latestDeparture(target, search.arrivals[target], source, to);
+    }
+
+    /**
+     * Search the earliest arrivals from a source, leaving the source before a date.
+     */
+    protected Journeys earliestArrival(int source, double date, double leaveBefore) {
+        checkDate(date);
+
+        int n = network.getNodeCount();
+        Journeys journeys = new Journeys(source, true, n);
+        DateQueue queue = new DateQueue();
+
+        Arrays.fill(journeys.times, Double.POSITIVE_INFINITY);
+        journeys.times[source] = date;
+        journeys.origins[source] = date;
+        queue.push(date, source);
+
+        while (!queue.isEmpty()) {
+            double earliest = queue.peekKey();
+            int u = queue.pop();
+
+            if (earliest > journeys.times[u]) {
+                continue;
+            }
+
+            for (int i = 0; i < network.getIncidentEdgeCount(u); i++) {
+                int edge = network.getIncidentEdge(u, i);
+                int v = network.getOpposite(edge, u);
+
+                if (u == v || (network.isDirected(edge) && network.getSource(edge) != u)) {
+                    continue;
+                }
+
+                int window = network.getEdgeWindowFrom(edge, earliest);
+
+                if (window == network.getEdgeWindowCount(edge)) {
+                    continue;
+                }
+
+                double departure = Math.max(earliest, network.getEdgeWindowStart(edge, window));
+
+                if (u == source && departure >= leaveBefore) {
+                    continue;
+                }
+
+                double arrival = departure + getDuration(edge, departure);
+                double origin = u == source ? departure : journeys.origins[u];
+
+                if (arrival < journeys.times[v] || (arrival == journeys.times[v] && origin > journeys.origins[v])) {
+                    journeys.times[v] = arrival;
+                    journeys.origins[v] = origin;
+                    journeys.edges[v] = edge;
+                    queue.push(arrival, v);
+                }
+            }
+        }
+
+        return journeys;
+    }
+
+    /**
+     * Get the latest date at which an edge can be taken to arrive by a date.
+     *
+     * @param leaveBefore date before which the edge must be taken
+     * @return the date, or NaN if there is none
+     */
+    protected double latestDepartureOn(int edge, double arriveBy, double leaveBefore) {
+        for (int w = network.getEdgeWindowBefore(edge, arriveBy); w >= 0; w--) {
+            double start = network.getEdgeWindowStart(edge, w);
+            double end = Math.min(network.getEdgeWindowEnd(edge, w), leaveBefore);
+            double departure = end > arriveBy ? arriveBy : Math.nextAfter(end, Double.NEGATIVE_INFINITY);
+            double duration = getDuration(edge, departure);
+
+            if (departure + duration > arriveBy) {
+                departure = arriveBy - duration;
+            }
+
+            if (departure >= start && departure + getDuration(edge, departure) <= arriveBy) {
+                return departure;
+            }
+        }
+
+        return Double.NaN;
+    }
+
+    /**
+     * Get the time it takes to traverse an edge leaving at a date.
+     *
+     * @throws IllegalStateException if the duration is negative
+     */
+    protected double getDuration(int edge, double date) {
+        if (durations == null) {
+            return 0;
+        }
+
+        double duration = durations.getNumberAt(edge, date);
+
+        if (duration < 0) {
+            throw new IllegalStateException(String.format("negative duration %f on edge \"%s\" at %f", duration,
+                    network.getEdgeId(edge), date));
+        }
+
+        return Double.isNaN(duration) ? 0 : duration;
+    }
+
+    /**
+     * Get the first date after a date at which the time it takes to traverse an edge may change.
+     */
+    protected double getDurationChange(int edge, double date) {
+        return durations == null ? Double.POSITIVE_INFINITY : durations.getNextChangeAfter(edge, date);
+    }
+
+    protected static void checkDate(double date) {
+        if (Double.isNaN(date) || Double.isInfinite(date)) {
+            throw new IllegalArgumentException("invalid date : " + date);
+        }
+    }
+
+    /**
+     * Journeys from a source to all the nodes, or from all the nodes to a target.
+     * <p/>
+     * Each reached node has a time, which is the earliest arrival date for journeys from a source or the latest
+     * departure date for journeys to a target, and the edge by which the journey reaches the node or leaves
+     * it. The date at which the journey leaves the source, or reaches the target, is kept as well.
+     */
+    public static class Journeys {
+        protected final int root;
+        protected final boolean forward;
+        protected final double[] times;
+        protected final double[] origins;
+        protected final int[] edges;
+
+        Journeys(int root, boolean forward, int nodeCount) {
+            this.root = root;
+            this.forward = forward;
+            this.times = new double[nodeCount];
+            this.origins = new double[nodeCount];
+            this.edges = new int[nodeCount];
+
+            Arrays.fill(edges, -1);
+        }
+
+        /**
+         * The source of the journeys, or their target.
+         */
+        public int getRoot() {
+            return root;
+        }
+
+        /**
+         * True for journeys from a source, false for journeys to a target.
+         */
+        public boolean isForward() {
+            return forward;
+        }
+
+        public boolean isReached(int node) {
+            return !Double.isInfinite(times[node]);
+        }
+
+        /**
+         * Earliest arrival date at a node, or latest departure date from a node.
+         *
+         * @return the date, or an infinity of the appropriate sign if the node is not reached
+         */
+        public double getTime(int node) {
+            return times[node];
+        }
+
+        /**
+         * Date at which the journey of a node leaves the source, or reaches the target.
+         */
+        public double getOriginDate(int node) {
+            return origins[node];
+        }
+
+        /**
+         * Time between the departure and the arrival of the journey of a node.
+         */
+        public double getDuration(int node) {
+            return forward ? times[node] - origins[node] : origins[node] - times[node];
+        }
+
+        /**
+         * Edge by which the journey reaches a node, or leaves it.
+         *
+         * @return the index of the edge, or -1 for the root and the nodes which are not reached
+         */
+        public int getEdge(int node) {
+            return edges[node];
+        }
+
+        /**
+         * Get the edges of the journey of a node, in the order they are taken.
+         *
+         * @return the indices of the edges, or null if the node is not reached
+         */
+        public int[] getPath(int node, FrozenTemporalNetwork network) {
+            if (!isReached(node)) {
+                return null;
+            }
+
+            int length = 0;
+
+            for (int v = node; v != root; v = network.getOpposite(edges[v], v)) {
+                length++;
+            }
+
+            int[] path = new int[length];
+            int v = node;
+
+            for (int i = 0; i < length; i++) {
+                path[forward ? length - 1 - i : i] = edges[v];
+                v = network.getOpposite(edges[v], v);
+            }
+
+            return path;
+        }
+    }
+
+    /**
+     * Search of the fastest journeys from a source, leaving it in a period.
+     * <p/>
+     * For a node v and a date t, let L(v, t) be the latest departure from the source of the journeys reaching v
+     * by t. The fastest journey to v takes t - L(v, t) for the date t minimizing it. The search builds L(v, .)
+     * with labels of two kinds :
+     * <ul>
+     * <li>points, a journey leaving the source at a date and reaching a node at a later date ;</li>
+     * <li>intervals, the journeys reaching a node at each date of an interval, leaving the source a constant lag
+     * earlier, which happens while no journey waits. The source has one interval, with no lag, over the
+     * period.</li>
+     * </ul>
+     * Labels are settled by ascending arrival, or start of interval, and a label is dropped, or its interval
+     * shortened, where the node has already been reached by journeys leaving the source later. Following an
+     * edge, a point takes the first time-window of the edge after its arrival ; an interval gives an interval
+     * for the part of each time-window it overlaps, split where the duration of the edge changes, and a point
+     * for the journeys waiting for the start of each time-window, which only keeps the latest of them.
+     * <p/>
+     * Like the other searches, it is exact as long as leaving later on an edge never arrives earlier.
+     */
+    protected class FastestSearch {
+        final int source;
+        final double from, to;
+
+        /**
+         * Duration of the fastest journey to each node, with its departure and its arrival.
+         */
+        final double[] durations;
+        final double[] departures;
+        final double[] arrivals;
+
+        /**
+         * Latest departure from the source of the settled points of each node and of its settled intervals which
+         * are over, and the intervals of each node which may not be over, as linked lists : openHeads[v] is the
+         * first interval of v, and openNext[x] the interval following x.
+         */
+        final double[] latest;
+        final int[] openHeads;
+        int[] openNext;
+
+        /**
+         * Labels : node, arrival or start of the interval, end of the interval, and the departure from the source
+         * of a point or the lag of an interval.
+         */
+        int[] labelNodes;
+        double[] labelStarts;
+        double[] labelEnds;
+        double[] labelValues;
+        boolean[] labelIntervals;
+        int labelCount;
+
+        final DateQueue queue;
+
+        FastestSearch(int source, double from, double to) {
+            checkDate(from);
+
+            int n = network.getNodeCount();
+
+            this.source = source;
+            this.from = from;
+            this.to = to;
+
+            durations = new double[n];
+            departures = new double[n];
+            arrivals = new double[n];
+            latest = new double[n];
+            openHeads = new int[n];
+            openNext = new int[16];
+            labelNodes = new int[16];
+            labelStarts = new double[16];
+            labelEnds = new double[16];
+            labelValues = new double[16];
+            labelIntervals = new boolean[16];
+            queue = new DateQueue();
+
+            Arrays.fill(durations, Double.POSITIVE_INFINITY);
+            Arrays.fill(departures, Double.NaN);
+            Arrays.fill(arrivals, Double.NaN);
+            Arrays.fill(latest, Double.NEGATIVE_INFINITY);
+            Arrays.fill(openHeads, -1);
+        }
+
+        FastestSearch run() {
+            if (to > from) {
+                addLabel(source, from, to, 0, true);
+            }
+
+            while (!queue.isEmpty()) {
+                int x = queue.pop();
+                int u = labelNodes[x];
+                double start = labelStarts[x];
+
+                closeIntervals(u, start);
+
+                if (labelIntervals[x]) {
+                    double lag = labelValues[x];
+
+                    start = Math.max(start, Math.max(coveredUntil(u, lag), latest[u] + lag));
+
+                    if (!(start < labelEnds[x])) {
+                        continue;
+                    }
+
+                    labelStarts[x] = start;
+                    openNext[x] = openHeads[u];
+                    openHeads[u] = x;
+
+                    reach(u, lag, start - lag, start);
+                    followInterval(x);
+                } else {
+                    double departure = labelValues[x];
+
+                    if (departure <= latestAt(u, start)) {
+                        continue;
+                    }
+
+                    latest[u] = departure;
+
+                    reach(u, start - departure, departure, start);
+                    followPoint(x);
+                }
+            }
+
+            return this;
+        }
+
+        void reach(int v, double duration, double departure, double arrival) {
+            if (duration < durations[v]) {
+                durations[v] = duration;
+                departures[v] = departure;
+                arrivals[v] = arrival;
+            }
+        }
+
+        void followPoint(int x) {
+            int u = labelNodes[x];
+            double time = labelStarts[x];
+
+            for (int i = 0; i < network.getIncidentEdgeCount(u); i++) {
+                int edge = network.getIncidentEdge(u, i);
+                int v = network.getOpposite(edge, u);
+
+                if (u == v || (network.isDirected(edge) && network.getSource(edge) != u)) {
+                    continue;
+                }
+
+                int window = network.getEdgeWindowFrom(edge, time);
+
+                if (window < network.getEdgeWindowCount(edge)) {
+                    double departure = Math.max(time, network.getEdgeWindowStart(edge, window));
+                    addLabel(v, departure + getDuration(edge, departure), 0, labelValues[x], false);
+                }
+            }
+        }
+
+        void followInterval(int x) {
+            int u = labelNodes[x];
+            double first = labelStarts[x], last = labelEnds[x], lag = labelValues[x];
+
+            for (int i = 0; i < network.getIncidentEdgeCount(u); i++) {
+                int edge = network.getIncidentEdge(u, i);
+                int v = network.getOpposite(edge, u);
+
+                if (u == v || (network.isDirected(edge) && network.getSource(edge) != u)) {
+                    continue;
+                }
+
+                double time = first;
+
+                for (int w = network.getEdgeWindowFrom(edge, first); w < network.getEdgeWindowCount(edge)
+                        && time < last; w++) {
+                    double start = network.getEdgeWindowStart(edge, w);
+                    double end = network.getEdgeWindowEnd(edge, w);
+
+                    if (time < start) {
+                        // the journeys arriving before the window wait for it, the latest one leaving last
+                        double waiting = Math.nextAfter(Math.min(last, start), Double.NEGATIVE_INFINITY);
+                        addLabel(v, start + getDuration(edge, start), 0, waiting - lag, false);
+                    }
+
+                    for (double d = Math.max(time, start), bound = Math.min(last, end); d < bound; ) {
+                        double duration = getDuration(edge, d);
+                        double change = Math.min(bound, getDurationChange(edge, d));
+
+                        if (d + duration < change + duration) {
+                            addLabel(v, d + duration, change + duration, lag + duration, true);
+                        }
+
+                        d = change;
+                    }
+
+                    time = end;
+                }
+            }
+        }
+
+        /**
+         * Fold the intervals of a node which are over at a date in its latest departure.
+         */
+        void closeIntervals(int v, double date) {
+            int previous = -1;
+
+            for (int x = openHeads[v]; x >= 0; x = openNext[x]) {
+                if (labelEnds[x] <= date) {
+                    double last = Math.nextAfter(labelEnds[x], Double.NEGATIVE_INFINITY) - labelValues[x];
+                    latest[v] = Math.max(latest[v], last);
+
+                    if (previous < 0) {
+                        openHeads[v] = openNext[x];
+                    } else {
+                        openNext[previous] = openNext[x];
+                    }
+                } else {
+                    previous = x;
+                }
+            }
+        }
+
+        /**
+         * End of the open intervals of a node whose lag is at most a given lag. They all started before the
+         * label being settled, which they cover up to this date.
+         */
+        double coveredUntil(int v, double lag) {
+            double until = Double.NEGATIVE_INFINITY;
+
+            for (int x = openHeads[v]; x >= 0; x = openNext[x]) {
+                if (labelValues[x] <= lag) {
+                    until = Math.max(until, labelEnds[x]);
+                }
+            }
+
+            return until;
+        }
+
+        /**
+         * Latest departure from the source of the settled journeys reaching a node by a date.
+         */
+        double latestAt(int v, double date) {
+            double departure = latest[v];
+
+            for (int x = openHeads[v]; x >= 0; x = openNext[x]) {
+                departure = Math.max(departure, date - labelValues[x]);
+            }
+
+            return departure;
+        }
+
+        void addLabel(int node, double start, double end, double value, boolean interval) {
+            if (labelCount == labelNodes.length) {
+                int capacity = labelCount << 1;
+
+                openNext = Arrays.copyOf(openNext, capacity);
+                labelNodes = Arrays.copyOf(labelNodes, capacity);
+                labelStarts = Arrays.copyOf(labelStarts, capacity);
+                labelEnds = Arrays.copyOf(labelEnds, capacity);
+                labelValues = Arrays.copyOf(labelValues, capacity);
+                labelIntervals = Arrays.copyOf(labelIntervals, capacity);
+            }
+
+            int x = labelCount++;
+
+            labelNodes[x] = node;
+            labelStarts[x] = start;
+            labelEnds[x] = end;
+            labelValues[x] = value;
+            labelIntervals[x] = interval;
+
+            // at the same date, intervals come first as they may cover the points
+            queue.push(start, interval ? 0 : 1, x);
+        }
+    }
+
+    /**
+     * Binary heap of nodes ordered by date, then by rank, where a node is pushed again rather than moved when
+     * its date improves. Stale entries are skipped when popped.
+     */
+    protected static final class DateQueue {
+        double[] keys = new double[16];
+        int[] ranks = new int[16];
+        int[] nodes = new int[16];
+        int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double peekKey() {
+            return keys[0];
+        }
+
+        int peekRank() {
+            return ranks[0];
+        }
+
+        void push(double key, int node) {
+            push(key, 0, node);
+        }
+
+        void push(double key, int rank, int node) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                ranks = Arrays.copyOf(ranks, size << 1);
+                nodes = Arrays.copyOf(nodes, size << 1);
+            }
+
+            int i = size++;
+
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+
+                if (!before(key, rank, keys[parent], ranks[parent])) {
+                    break;
+                }
+
+                set(i, keys[parent], ranks[parent], nodes[parent]);
+                i = parent;
+            }
+
+            set(i, key, rank, node);
+        }
+
+        int pop() {
+            int top = nodes[0];
+            double key = keys[--size];
+            int rank = ranks[size];
+            int node = nodes[size];
+            int i = 0;
+
+            while (true) {
+                int child = 2 * i + 1;
+
+                if (child >= size) {
+                    break;
+                }
+
+                if (child + 1 < size && before(keys[child + 1], ranks[child + 1], keys[child], ranks[child])) {
+                    child++;
+                }
+
+                if (!before(keys[child], ranks[child], key, rank)) {
+                    break;
+                }
+
+                set(i, keys[child], ranks[child], nodes[child]);
+                i = child;
+            }
+
+            set(i, key, rank, node);
+
+            return top;
+        }
+
+        static boolean before(double key, int rank, double otherKey, int otherRank) {
+            return key < otherKey || (key == otherKey && rank < otherRank);
+        }
+
+        void set(int i, double key, int rank, int node) {
+            keys[i] = key;
+            ranks[i] = rank;
+            nodes[i] = node;
+        }
+    }
+}
@@ -0,0 +1,651 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Temporal reachability from all the nodes of a network at once, during a period.
+ * <p/>
+ * A node reaches another one if a journey, as defined by {@link TemporalPaths}, leaves the first one at the
+ * start of the period or later and arrives at the second one before the end of the period. Edges are taken
+ * instantly, so the reachability only changes at the dates where an edge appears or disappears : the period is
+ * cut at these dates into intervals during which the set of existing edges is constant, and the reachability
+ * is propagated through the edges of each interval, one interval after the other. Sets of nodes only grow
+ * during the sweep, so each interval only propagates from the nodes whose set has changed.
+ * <p/>
+ * Two kinds of sweeps are available :
+ * <ul>
+ * <li>{@link #visit(BlockVisitor, ForkJoinPool)} and {@link #countReachable(ForkJoinPool)} sweep the intervals
+ * forward, each node holding a bitset of the sources reaching it. Sources are handled by blocks of
+ * {@link #BLOCK_SIZE}, each block being swept by a task of a {@link ForkJoinPool} ;</li>
+ * <li>{@link #estimateReachable(int, ForkJoinPool)} sweeps the intervals backward, each node holding a
+ * HyperLogLog sketch of the nodes it reaches. The registers of the sketches are split between the threads of
+ * the pool : each sweep only propagates its range of registers, which only depends on the nodes hashed to
+ * these registers, so the sweeps write disjoint parts of the same sketches and nothing has to be merged. This
+ * gives approximate counts in a memory independent of the count of nodes per sketch.</li>
+ * </ul>
+ * The dates of the sweep are computed once when this object is built and shared by the tasks.
+ */
+public class TemporalReachability {
+    /**
+     * Count of words of the bitsets of a block of sources.
+     */
+    protected static final int BLOCK_WORDS = 4;
+    /**
+     * Count of sources swept together in the forward sweeps.
+     */
+    public static final int BLOCK_SIZE = BLOCK_WORDS * Long.SIZE;
+
+    protected final FrozenTemporalNetwork network;
+    protected final double from;
+    protected final double to;
+
+    /**
+     * Dates at which the set of existing edges changes, the first one being the start of the period. The
+     * edges whose time-window starts at dates[i] are those between enterOffsets[i] and enterOffsets[i + 1]
+     * in enterEdges, the edges whose time-window ends at dates[i] are stored the same way. Index
+     * dates.length stands for the end of the period.
+     */
+    protected final double[] dates;
+    protected final int[] enterOffsets;
+    protected final int[] enterEdges;
+    protected final int[] leaveOffsets;
+    protected final int[] leaveEdges;
+
+    /**
+     * @param network the network
+     * @param from    start of the period
+     * @param to      end of the period, exclusive
+     */
+    public TemporalReachability(FrozenTemporalNetwork network, double from, double to) {
+        if (!(to > from) || Double.isInfinite(from)) {
+            throw new IllegalArgumentException(String.format("invalid period [%f;%f[", from, to));
+        }
+
+        this.network = network;
+        this.from = from;
+        this.to = to;
+
+        int windowCount = 0;
+        double[] changes = new double[16];
+        int changeCount = 0;
+
+        changes[changeCount++] = from;
+
+        for (int e = 0; e < network.getEdgeCount(); e++) {
+            for (int w = network.getEdgeWindowFrom(e, from); w < network.getEdgeWindowCount(e); w++) {
+                double start = network.getEdgeWindowStart(e, w), end = network.getEdgeWindowEnd(e, w);
+
+                if (start >= to) {
+                    break;
+                }
+
+                if (changeCount + 2 > changes.length) {
+                    changes = Arrays.copyOf(changes, changes.length << 1);
+                }
+
+                changes[changeCount++] = Math.max(start, from);
+
+                if (end < to) {
+                    changes[changeCount++] = end;
+                }
+
+                windowCount++;
+            }
+        }
+
+        Arrays.sort(changes, 0, changeCount);
+
+        int distinct = 0;
+
+        for (int i = 0; i < changeCount; i++) {
+            if (distinct == 0 || changes[i] != changes[distinct - 1]) {
+                changes[distinct++] = changes[i];
+            }
+        }
+
+        dates = Arrays.copyOf(changes, distinct);
+        enterOffsets = new int[distinct + 2];
+        leaveOffsets = new int[distinct + 2];
+        enterEdges = new int[windowCount];
+        leaveEdges = new int[windowCount];
+
+        // Count the windows entering and leaving at each date, then fill them in.
+        for (int pass = 0; pass < 2; pass++) {
+            int[] enterNext = pass == 0 ? null : Arrays.copyOf(enterOffsets, enterOffsets.length);
+            int[] leaveNext = pass == 0 ? null : Arrays.copyOf(leaveOffsets, leaveOffsets.length);
+
+            for (int e = 0; e < network.getEdgeCount(); e++) {
+                for (int w = network.getEdgeWindowFrom(e, from); w < network.getEdgeWindowCount(e); w++) {
+                    double start = network.getEdgeWindowStart(e, w), end = network.getEdgeWindowEnd(e, w);
+
+                    if (start >= to) {
+                        break;
+                    }
+
+                    int enter = dateIndex(Math.max(start, from));
+                    int leave = end < to ? dateIndex(end) : distinct;
+
+                    if (pass == 0) {
+                        enterOffsets[enter + 1]++;
+                        leaveOffsets[leave + 1]++;
+                    } else {
+                        enterEdges[enterNext[enter]++] = e;
+                        leaveEdges[leaveNext[leave]++] = e;
+                    }
+                }
+            }
+
+            if (pass == 0) {
+                for (int i = 0; i <= distinct; i++) {
+                    enterOffsets[i + 1] += enterOffsets[i];
+                    leaveOffsets[i + 1] += leaveOffsets[i];
+                }
+            }
+        }
+    }
+
+    public FrozenTemporalNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Count of intervals during which the set of existing edges is constant.
+     */
+    public int getIntervalCount() {
+        return dates.length;
+    }
+
+    /**
+     * Count the nodes reachable from each node, using the common pool.
+     *
+     * @return the counts, indexed by source node
+     */
+    public int[] countReachable() {
+        return countReachable(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Count the nodes reachable from each node during the period, not counting the node itself.
+     *
+     * @param pool the pool running the sweeps
+     * @return the counts, indexed by source node
+     */
+    public int[] countReachable(ForkJoinPool pool) {
+        final int[] counts = new int[network.getNodeCount()];
+
+        visit(new BlockVisitor() {
+            @Override
+            public void visit(int firstSource, int sourceCount, long[] reached) {
+                for (int v = 0; v < counts.length; v++) {
+                    for (int w = 0; w < BLOCK_WORDS; w++) {
+                        long bits = reached[v * BLOCK_WORDS + w];
+
+                        while (bits != 0) {
+                            int source = firstSource + w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+
+                            if (source != v) {
+                                counts[source]++;
+                            }
+
+                            bits &= bits - 1;
+                        }
+                    }
+                }
+            }
+        }, pool);
+
+        return counts;
+    }
+
+    /**
+     * Compute the nodes reached by each block of sources, and hand them to a visitor. Blocks are swept by the
+     * tasks of a pool, so the visitor is called by several threads at the same time.
+     *
+     * @param visitor the visitor of the blocks
+     * @param pool    the pool running the sweeps
+     */
+    public void visit(BlockVisitor visitor, ForkJoinPool pool) {
+        int blocks = (network.getNodeCount() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        pool.invoke(new BlockTask(visitor, 0, blocks));
+    }
+
+    /**
+     * Estimate the count of nodes reachable from each node with HyperLogLog sketches, using the common pool.
+     *
+     * @param precision log2 of the count of registers of the sketches, between 4 and 16
+     * @return the estimated counts, indexed by source node
+     */
+    public double[] estimateReachable(int precision) {
+        return estimateReachable(precision, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Estimate the count of nodes reachable from each node during the period, not counting the node itself.
+     * Each node holds a sketch of 2<sup>precision</sup> bytes, whatever the count of threads of the pool, and
+     * the relative standard error of the estimates is about 1.04 / sqrt(2<sup>precision</sup>).
+     *
+     * @param precision log2 of the count of registers of the sketches, between 4 and 16
+     * @param pool      the pool running the sweeps
+     * @return the estimated counts, indexed by source node
+     * @throws IllegalArgumentException if the precision is out of range, or if the sketches of all the nodes
+     *                                  do not fit in an array
+     */
+    public double[] estimateReachable(int precision, ForkJoinPool pool) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 4 and 16 : " + precision);
+        }
+
+        int n = network.getNodeCount(), m = 1 << precision;
+
+        if ((long) n * m > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("sketches of precision " + precision + " are too large for "
+                    + n + " nodes");
+        }
+
+        int parts = Math.max(1, Math.min(pool.getParallelism(), m));
+        byte[] sketches = new byte[n * m];
+        double[] estimates = new double[n];
+
+        pool.invoke(new SketchTask(precision, sketches, parts, 0, parts));
+
+
+        for (int v = 0; v < n; v++) {
+            estimates[v] = Math.max(0, estimate(sketches, v * m, m) - 1);
+        }
+
+        return estimates;
+    }
+
+    /**
+     * Index of a date of {@link #dates}.
+     */
+    protected int dateIndex(double date) {
+        return Arrays.binarySearch(dates, date);
+    }
+
+    /**
+     * Sweep the intervals forward for a block of sources.
+     *
+     * @return the bitsets of the sources reaching each node
+     */
+    protected long[] sweepForward(int firstSource) {
+        int n = network.getNodeCount();
+        long[] reached = new long[n * BLOCK_WORDS];
+        Propagation propagation = new Propagation(true);
+
+        for (int i = 0; i < BLOCK_SIZE && firstSource + i < n; i++) {
+            reached[(firstSource + i) * BLOCK_WORDS + i / Long.SIZE] |= 1L << (i % Long.SIZE);
+        }
+
+        for (int d = 0; d < dates.length; d++) {
+            propagation.deactivate(leaveEdges, leaveOffsets[d], leaveOffsets[d + 1]);
+            propagation.activate(enterEdges, enterOffsets[d], enterOffsets[d + 1]);
+            propagation.run(reached, BLOCK_WORDS);
+        }
+
+        return reached;
+    }
+
+    /**
+     * Sweep the intervals backward for a range of registers of the sketches. A register only depends on the
+     * nodes hashed to it, so the ranges can be swept independently.
+     *
+     * @param sketches      the sketches, 2<sup>precision</sup> registers per node, of which only the range is
+     *                      written
+     * @param firstRegister first register of the range
+     * @param lastRegister  end of the range, exclusive
+     */
+    protected void sweepBackward(int precision, byte[] sketches, int firstRegister, int lastRegister) {
+        int n = network.getNodeCount(), m = 1 << precision;
+        Propagation propagation = new Propagation(false);
+
+        for (int v = 0; v < n; v++) {
+            long hash = hash(v);
+            int register = (int) (hash >>> (Long.SIZE - precision));
+            int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+
+            if (register >= firstRegister && register < lastRegister) {
+                sketches[v * m + register] = (byte) rank;
+            }
+        }
+
+        for (int d = dates.length - 1; d >= 0; d--) {
+            propagation.deactivate(enterEdges, enterOffsets[d + 1], enterOffsets[d + 2]);
+            propagation.activate(leaveEdges, leaveOffsets[d + 1], leaveOffsets[d + 2]);
+            propagation.run(sketches, m, firstRegister, lastRegister);
+        }
+    }
+
+    /**
+     * Mix the bits of a node index, so that the registers and ranks of the nodes are evenly distributed.
+     */
+    protected static long hash(int node) {
+        long h = node * 0x9E3779B97F4A7C15L;
+
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+
+    /**
+     * Estimate the cardinality of a sketch, with the linear counting correction for small cardinalities.
+     */
+    protected static double estimate(byte[] sketches, int offset, int m) {
+        double sum = 0;
+        int zeros = 0;
+
+        for (int r = offset; r < offset + m; r++) {
+            sum += Math.scalb(1.0, -sketches[r]);
+
+            if (sketches[r] == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+
+        return estimate;
+    }
+
+    /**
+     * Visitor of the nodes reached by a block of sources.
+     */
+    public interface BlockVisitor {
+        /**
+         * Visit a block of sources. Bit b of reached[v * {@link #BLOCK_WORDS} + w] is set if the source
+         * firstSource + 64 * w + b reaches the node v, every node reaching itself. The array is not used
+         * anymore once this method returns.
+         *
+         * @param firstSource index of the first source of the block
+         * @param sourceCount count of sources of the block, at most {@link #BLOCK_SIZE}
+         * @param reached     the bitsets of the sources reaching each node
+         */
+        void visit(int firstSource, int sourceCount, long[] reached);
+    }
+
+    /**
+     * Propagation of the sets of the nodes along the edges existing during an interval. Sets are stored in
+     * an array, stride elements per node, and merged with a bitwise or for bitsets and a maximum for
+     * sketches. Forward propagation goes from the source of an edge to its target, backward propagation the
+     * other way, both ways for undirected edges.
+     * <p/>
+     * Each node keeps the list of its incident edges existing during the interval, in its slice of an array
+     * sized by the incidence of the nodes, so propagating from a node only walks its existing edges. An edge
+     * knows its position in the lists of its endpoints, so it is removed in constant time. Loops never
+     * propagate anything, so they are not listed.
+     */
+    protected class Propagation {
+        final boolean forward;
+
+        final int[] incidenceOffsets;
+        final int[] activeEdges;
+        final int[] activeCounts;
+        final int[] sourcePositions;
+        final int[] targetPositions;
+
+        final int[] queue;
+        final boolean[] queued;
+        int head, tail, size;
+
+        Propagation(boolean forward) {
+            int n = network.getNodeCount();
+
+            this.forward = forward;
+
+            incidenceOffsets = new int[n + 1];
+
+            for (int u = 0; u < n; u++) {
+                incidenceOffsets[u + 1] = incidenceOffsets[u] + network.getIncidentEdgeCount(u);
+            }
+
+            activeEdges = new int[incidenceOffsets[n]];
+            activeCounts = new int[n];
+            sourcePositions = new int[network.getEdgeCount()];
+            targetPositions = new int[network.getEdgeCount()];
+            Arrays.fill(sourcePositions, -1);
+            Arrays.fill(targetPositions, -1);
+
+            queue = new int[n];
+            queued = new boolean[n];
+            head = tail = size = 0;
+        }
+
+        void activate(int[] edges, int from, int to) {
+            for (int i = from; i < to; i++) {
+                int e = edges[i], source = network.getSource(e), target = network.getTarget(e);
+
+                if (source != target && sourcePositions[e] < 0) {
+                    sourcePositions[e] = add(source, e);
+                    targetPositions[e] = add(target, e);
+                }
+
+                enqueue(source);
+                enqueue(target);
+            }
+        }
+
+        void deactivate(int[] edges, int from, int to) {
+            for (int i = from; i < to; i++) {
+                int e = edges[i];
+
+                if (sourcePositions[e] >= 0) {
+                    remove(network.getSource(e), sourcePositions[e]);
+                    remove(network.getTarget(e), targetPositions[e]);
+                    sourcePositions[e] = targetPositions[e] = -1;
+                }
+            }
+        }
+
+        /**
+         * Add an edge to the existing edges of a node.
+         *
+         * @return the position of the edge in the list of the node
+         */
+        int add(int u, int e) {
+            int p = incidenceOffsets[u] + activeCounts[u]++;
+
+            activeEdges[p] = e;
+            return p;
+        }
+
+        /**
+         * Remove the edge at a position of the list of a node, moving the last edge of the list there.
+         */
+        void remove(int u, int p) {
+            int last = incidenceOffsets[u] + --activeCounts[u], moved = activeEdges[last];
+
+            activeEdges[p] = moved;
+
+            if (network.getSource(moved) == u) {
+                sourcePositions[moved] = p;
+            } else {
+                targetPositions[moved] = p;
+            }
+        }
+
+        void enqueue(int node) {
+            if (!queued[node]) {
+                queued[node] = true;
+                queue[tail] = node;
+                tail = tail + 1 == queue.length ? 0 : tail + 1;
+                size++;
+            }
+        }
+
+        int dequeue() {
+            int node = queue[head];
+
+            head = head + 1 == queue.length ? 0 : head + 1;
+            size--;
+            queued[node] = false;
+
+            return node;
+        }
+
+        void run(long[] sets, int stride) {
+            while (size > 0) {
+                int u = dequeue();
+
+                for (int i = incidenceOffsets[u], end = i + activeCounts[u]; i < end; i++) {
+                    int e = activeEdges[i], v = network.getOpposite(e, u);
+
+                    if (canFlow(e, u) && merge(sets, stride, u, v)) {
+                        enqueue(v);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Propagate a range of the registers of the sketches.
+         */
+        void run(byte[] sets, int stride, int first, int last) {
+            while (size > 0) {
+                int u = dequeue();
+
+                for (int i = incidenceOffsets[u], end = i + activeCounts[u]; i < end; i++) {
+                    int e = activeEdges[i], v = network.getOpposite(e, u);
+
+                    if (canFlow(e, u) && merge(sets, stride, first, last, u, v)) {
+                        enqueue(v);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Check if the set of a node flows through an edge to the other endpoint.
+         */
+        boolean canFlow(int e, int u) {
+            return !network.isDirected(e) || (forward ? network.getSource(e) : network.getTarget(e)) == u;
+        }
+
+        boolean merge(long[] sets, int stride, int u, int v) {
+            boolean changed = false;
+
+            for (int w = 0; w < stride; w++) {
+                long merged = sets[v * stride + w] | sets[u * stride + w];
+
+                if (merged != sets[v * stride + w]) {
+                    sets[v * stride + w] = merged;
+                    changed = true;
+                }
+            }
+
+            return changed;
+        }
+
+        boolean merge(byte[] sets, int stride, int first, int last, int u, int v) {
+            boolean changed = false;
+
+            for (int r = first; r < last; r++) {
+                if (sets[u * stride + r] > sets[v * stride + r]) {
+                    sets[v * stride + r] = sets[u * stride + r];
+                    changed = true;
+                }
+            }
+
+            return changed;
+        }
+    }
+
+    /**
+     * Sweep a range of blocks of sources, splitting it in halves down to a single block.
+     */
+    protected class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        protected final BlockVisitor visitor;
+        protected final int from, to;
+
+        BlockTask(BlockVisitor visitor, int from, int to) {
+            this.visitor = visitor;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int first = from * BLOCK_SIZE;
+                visitor.visit(first, Math.min(BLOCK_SIZE, network.getNodeCount() - first), sweepForward(first));
+            } else if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BlockTask(visitor, from, mid), new BlockTask(visitor, mid, to));
+            }
+        }
+    }
+
+    /**
+     * Sweep a range of parts of the registers of the sketches, splitting it in halves down to a single part.
+     */
+    protected class SketchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        protected final int precision;
+        protected final byte[] sketches;
+        protected final int parts, from, to;
+
+        SketchTask(int precision, byte[] sketches, int parts, int from, int to) {
+            this.precision = precision;
+            this.sketches = sketches;
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int m = 1 << precision;
+                sweepBackward(precision, sketches, m * from / parts, m * to / parts);
+            } else if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SketchTask(precision, sketches, parts, from, mid),
+                        new SketchTask(precision, sketches, parts, mid, to));
+            }
+        }
+    }
+}
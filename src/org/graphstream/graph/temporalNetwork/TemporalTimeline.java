@@ -43,13 +43,48 @@ import java.util.logging.Logger;
 public class TemporalTimeline<T> implements Iterable<TimeWindow> {
     private static final Logger LOGGER = Logger.getLogger(TemporalTimeline.class.getName());
 
+    /**
+     * Date wrappers used to search the tree. Lookups only need a key to compare with the time-windows of the
+     * tree, so each thread reuses its own wrapper instead of allocating a new one with
+     * {@link TimeWindow#wrapDate(double)} for every lookup.
+     */
+    private static final ThreadLocal<TimeWindow> PROBES = new ThreadLocal<TimeWindow>() {
+        @Override
+        protected TimeWindow initialValue() {
+            return TimeWindow.wrapDate(0);
+        }
+    };
+
+    /**
+     * Get the date wrapper of the current thread, set to the given date.
+     *
+     * @param date the date to wrap
+     * @return a time-window modeling date
+     */
+    protected static TimeWindow probe(double date) {
+        TimeWindow probe = PROBES.get();
+        probe.startDate = date;
+
+        return probe;
+    }
+
     /**
      * The binary search tree that will handle time-windows and their associated values.
      */
     protected NavigableMap<TimeWindow, T> mapping;
 
     public TemporalTimeline() {
-        mapping = new TreeMap<>();
+        this(new TreeMap<TimeWindow, T>());
+    }
+
+    /**
+     * Build a timeline on top of a given mapping. Sub-classes which do not use a map to store their
+     * time-windows may give a null mapping.
+     *
+     * @param mapping the map that will handle time-windows
+     */
+    protected TemporalTimeline(NavigableMap<TimeWindow, T> mapping) {
+        this.mapping = mapping;
     }
 
     /*
@@ -68,7 +103,7 @@ public class TemporalTimeline<T> implements Iterable<TimeWindow> {
      * @return the value associated with the time-window containing date
      */
     public T getValueAt(double date) {
-        return mapping.get(TimeWindow.wrapDate(date));
+        return mapping.get(probe(date));
     }
 
     /**
@@ -92,7 +127,16 @@ public class TemporalTimeline<T> implements Iterable<TimeWindow> {
      * @return true if there is a time-window containing date, else false
      */
     public boolean existsAt(double date) {
-        return mapping.containsKey(TimeWindow.wrapDate(date));
+        return mapping.containsKey(probe(date));
+    }
+
+    /**
+     * Check if the last time-window of this timeline is not ended yet.
+     *
+     * @return true if the timeline ends with a time-window without end-date
+     */
+    public boolean hasOpenTimeWindow() {
+        return !mapping.isEmpty() && !mapping.lastKey().isEnded();
     }
 
     /**
@@ -154,7 +198,7 @@ public class TemporalTimeline<T> implements Iterable<TimeWindow> {
      * @return
      */
     public TimeWindow getCeilingTimeWindow(double date) {
-        return mapping.ceilingKey(TimeWindow.wrapDate(date));
+        return mapping.ceilingKey(probe(date));
     }
 
     /**
@@ -164,7 +208,7 @@ public class TemporalTimeline<T> implements Iterable<TimeWindow> {
      * @return
      */
     public TimeWindow getFloorTimeWindow(double date) {
-        return mapping.floorKey(TimeWindow.wrapDate(date));
+        return mapping.floorKey(probe(date));
     }
 
     protected class HookedTimeWindow extends TimeWindow {
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalNode;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sequence of the commits of a versioned network, and registry of the readers pinning one of them.
+ * <p/>
+ * Changes are done in the sequence following the last commit, see {@link #getWriteSequence()}, and become
+ * visible to new readers when they are committed. A {@link ConcurrentTemporalTimeline} using a clock keeps the
+ * previous states of its content, each tagged with the sequence in which it was written, so that a reader
+ * pinning a commit reads the content of the timeline as it was at this commit while the writers go on. States
+ * which can not be read anymore, because they are older than the oldest pinned commit and have been replaced
+ * since, are dropped by the writers.
+ */
+public class VersionClock {
+    protected volatile Commit commit;
+    protected final ConcurrentHashMap<Object, Long> pins;
+
+    public VersionClock() {
+        commit = new Commit(0, new TemporalNode[0], 0, new TemporalEdge[0], 0);
+        pins = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The last commit, which is the one new readers pin.
+     */
+    public Commit getCommit() {
+        return commit;
+    }
+
+    /**
+     * Sequence of the changes done since the last commit.
+     */
+    public long getWriteSequence() {
+        return commit.sequence + 1;
+    }
+
+    /**
+     * Make the changes done since the last commit visible. Writers must not be changing the network while it
+     * is committed.
+     * <p/>
+     * The arrays of the elements are published with the commit : the network replaces its arrays when they
+     * grow, so readers of other threads get the elements from the commit they pin, which is read through a
+     * volatile field, rather than from the fields of the network.
+     *
+     * @param nodes     nodes of the network, by index
+     * @param nodeCount count of nodes of the network
+     * @param edges     edges of the network, by index
+     * @param edgeCount count of edges of the network
+     * @return the new commit
+     */
+    public synchronized Commit commit(TemporalNode[] nodes, int nodeCount, TemporalEdge[] edges, int edgeCount) {
+        commit = new Commit(commit.sequence + 1, nodes, nodeCount, edges, edgeCount);
+        return commit;
+    }
+
+    /**
+     * Pin the last commit for a reader, until {@link #release(Object)} is called.
+     * <p/>
+     * The pin is registered before the commit is checked again, so either a writer dropping old states sees
+     * the pin, or the reader sees the newer commit of this writer and pins it instead.
+     *
+     * @param reader the reader, used as the key of the pin
+     * @return the pinned commit
+     */
+    public Commit pin(Object reader) {
+        while (true) {
+            Commit pinned = commit;
+            pins.put(reader, pinned.sequence);
+
+            if (commit == pinned) {
+                return pinned;
+            }
+        }
+    }
+
+    /**
+     * Release the commit pinned by a reader.
+     */
+    public void release(Object reader) {
+        pins.remove(reader);
+    }
+
+    /**
+     * Count of readers pinning a commit.
+     */
+    public int getPinCount() {
+        return pins.size();
+    }
+
+    /**
+     * Sequence of the oldest commit which can still be read : states older than the last state written before
+     * or in this sequence can be dropped.
+     */
+    public long getOldestReadable() {
+        long oldest = commit.sequence;
+
+        for (Long sequence : pins.values()) {
+            oldest = Math.min(oldest, sequence);
+        }
+
+        return oldest;
+    }
+
+    /**
+     * A commit of the network : its sequence, and the count of elements the network had.
+     */
+    public static final class Commit {
+        protected final long sequence;
+        protected final TemporalNode[] nodes;
+        protected final int nodeCount;
+        protected final TemporalEdge[] edges;
+        protected final int edgeCount;
+
+        Commit(long sequence, TemporalNode[] nodes, int nodeCount, TemporalEdge[] edges, int edgeCount) {
+            this.sequence = sequence;
+            this.nodes = nodes;
+            this.nodeCount = nodeCount;
+            this.edges = edges;
+            this.edgeCount = edgeCount;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        public int getEdgeCount() {
+            return edgeCount;
+        }
+
+        /**
+         * Get a node of the commit, whose index is below the count of nodes of the commit.
+         */
+        public TemporalNode getNode(int index) {
+            return nodes[index];
+        }
+
+        /**
+         * Get an edge of the commit, whose index is below the count of edges of the commit.
+         */
+        public TemporalEdge getEdge(int index) {
+            return edges[index];
+        }
+    }
+}
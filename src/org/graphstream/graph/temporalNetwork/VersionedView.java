@@ -0,0 +1,403 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import org.graphstream.graph.Element;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.TemporalEdge;
+import org.graphstream.graph.TemporalElement;
+import org.graphstream.graph.TemporalNode;
+import org.graphstream.graph.implementations.MultiGraph;
+
+import java.util.Arrays;
+
+/**
+ * Read-only view of a versioned network as it was at one of its commits, see
+ * {@link DefaultTemporalNetwork#pin()}.
+ * <p/>
+ * The view holds a pin on the commit, so the previous states of the timelines needed to read it are kept until
+ * the view is closed. It only sees the elements which existed at the commit, and reads their timelines as they
+ * were at the commit : changes done afterwards, committed or not, are invisible. Elements are read by index
+ * only, so that the view does not use the structures of the network which are not safe for concurrent
+ * reads. A view can be used by several threads, and must be closed once done with, otherwise the network keeps
+ * all the states written since the commit.
+ * <p/>
+ * The structure of the commit is indexed the first time a graph is built : the time-windows of the nodes and
+ * edges, as they were at the commit, go in two {@link IntervalIndex}, and their bounds give the no-change
+ * intervals of the commit. A graph is then built from the elements of its no-change interval only, and the
+ * elements of the last interval read are kept, so that building the graphs of the dates of one interval does
+ * not query the indexes again.
+ */
+public class VersionedView implements AutoCloseable {
+    protected final DefaultTemporalNetwork network;
+    protected final VersionClock clock;
+    protected final VersionClock.Commit commit;
+    protected volatile boolean closed;
+
+    /**
+     * Time-windows of the elements at the commit, or null if they have not been indexed yet.
+     */
+    protected volatile Structure structure;
+    /**
+     * Elements of the last no-change interval read, or null.
+     */
+    protected volatile Interval lastInterval;
+
+    /**
+     * Pin the last commit of a network having a version clock.
+     */
+    public VersionedView(DefaultTemporalNetwork network) {
+        this.network = network;
+        this.clock = network.getVersionClock();
+        this.commit = clock.pin(this);
+        this.closed = false;
+    }
+
+    /**
+     * Sequence of the commit read by this view.
+     */
+    public long getSequence() {
+        return commit.getSequence();
+    }
+
+    /**
+     * Count of nodes of the network at the commit, the indices of these nodes are below this count.
+     */
+    public int getNodeCount() {
+        return commit.getNodeCount();
+    }
+
+    /**
+     * Count of edges of the network at the commit, the indices of these edges are below this count.
+     */
+    public int getEdgeCount() {
+        return commit.getEdgeCount();
+    }
+
+    public String getNodeId(int node) {
+        return getNode(node).getId();
+    }
+
+    public String getEdgeId(int edge) {
+        return getEdge(edge).getId();
+    }
+
+    public int getSource(int edge) {
+        return getEdge(edge).getSourceNode().getIndex();
+    }
+
+    public int getTarget(int edge) {
+        return getEdge(edge).getTargetNode().getIndex();
+    }
+
+    public boolean nodeExistsAt(int node, double date) {
+        return existsAt(getNode(node), date);
+    }
+
+    public boolean edgeExistsAt(int edge, double date) {
+        return existsAt(getEdge(edge), date);
+    }
+
+    public <T> T getNodeAttributeAt(int node, String key, double date) {
+        return getAttributeAt(getNode(node), key, date);
+    }
+
+    public <T> T getEdgeAttributeAt(int edge, String key, double date) {
+        return getAttributeAt(getEdge(edge), key, date);
+    }
+
+    /**
+     * Build the graph of the network at a date, as it was at the commit : the nodes existing at this date, the
+     * edges existing at this date whose endpoints both exist, and their attributes. This is the graph
+     * {@link SnapshotCursor} would have built at this date on the network when it was committed.
+     *
+     * @param date the date
+     * @return a new graph
+     */
+    public Graph getGraphAt(double date) {
+        Interval interval = getIntervalAt(date);
+        Graph graph = new MultiGraph(String.format("version%d@%s", getSequence(), date), true, false,
+                interval.nodes.length, interval.edges.length);
+
+        for (int i : interval.nodes) {
+            TemporalNode node = getNode(i);
+            copyAttributes(node, date, graph.addNode(node.getId()));
+        }
+
+        for (int i : interval.edges) {
+            TemporalEdge edge = getEdge(i);
+            copyAttributes(edge, date, graph.addEdge(edge.getId(), edge.getSourceNode().getId(),
+                    edge.getTargetNode().getId(), edge.isDirected()));
+        }
+
+        return graph;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Release the pin of this view. The view can not be read anymore.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            clock.release(this);
+        }
+    }
+
+    protected TemporalNode getNode(int node) {
+        checkIndex(node, getNodeCount(), "node");
+        return commit.getNode(node);
+    }
+
+    protected TemporalEdge getEdge(int edge) {
+        checkIndex(edge, getEdgeCount(), "edge");
+        return commit.getEdge(edge);
+    }
+
+    protected void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("the view is closed");
+        }
+    }
+
+    protected void checkIndex(int index, int count, String type) {
+        checkOpen();
+
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(type + " index " + index + " out of [0;" + count + "[");
+        }
+    }
+
+    protected boolean existsAt(TemporalElement element, double date) {
+        return ((ConcurrentTemporalTimeline<?>) element.getElementTimeline()).existsAt(date, getSequence());
+    }
+
+    protected <T> T getAttributeAt(TemporalElement element, String key, double date) {
+        return ((ConcurrentAttributesTimeline) element.getAttributesTimeline()).getAttributeAt(key, date,
+                getSequence());
+    }
+
+    protected void copyAttributes(TemporalElement element, double date, Element e) {
+        ConcurrentAttributesTimeline attributes = (ConcurrentAttributesTimeline) element.getAttributesTimeline();
+        ConcurrentAttributesTimeline.Slots slots = attributes.slotsAt(getSequence());
+
+        for (int i = 0; i < slots.keys.length; i++) {
+            Object value = ((ConcurrentTemporalTimeline<?>) slots.timelines[i]).getValueAt(date, getSequence());
+
+            if (value != null) {
+                e.setAttribute(attributes.getKeyDictionary().getKey(slots.keys[i]), value);
+            }
+        }
+    }
+
+    /**
+     * Get the elements of the no-change interval of the commit containing a date.
+     */
+    protected Interval getIntervalAt(double date) {
+        checkOpen();
+
+        Interval interval = lastInterval;
+
+        if (interval == null || date < interval.start || date >= interval.end) {
+            Structure s = structure;
+
+            if (s == null) {
+                s = buildStructure();
+            }
+
+            interval = s.intervalAt(date);
+            lastInterval = interval;
+        }
+
+        return interval;
+    }
+
+    protected synchronized Structure buildStructure() {
+        if (structure == null) {
+            structure = new Structure();
+        }
+
+        return structure;
+    }
+
+    /**
+     * Time-windows of the nodes and edges as they were at the commit, with the sorted dates at which the
+     * structure changes.
+     */
+    protected class Structure {
+        protected final IntervalIndex nodes;
+        protected final IntervalIndex edges;
+        protected final double[] dates;
+
+        protected Structure() {
+            int nodeCount = getNodeCount(), edgeCount = getEdgeCount();
+            Windows windows = new Windows();
+
+            for (int i = 0; i < nodeCount; i++) {
+                windows.add(commit.getNode(i), i);
+            }
+
+            nodes = windows.toIndex();
+            windows.clear();
+
+            for (int i = 0; i < edgeCount; i++) {
+                windows.add(commit.getEdge(i), i);
+            }
+
+            edges = windows.toIndex();
+            dates = windows.dates();
+        }
+
+        protected Interval intervalAt(double date) {
+            int i = EventLog.floorIndex(dates, dates.length, date);
+            double start = i >= 0 ? dates[i] : Double.NEGATIVE_INFINITY;
+            double end = i + 1 < dates.length ? dates[i + 1] : Double.POSITIVE_INFINITY;
+
+            int[] nodeIndices = nodes.getIdsAt(date);
+            boolean[] exists = new boolean[getNodeCount()];
+
+            Arrays.sort(nodeIndices);
+
+            for (int node : nodeIndices) {
+                exists[node] = true;
+            }
+
+            //
+            // An edge is in the graph only if both its endpoints are.
+            //
+            int[] edgeIndices = edges.getIdsAt(date);
+            int edgeCount = 0;
+
+            for (int edge : edgeIndices) {
+                TemporalEdge e = commit.getEdge(edge);
+
+                if (exists[e.getSourceNode().getIndex()] && exists[e.getTargetNode().getIndex()]) {
+                    edgeIndices[edgeCount++] = edge;
+                }
+            }
+
+            edgeIndices = Arrays.copyOf(edgeIndices, edgeCount);
+            Arrays.sort(edgeIndices);
+
+            return new Interval(start, end, nodeIndices, edgeIndices);
+        }
+    }
+
+    /**
+     * Buffer of time-windows read at the commit, and of all their bounds.
+     */
+    protected class Windows {
+        protected double[] starts = new double[16];
+        protected double[] ends = new double[16];
+        protected int[] ids = new int[16];
+        protected int size = 0;
+
+        protected double[] bounds = new double[32];
+        protected int boundCount = 0;
+
+        protected void add(TemporalElement element, int id) {
+            ConcurrentTemporalTimeline.State s = ((ConcurrentTemporalTimeline<?>) element.getElementTimeline())
+                    .stateAt(getSequence());
+
+            for (int j = 0; j < s.size(); j++) {
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, size << 1);
+                    ends = Arrays.copyOf(ends, size << 1);
+                    ids = Arrays.copyOf(ids, size << 1);
+                }
+
+                if (boundCount + 2 > bounds.length) {
+                    bounds = Arrays.copyOf(bounds, bounds.length << 1);
+                }
+
+                starts[size] = s.starts[j];
+                ends[size] = s.end(j);
+                ids[size++] = id;
+
+                bounds[boundCount++] = s.starts[j];
+
+                if (s.end(j) < Double.POSITIVE_INFINITY) {
+                    bounds[boundCount++] = s.end(j);
+                }
+            }
+        }
+
+        protected IntervalIndex toIndex() {
+            IntervalIndex index = new IntervalIndex(size);
+            index.addAll(starts, ends, ids, size);
+
+            return index;
+        }
+
+        protected void clear() {
+            size = 0;
+        }
+
+        /**
+         * Sorted distinct bounds of all the time-windows added.
+         */
+        protected double[] dates() {
+            Arrays.sort(bounds, 0, boundCount);
+
+            int m = 0;
+
+            for (int i = 0; i < boundCount; i++) {
+                if (m == 0 || bounds[i] != bounds[m - 1]) {
+                    bounds[m++] = bounds[i];
+                }
+            }
+
+            return Arrays.copyOf(bounds, m);
+        }
+    }
+
+    /**
+     * Indices of the nodes and edges of the graphs of the dates of [start;end[, in ascending order.
+     */
+    protected static class Interval {
+        protected final double start;
+        protected final double end;
+        protected final int[] nodes;
+        protected final int[] edges;
+
+        protected Interval(double start, double end, int[] nodes, int[] edges) {
+            this.start = start;
+            this.end = end;
+            this.nodes = nodes;
+            this.edges = edges;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ *
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ *
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ *
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.temporalNetwork;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Allocator of blocks of time-windows in direct memory, used by {@link OffHeapTemporalTimeline}.
+ * <p/>
+ * A time-window is a record of {@link #RECORD_SIZE} bytes : start-date, end-date, value payload and value tag.
+ * Blocks hold a power of two count of records and are carved out of large direct buffers, the chunks, so the
+ * garbage collector only sees a few buffers whatever the count of time-windows. Blocks which are freed, when a
+ * timeline grows or shrinks, are kept in a free list per size and reused before carving new blocks. Blocks
+ * larger than a chunk get a buffer of their own.
+ * <p/>
+ * A block is identified by a handle, giving the chunk and the offset of the block in the chunk. Allocation is
+ * synchronized, so a slab can be shared by the timelines of several networks.
+ */
+public class WindowSlab {
+    public static final int RECORD_SIZE = 32;
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    protected static final int START = 0;
+    protected static final int END = 8;
+    protected static final int PAYLOAD = 16;
+    protected static final int TAG = 24;
+
+    protected final int chunkSize;
+
+    protected ByteBuffer[] chunks;
+    protected int chunkCount;
+    /**
+     * Chunk where blocks are carved, and offset of its free space.
+     */
+    protected int currentChunk;
+    protected int chunkPosition;
+
+    /**
+     * Free blocks, by size class : the blocks of class k hold 2^k records.
+     */
+    protected long[][] freeBlocks;
+    protected int[] freeCounts;
+
+    protected long allocatedBytes;
+    protected long usedBytes;
+
+    public WindowSlab() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize size of the direct buffers, in bytes
+     */
+    public WindowSlab(int chunkSize) {
+        if (chunkSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("chunk size must be at least " + RECORD_SIZE);
+        }
+
+        this.chunkSize = chunkSize;
+
+        chunks = new ByteBuffer[8];
+        chunkCount = 0;
+        currentChunk = -1;
+        chunkPosition = chunkSize;
+
+        freeBlocks = new long[32][];
+        freeCounts = new int[32];
+    }
+
+    /**
+     * Size class of a block holding at least a count of records.
+     */
+    public static int sizeClass(int capacity) {
+        return capacity <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    }
+
+    /**
+     * Allocate a block of 2^sizeClass records. The content of the block is undefined.
+     *
+     * @return the handle of the block
+     */
+    public synchronized long allocate(int sizeClass) {
+        int bytes = RECORD_SIZE << sizeClass;
+
+        usedBytes += bytes;
+
+        if (freeCounts[sizeClass] > 0) {
+            return freeBlocks[sizeClass][--freeCounts[sizeClass]];
+        }
+
+        if (bytes > chunkSize) {
+            return handle(addChunk(bytes), 0);
+        }
+
+        if (chunkPosition + bytes > chunkSize) {
+            currentChunk = addChunk(chunkSize);
+            chunkPosition = 0;
+        }
+
+        long handle = handle(currentChunk, chunkPosition);
+        chunkPosition += bytes;
+
+        return handle;
+    }
+
+    /**
+     * Give a block back to the slab. The block must not be used anymore.
+     */
+    public synchronized void free(long handle, int sizeClass) {
+        usedBytes -= RECORD_SIZE << sizeClass;
+
+        if (freeBlocks[sizeClass] == null) {
+            freeBlocks[sizeClass] = new long[16];
+        } else if (freeCounts[sizeClass] == freeBlocks[sizeClass].length) {
+            freeBlocks[sizeClass] = Arrays.copyOf(freeBlocks[sizeClass], freeCounts[sizeClass] << 1);
+        }
+
+        freeBlocks[sizeClass][freeCounts[sizeClass]++] = handle;
+    }
+
+    /**
+     * Get the buffer holding a block. The buffer is shared : it must be accessed with absolute positions only.
+     */
+    public synchronized ByteBuffer chunk(long handle) {
+        return chunks[(int) (handle >>> 32)];
+    }
+
+    /**
+     * Offset of a block in its chunk.
+     */
+    public static int offset(long handle) {
+        return (int) handle;
+    }
+
+    /**
+     * Bytes of direct memory reserved by this slab.
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Bytes of direct memory held by blocks in use.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    protected int addChunk(int bytes) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount << 1);
+        }
+
+        chunks[chunkCount] = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        allocatedBytes += bytes;
+
+        return chunkCount++;
+    }
+
+    protected static long handle(int chunk, int offset) {
+        return ((long) chunk << 32) | (offset & 0xFFFFFFFFL);
+    }
+}